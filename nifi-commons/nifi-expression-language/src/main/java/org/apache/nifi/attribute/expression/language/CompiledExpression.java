@@ -19,8 +19,10 @@ package org.apache.nifi.attribute.expression.language;
 
 import org.antlr.runtime.tree.Tree;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.exception.AttributeExpressionLanguageException;
 import org.apache.nifi.expression.AttributeValueDecorator;
 
+import java.lang.invoke.MethodHandle;
 import java.util.Set;
 
 public class CompiledExpression implements Expression {
@@ -28,12 +30,23 @@ public class CompiledExpression implements Expression {
     private final Tree tree;
     private final String expression;
     private final Set<Evaluator<?>> allEvaluators;
+    private final MethodHandle compiledHandle;
 
     public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators) {
+        this(expression, rootEvaluator, tree, allEvaluators, null);
+    }
+
+    /**
+     * @param compiledHandle a handle of type {@code (EvaluationContext)String} that evaluates the expression in place of its Evaluators,
+     *                       or <code>null</code> if the expression is to be evaluated by interpreting its Evaluators
+     */
+    public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators,
+                              final MethodHandle compiledHandle) {
         this.rootEvaluator = rootEvaluator;
         this.tree = tree;
         this.expression = expression;
         this.allEvaluators = allEvaluators;
+        this.compiledHandle = compiledHandle;
     }
 
     public Evaluator<?> getRootEvaluator() {
@@ -53,8 +66,34 @@ public class CompiledExpression implements Expression {
         return allEvaluators;
     }
 
+    /**
+     * @return <code>true</code> if the expression is evaluated by a compiled handle rather than by interpreting its Evaluators
+     */
+    public boolean isCompiled() {
+        return compiledHandle != null;
+    }
+
     @Override
     public String evaluate(final EvaluationContext evaluationContext, final AttributeValueDecorator decorator) {
-        return Query.evaluateExpression(tree, rootEvaluator, expression, evaluationContext, decorator);
+        if (compiledHandle == null) {
+            return Query.evaluateExpression(tree, rootEvaluator, expression, evaluationContext, decorator);
+        }
+
+        final String value = evaluateCompiled(evaluationContext);
+        if (value == null) {
+            return null;
+        }
+
+        return decorator == null ? value : decorator.decorate(value);
+    }
+
+    private String evaluateCompiled(final EvaluationContext evaluationContext) {
+        try {
+            return (String) compiledHandle.invokeExact(evaluationContext);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new AttributeExpressionLanguageException("Failed to evaluate Expression " + expression, t);
+        }
     }
 }
@@ -40,4 +40,12 @@ public interface EvaluationContext {
     Parameter getParameter(String parameterName);
 
     EvaluatorState getEvaluatorState();
+
+    /**
+     * @return the scope in which the values of subexpressions are shared with other expressions that are evaluated against the same FlowFile,
+     * or <code>null</code> if values are not shared
+     */
+    default EvaluationScope getEvaluationScope() {
+        return null;
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language;
+
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.parameter.ParameterLookup;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Holds the values of the subexpressions that have been evaluated against a single FlowFile so that identical subexpressions
+ * in different properties of a component are evaluated only once. Components such as UpdateAttribute and RouteOnAttribute
+ * evaluate many properties against each FlowFile, and those properties frequently share subexpressions such as
+ * <code>${filename:substringBefore('.')}</code>.
+ * <p>
+ * Each thread has one scope, which is reset whenever it is used to evaluate a different FlowFile, additional attributes, or
+ * Parameters, or after the Parameters have been updated. A FlowFile cannot be modified, so a value remains valid for as long as
+ * the thread continues to evaluate the same FlowFile. Only subexpressions whose values depend on nothing but the FlowFile, the additional attributes, and the Parameters
+ * are stored in a scope.
+ * </p>
+ */
+public final class EvaluationScope {
+
+    /**
+     * The name of the system property that enables sharing the values of subexpressions when set to {@code true}.
+     */
+    public static final String SHARING_ENABLED_PROPERTY = "nifi.expression.language.subexpression.sharing.enabled";
+
+    private static final int MAX_VALUES = 1024;
+    private static final Object NULL_VALUE = new Object();
+    private static final ThreadLocal<EvaluationScope> SCOPES = ThreadLocal.withInitial(EvaluationScope::new);
+
+    private final Map<String, Object> values = new HashMap<>();
+    private WeakReference<FlowFile> flowFileReference = new WeakReference<>(null);
+    private Map<String, String> additionalAttributes;
+    private ParameterLookup parameterLookup;
+    private long parameterVersion;
+
+    private EvaluationScope() {
+    }
+
+    /**
+     * @return <code>true</code> if sharing the values of subexpressions has been enabled through the {@value #SHARING_ENABLED_PROPERTY} system property
+     */
+    public static boolean isSharingEnabled() {
+        return Boolean.getBoolean(SHARING_ENABLED_PROPERTY);
+    }
+
+    /**
+     * Returns the current thread's scope for evaluating expressions against the given FlowFile, discarding any values that were
+     * stored while evaluating a different FlowFile, different additional attributes, or different Parameters.
+     *
+     * @param flowFile the FlowFile that expressions are evaluated against
+     * @param additionalAttributes the additional attributes that expressions are evaluated against, or <code>null</code>
+     * @param parameterLookup the Parameters that expressions are evaluated against
+     * @return the scope, or <code>null</code> if no FlowFile is given
+     */
+    public static EvaluationScope forFlowFile(final FlowFile flowFile, final Map<String, String> additionalAttributes, final ParameterLookup parameterLookup) {
+        if (flowFile == null) {
+            return null;
+        }
+
+        final EvaluationScope scope = SCOPES.get();
+        // A Parameter Context is updated in place, so its version tells whether the Parameters have changed since values were stored
+        final long parameterVersion = parameterLookup == null ? 0L : parameterLookup.getVersion();
+        if (scope.flowFileReference.get() != flowFile || scope.parameterLookup != parameterLookup || scope.parameterVersion != parameterVersion
+                || !Objects.equals(scope.additionalAttributes, additionalAttributes)) {
+            scope.values.clear();
+            scope.flowFileReference = new WeakReference<>(flowFile);
+            // Callers such as ReplaceText reuse and modify the same Map, so the scope keeps a copy to compare against
+            scope.additionalAttributes = additionalAttributes == null ? null : new HashMap<>(additionalAttributes);
+            scope.parameterLookup = parameterLookup;
+            scope.parameterVersion = parameterVersion;
+        }
+
+        return scope;
+    }
+
+    /**
+     * @param key the canonical text of the subexpression
+     * @return <code>true</code> if a value has been stored for the subexpression, even if that value is <code>null</code>
+     */
+    public boolean containsValue(final String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * @param key the canonical text of the subexpression
+     * @return the value that has been stored for the subexpression, or <code>null</code> if it has none
+     */
+    public Object getValue(final String key) {
+        final Object value = values.get(key);
+        return value == NULL_VALUE ? null : value;
+    }
+
+    /**
+     * @param key the canonical text of the subexpression
+     * @param value the value of the subexpression
+     */
+    public void putValue(final String key, final Object value) {
+        if (values.size() >= MAX_VALUES) {
+            values.clear();
+        }
+        values.put(key, value == null ? NULL_VALUE : value);
+    }
+}
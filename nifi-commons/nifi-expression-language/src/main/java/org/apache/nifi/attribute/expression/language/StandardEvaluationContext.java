@@ -27,6 +27,7 @@ public class StandardEvaluationContext implements EvaluationContext {
     private final ValueLookup valueLookup;
     private final Map<String, String> stateMap;
     private final ParameterLookup parameterLookup;
+    private final EvaluationScope evaluationScope;
     private final EvaluatorState evaluatorState = new EvaluatorState();
 
     public StandardEvaluationContext(final Map<String, String> variables) {
@@ -38,9 +39,14 @@ public class StandardEvaluationContext implements EvaluationContext {
     }
 
     public StandardEvaluationContext(final ValueLookup valueLookup, final Map<String, String> stateMap, final ParameterLookup parameterLookup) {
+        this(valueLookup, stateMap, parameterLookup, null);
+    }
+
+    public StandardEvaluationContext(final ValueLookup valueLookup, final Map<String, String> stateMap, final ParameterLookup parameterLookup, final EvaluationScope evaluationScope) {
         this.valueLookup = valueLookup;
         this.stateMap = stateMap;
         this.parameterLookup = parameterLookup;
+        this.evaluationScope = evaluationScope;
     }
 
     @Override
@@ -67,4 +73,9 @@ public class StandardEvaluationContext implements EvaluationContext {
     public EvaluatorState getEvaluatorState() {
         return evaluatorState;
     }
+
+    @Override
+    public EvaluationScope getEvaluationScope() {
+        return evaluationScope;
+    }
 }
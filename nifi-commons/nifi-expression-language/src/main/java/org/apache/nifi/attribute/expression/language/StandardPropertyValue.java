@@ -172,7 +172,8 @@ public class StandardPropertyValue implements PropertyValue {
         }
 
         final ValueLookup lookup = new ValueLookup(flowFile, additionalAttributes);
-        final EvaluationContext evaluationContext = new StandardEvaluationContext(lookup, stateValues, parameterLookup);
+        final EvaluationScope evaluationScope = EvaluationScope.isSharingEnabled() ? EvaluationScope.forFlowFile(flowFile, additionalAttributes, parameterLookup) : null;
+        final EvaluationContext evaluationContext = new StandardEvaluationContext(lookup, stateValues, parameterLookup, evaluationScope);
         final String evaluated = preparedQuery.evaluateExpressions(evaluationContext, decorator);
 
         return new StandardPropertyValue(resourceContext, evaluated, serviceLookup, parameterLookup, new EmptyPreparedQuery(evaluated));
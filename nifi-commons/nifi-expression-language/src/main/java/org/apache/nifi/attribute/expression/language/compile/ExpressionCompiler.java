@@ -22,6 +22,7 @@ import org.antlr.runtime.CharStream;
 import org.antlr.runtime.CommonTokenStream;
 import org.antlr.runtime.tree.Tree;
 import org.apache.nifi.attribute.expression.language.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.EvaluationScope;
 import org.apache.nifi.attribute.expression.language.Query;
 import org.apache.nifi.attribute.expression.language.Query.Range;
 import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
@@ -29,12 +30,10 @@ import org.apache.nifi.attribute.expression.language.antlr.AttributeExpressionLe
 import org.apache.nifi.attribute.expression.language.antlr.AttributeExpressionParser;
 import org.apache.nifi.attribute.expression.language.evaluation.BooleanEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.DateEvaluator;
-import org.apache.nifi.attribute.expression.language.evaluation.DecimalEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.InstantEvaluator;
-import org.apache.nifi.attribute.expression.language.evaluation.NumberEvaluator;
-import org.apache.nifi.attribute.expression.language.evaluation.StringEvaluator;
-import org.apache.nifi.attribute.expression.language.evaluation.WholeNumberEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.QueryResult;
+import org.apache.nifi.attribute.expression.language.evaluation.ScopedEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.cast.BooleanCastEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.cast.DateCastEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.cast.DecimalCastEvaluator;
@@ -150,11 +149,13 @@ import org.apache.nifi.attribute.expression.language.exception.AttributeExpressi
 import org.apache.nifi.expression.AttributeExpression.ResultType;
 import org.apache.nifi.flowfile.FlowFile;
 
+import java.lang.invoke.MethodHandle;
 import java.net.UnknownHostException;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -278,6 +279,33 @@ import static org.apache.nifi.attribute.expression.language.antlr.AttributeExpre
 
 public class ExpressionCompiler {
     private final Set<Evaluator<?>> evaluators = new HashSet<>();
+    // Evaluators whose values depend only on the FlowFile, the additional attributes, and the Parameters
+    private final Set<Evaluator<?>> deterministicEvaluators = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final boolean compileMethodHandles;
+    private final boolean shareSubexpressions;
+
+    public ExpressionCompiler() {
+        this(MethodHandleCompiler.isCompilationEnabled());
+    }
+
+    /**
+     * @param compileMethodHandles whether compiled expressions should also be compiled by the {@link MethodHandleCompiler}
+     *                             rather than only being evaluated by interpreting their Evaluators
+     */
+    public ExpressionCompiler(final boolean compileMethodHandles) {
+        this(compileMethodHandles, EvaluationScope.isSharingEnabled());
+    }
+
+    /**
+     * @param compileMethodHandles whether compiled expressions should also be compiled by the {@link MethodHandleCompiler}
+     *                             rather than only being evaluated by interpreting their Evaluators
+     * @param shareSubexpressions whether the values of subexpressions should be shared through the {@link EvaluationScope} with other
+     *                            expressions that are evaluated against the same FlowFile
+     */
+    public ExpressionCompiler(final boolean compileMethodHandles, final boolean shareSubexpressions) {
+        this.compileMethodHandles = compileMethodHandles;
+        this.shareSubexpressions = shareSubexpressions;
+    }
 
     public CompiledExpression compile(final String expression) {
         try {
@@ -294,8 +322,10 @@ public class ExpressionCompiler {
 
             final Set<Evaluator<?>> allEvaluators = new HashSet<>(evaluators);
             this.evaluators.clear();
+            this.deterministicEvaluators.clear();
 
-            return new CompiledExpression(expression, evaluator, tree, allEvaluators);
+            final MethodHandle compiledHandle = compileMethodHandles ? MethodHandleCompiler.compile(evaluator, allEvaluators) : null;
+            return new CompiledExpression(expression, evaluator, tree, allEvaluators, compiledHandle);
         } catch (final AttributeExpressionLanguageParsingException e) {
             throw e;
         } catch (final Exception e) {
@@ -473,7 +503,92 @@ public class ExpressionCompiler {
         for (int i = 1; i < functionTree.getChildCount(); i++) {
             argEvaluators.add(buildEvaluator(functionTree.getChild(i)));
         }
-        return buildFunctionEvaluator(functionNameTree, subjectEvaluator, argEvaluators);
+        final Evaluator<?> functionEvaluator = buildFunctionEvaluator(functionNameTree, subjectEvaluator, argEvaluators);
+
+        if (!isDeterministicFunction(functionEvaluator) || !isDeterministic(subjectEvaluator) || !argEvaluators.stream().allMatch(this::isDeterministic)) {
+            return functionEvaluator;
+        }
+
+        if (isConstant(subjectEvaluator) && argEvaluators.stream().allMatch(this::isConstant)) {
+            final Evaluator<?> constantEvaluator = foldConstant(functionEvaluator);
+            if (constantEvaluator != null) {
+                return constantEvaluator;
+            }
+        }
+
+        deterministicEvaluators.add(functionEvaluator);
+        if (!shareSubexpressions || !ScopedEvaluator.isScopeable(functionEvaluator.getResultType())) {
+            return functionEvaluator;
+        }
+
+        final StringBuilder key = new StringBuilder();
+        for (int i = 0; i <= firstChildIndex; i++) {
+            appendCanonicalText(tree.getChild(i), key);
+        }
+        final Evaluator<?> scopedEvaluator = new ScopedEvaluator<>(functionEvaluator, key.toString());
+        deterministicEvaluators.add(scopedEvaluator);
+        return scopedEvaluator;
+    }
+
+    /**
+     * Appends text that identifies the given tree unambiguously, so that two subexpressions have the same text only if they are identical.
+     */
+    private void appendCanonicalText(final Tree tree, final StringBuilder builder) {
+        final String text = tree.getText() == null ? "" : tree.getText();
+        builder.append('(').append(tree.getType()).append(' ').append(text.length()).append(':').append(text);
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            appendCanonicalText(tree.getChild(i), builder);
+        }
+        builder.append(')');
+    }
+
+    private boolean isConstant(final Evaluator<?> evaluator) {
+        return evaluator instanceof StringLiteralEvaluator || evaluator instanceof BooleanLiteralEvaluator
+            || evaluator instanceof WholeNumberLiteralEvaluator || evaluator instanceof DecimalLiteralEvaluator;
+    }
+
+    private boolean isDeterministic(final Evaluator<?> evaluator) {
+        if (isConstant(evaluator) || evaluator instanceof ParameterEvaluator || deterministicEvaluators.contains(evaluator)) {
+            return true;
+        }
+        return evaluator instanceof AttributeEvaluator attributeEvaluator && isDeterministic(attributeEvaluator.getNameEvaluator());
+    }
+
+    /**
+     * @return <code>true</code> if the given function always returns the same value when it is applied to the same subject and arguments
+     */
+    private boolean isDeterministicFunction(final Evaluator<?> evaluator) {
+        return !(evaluator instanceof ReduceEvaluator || evaluator instanceof IteratingEvaluator || evaluator instanceof EvaluateELStringEvaluator
+            || evaluator instanceof MathEvaluator || evaluator instanceof RandomNumberGeneratorEvaluator);
+    }
+
+    /**
+     * Evaluates a function whose subject and arguments are all literals, returning a literal of its value, or <code>null</code> if the
+     * function must instead be evaluated each time that the expression is evaluated.
+     */
+    private Evaluator<?> foldConstant(final Evaluator<?> evaluator) {
+        // Functions that can produce arbitrarily large values are left to be evaluated when the expression is evaluated
+        if (evaluator instanceof RepeatEvaluator || evaluator instanceof PadLeftEvaluator || evaluator instanceof PadRightEvaluator) {
+            return null;
+        }
+
+        final Object value;
+        try {
+            final QueryResult<?> result = evaluator.evaluate(new StandardEvaluationContext(Collections.emptyMap()));
+            value = result.getValue();
+        } catch (final RuntimeException e) {
+            // The failure is reported when the expression is evaluated, exactly as it would be without folding
+            return null;
+        }
+
+        final Evaluator<?> constantEvaluator = switch (evaluator.getResultType()) {
+            case STRING -> StringLiteralEvaluator.forValue((String) value);
+            case BOOLEAN -> value == null ? null : new BooleanLiteralEvaluator((Boolean) value);
+            case WHOLE_NUMBER -> value == null ? null : new WholeNumberLiteralEvaluator(value.toString());
+            case DECIMAL -> value == null ? null : new DecimalLiteralEvaluator(value.toString());
+            default -> null;
+        };
+        return constantEvaluator == null ? null : addToken(constantEvaluator, evaluator.getToken());
     }
 
     private List<Evaluator<?>> verifyArgCount(final List<Evaluator<?>> args, final int count, final String functionName) {
@@ -487,9 +602,10 @@ public class ExpressionCompiler {
         return toStringEvaluator(evaluator, null);
     }
 
+    @SuppressWarnings("unchecked")
     private Evaluator<String> toStringEvaluator(final Evaluator<?> evaluator, final String location) {
         if (evaluator.getResultType() == ResultType.STRING) {
-            return (StringEvaluator) evaluator;
+            return (Evaluator<String>) evaluator;
         }
 
         return addToken(new StringCastEvaluator(evaluator), evaluator.getToken());
@@ -499,7 +615,7 @@ public class ExpressionCompiler {
     private Evaluator<Boolean> toBooleanEvaluator(final Evaluator<?> evaluator, final String location) {
         return switch (evaluator.getResultType()) {
             case BOOLEAN -> (Evaluator<Boolean>) evaluator;
-            case STRING -> addToken(new BooleanCastEvaluator((StringEvaluator) evaluator), evaluator.getToken());
+            case STRING -> addToken(new BooleanCastEvaluator((Evaluator<String>) evaluator), evaluator.getToken());
             default ->
                     throw new AttributeExpressionLanguageParsingException("Cannot implicitly convert Data Type " + evaluator.getResultType() + " to " + ResultType.BOOLEAN
                             + (location == null ? "" : " at location [" + location + "]"));
@@ -1115,22 +1231,15 @@ public class ExpressionCompiler {
     }
 
     private Evaluator<?> getJsonPathUpdateEvaluator(Evaluator<?> argValueEvaluator, String location) {
-        Evaluator<?> valueEvaluator;
-        if (argValueEvaluator instanceof StringEvaluator) {
-            valueEvaluator = toStringEvaluator(argValueEvaluator, location);
-        } else if (argValueEvaluator instanceof DecimalEvaluator) {
-            valueEvaluator = toDecimalEvaluator(argValueEvaluator, location);
-        } else if (argValueEvaluator instanceof NumberEvaluator) {
-            valueEvaluator = toNumberEvaluator(argValueEvaluator, location);
-        } else if (argValueEvaluator instanceof WholeNumberEvaluator) {
-            valueEvaluator = toWholeNumberEvaluator(argValueEvaluator, location);
-        } else if (argValueEvaluator instanceof BooleanEvaluator) {
-            valueEvaluator = toBooleanEvaluator(argValueEvaluator, location);
-        } else {
-            throw new AttributeExpressionLanguageParsingException("Cannot implicitly convert Data Type " +
+        return switch (argValueEvaluator.getResultType()) {
+            case STRING -> toStringEvaluator(argValueEvaluator, location);
+            case DECIMAL -> toDecimalEvaluator(argValueEvaluator, location);
+            case NUMBER -> toNumberEvaluator(argValueEvaluator, location);
+            case WHOLE_NUMBER -> toWholeNumberEvaluator(argValueEvaluator, location);
+            case BOOLEAN -> toBooleanEvaluator(argValueEvaluator, location);
+            default -> throw new AttributeExpressionLanguageParsingException("Cannot implicitly convert Data Type " +
                     argValueEvaluator.getResultType() + (location == null ? "" : " at location [" + location + "]"));
-        }
-        return valueEvaluator;
+        };
     }
 
     public Evaluator<?> buildEvaluator(final Tree tree) {
@@ -1224,7 +1333,17 @@ public class ExpressionCompiler {
             }
             case TO_LITERAL: {
                 final Evaluator<?> argEvaluator = buildEvaluator(tree.getChild(0));
-                return addToken(new ToLiteralEvaluator(argEvaluator), "toLiteral");
+                final Evaluator<String> literalEvaluator = addToken(new ToLiteralEvaluator(argEvaluator), "toLiteral");
+                if (isConstant(argEvaluator)) {
+                    final Evaluator<?> constantEvaluator = foldConstant(literalEvaluator);
+                    if (constantEvaluator != null) {
+                        return constantEvaluator;
+                    }
+                }
+                if (isDeterministic(argEvaluator)) {
+                    deterministicEvaluators.add(literalEvaluator);
+                }
+                return literalEvaluator;
             }
             case IP: {
                 try {
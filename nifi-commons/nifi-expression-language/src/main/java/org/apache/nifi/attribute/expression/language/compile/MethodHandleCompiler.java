@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
+import org.apache.nifi.attribute.expression.language.EvaluationScope;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.ScopedEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AndEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AppendEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ContainsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EndsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsIgnoreCaseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LengthEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.OrEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PrependEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.StartsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringAfterEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringAfterLastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringBeforeEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringBeforeLastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToLowerEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToUpperEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.TrimEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.BooleanLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.AttributeEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.IteratingEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.MultiAttributeEvaluator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+
+/**
+ * Compiles the tree of {@link Evaluator}s built by the {@link ExpressionCompiler} into a single {@link MethodHandle} of type
+ * {@code (EvaluationContext)String}. The JVM compiles the handle to bytecode once it is hot, so evaluating it avoids the virtual dispatch
+ * through each Evaluator and the {@code QueryResult} that each Evaluator allocates for its intermediate result.
+ * <p>
+ * Literals, attribute references, and the most commonly used string and boolean functions are compiled into handles that are specialized
+ * for the type of their result. Any other function is compiled into a handle that invokes its Evaluator, so expressions that use
+ * unsupported functions are still compiled around them and produce exactly the same results as the interpreted Evaluators.
+ * Expressions that iterate over multiple attributes, such as {@code anyAttribute} and {@code allMatchingAttributes}, are not compiled.
+ * Subexpressions whose values are shared through an {@link EvaluationScope} are compiled and then share their values in the same way.
+ * </p>
+ */
+public class MethodHandleCompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandleCompiler.class);
+
+    /**
+     * The name of the system property that enables the compiled backend when set to {@code true}.
+     */
+    public static final String COMPILATION_ENABLED_PROPERTY = "nifi.expression.language.compilation.enabled";
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Class<?> CONTEXT = EvaluationContext.class;
+
+    private static final MethodHandle GET_EXPRESSION_VALUE = findVirtual(EvaluationContext.class, "getExpressionValue", MethodType.methodType(String.class, String.class));
+    private static final MethodHandle EVALUATE_INTERPRETED = findStatic("evaluateInterpreted", Object.class, Evaluator.class, EvaluationContext.class);
+    private static final MethodHandle EVALUATE_SCOPED = findStatic("evaluateScoped", Object.class, String.class, MethodHandle.class, EvaluationContext.class);
+    private static final MethodHandle TO_RESULT_STRING = findStatic("toResultString", String.class, Object.class);
+
+    private static final MethodHandle TO_UPPER = findStatic("toUpper", String.class, String.class);
+    private static final MethodHandle TO_LOWER = findStatic("toLower", String.class, String.class);
+    private static final MethodHandle TRIM = findStatic("trim", String.class, String.class);
+    private static final MethodHandle LENGTH = findStatic("length", Long.class, String.class);
+    private static final MethodHandle IS_EMPTY = findStatic("isEmpty", Boolean.class, Object.class);
+    private static final MethodHandle IS_NULL = findStatic("isNull", Boolean.class, Object.class);
+    private static final MethodHandle NOT_NULL = findStatic("notNull", Boolean.class, Object.class);
+    private static final MethodHandle NOT = findStatic("not", Boolean.class, Boolean.class);
+    private static final MethodHandle APPEND = findStatic("append", String.class, String.class, String.class);
+    private static final MethodHandle PREPEND = findStatic("prepend", String.class, String.class, String.class);
+    private static final MethodHandle SUBSTRING_BEFORE = findStatic("substringBefore", String.class, String.class, String.class);
+    private static final MethodHandle SUBSTRING_AFTER = findStatic("substringAfter", String.class, String.class, String.class);
+    private static final MethodHandle SUBSTRING_BEFORE_LAST = findStatic("substringBeforeLast", String.class, String.class, String.class);
+    private static final MethodHandle SUBSTRING_AFTER_LAST = findStatic("substringAfterLast", String.class, String.class, String.class);
+    private static final MethodHandle EQUALS = findStatic("equalsValue", Boolean.class, Object.class, Object.class);
+    private static final MethodHandle EQUALS_IGNORE_CASE = findStatic("equalsIgnoreCase", Boolean.class, Object.class, Object.class);
+    private static final MethodHandle CONTAINS = findStatic("contains", Boolean.class, String.class, String.class);
+    private static final MethodHandle STARTS_WITH = findStatic("startsWith", Boolean.class, String.class, String.class);
+    private static final MethodHandle ENDS_WITH = findStatic("endsWith", Boolean.class, String.class, String.class);
+    private static final MethodHandle IS_FALSE = findStatic("isFalse", boolean.class, Boolean.class);
+    private static final MethodHandle IS_TRUE = findStatic("isTrue", boolean.class, Boolean.class);
+    private static final MethodHandle IS_NULL_VALUE = findStatic("isNullValue", boolean.class, Object.class);
+    private static final MethodHandle IS_NOT_NULL_VALUE = findStatic("isNotNullValue", boolean.class, Object.class);
+    private static final MethodHandle IS_NOT_BLANK = findStatic("isNotBlank", boolean.class, String.class);
+    private static final MethodHandle SECOND = findStatic("second", Object.class, Object.class, Object.class);
+
+    private MethodHandleCompiler() {
+    }
+
+    /**
+     * @return <code>true</code> if the compiled backend has been enabled through the {@value #COMPILATION_ENABLED_PROPERTY} system property
+     */
+    public static boolean isCompilationEnabled() {
+        return Boolean.getBoolean(COMPILATION_ENABLED_PROPERTY);
+    }
+
+    /**
+     * Compiles the given Evaluator tree into a handle of type {@code (EvaluationContext)String} that returns the same value as
+     * {@code String.valueOf(rootEvaluator.evaluate(context).getValue())}, or <code>null</code> if the Evaluator returns <code>null</code>.
+     *
+     * @param rootEvaluator the root of the Evaluator tree
+     * @param allEvaluators all Evaluators in the tree
+     * @return the compiled handle, or <code>null</code> if the expression cannot be compiled
+     */
+    public static MethodHandle compile(final Evaluator<?> rootEvaluator, final Collection<Evaluator<?>> allEvaluators) {
+        // Evaluators that iterate over many attributes evaluate the rest of the tree many times, keeping state between the evaluations.
+        for (final Evaluator<?> evaluator : allEvaluators) {
+            if (evaluator instanceof IteratingEvaluator || evaluator instanceof MultiAttributeEvaluator) {
+                return null;
+            }
+        }
+        if (rootEvaluator instanceof IteratingEvaluator || rootEvaluator instanceof MultiAttributeEvaluator) {
+            return null;
+        }
+
+        try {
+            final MethodHandle root = compileEvaluator(rootEvaluator, Object.class);
+            return MethodHandles.filterReturnValue(root, TO_RESULT_STRING);
+        } catch (final RuntimeException e) {
+            // The Evaluators remain available, so an expression that cannot be compiled is interpreted instead.
+            LOGGER.debug("Could not compile Expression with root {}; it will be interpreted", rootEvaluator, e);
+            return null;
+        }
+    }
+
+    /**
+     * Compiles the given Evaluator into a handle that takes an EvaluationContext. Supported Evaluators return a String, Boolean, or Long;
+     * any other Evaluator returns Object.
+     */
+    private static MethodHandle compileEvaluator(final Evaluator<?> evaluator) {
+        if (evaluator instanceof StringLiteralEvaluator || evaluator instanceof BooleanLiteralEvaluator || evaluator instanceof WholeNumberLiteralEvaluator) {
+            // Literals do not depend on the context, so the value can be computed once.
+            final Object value = evaluator.evaluate(null).getValue();
+            return constant(value == null ? Object.class : value.getClass(), value);
+        }
+
+        if (evaluator instanceof ScopedEvaluator<?> scopedEvaluator) {
+            final MethodHandle delegate = compileEvaluator(scopedEvaluator.getDelegate(), Object.class);
+            return MethodHandles.insertArguments(EVALUATE_SCOPED, 0, scopedEvaluator.getKey(), delegate);
+        }
+
+        if (evaluator instanceof AttributeEvaluator attributeEvaluator) {
+            final Evaluator<String> nameEvaluator = attributeEvaluator.getNameEvaluator();
+            if (nameEvaluator instanceof StringLiteralEvaluator) {
+                final String name = nameEvaluator.evaluate(null).getValue();
+                return MethodHandles.insertArguments(GET_EXPRESSION_VALUE, 1, name);
+            }
+
+            final MethodHandle lookupName = MethodHandles.filterArguments(GET_EXPRESSION_VALUE, 1, compileEvaluator(nameEvaluator, String.class));
+            return MethodHandles.permuteArguments(lookupName, MethodType.methodType(String.class, CONTEXT), 0, 0);
+        }
+
+        if (evaluator instanceof ToUpperEvaluator) {
+            return unary(evaluator, String.class, TO_UPPER);
+        } else if (evaluator instanceof ToLowerEvaluator) {
+            return unary(evaluator, String.class, TO_LOWER);
+        } else if (evaluator instanceof TrimEvaluator) {
+            return unary(evaluator, String.class, TRIM);
+        } else if (evaluator instanceof LengthEvaluator) {
+            return unary(evaluator, String.class, LENGTH);
+        } else if (evaluator instanceof IsEmptyEvaluator) {
+            return unary(evaluator, Object.class, IS_EMPTY);
+        } else if (evaluator instanceof IsNullEvaluator) {
+            return unary(evaluator, Object.class, IS_NULL);
+        } else if (evaluator instanceof NotNullEvaluator) {
+            return unary(evaluator, Object.class, NOT_NULL);
+        } else if (evaluator instanceof NotEvaluator) {
+            return unary(evaluator, Boolean.class, NOT);
+        } else if (evaluator instanceof AppendEvaluator append) {
+            return binary(evaluator, String.class, append.getAppendEvaluator(), String.class, APPEND);
+        } else if (evaluator instanceof PrependEvaluator prepend) {
+            return binary(evaluator, String.class, prepend.getPrependEvaluator(), String.class, PREPEND);
+        } else if (evaluator instanceof SubstringBeforeEvaluator substring) {
+            return unlessSubjectNull(evaluator, String.class, substring.getBeforeEvaluator(), String.class, SUBSTRING_BEFORE, "");
+        } else if (evaluator instanceof SubstringAfterEvaluator substring) {
+            return unlessSubjectNull(evaluator, String.class, substring.getAfterEvaluator(), String.class, SUBSTRING_AFTER, "");
+        } else if (evaluator instanceof SubstringBeforeLastEvaluator substring) {
+            return unlessSubjectNull(evaluator, String.class, substring.getBeforeEvaluator(), String.class, SUBSTRING_BEFORE_LAST, "");
+        } else if (evaluator instanceof SubstringAfterLastEvaluator substring) {
+            return unlessSubjectNull(evaluator, String.class, substring.getAfterEvaluator(), String.class, SUBSTRING_AFTER_LAST, "");
+        } else if (evaluator instanceof EqualsEvaluator equals && evaluator.getSubjectEvaluator().getResultType() == equals.getCompareToEvaluator().getResultType()) {
+            // Values of different types are normalized before comparison, which is left to the interpreted Evaluator.
+            return unlessSubjectNull(evaluator, Object.class, equals.getCompareToEvaluator(), Object.class, EQUALS, Boolean.FALSE);
+        } else if (evaluator instanceof EqualsIgnoreCaseEvaluator equals) {
+            return unlessSubjectNull(evaluator, Object.class, equals.getCompareToEvaluator(), Object.class, EQUALS_IGNORE_CASE, Boolean.FALSE);
+        } else if (evaluator instanceof ContainsEvaluator contains) {
+            return unlessSubjectNull(evaluator, String.class, contains.getSearchEvaluator(), String.class, CONTAINS, Boolean.FALSE);
+        } else if (evaluator instanceof StartsWithEvaluator startsWith) {
+            return unlessSubjectNull(evaluator, String.class, startsWith.getSearchEvaluator(), String.class, STARTS_WITH, Boolean.FALSE);
+        } else if (evaluator instanceof EndsWithEvaluator endsWith) {
+            return unlessSubjectNull(evaluator, String.class, endsWith.getSearchEvaluator(), String.class, ENDS_WITH, Boolean.FALSE);
+        } else if (evaluator instanceof AndEvaluator and) {
+            // The right-hand side is evaluated only if the subject is not false, and its value is then the result.
+            return shortCircuit(evaluator, Boolean.class, IS_FALSE, and.getRhsEvaluator());
+        } else if (evaluator instanceof OrEvaluator or) {
+            return shortCircuit(evaluator, Boolean.class, IS_TRUE, or.getRhsEvaluator());
+        } else if (evaluator instanceof ReplaceNullEvaluator replaceNull) {
+            return shortCircuit(evaluator, String.class, IS_NOT_NULL_VALUE, replaceNull.getResultEvaluator());
+        } else if (evaluator instanceof ReplaceEmptyEvaluator replaceEmpty) {
+            return shortCircuit(evaluator, String.class, IS_NOT_BLANK, replaceEmpty.getReplacementEvaluator());
+        }
+
+        return MethodHandles.insertArguments(EVALUATE_INTERPRETED, 0, evaluator);
+    }
+
+    private static MethodHandle compileEvaluator(final Evaluator<?> evaluator, final Class<?> type) {
+        return compileEvaluator(evaluator).asType(MethodType.methodType(type, CONTEXT));
+    }
+
+    private static MethodHandle constant(final Class<?> type, final Object value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(type, value), 0, CONTEXT);
+    }
+
+    /**
+     * Applies the given function to the value of the Evaluator's subject.
+     */
+    private static MethodHandle unary(final Evaluator<?> evaluator, final Class<?> subjectType, final MethodHandle function) {
+        final MethodHandle subject = compileEvaluator(evaluator.getSubjectEvaluator(), subjectType);
+        return MethodHandles.filterReturnValue(subject, function);
+    }
+
+    /**
+     * Evaluates the Evaluator's subject and then the argument, in that order, and applies the given function to both values.
+     */
+    private static MethodHandle binary(final Evaluator<?> evaluator, final Class<?> subjectType, final Evaluator<?> argument, final Class<?> argumentType,
+                                       final MethodHandle function) {
+        final MethodHandle subject = compileEvaluator(evaluator.getSubjectEvaluator(), subjectType);
+        final MethodHandle withArgument = withArgument(function, argument, argumentType);
+        return MethodHandles.foldArguments(withArgument, subject);
+    }
+
+    /**
+     * Evaluates the Evaluator's subject. If its value is null, returns the given result without evaluating the argument;
+     * otherwise, evaluates the argument and applies the given function to both values.
+     */
+    private static MethodHandle unlessSubjectNull(final Evaluator<?> evaluator, final Class<?> subjectType, final Evaluator<?> argument, final Class<?> argumentType,
+                                                  final MethodHandle function, final Object nullSubjectResult) {
+        final MethodHandle subject = compileEvaluator(evaluator.getSubjectEvaluator(), subjectType);
+        final Class<?> resultType = function.type().returnType();
+
+        final MethodHandle test = MethodHandles.dropArguments(IS_NULL_VALUE.asType(MethodType.methodType(boolean.class, subjectType)), 1, CONTEXT);
+        final MethodHandle nullResult = MethodHandles.dropArguments(MethodHandles.constant(resultType, nullSubjectResult), 0, subjectType, CONTEXT);
+        final MethodHandle withArgument = withArgument(function, argument, argumentType);
+
+        return MethodHandles.foldArguments(MethodHandles.guardWithTest(test, nullResult, withArgument), subject);
+    }
+
+    /**
+     * Evaluates the Evaluator's subject. If the given test passes for its value, returns the value without evaluating the argument;
+     * otherwise, evaluates the argument and returns its value.
+     */
+    private static MethodHandle shortCircuit(final Evaluator<?> evaluator, final Class<?> type, final MethodHandle test, final Evaluator<?> argument) {
+        final MethodHandle subject = compileEvaluator(evaluator.getSubjectEvaluator(), type);
+        final MethodHandle subjectResult = MethodHandles.dropArguments(MethodHandles.identity(type), 1, CONTEXT);
+        final MethodHandle argumentResult = withArgument(SECOND.asType(MethodType.methodType(type, type, type)), argument, type);
+
+        final MethodHandle typedTest = MethodHandles.dropArguments(test.asType(MethodType.methodType(boolean.class, type)), 1, CONTEXT);
+
+        return MethodHandles.foldArguments(MethodHandles.guardWithTest(typedTest, subjectResult, argumentResult), subject);
+    }
+
+    /**
+     * Converts a function of {@code (subjectValue, argumentValue)} into a handle of {@code (subjectValue, EvaluationContext)} that evaluates the argument.
+     */
+    private static MethodHandle withArgument(final MethodHandle function, final Evaluator<?> argument, final Class<?> argumentType) {
+        final MethodHandle argumentHandle = compileEvaluator(argument, argumentType);
+        final MethodHandle adapted = function.asType(function.type().changeParameterType(1, argumentType));
+        return MethodHandles.filterArguments(adapted, 1, argumentHandle);
+    }
+
+    private static MethodHandle findVirtual(final Class<?> type, final String name, final MethodType methodType) {
+        try {
+            return LOOKUP.findVirtual(type, name, methodType);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not find method " + name + " of " + type, e);
+        }
+    }
+
+    private static MethodHandle findStatic(final String name, final Class<?> returnType, final Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findStatic(MethodHandleCompiler.class, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not find method " + name, e);
+        }
+    }
+
+    // The functions below mirror the evaluate() methods of the corresponding Evaluators.
+
+    private static Object evaluateInterpreted(final Evaluator<?> evaluator, final EvaluationContext context) {
+        return evaluator.evaluate(context).getValue();
+    }
+
+    private static Object evaluateScoped(final String key, final MethodHandle delegate, final EvaluationContext context) throws Throwable {
+        final EvaluationScope scope = context.getEvaluationScope();
+        if (scope == null) {
+            return (Object) delegate.invokeExact(context);
+        }
+
+        if (scope.containsValue(key)) {
+            return scope.getValue(key);
+        }
+
+        final Object value = (Object) delegate.invokeExact(context);
+        scope.putValue(key, value);
+        return value;
+    }
+
+    private static String toResultString(final Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static String toUpper(final String value) {
+        return value == null ? null : value.toUpperCase();
+    }
+
+    private static String toLower(final String value) {
+        return value == null ? null : value.toLowerCase();
+    }
+
+    private static String trim(final String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static Long length(final String value) {
+        return (long) (value == null ? 0 : value.length());
+    }
+
+    private static Boolean isEmpty(final Object value) {
+        return value == null || value.toString().isBlank();
+    }
+
+    private static Boolean isNull(final Object value) {
+        return value == null;
+    }
+
+    private static Boolean notNull(final Object value) {
+        return value != null;
+    }
+
+    private static Boolean not(final Boolean value) {
+        return !value;
+    }
+
+    private static String append(final String value, final String append) {
+        return (value == null ? "" : value) + (append == null ? "" : append);
+    }
+
+    private static String prepend(final String value, final String prepend) {
+        return (prepend == null ? "" : prepend) + (value == null ? "" : value);
+    }
+
+    private static String substringBefore(final String value, final String before) {
+        if (before == null || before.isEmpty()) {
+            return value;
+        }
+        final int index = value.indexOf(before);
+        return index < 0 ? value : value.substring(0, index);
+    }
+
+    private static String substringAfter(final String value, final String after) {
+        if (after == null || after.isEmpty()) {
+            return value;
+        }
+        final int index = value.indexOf(after);
+        return index < 0 ? value : value.substring(index + after.length());
+    }
+
+    private static String substringBeforeLast(final String value, final String before) {
+        final int index = value.lastIndexOf(before);
+        return index < 0 ? value : value.substring(0, index);
+    }
+
+    private static String substringAfterLast(final String value, final String after) {
+        final int index = value.lastIndexOf(after);
+        return index < 0 || index >= value.length() ? value : value.substring(index + after.length());
+    }
+
+    private static Boolean equalsValue(final Object value, final Object compareTo) {
+        return compareTo != null && value.equals(compareTo);
+    }
+
+    private static Boolean equalsIgnoreCase(final Object value, final Object compareTo) {
+        if (compareTo == null) {
+            return false;
+        }
+        if (value instanceof String stringValue && compareTo instanceof String compareToString) {
+            return stringValue.equalsIgnoreCase(compareToString);
+        }
+        return value.equals(compareTo);
+    }
+
+    private static Boolean contains(final String value, final String search) {
+        return search != null && value.contains(search);
+    }
+
+    private static Boolean startsWith(final String value, final String search) {
+        return search != null && value.startsWith(search);
+    }
+
+    private static Boolean endsWith(final String value, final String search) {
+        return search != null && value.endsWith(search);
+    }
+
+    private static boolean isFalse(final Boolean value) {
+        return Boolean.FALSE.equals(value);
+    }
+
+    private static boolean isTrue(final Boolean value) {
+        return Boolean.TRUE.equals(value);
+    }
+
+    private static boolean isNullValue(final Object value) {
+        return value == null;
+    }
+
+    private static boolean isNotNullValue(final Object value) {
+        return value != null;
+    }
+
+    private static boolean isNotBlank(final String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static Object second(final Object first, final Object second) {
+        return second;
+    }
+}
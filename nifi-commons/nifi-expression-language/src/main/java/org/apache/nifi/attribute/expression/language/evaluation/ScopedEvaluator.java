@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.evaluation;
+
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
+import org.apache.nifi.attribute.expression.language.EvaluationScope;
+import org.apache.nifi.expression.AttributeExpression.ResultType;
+
+/**
+ * Evaluates a subexpression whose value depends only on the FlowFile, the additional attributes, and the Parameters, sharing
+ * its value through the {@link EvaluationScope} with every other expression that contains the same subexpression.
+ *
+ * @param <T> the type of the subexpression's value
+ */
+public class ScopedEvaluator<T> implements Evaluator<T> {
+    private final Evaluator<T> delegate;
+    private final String key;
+
+    /**
+     * @param delegate the Evaluator of the subexpression
+     * @param key the canonical text of the subexpression
+     */
+    public ScopedEvaluator(final Evaluator<T> delegate, final String key) {
+        this.delegate = delegate;
+        this.key = key;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public QueryResult<T> evaluate(final EvaluationContext evaluationContext) {
+        final EvaluationScope scope = evaluationContext.getEvaluationScope();
+        if (scope == null) {
+            return delegate.evaluate(evaluationContext);
+        }
+
+        if (scope.containsValue(key)) {
+            return (QueryResult<T>) toQueryResult(scope.getValue(key), getResultType());
+        }
+
+        final QueryResult<T> result = delegate.evaluate(evaluationContext);
+        scope.putValue(key, result.getValue());
+        return result;
+    }
+
+    /**
+     * @return the Evaluator of the subexpression
+     */
+    public Evaluator<T> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the canonical text of the subexpression, which identifies its value within an {@link EvaluationScope}
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @param resultType a result type
+     * @return <code>true</code> if values of the given type can be shared through an {@link EvaluationScope}
+     */
+    public static boolean isScopeable(final ResultType resultType) {
+        return switch (resultType) {
+            case STRING, BOOLEAN, WHOLE_NUMBER, DECIMAL, NUMBER -> true;
+            default -> false;
+        };
+    }
+
+    private static QueryResult<?> toQueryResult(final Object value, final ResultType resultType) {
+        return switch (resultType) {
+            case STRING -> new StringQueryResult((String) value);
+            case BOOLEAN -> new BooleanQueryResult((Boolean) value);
+            case WHOLE_NUMBER -> new WholeNumberQueryResult((Long) value);
+            case DECIMAL -> new DecimalQueryResult((Double) value);
+            case NUMBER -> new NumberQueryResult((Number) value);
+            default -> throw new IllegalStateException("Values of type " + resultType + " cannot be shared");
+        };
+    }
+
+    @Override
+    public ResultType getResultType() {
+        return delegate.getResultType();
+    }
+
+    @Override
+    public int getEvaluationsRemaining(final EvaluationContext context) {
+        return delegate.getEvaluationsRemaining(context);
+    }
+
+    @Override
+    public Evaluator<?> getSubjectEvaluator() {
+        return delegate.getSubjectEvaluator();
+    }
+
+    @Override
+    public void setToken(final String token) {
+        delegate.setToken(token);
+    }
+
+    @Override
+    public String getToken() {
+        return delegate.getToken();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -21,13 +21,12 @@ import org.apache.nifi.attribute.expression.language.evaluation.BooleanEvaluator
 import org.apache.nifi.attribute.expression.language.evaluation.BooleanQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.QueryResult;
-import org.apache.nifi.attribute.expression.language.evaluation.StringEvaluator;
 
 public class BooleanCastEvaluator extends BooleanEvaluator {
 
-    private final StringEvaluator subjectEvaluator;
+    private final Evaluator<String> subjectEvaluator;
 
-    public BooleanCastEvaluator(final StringEvaluator subjectEvaluator) {
+    public BooleanCastEvaluator(final Evaluator<String> subjectEvaluator) {
         this.subjectEvaluator = subjectEvaluator;
     }
 
@@ -51,4 +51,8 @@ public class SubstringAfterLastEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getAfterEvaluator() {
+        return afterEvaluator;
+    }
+
 }
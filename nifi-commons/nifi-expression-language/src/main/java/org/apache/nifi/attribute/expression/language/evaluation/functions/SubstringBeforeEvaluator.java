@@ -54,4 +54,8 @@ public class SubstringBeforeEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getBeforeEvaluator() {
+        return beforeEvaluator;
+    }
+
 }
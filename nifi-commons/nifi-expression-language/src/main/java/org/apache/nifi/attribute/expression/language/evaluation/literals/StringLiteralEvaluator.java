@@ -27,8 +27,12 @@ public class StringLiteralEvaluator extends StringEvaluator {
     private final String value;
 
     public StringLiteralEvaluator(final String value) {
-        if (value == null) {
-            this.value = null;
+        this(value, true);
+    }
+
+    private StringLiteralEvaluator(final String value, final boolean escaped) {
+        if (value == null || !escaped) {
+            this.value = value;
         } else {
             // need to escape characters after backslashes
             final StringBuilder sb = new StringBuilder();
@@ -67,6 +71,16 @@ public class StringLiteralEvaluator extends StringEvaluator {
         }
     }
 
+    /**
+     * Creates a literal for a value that has already been unescaped, such as the result of evaluating a constant subexpression
+     *
+     * @param value the value of the literal
+     * @return a literal that evaluates to exactly the given value
+     */
+    public static StringLiteralEvaluator forValue(final String value) {
+        return new StringLiteralEvaluator(value, false);
+    }
+
     @Override
     public QueryResult<String> evaluate(final EvaluationContext evaluationContext) {
         return new StringQueryResult(value);
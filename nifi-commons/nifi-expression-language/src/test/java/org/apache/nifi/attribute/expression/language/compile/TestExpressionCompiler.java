@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
+import org.apache.nifi.attribute.expression.language.EvaluationScope;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.EvaluatorState;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.BooleanLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.parameter.Parameter;
+import org.apache.nifi.parameter.ParameterLookup;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestExpressionCompiler {
+
+    @Test
+    public void testConstantSubexpressionsFolded() {
+        assertFolded("${literal('abc'):toUpper():append('.txt')}", StringLiteralEvaluator.class, "ABC.txt");
+        assertFolded("${literal(3):toNumber():gt(2)}", BooleanLiteralEvaluator.class, "true");
+        assertFolded("${literal('a.b.c'):substringAfterLast('.'):length()}", WholeNumberLiteralEvaluator.class, "1");
+    }
+
+    @Test
+    public void testFoldedArgumentsEvaluated() {
+        final CompiledExpression expression = new ExpressionCompiler(false, false).compile("${filename:append(${literal('x'):toUpper()})}");
+        assertEquals("a.txtX", expression.evaluate(new StandardEvaluationContext(Map.of("filename", "a.txt")), null));
+    }
+
+    @Test
+    public void testNonDeterministicFunctionsNotFolded() {
+        final ExpressionCompiler compiler = new ExpressionCompiler(false, false);
+        for (final String expression : new String[] {"${random():mod(10)}", "${now():toNumber()}", "${literal('${now():toNumber()}'):evaluateELString()}"}) {
+            final Evaluator<?> rootEvaluator = compiler.compile(expression).getRootEvaluator();
+            assertFalse(rootEvaluator instanceof StringLiteralEvaluator || rootEvaluator instanceof WholeNumberLiteralEvaluator, "Expected " + expression + " not to be folded");
+        }
+    }
+
+    @Test
+    public void testSharedSubexpressionsEvaluatedOncePerFlowFile() {
+        for (final boolean compileMethodHandles : new boolean[] {false, true}) {
+            final ExpressionCompiler compiler = new ExpressionCompiler(compileMethodHandles, true);
+            final CompiledExpression baseName = compiler.compile("${filename:substringBefore('.'):toUpper()}");
+            final CompiledExpression backupName = compiler.compile("${filename:substringBefore('.'):append('.bak')}");
+
+            final CountingEvaluationContext firstContext = new CountingEvaluationContext(Map.of("filename", "abc.txt"),
+                    EvaluationScope.forFlowFile(mock(FlowFile.class), null, ParameterLookup.EMPTY));
+            assertEquals("ABC", baseName.evaluate(firstContext, null));
+            assertEquals("abc.bak", backupName.evaluate(firstContext, null));
+            assertEquals(1, firstContext.getLookups());
+
+            final CountingEvaluationContext secondContext = new CountingEvaluationContext(Map.of("filename", "xyz.txt"),
+                    EvaluationScope.forFlowFile(mock(FlowFile.class), null, ParameterLookup.EMPTY));
+            assertEquals("XYZ", baseName.evaluate(secondContext, null));
+            assertEquals("xyz.bak", backupName.evaluate(secondContext, null));
+            assertEquals(1, secondContext.getLookups());
+
+            final CountingEvaluationContext unscopedContext = new CountingEvaluationContext(Map.of("filename", "abc.txt"), null);
+            assertEquals("ABC", baseName.evaluate(unscopedContext, null));
+            assertEquals("abc.bak", backupName.evaluate(unscopedContext, null));
+            assertEquals(2, unscopedContext.getLookups());
+        }
+    }
+
+    @Test
+    public void testScopeResetWhenParametersUpdated() {
+        final FlowFile flowFile = mock(FlowFile.class);
+        final ParameterLookup parameterLookup = mock(ParameterLookup.class);
+        when(parameterLookup.getVersion()).thenReturn(1L);
+
+        EvaluationScope.forFlowFile(flowFile, null, parameterLookup).putValue("#{name}", "first");
+        assertTrue(EvaluationScope.forFlowFile(flowFile, null, parameterLookup).containsValue("#{name}"));
+
+        when(parameterLookup.getVersion()).thenReturn(2L);
+        assertFalse(EvaluationScope.forFlowFile(flowFile, null, parameterLookup).containsValue("#{name}"));
+    }
+
+    private void assertFolded(final String expression, final Class<?> literalType, final String expected) {
+        final CompiledExpression compiledExpression = new ExpressionCompiler(false, false).compile(expression);
+        assertInstanceOf(literalType, compiledExpression.getRootEvaluator());
+        assertEquals(expected, compiledExpression.evaluate(new StandardEvaluationContext(Map.of()), null));
+    }
+
+    private static class CountingEvaluationContext implements EvaluationContext {
+        private final StandardEvaluationContext delegate;
+        private final EvaluationScope evaluationScope;
+        private int lookups;
+
+        CountingEvaluationContext(final Map<String, String> attributes, final EvaluationScope evaluationScope) {
+            this.delegate = new StandardEvaluationContext(attributes);
+            this.evaluationScope = evaluationScope;
+        }
+
+        int getLookups() {
+            return lookups;
+        }
+
+        @Override
+        public String getExpressionValue(final String name) {
+            lookups++;
+            return delegate.getExpressionValue(name);
+        }
+
+        @Override
+        public Set<String> getExpressionKeys() {
+            return delegate.getExpressionKeys();
+        }
+
+        @Override
+        public String getState(final String key) {
+            return delegate.getState(key);
+        }
+
+        @Override
+        public Parameter getParameter(final String parameterName) {
+            return delegate.getParameter(parameterName);
+        }
+
+        @Override
+        public EvaluatorState getEvaluatorState() {
+            return delegate.getEvaluatorState();
+        }
+
+        @Override
+        public EvaluationScope getEvaluationScope() {
+            return evaluationScope;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMethodHandleCompiler {
+
+    private static final List<String> EXPRESSIONS = List.of(
+            "${filename}",
+            "${filename:substringBefore('.'):toUpper()}",
+            "${filename:substringAfter('.')}",
+            "${filename:substringBeforeLast('.')}",
+            "${filename:substringAfterLast('.')}",
+            "${a:trim():append(${b})}",
+            "${a:toLower():prepend(${b})}",
+            "${a:equals(${b})}",
+            "${a:length():equals(3)}",
+            "${a:length():equals('3')}",
+            "${a:equalsIgnoreCase(${b})}",
+            "${filename:contains('log'):and(${a:startsWith('A'):or(${b:endsWith(${a})})})}",
+            "${a:isEmpty():not()}",
+            "${b:isNull()}",
+            "${b:notNull()}",
+            "${b:replaceNull('none')}",
+            "${a:replaceEmpty(${filename})}",
+            "${filename:length():plus(1)}",
+            "${${ptr:toLower()}}",
+            "${literal('x'):toUpper()}",
+            "${filename:replace('.', '_'):toUpper()}"
+    );
+
+    private static final String[] VALUES = {null, "", " ", "a", "A", "abc", "ABC", "file.log", "x.y.z", "log", "3", " pad "};
+
+    @Test
+    public void testCompiledMatchesInterpreted() {
+        final ExpressionCompiler interpretingCompiler = new ExpressionCompiler(false);
+        final ExpressionCompiler compilingCompiler = new ExpressionCompiler(true);
+
+        for (final String expression : EXPRESSIONS) {
+            final CompiledExpression interpreted = interpretingCompiler.compile(expression);
+            final CompiledExpression compiled = compilingCompiler.compile(expression);
+            assertFalse(interpreted.isCompiled());
+            assertTrue(compiled.isCompiled(), "Expected " + expression + " to be compiled");
+
+            for (final String filename : VALUES) {
+                for (final String a : VALUES) {
+                    for (final String b : VALUES) {
+                        final Map<String, String> attributes = new HashMap<>();
+                        putIfNotNull(attributes, "filename", filename);
+                        putIfNotNull(attributes, "a", a);
+                        putIfNotNull(attributes, "b", b);
+                        attributes.put("ptr", "FileName");
+
+                        final String expected = interpreted.evaluate(new StandardEvaluationContext(attributes), null);
+                        final String actual = compiled.evaluate(new StandardEvaluationContext(attributes), null);
+                        assertEquals(expected, actual, "Unexpected result for " + expression + " with attributes " + attributes);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDecoratorApplied() {
+        final CompiledExpression compiled = new ExpressionCompiler(true).compile("${filename:toUpper()}");
+        assertTrue(compiled.isCompiled());
+        assertEquals("[FILE.TXT]", compiled.evaluate(new StandardEvaluationContext(Map.of("filename", "file.txt")), value -> "[" + value + "]"));
+    }
+
+    @Test
+    public void testMultipleAttributeExpressionsInterpreted() {
+        final CompiledExpression anyAttribute = new ExpressionCompiler(true).compile("${anyAttribute('a', 'b'):equals('x')}");
+        assertFalse(anyAttribute.isCompiled());
+        assertEquals("true", anyAttribute.evaluate(new StandardEvaluationContext(Map.of("a", "y", "b", "x")), null));
+
+        final CompiledExpression allAttributes = new ExpressionCompiler(true).compile("${allMatchingAttributes('.*'):count()}");
+        assertFalse(allAttributes.isCompiled());
+    }
+
+    private static void putIfNotNull(final Map<String, String> map, final String key, final String value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+}
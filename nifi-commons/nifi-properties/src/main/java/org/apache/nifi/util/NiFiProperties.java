@@ -81,6 +81,12 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String REMOTE_CONTENTS_CACHE_EXPIRATION = "nifi.remote.contents.cache.expiration";
     public static final String ADMINISTRATIVE_YIELD_DURATION = "nifi.administrative.yield.duration";
     public static final String BORED_YIELD_DURATION = "nifi.bored.yield.duration";
+    public static final String WORK_SIGNAL_SCHEDULING_ENABLED = "nifi.scheduling.work.signal.enabled";
+    public static final String WORK_SIGNAL_IDLE_CHECK_PERIOD = "nifi.scheduling.work.signal.idle.check.period";
+    public static final String VIRTUAL_THREAD_PROCESSOR_TYPES = "nifi.scheduling.virtual.thread.processor.types";
+    public static final String VIRTUAL_THREAD_MAX_CONCURRENT_TASKS = "nifi.scheduling.virtual.thread.max.concurrent.tasks";
+    public static final String SCHEDULING_GROUP_MAX_THREADS_PREFIX = "nifi.scheduling.group.max.threads.";
+    public static final String SCHEDULING_GROUP_WEIGHT_PREFIX = "nifi.scheduling.group.weight.";
     public static final String PROCESSOR_SCHEDULING_TIMEOUT = "nifi.processor.scheduling.timeout";
     public static final String BACKPRESSURE_COUNT = "nifi.queue.backpressure.count";
     public static final String BACKPRESSURE_SIZE = "nifi.queue.backpressure.size";
@@ -95,14 +101,29 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
+    public static final String CONTENT_MEMORY_MAPPED_READS_ENABLED = "nifi.content.repository.memory.mapped.reads.enabled";
+    public static final String CONTENT_MEMORY_MAPPED_READS_MAX_SIZE = "nifi.content.repository.memory.mapped.reads.max.size";
 
     // flowfile repository properties
     public static final String FLOWFILE_REPOSITORY_IMPLEMENTATION = "nifi.flowfile.repository.implementation";
     public static final String FLOWFILE_REPOSITORY_ALWAYS_SYNC = "nifi.flowfile.repository.always.sync";
     public static final String FLOWFILE_REPOSITORY_DIRECTORY = "nifi.flowfile.repository.directory";
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
+    public static final String FLOWFILE_REPOSITORY_GROUP_COMMIT_ENABLED = "nifi.flowfile.repository.group.commit.enabled";
+    public static final String FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW = "nifi.flowfile.repository.group.commit.window";
+    public static final String FLOWFILE_REPOSITORY_GROUP_COMMIT_MAX_RECORDS = "nifi.flowfile.repository.group.commit.max.records";
+    public static final String FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE = "nifi.flowfile.repository.snapshot.storage";
+    public static final String FLOWFILE_REPOSITORY_RECOVERY_THREADS = "nifi.flowfile.repository.recovery.threads";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
+    public static final String SESSION_COMMIT_COALESCING_ENABLED = "nifi.session.commit.coalescing.enabled";
+    public static final String SESSION_COMMIT_COALESCING_WINDOW = "nifi.session.commit.coalescing.window";
+    public static final String SESSION_COMMIT_COALESCING_MAX_RECORDS = "nifi.session.commit.coalescing.max.records";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
+    public static final String QUEUE_STRIPE_COUNT = "nifi.queue.stripe.count";
+    public static final String QUEUE_SWAP_FORMAT = "nifi.queue.swap.format";
+    public static final String QUEUE_SWAP_FORMAT_SCHEMA = "schema";
+    public static final String QUEUE_SWAP_FORMAT_COLUMNAR = "columnar";
+    public static final String QUEUE_SWAP_PREFETCH_THREADS = "nifi.queue.swap.prefetch.threads";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -348,13 +369,27 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String DEFAULT_NAR_LIBRARY_DIR = "./lib";
     public static final String DEFAULT_NAR_LIBRARY_AUTOLOAD_DIR = "./extensions";
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "20 secs";
+    public static final String DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW = "0 millis";
+    public static final int DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_MAX_RECORDS = 10_000;
+    public static final String DEFAULT_SESSION_COMMIT_COALESCING_WINDOW = "0 millis";
+    public static final int DEFAULT_SESSION_COMMIT_COALESCING_MAX_RECORDS = 10_000;
+    public static final String FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE_HEAP = "heap";
+    public static final String FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE_OFF_HEAP = "off-heap";
+    public static final String DEFAULT_FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE = FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE_HEAP;
+    public static final int DEFAULT_FLOWFILE_REPOSITORY_RECOVERY_THREADS = 1;
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "50 KB";
+    public static final String DEFAULT_CONTENT_MEMORY_MAPPED_READS_MAX_SIZE = "512 MB";
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
+    public static final int DEFAULT_QUEUE_STRIPE_COUNT = 1;
+    public static final String DEFAULT_QUEUE_SWAP_FORMAT = QUEUE_SWAP_FORMAT_SCHEMA;
+    public static final int DEFAULT_QUEUE_SWAP_PREFETCH_THREADS = 2;
     public static final long DEFAULT_BACKPRESSURE_COUNT = 10_000L;
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
+    public static final String DEFAULT_WORK_SIGNAL_IDLE_CHECK_PERIOD = "1 sec";
+    public static final int DEFAULT_VIRTUAL_THREAD_MAX_CONCURRENT_TASKS = 256;
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_ROOT_NODE = "/nifi";
@@ -488,6 +523,41 @@ public class NiFiProperties extends ApplicationProperties {
         }
     }
 
+    public int getQueueStripeCount() {
+        final String stripeCountValue = getProperty(QUEUE_STRIPE_COUNT);
+        if (stripeCountValue == null || stripeCountValue.isBlank()) {
+            return DEFAULT_QUEUE_STRIPE_COUNT;
+        }
+
+        try {
+            return Math.max(1, Integer.parseInt(stripeCountValue.trim()));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_QUEUE_STRIPE_COUNT;
+        }
+    }
+
+    public String getQueueSwapFormat() {
+        final String swapFormat = getProperty(QUEUE_SWAP_FORMAT);
+        if (swapFormat == null || swapFormat.isBlank()) {
+            return DEFAULT_QUEUE_SWAP_FORMAT;
+        }
+
+        return swapFormat.trim();
+    }
+
+    public int getQueueSwapPrefetchThreads() {
+        final String threadCountValue = getProperty(QUEUE_SWAP_PREFETCH_THREADS);
+        if (threadCountValue == null || threadCountValue.isBlank()) {
+            return DEFAULT_QUEUE_SWAP_PREFETCH_THREADS;
+        }
+
+        try {
+            return Math.max(0, Integer.parseInt(threadCountValue.trim()));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_QUEUE_SWAP_PREFETCH_THREADS;
+        }
+    }
+
     public Integer getIntegerProperty(final String propertyName, final Integer defaultValue) {
         final String value = getProperty(propertyName);
         if (value == null || value.isBlank()) {
@@ -611,6 +681,98 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL, DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL);
     }
 
+    /**
+     * @return <code>true</code> if updates to the FlowFile Repository that must be synced to disk should be coalesced into group commits
+     */
+    public boolean isFlowFileRepositoryGroupCommitEnabled() {
+        return Boolean.parseBoolean(getProperty(FLOWFILE_REPOSITORY_GROUP_COMMIT_ENABLED, "false").trim());
+    }
+
+    /**
+     * @return how long the FlowFile Repository waits for other updates to join a group commit, as a time period such as "1 millis"
+     */
+    public String getFlowFileRepositoryGroupCommitWindow() {
+        final String window = getProperty(FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW);
+        if (window == null || window.isBlank()) {
+            return DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW;
+        }
+
+        return window.trim();
+    }
+
+    public int getFlowFileRepositoryGroupCommitMaxRecords() {
+        final String maxRecordsValue = getProperty(FLOWFILE_REPOSITORY_GROUP_COMMIT_MAX_RECORDS);
+        if (maxRecordsValue == null || maxRecordsValue.isBlank()) {
+            return DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_MAX_RECORDS;
+        }
+
+        try {
+            return Math.max(1, Integer.parseInt(maxRecordsValue.trim()));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_MAX_RECORDS;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the repository updates of batched session commits should be coalesced across concurrently committing sessions
+     */
+    public boolean isSessionCommitCoalescingEnabled() {
+        return Boolean.parseBoolean(getProperty(SESSION_COMMIT_COALESCING_ENABLED, "false").trim());
+    }
+
+    /**
+     * @return how long a batched session commit waits for other commits to join a coalesced repository update, as a time period such as "1 millis"
+     */
+    public String getSessionCommitCoalescingWindow() {
+        final String window = getProperty(SESSION_COMMIT_COALESCING_WINDOW);
+        if (window == null || window.isBlank()) {
+            return DEFAULT_SESSION_COMMIT_COALESCING_WINDOW;
+        }
+
+        return window.trim();
+    }
+
+    public int getSessionCommitCoalescingMaxRecords() {
+        final String maxRecordsValue = getProperty(SESSION_COMMIT_COALESCING_MAX_RECORDS);
+        if (maxRecordsValue == null || maxRecordsValue.isBlank()) {
+            return DEFAULT_SESSION_COMMIT_COALESCING_MAX_RECORDS;
+        }
+
+        try {
+            return Math.max(1, Integer.parseInt(maxRecordsValue.trim()));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_SESSION_COMMIT_COALESCING_MAX_RECORDS;
+        }
+    }
+
+    /**
+     * @return where the FlowFile Repository keeps the 'active' FlowFile records between checkpoints, either "heap" or "off-heap"
+     */
+    public String getFlowFileRepositorySnapshotStorage() {
+        final String storage = getProperty(FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE);
+        if (storage == null || storage.isBlank()) {
+            return DEFAULT_FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE;
+        }
+
+        return storage.trim();
+    }
+
+    /**
+     * @return the number of threads that the FlowFile Repository uses to decode its journals on startup
+     */
+    public int getFlowFileRepositoryRecoveryThreads() {
+        final String threadsValue = getProperty(FLOWFILE_REPOSITORY_RECOVERY_THREADS);
+        if (threadsValue == null || threadsValue.isBlank()) {
+            return DEFAULT_FLOWFILE_REPOSITORY_RECOVERY_THREADS;
+        }
+
+        try {
+            return Math.max(1, Integer.parseInt(threadsValue.trim()));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_FLOWFILE_REPOSITORY_RECOVERY_THREADS;
+        }
+    }
+
     /**
      * @return the restore directory or null if not configured
      */
@@ -1428,6 +1590,88 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(BORED_YIELD_DURATION, DEFAULT_BORED_YIELD_DURATION);
     }
 
+    /**
+     * @return <code>true</code> if components that have no work to do should wait for FlowFiles to be queued for them rather than
+     * checking for work again after the bored yield duration
+     */
+    public boolean isWorkSignalSchedulingEnabled() {
+        return Boolean.parseBoolean(getProperty(WORK_SIGNAL_SCHEDULING_ENABLED, "false").trim());
+    }
+
+    /**
+     * @return how often components that are waiting for FlowFiles are checked for queued FlowFiles whose arrival was not signaled, as a time period such as "1 sec"
+     */
+    public String getWorkSignalIdleCheckPeriod() {
+        return getProperty(WORK_SIGNAL_IDLE_CHECK_PERIOD, DEFAULT_WORK_SIGNAL_IDLE_CHECK_PERIOD);
+    }
+
+    /**
+     * @return the types of the Processors whose Timer Driven tasks run on virtual threads rather than on the Timer Driven thread pool. Each type
+     * is either a simple or a fully qualified class name. An empty set indicates that no Processor runs on virtual threads.
+     */
+    public Set<String> getVirtualThreadProcessorTypes() {
+        final String rawProperty = getProperty(VIRTUAL_THREAD_PROCESSOR_TYPES, "");
+        return Arrays.stream(rawProperty.split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the maximum number of tasks of the Processors configured to run on virtual threads that may run at the same time
+     */
+    public int getVirtualThreadMaxConcurrentTasks() {
+        final String maxTasksValue = getProperty(VIRTUAL_THREAD_MAX_CONCURRENT_TASKS);
+        if (maxTasksValue == null || maxTasksValue.isBlank()) {
+            return DEFAULT_VIRTUAL_THREAD_MAX_CONCURRENT_TASKS;
+        }
+
+        try {
+            return Math.max(1, Integer.parseInt(maxTasksValue.trim()));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_VIRTUAL_THREAD_MAX_CONCURRENT_TASKS;
+        }
+    }
+
+    /**
+     * @return the maximum number of Timer Driven tasks that the components of a Process Group, including those of its child groups, may run at
+     * the same time, keyed by the identifier of the Process Group
+     */
+    public Map<String, Integer> getSchedulingGroupMaxThreads() {
+        return getPositiveIntegersWithPrefix(SCHEDULING_GROUP_MAX_THREADS_PREFIX);
+    }
+
+    /**
+     * @return the weight of each Process Group's share of a Timer Driven thread pool whose threads are all busy, keyed by the identifier of the Process Group
+     */
+    public Map<String, Integer> getSchedulingGroupWeights() {
+        return getPositiveIntegersWithPrefix(SCHEDULING_GROUP_WEIGHT_PREFIX);
+    }
+
+    private Map<String, Integer> getPositiveIntegersWithPrefix(final String prefix) {
+        final Map<String, Integer> values = new HashMap<>();
+        for (final Map.Entry<String, String> entry : getPropertiesWithPrefix(prefix).entrySet()) {
+            final String suffix = entry.getKey().substring(prefix.length()).trim();
+            final String value = entry.getValue();
+            if (suffix.isEmpty() || value == null || value.isBlank()) {
+                continue;
+            }
+
+            try {
+                final int intValue = Integer.parseInt(value.trim());
+                if (intValue > 0) {
+                    values.put(suffix, intValue);
+                } else {
+                    logger.warn("Configured value for property {} in nifi.properties must be a positive integer, ignoring value {}", entry.getKey(), value);
+                }
+            } catch (final NumberFormatException e) {
+                logger.warn("Configured value for property {} in nifi.properties is not a valid integer, ignoring value {}", entry.getKey(), value);
+            }
+        }
+
+        return values;
+    }
+
     public File getStateManagementConfigFile() {
         return new File(getProperty(STATE_MANAGEMENT_CONFIG_FILE, DEFAULT_STATE_MANAGEMENT_CONFIG_FILE));
     }
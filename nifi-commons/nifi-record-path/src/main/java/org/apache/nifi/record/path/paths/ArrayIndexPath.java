@@ -20,12 +20,12 @@ package org.apache.nifi.record.path.paths;
 import org.apache.nifi.record.path.ArrayIndexFieldValue;
 import org.apache.nifi.record.path.FieldValue;
 import org.apache.nifi.record.path.RecordPathEvaluationContext;
-import org.apache.nifi.record.path.util.Filters;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.type.ArrayDataType;
 
+import java.util.Objects;
 import java.util.stream.Stream;
 
 public class ArrayIndexPath extends RecordPathSegment {
@@ -41,18 +41,29 @@ public class ArrayIndexPath extends RecordPathSegment {
         final Stream<FieldValue> parentResult = getParentPath().evaluate(context);
 
         return parentResult
-            .filter(Filters.fieldTypeFilter(RecordFieldType.ARRAY))
-            .filter(fieldValue -> fieldValue.getValue() != null && ((Object[]) fieldValue.getValue()).length > getArrayIndex(((Object[]) fieldValue.getValue()).length))
-            .map(fieldValue -> {
-                final ArrayDataType arrayDataType = (ArrayDataType) fieldValue.getField().getDataType();
-                final DataType elementDataType = arrayDataType.getElementType();
-                final RecordField arrayField = new RecordField(fieldValue.getField().getFieldName(), elementDataType);
-                final Object[] values = (Object[]) fieldValue.getValue();
-                final int arrayIndex = getArrayIndex(values.length);
-                final RecordField elementField = new RecordField(arrayField.getFieldName(), elementDataType);
-                final FieldValue result = new ArrayIndexFieldValue(values[arrayIndex], elementField, fieldValue, arrayIndex);
-                return result;
-            });
+            .map(this::getElement)
+            .filter(Objects::nonNull);
+    }
+
+    /**
+     * @param fieldValue the array field
+     * @return the element of the array at the index of this path, or <code>null</code> if the field is not an array or has no such element
+     */
+    FieldValue getElement(final FieldValue fieldValue) {
+        if (fieldValue.getField().getDataType().getFieldType() != RecordFieldType.ARRAY) {
+            return null;
+        }
+
+        final Object[] values = (Object[]) fieldValue.getValue();
+        if (values == null || values.length <= getArrayIndex(values.length)) {
+            return null;
+        }
+
+        final ArrayDataType arrayDataType = (ArrayDataType) fieldValue.getField().getDataType();
+        final DataType elementDataType = arrayDataType.getElementType();
+        final int arrayIndex = getArrayIndex(values.length);
+        final RecordField elementField = new RecordField(fieldValue.getField().getFieldName(), elementDataType);
+        return new ArrayIndexFieldValue(values[arrayIndex], elementField, fieldValue, arrayIndex);
     }
 
     private int getArrayIndex(final int arrayLength) {
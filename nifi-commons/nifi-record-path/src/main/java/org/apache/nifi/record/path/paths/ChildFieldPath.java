@@ -24,30 +24,45 @@ import org.apache.nifi.record.path.util.Filters;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.type.RecordDataType;
 
-import java.util.Optional;
 import java.util.stream.Stream;
 
 public class ChildFieldPath extends RecordPathSegment {
     private final String childName;
+    private final RecordField unknownChildField;
+    private final SchemaResolutionCache<ChildFieldResolution> resolutions = new SchemaResolutionCache<>(this::resolve);
 
     ChildFieldPath(final String childName, final RecordPathSegment parent, final boolean absolute) {
         super("/" + childName, parent, absolute);
         this.childName = childName;
+        this.unknownChildField = new RecordField(childName, RecordFieldType.CHOICE.getChoiceDataType(RecordFieldType.STRING.getDataType(), RecordFieldType.RECORD.getDataType()));
     }
 
     private FieldValue missingChild(final FieldValue parent) {
-        final RecordField field = new RecordField(childName, RecordFieldType.CHOICE.getChoiceDataType(RecordFieldType.STRING.getDataType(), RecordFieldType.RECORD.getDataType()));
-        return new StandardFieldValue(null, field, parent);
+        return new StandardFieldValue(null, unknownChildField, parent);
     }
 
-    private FieldValue missingChild(final FieldValue parent, final RecordField childField) {
-        final RecordField field = new RecordField(childName, childField.getDataType(), childField.isNullable());
-        return new StandardFieldValue(null, field, parent);
+    private FieldValue missingChild(final FieldValue parent, final ChildFieldResolution childResolution) {
+        if (childResolution.field() == null) {
+            return missingChild(parent);
+        }
+
+        return new StandardFieldValue(null, childResolution.missingField(), parent);
     }
 
-    private FieldValue getChild(final FieldValue fieldValue) {
+    /**
+     * Resolves the child field against the given schema. The resolution is kept for the schemas that were most recently seen, so that
+     * evaluating this path against many Records that share a schema looks up the child field only once.
+     */
+    private ChildFieldResolution resolve(final RecordSchema schema) {
+        final RecordField childField = schema.getField(childName).orElse(null);
+        final RecordField missingField = childField == null ? null : new RecordField(childName, childField.getDataType(), childField.isNullable());
+        return new ChildFieldResolution(childField, missingField);
+    }
+
+    FieldValue getChild(final FieldValue fieldValue) {
         if (!Filters.isRecord(fieldValue)) {
             return missingChild(fieldValue);
         }
@@ -56,25 +71,24 @@ public class ChildFieldPath extends RecordPathSegment {
         if (record == null) {
             final RecordField parent = fieldValue.getField();
             if (parent != null && parent.getDataType() instanceof RecordDataType) {
-                final Optional<RecordField> childFieldOptional = ((RecordDataType) parent.getDataType()).getChildSchema().getField(childName);
-                return childFieldOptional.map(recordField -> missingChild(fieldValue, recordField)).orElseGet(() -> missingChild(fieldValue));
+                return missingChild(fieldValue, resolutions.get(((RecordDataType) parent.getDataType()).getChildSchema()));
             } else {
                 return missingChild(fieldValue);
             }
         }
 
-        final Object value = record.getValue(childName);
-        if (value == null) {
-            final Optional<RecordField> childFieldOptional = record.getSchema().getField(childName);
-            return childFieldOptional.map(recordField -> missingChild(fieldValue, recordField)).orElseGet(() -> missingChild(fieldValue));
+        final ChildFieldResolution childResolution = resolutions.get(record.getSchema());
+        final RecordField field = childResolution.field();
+        if (field == null) {
+            return missingChild(fieldValue);
         }
 
-        final Optional<RecordField> field = record.getSchema().getField(childName);
-        if (!field.isPresent()) {
-            return missingChild(fieldValue);
+        final Object value = record.getValue(field);
+        if (value == null) {
+            return missingChild(fieldValue, childResolution);
         }
 
-        return new StandardFieldValue(value, field.get(), fieldValue);
+        return new StandardFieldValue(value, field, fieldValue);
     }
 
     @Override
@@ -83,4 +97,7 @@ public class ChildFieldPath extends RecordPathSegment {
             // map to Optional<FieldValue> containing child element
             .map(this::getChild);
     }
+
+    private record ChildFieldResolution(RecordField field, RecordField missingField) {
+    }
 }
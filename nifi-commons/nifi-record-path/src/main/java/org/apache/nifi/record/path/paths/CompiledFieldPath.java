@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.record.path.paths;
+
+import org.apache.nifi.record.path.FieldValue;
+import org.apache.nifi.serialization.record.Record;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Evaluates an absolute RecordPath that consists only of child field, descendant field, and array index segments, such as
+ * <code>/person/addresses[0]/zip</code> or <code>//name</code>, by applying each segment directly to the FieldValues selected by
+ * the previous segment, rather than by building a Stream pipeline for every Record.
+ * </p>
+ *
+ * <p>
+ * Each segment resolves its field against the schema of the Records that it is evaluated against and keeps that resolution for as
+ * long as the schema does not change, so evaluating a path against many Records that share a schema resolves each field only once.
+ * RecordPaths that contain predicates, functions, wildcards, map keys, or parent or current field references are evaluated through
+ * {@link RecordPathSegment#evaluate(org.apache.nifi.record.path.RecordPathEvaluationContext)} instead.
+ * </p>
+ */
+final class CompiledFieldPath {
+    private final RootPath rootPath;
+    private final RecordPathSegment[] segments;
+
+    private CompiledFieldPath(final RootPath rootPath, final RecordPathSegment[] segments) {
+        this.rootPath = rootPath;
+        this.segments = segments;
+    }
+
+    /**
+     * Compiles the given RecordPath, if it consists only of segments that can be evaluated directly
+     *
+     * @param path the last segment of the RecordPath
+     * @return the compiled path, or <code>null</code> if the RecordPath must be evaluated as a Stream
+     */
+    static CompiledFieldPath compile(final RecordPathSegment path) {
+        final List<RecordPathSegment> segments = new ArrayList<>();
+        RecordPathSegment segment = path;
+        while (segment instanceof ChildFieldPath || segment instanceof DescendantFieldPath || segment instanceof ArrayIndexPath) {
+            segments.add(segment);
+            segment = segment.getParentPath();
+        }
+
+        if (!(segment instanceof final RootPath rootPath) || rootPath.getParentPath() != null) {
+            return null;
+        }
+
+        Collections.reverse(segments);
+        return new CompiledFieldPath(rootPath, segments.toArray(new RecordPathSegment[0]));
+    }
+
+    /**
+     * Evaluates the path against the given Record
+     *
+     * @param record the Record
+     * @return the selected FieldValues, in the same order as they would be selected by the Stream evaluation
+     */
+    List<FieldValue> evaluate(final Record record) {
+        // Most paths select a single field, so a List is only created once a segment selects more than one
+        FieldValue selected = rootPath.getRootFieldValue(record);
+        List<FieldValue> selectedValues = null;
+
+        for (final RecordPathSegment segment : segments) {
+            if (selectedValues == null) {
+                if (segment instanceof final ChildFieldPath childFieldPath) {
+                    selected = childFieldPath.getChild(selected);
+                } else if (segment instanceof final ArrayIndexPath arrayIndexPath) {
+                    selected = arrayIndexPath.getElement(selected);
+                    if (selected == null) {
+                        return List.of();
+                    }
+                } else {
+                    selectedValues = ((DescendantFieldPath) segment).findDescendants(selected);
+                }
+            } else {
+                selectedValues = evaluate(segment, selectedValues);
+            }
+        }
+
+        return selectedValues == null ? List.of(selected) : selectedValues;
+    }
+
+    private List<FieldValue> evaluate(final RecordPathSegment segment, final List<FieldValue> fieldValues) {
+        final List<FieldValue> selectedValues = new ArrayList<>(fieldValues.size());
+        for (final FieldValue fieldValue : fieldValues) {
+            if (segment instanceof final ChildFieldPath childFieldPath) {
+                selectedValues.add(childFieldPath.getChild(fieldValue));
+            } else if (segment instanceof final ArrayIndexPath arrayIndexPath) {
+                final FieldValue element = arrayIndexPath.getElement(fieldValue);
+                if (element != null) {
+                    selectedValues.add(element);
+                }
+            } else {
+                selectedValues.addAll(((DescendantFieldPath) segment).findDescendants(fieldValue));
+            }
+        }
+
+        return selectedValues;
+    }
+}
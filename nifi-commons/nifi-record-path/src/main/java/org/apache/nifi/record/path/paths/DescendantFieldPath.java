@@ -50,7 +50,7 @@ public class DescendantFieldPath extends RecordPathSegment {
             .flatMap(recordFieldVal -> findDescendants(recordFieldVal).stream());
     }
 
-    private List<FieldValue> findDescendants(final FieldValue fieldValue) {
+    List<FieldValue> findDescendants(final FieldValue fieldValue) {
         if (fieldValue == null || fieldValue.getValue() == null) {
             return Collections.emptyList();
         }
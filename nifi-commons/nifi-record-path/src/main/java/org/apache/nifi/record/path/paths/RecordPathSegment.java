@@ -25,12 +25,16 @@ import org.apache.nifi.record.path.StandardRecordPathEvaluationContext;
 import org.apache.nifi.serialization.record.Record;
 
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public abstract class RecordPathSegment implements RecordPath {
     private final String path;
     private final RecordPathSegment parentPath;
     private final boolean absolute;
+    // Determined on first evaluation, once the whole path has been built: empty if this path must be evaluated as a Stream
+    private volatile Optional<CompiledFieldPath> compiledFieldPath;
 
     public RecordPathSegment(final String path, final RecordPathSegment parentPath, final boolean absolute) {
         this.path = path;
@@ -78,30 +82,37 @@ public abstract class RecordPathSegment implements RecordPath {
         return getPath().equals(other.getPath());
     }
 
-    @Override
-    public final RecordPathResult evaluate(final Record record) {
-        final RecordPathEvaluationContext context = new StandardRecordPathEvaluationContext(record);
-        final Stream<FieldValue> selectedFields = evaluate(context);
+    private Optional<CompiledFieldPath> getCompiledFieldPath() {
+        Optional<CompiledFieldPath> compiled = compiledFieldPath;
+        if (compiled == null) {
+            compiled = Optional.ofNullable(CompiledFieldPath.compile(this));
+            compiledFieldPath = compiled;
+        }
 
-        return new RecordPathResult() {
-            @Override
-            public String getPath() {
-                return RecordPathSegment.this.getPath();
-            }
+        return compiled;
+    }
 
-            @Override
-            public Stream<FieldValue> getSelectedFields() {
-                return selectedFields;
-            }
-        };
+    @Override
+    public final RecordPathResult evaluate(final Record record) {
+        return evaluate(record, (FieldValue) null);
     }
 
     @Override
     public final RecordPathResult evaluate(final Record record, final FieldValue contextNode) {
+        // A compiled path always starts at the root Record, so it does not depend on the context node
+        final Optional<CompiledFieldPath> compiled = getCompiledFieldPath();
+        if (compiled.isPresent()) {
+            final CompiledFieldPath compiledPath = compiled.get();
+            return createResult(() -> compiledPath.evaluate(record).stream());
+        }
+
         final RecordPathEvaluationContext context = new StandardRecordPathEvaluationContext(record);
         context.setContextNode(contextNode);
         final Stream<FieldValue> selectedFields = evaluate(context);
+        return createResult(() -> selectedFields);
+    }
 
+    private RecordPathResult createResult(final Supplier<Stream<FieldValue>> selectedFields) {
         return new RecordPathResult() {
             @Override
             public String getPath() {
@@ -110,7 +121,7 @@ public abstract class RecordPathSegment implements RecordPath {
 
             @Override
             public Stream<FieldValue> getSelectedFields() {
-                return selectedFields;
+                return selectedFields.get();
             }
         };
     }
@@ -20,6 +20,7 @@ package org.apache.nifi.record.path.paths;
 import org.apache.nifi.record.path.FieldValue;
 import org.apache.nifi.record.path.RecordPathEvaluationContext;
 import org.apache.nifi.record.path.StandardFieldValue;
+import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 
@@ -28,14 +29,20 @@ import java.util.stream.Stream;
 public class RootPath extends RecordPathSegment {
     private static final String PATH = "";
 
+    // The root field depends only on the schema, so it is kept for the schemas that were most recently seen
+    private final SchemaResolutionCache<RecordField> rootFields = new SchemaResolutionCache<>(
+        schema -> new RecordField("root", RecordFieldType.RECORD.getRecordDataType(schema)));
+
     public RootPath() {
         super(PATH, null, true);
     }
 
     @Override
     public Stream<FieldValue> evaluate(final RecordPathEvaluationContext context) {
-        final RecordField field = new RecordField("root", RecordFieldType.RECORD.getRecordDataType(context.getRecord().getSchema()));
-        final FieldValue fieldValue = new StandardFieldValue(context.getRecord(), field, null);
-        return Stream.of(fieldValue);
+        return Stream.of(getRootFieldValue(context.getRecord()));
+    }
+
+    FieldValue getRootFieldValue(final Record record) {
+        return new StandardFieldValue(record, rootFields.get(record.getSchema()), null);
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.record.path.paths;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordSchema;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Holds a value that is resolved from a RecordSchema, such as the field that a path segment refers to, for each of the few schemas
+ * that the path was most recently evaluated against. Records of different schemas frequently alternate, as with mixed-schema data
+ * or CHOICE fields, so keeping more than one schema avoids resolving the value again every time the schema changes. A value is
+ * resolved again if the schema's list of fields has been replaced, since a schema may be updated in place.
+ *
+ * @param <T> the type of the resolved value
+ */
+final class SchemaResolutionCache<T> {
+    private static final int MAX_SCHEMAS = 4;
+
+    private final AtomicReferenceArray<Resolution<T>> resolutions = new AtomicReferenceArray<>(MAX_SCHEMAS);
+    private final Function<RecordSchema, T> resolver;
+
+    // Not synchronized: concurrent misses may replace the same entry, which only causes a schema to be resolved again later
+    private int nextReplacement;
+
+    SchemaResolutionCache(final Function<RecordSchema, T> resolver) {
+        this.resolver = resolver;
+    }
+
+    T get(final RecordSchema schema) {
+        final List<RecordField> schemaFields = schema.getFields();
+        for (int i = 0; i < MAX_SCHEMAS; i++) {
+            final Resolution<T> resolution = resolutions.get(i);
+            if (resolution != null && resolution.schema() == schema && resolution.schemaFields() == schemaFields) {
+                return resolution.value();
+            }
+        }
+
+        final T value = resolver.apply(schema);
+        final int index = nextReplacement;
+        nextReplacement = (index + 1) % MAX_SCHEMAS;
+        resolutions.set(index, new Resolution<>(schema, schemaFields, value));
+        return value;
+    }
+
+    private record Resolution<T>(RecordSchema schema, List<RecordField> schemaFields, T value) {
+    }
+}
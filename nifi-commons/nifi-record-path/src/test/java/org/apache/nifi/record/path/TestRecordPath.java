@@ -260,6 +260,53 @@ public class TestRecordPath {
         );
     }
 
+    @Test
+    void supportsEvaluatingSamePathAgainstRecordsWithDifferentSchemas() {
+        final RecordPath recordPath = assertDoesNotThrow(() -> RecordPath.compile("/mainAccount/balance"));
+
+        assertFieldValue(mainAccountRecord, "balance", 123.45, evaluateSingleFieldValue(recordPath, record));
+
+        final Record reducedRecord = reduceRecord(record, "id", "name");
+        final FieldValue missingFieldValue = evaluateSingleFieldValue(recordPath, reducedRecord);
+        assertEquals("balance", missingFieldValue.getField().getFieldName());
+        assertNull(missingFieldValue.getValue());
+
+        final RecordSchema stringBalanceSchema = recordSchemaOf(recordFieldOf("balance", RecordFieldType.STRING));
+        final Record stringBalanceRecord = new MapRecord(stringBalanceSchema, Map.of("balance", "unknown"));
+        final Record otherRecord = new MapRecord(recordSchemaOf(recordFieldOf("mainAccount", recordTypeOf(stringBalanceSchema))), Map.of("mainAccount", stringBalanceRecord));
+        final FieldValue otherFieldValue = evaluateSingleFieldValue(recordPath, otherRecord);
+        assertFieldValue(stringBalanceRecord, "balance", "unknown", otherFieldValue);
+        assertEquals(RecordFieldType.STRING, otherFieldValue.getField().getDataType().getFieldType());
+
+        assertFieldValue(mainAccountRecord, "balance", 123.45, evaluateSingleFieldValue(recordPath, record));
+    }
+
+    @Test
+    void supportsEvaluatingSamePathAfterSchemaFieldIsRenamed() {
+        final RecordPath recordPath = assertDoesNotThrow(() -> RecordPath.compile("/name"));
+
+        final RecordSchema schema = recordSchemaOf(recordFieldOf("name", RecordFieldType.STRING));
+        final Record record = new MapRecord(schema, new HashMap<>(Map.of("name", "John Doe")));
+        assertFieldValue(record, "name", "John Doe", evaluateSingleFieldValue(recordPath, record));
+
+        schema.renameField("name", "fullName");
+        final Record renamedRecord = new MapRecord(schema, new HashMap<>(Map.of("fullName", "John Doe")));
+        assertNull(evaluateSingleFieldValue(recordPath, renamedRecord).getValue());
+        assertFieldValue(renamedRecord, "fullName", "John Doe", evaluateSingleFieldValue("/fullName", renamedRecord));
+    }
+
+    @Test
+    void supportsReferenceToChildFieldOfArrayIndexOfDescendant() {
+        final RecordPath recordPath = assertDoesNotThrow(() -> RecordPath.compile("//accounts[-1]/address/city"));
+
+        final Record[] accountRecords = (Record[]) record.getAsArray("accounts");
+        final List<FieldValue> fieldValues = evaluateMultiFieldValue(recordPath, record);
+        assertAll(
+                () -> assertEquals(1, fieldValues.size()),
+                () -> assertFieldValue(getAddressRecord(accountRecords[1]), "city", "Austin", fieldValues.getFirst())
+        );
+    }
+
     @Test
     public void supportsToEscapeQuotesInLiterals() {
         record.setValue("attributes", new HashMap<>(Map.of(
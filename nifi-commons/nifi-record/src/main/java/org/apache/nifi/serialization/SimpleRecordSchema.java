@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicReference;
 public class SimpleRecordSchema implements RecordSchema {
     private List<RecordField> fields = null;
     private Map<String, RecordField> fieldMap = null;
+    private Map<String, Integer> fieldIndexes = null;
     private boolean textAvailable;
     private final AtomicReference<String> text = new AtomicReference<>();
     private String schemaFormat;
@@ -102,8 +103,11 @@ public class SimpleRecordSchema implements RecordSchema {
         this.hashCode = 0;
         this.fields = List.copyOf(fields);
         this.fieldMap = new HashMap<>(fields.size() * 2);
+        this.fieldIndexes = new HashMap<>(fields.size() * 2);
 
         for (final RecordField field : fields) {
+            fieldIndexes.put(field.getFieldName(), fieldIndexes.size());
+
             RecordField previousValue = fieldMap.put(field.getFieldName(), field);
             if (previousValue != null) {
                 throw new IllegalArgumentException("Two fields are given with the same name (or alias) of '" + field.getFieldName() + "'");
@@ -128,6 +132,12 @@ public class SimpleRecordSchema implements RecordSchema {
         return fields.get(index);
     }
 
+    @Override
+    public int getFieldIndex(final String fieldName) {
+        final Integer index = fieldIndexes.get(fieldName);
+        return index == null ? -1 : index;
+    }
+
     @Override
     public List<DataType> getDataTypes() {
         final List<DataType> dataTypes = new ArrayList<>();
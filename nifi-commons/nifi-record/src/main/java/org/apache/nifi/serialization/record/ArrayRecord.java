@@ -0,0 +1,657 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.SchemaValidationException;
+import org.apache.nifi.serialization.record.field.FieldConverter;
+import org.apache.nifi.serialization.record.field.StandardFieldConverterRegistry;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * <p>
+ * A Record that stores its values in an array that is indexed by the position of each field in the Record's schema, rather than in a Map
+ * that is keyed by field name. This avoids creating a Map and its entries for every Record that a Record Reader produces, and allows
+ * a value to be looked up by the index of its field.
+ * </p>
+ *
+ * <p>
+ * The value for a field may be <code>null</code>, or it may be {@link #ABSENT}, which indicates that the field was not present at all,
+ * such as a field that did not appear in a JSON object. This is the same distinction that a {@link MapRecord} makes between a key
+ * that maps to <code>null</code> and a key that is not in its Map. An ArrayRecord behaves exactly as a MapRecord with the same values.
+ * </p>
+ *
+ * <p>
+ * Because the values can only hold fields of the schema, an ArrayRecord converts itself into a {@link MapRecord}, to which it then delegates
+ * all calls, when a value is set for a field that is not in the schema, when a field is renamed, or when its schema no longer contains
+ * a field for which it holds a value.
+ * </p>
+ */
+public class ArrayRecord implements Record {
+    /**
+     * The value of a field that is not present in the Record, as opposed to a field that is present with a <code>null</code> value
+     */
+    public static final Object ABSENT = new Object() {
+        @Override
+        public String toString() {
+            return "ABSENT";
+        }
+    };
+
+    private RecordSchema schema;
+    private List<RecordField> fields;
+    private Object[] values;
+    private Optional<SerializedForm> serializedForm;
+    private final boolean checkTypes;
+    private final boolean dropUnknownFields;
+    private Map<String, RecordField> updatedFields = null;
+    private MapRecord mapRecord = null;
+
+    public ArrayRecord(final RecordSchema schema, final Object[] values) {
+        this(schema, values, false, false);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, checkTypes, dropUnknownFields);
+    }
+
+    /**
+     * @param schema the schema of the Record
+     * @param values the values of the fields of the schema, in the order of {@link RecordSchema#getFields()}, with {@link #ABSENT} for any field that is not present.
+     *            The array is used as-is, not copied.
+     * @param serializedForm the serialized form of the Record, or <code>null</code> if not known
+     * @param checkTypes whether or not the values should be checked against, and coerced to, the types of the fields of the schema
+     * @param dropUnknownFields whether or not fields that are not in the schema should be dropped
+     */
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        Objects.requireNonNull(values);
+
+        this.schema = Objects.requireNonNull(schema);
+        this.fields = schema.getFields();
+        if (values.length != fields.size()) {
+            throw new IllegalArgumentException("Cannot create Record with " + values.length + " values because its schema has " + fields.size() + " fields");
+        }
+
+        this.values = values;
+        this.serializedForm = Optional.ofNullable(serializedForm);
+        this.checkTypes = checkTypes;
+        this.dropUnknownFields = dropUnknownFields;
+
+        if (checkTypes) {
+            checkTypes();
+        }
+    }
+
+    private void checkTypes() {
+        for (final RecordField field : fields) {
+            final Object value = getExplicitValue(field);
+
+            if (value == null) {
+                if (field.isNullable() || field.getDefaultValue() != null) {
+                    continue;
+                }
+
+                throw new SchemaValidationException("Field " + field.getFieldName() + " cannot be null");
+            }
+
+            if (!DataTypeUtils.isCompatibleDataType(value, field.getDataType())) {
+                throw new SchemaValidationException("Field " + field.getFieldName() + " has a value of " + value
+                    + ", which cannot be coerced into the appropriate data type of " + field.getDataType());
+            }
+        }
+    }
+
+    /**
+     * Returns the MapRecord to which all calls are delegated, if this Record has been converted into one. If the fields of the schema have
+     * changed since the values were last arranged, the values are first rearranged to match the schema.
+     *
+     * @return the MapRecord to delegate to, or <code>null</code> if the values are still held in the array
+     */
+    private MapRecord getMapRecord() {
+        if (mapRecord == null && schema.getFields() != fields) {
+            bind(schema);
+        }
+
+        return mapRecord;
+    }
+
+    /**
+     * Arranges the values in the order of the fields of the given schema, converting this Record into a MapRecord if the schema does not
+     * have a field for one of the values that are present.
+     */
+    private void bind(final RecordSchema updatedSchema) {
+        final List<RecordField> updatedSchemaFields = updatedSchema.getFields();
+        final Object[] updatedValues = new Object[updatedSchemaFields.size()];
+        Arrays.fill(updatedValues, ABSENT);
+
+        for (int i = 0; i < values.length; i++) {
+            final Object value = values[i];
+            if (value == ABSENT) {
+                continue;
+            }
+
+            final int index = updatedSchema.getFieldIndex(fields.get(i).getFieldName());
+            if (index < 0) {
+                this.schema = updatedSchema;
+                inflate();
+                return;
+            }
+
+            updatedValues[index] = value;
+        }
+
+        this.schema = updatedSchema;
+        this.fields = updatedSchemaFields;
+        this.values = updatedValues;
+    }
+
+    private MapRecord inflate() {
+        if (mapRecord == null) {
+            final Map<String, Object> valueMap = new LinkedHashMap<>(values.length * 2);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != ABSENT) {
+                    valueMap.put(fields.get(i).getFieldName(), values[i]);
+                }
+            }
+
+            mapRecord = new MapRecord(schema, valueMap, serializedForm, checkTypes, dropUnknownFields, updatedFields);
+            values = null;
+        }
+
+        return mapRecord;
+    }
+
+    @Override
+    public boolean isDropUnknownFields() {
+        return dropUnknownFields;
+    }
+
+    @Override
+    public boolean isTypeChecked() {
+        return checkTypes;
+    }
+
+    @Override
+    public RecordSchema getSchema() {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.getSchema();
+        }
+
+        return schema;
+    }
+
+    @Override
+    public Object[] getValues() {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.getValues();
+        }
+
+        final Object[] fieldValues = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final RecordField recordField = fields.get(i);
+            Object value = values[i];
+            if (value == ABSENT || value == null) {
+                value = getExplicitValue(recordField);
+                if (value == null) {
+                    value = recordField.getDefaultValue();
+                }
+            }
+
+            fieldValues[i] = value;
+        }
+        return fieldValues;
+    }
+
+    @Override
+    public Object getValue(final String fieldName) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.getValue(fieldName);
+        }
+
+        final Optional<RecordField> fieldOption = schema.getField(fieldName);
+        if (fieldOption.isPresent()) {
+            return getValue(fieldOption.get());
+        }
+
+        // The values only ever hold fields of the schema
+        return null;
+    }
+
+    @Override
+    public Object getValue(final RecordField field) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.getValue(field);
+        }
+
+        Object explicitValue = getExplicitValue(field);
+        if (explicitValue != null) {
+            return explicitValue;
+        }
+
+        final Optional<RecordField> resolvedField = resolveField(field);
+        final boolean resolvedFieldDifferent = resolvedField.isPresent() && !resolvedField.get().equals(field);
+        if (resolvedFieldDifferent) {
+            explicitValue = getExplicitValue(resolvedField.get());
+            if (explicitValue != null) {
+                return explicitValue;
+            }
+        }
+
+        Object defaultValue = field.getDefaultValue();
+        if (defaultValue != null) {
+            return defaultValue;
+        }
+
+        if (resolvedFieldDifferent) {
+            return resolvedField.get().getDefaultValue();
+        }
+
+        return null;
+    }
+
+    private Optional<RecordField> resolveField(final RecordField field) {
+        Optional<RecordField> resolved = schema.getField(field.getFieldName());
+        if (resolved.isPresent()) {
+            return resolved;
+        }
+
+        for (final String alias : field.getAliases()) {
+            resolved = schema.getField(alias);
+            if (resolved.isPresent()) {
+                return resolved;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private Object getExplicitValue(final RecordField field) {
+        Object value = getSlotValue(field.getFieldName());
+        if (value != null) {
+            return value;
+        }
+
+        for (final String alias : field.getAliases()) {
+            value = getSlotValue(alias);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    private Object getSlotValue(final String fieldName) {
+        final int index = schema.getFieldIndex(fieldName);
+        if (index < 0) {
+            return null;
+        }
+
+        final Object value = values[index];
+        return value == ABSENT ? null : value;
+    }
+
+    @Override
+    public String getAsString(final String fieldName) {
+        final Optional<DataType> dataTypeOption = getSchema().getDataType(fieldName);
+        if (dataTypeOption.isPresent()) {
+            return convertToString(getValue(fieldName), dataTypeOption.get().getFormat());
+        }
+
+        final FieldConverter<Object, String> converter = StandardFieldConverterRegistry.getRegistry().getFieldConverter(String.class);
+        return converter.convertField(getValue(fieldName), Optional.empty(), fieldName);
+    }
+
+    @Override
+    public String getAsString(final String fieldName, final String format) {
+        return convertToString(getValue(fieldName), format);
+    }
+
+    @Override
+    public String getAsString(final RecordField field, final String format) {
+        return convertToString(getValue(field), format);
+    }
+
+    private String convertToString(final Object value, final String format) {
+        if (value == null) {
+            return null;
+        }
+
+        return DataTypeUtils.toString(value, format);
+    }
+
+    @Override
+    public Long getAsLong(final String fieldName) {
+        return DataTypeUtils.toLong(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Integer getAsInt(final String fieldName) {
+        return DataTypeUtils.toInteger(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Double getAsDouble(final String fieldName) {
+        return DataTypeUtils.toDouble(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Float getAsFloat(final String fieldName) {
+        return DataTypeUtils.toFloat(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Record getAsRecord(final String fieldName, final RecordSchema schema) {
+        return DataTypeUtils.toRecord(getValue(fieldName), schema, fieldName);
+    }
+
+    @Override
+    public Boolean getAsBoolean(final String fieldName) {
+        return DataTypeUtils.toBoolean(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public LocalDate getAsLocalDate(final String fieldName, final String format) {
+        return convertFieldToDateTime(LocalDate.class, fieldName, format);
+    }
+
+    @Override
+    public LocalDateTime getAsLocalDateTime(final String fieldName, final String format) {
+        return convertFieldToDateTime(LocalDateTime.class, fieldName, format);
+    }
+
+    @Override
+    public OffsetDateTime getAsOffsetDateTime(final String fieldName, final String format) {
+        return convertFieldToDateTime(OffsetDateTime.class, fieldName, format);
+    }
+
+    private <T> T convertFieldToDateTime(final Class<T> clazz, final String fieldName, final String format) {
+        final FieldConverter<Object, T> converter = StandardFieldConverterRegistry.getRegistry().getFieldConverter(clazz);
+        return converter.convertField(getValue(fieldName), Optional.ofNullable(format), fieldName);
+    }
+
+    @Override
+    public Object[] getAsArray(final String fieldName) {
+        return DataTypeUtils.toArray(getValue(fieldName), fieldName, null, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 + 41 * toMap().hashCode() + 7 * getSchema().hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof MapRecord) && !(obj instanceof ArrayRecord)) {
+            return false;
+        }
+
+        final Record other = (Record) obj;
+        return getSchema().equals(other.getSchema()) && MapRecord.valuesEqual(toMap(), other.toMap());
+    }
+
+    @Override
+    public String toString() {
+        final Optional<SerializedForm> serializedForm = getSerializedForm();
+        if (serializedForm.isEmpty()) {
+            return "ArrayRecord[" + toMap() + "]";
+        }
+
+        final Object serialized = serializedForm.get().getSerialized();
+        return serialized == null ? "ArrayRecord[" + toMap() + "]" : serialized.toString();
+    }
+
+    @Override
+    public Optional<SerializedForm> getSerializedForm() {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.getSerializedForm();
+        }
+
+        if (serializedForm.isEmpty()) {
+            return Optional.empty();
+        }
+
+        for (final Object value : values) {
+            if (value != ABSENT && MapRecord.isSerializedFormReset(value)) {
+                return Optional.empty();
+            }
+        }
+
+        return serializedForm;
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.toMap();
+        }
+
+        return Collections.unmodifiableMap(getPresentValues());
+    }
+
+    public Map<String, Object> toMap(final boolean convertSubRecords) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.toMap(convertSubRecords);
+        }
+
+        if (convertSubRecords) {
+            return MapRecord.convertSubRecords(getPresentValues());
+        }
+
+        return Collections.unmodifiableMap(getPresentValues());
+    }
+
+    private Map<String, Object> getPresentValues() {
+        final Map<String, Object> presentValues = new LinkedHashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != ABSENT) {
+                presentValues.put(fields.get(i).getFieldName(), values[i]);
+            }
+        }
+
+        return presentValues;
+    }
+
+    @Override
+    public Set<String> getRawFieldNames() {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.getRawFieldNames();
+        }
+
+        final Set<String> fieldNames = new LinkedHashSet<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != ABSENT) {
+                fieldNames.add(fields.get(i).getFieldName());
+            }
+        }
+
+        return fieldNames;
+    }
+
+    @Override
+    public void setValue(final RecordField field, final Object value) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            delegate.setValue(field, value);
+            return;
+        }
+
+        final Optional<RecordField> existingField = schema.getField(field.getFieldName());
+        if (existingField.isEmpty()) {
+            // The values can only hold the fields of the schema, so a field that is not in the schema requires a MapRecord
+            inflate().setValue(field, value);
+            return;
+        }
+
+        final RecordField existingRecordField = existingField.get();
+        final String fieldName = existingRecordField.getFieldName();
+        final Object coerced = isTypeChecked() ? DataTypeUtils.convertType(value, existingRecordField.getDataType(), field.getFieldName()) : value;
+        final int index = schema.getFieldIndex(fieldName);
+        final Object previousValue = values[index];
+        values[index] = coerced;
+        if (!Objects.equals(coerced, previousValue == ABSENT ? null : previousValue)) {
+            serializedForm = Optional.empty();
+        }
+
+        // Keep track of any fields whose definition has been changed so that it can be taken into account when calling #incorporateInactiveFields
+        final RecordField merged = DataTypeUtils.merge(existingRecordField, field);
+        if (!Objects.equals(existingRecordField, merged)) {
+            if (updatedFields == null) {
+                updatedFields = new LinkedHashMap<>();
+            }
+            updatedFields.put(field.getFieldName(), merged);
+        }
+    }
+
+    @Override
+    public void setValue(final String fieldName, final Object value) {
+        final Optional<RecordField> existingField = getSchema().getField(fieldName);
+        RecordField recordField = null;
+        if (existingField.isPresent()) {
+            final DataType existingDataType = existingField.get().getDataType();
+            final boolean compatible = DataTypeUtils.isCompatibleDataType(value, existingDataType);
+            if (compatible) {
+                recordField = existingField.get();
+            }
+        }
+        if (recordField == null) {
+            final DataType inferredDataType = DataTypeUtils.inferDataType(value, RecordFieldType.STRING.getDataType());
+            recordField = new RecordField(fieldName, inferredDataType);
+        }
+
+        setValue(recordField, value);
+    }
+
+    @Override
+    public void remove(final RecordField field) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            delegate.remove(field);
+            return;
+        }
+
+        final Optional<RecordField> existingField = resolveField(field);
+        if (existingField.isEmpty()) {
+            return;
+        }
+
+        final int index = schema.getFieldIndex(existingField.get().getFieldName());
+        final Object previousValue = values[index];
+        values[index] = ABSENT;
+        if (previousValue != null && previousValue != ABSENT) {
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean rename(final RecordField field, final String newName) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            return delegate.rename(field, newName);
+        }
+
+        return inflate().rename(field, newName);
+    }
+
+    @Override
+    public void regenerateSchema() {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            delegate.regenerateSchema();
+            return;
+        }
+
+        bind(RecordSchemaUpdates.regenerateSchema(this, schema));
+    }
+
+    @Override
+    public void incorporateSchema(final RecordSchema other) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            delegate.incorporateSchema(other);
+            return;
+        }
+
+        bind(DataTypeUtils.merge(schema, other));
+    }
+
+    @Override
+    public void incorporateInactiveFields() {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            delegate.incorporateInactiveFields();
+            return;
+        }
+
+        // Any field that is not in the schema converts this Record into a MapRecord, so there are no inactive fields to incorporate
+        final RecordSchema updatedSchema = RecordSchemaUpdates.incorporateInactiveFields(this, schema, updatedFields, null);
+        if (updatedSchema != null) {
+            bind(updatedSchema);
+        }
+    }
+
+    @Override
+    public void setArrayValue(final String fieldName, final int arrayIndex, final Object value) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            delegate.setArrayValue(fieldName, arrayIndex, value);
+            return;
+        }
+
+        if (RecordValueUpdates.setArrayValue(schema, fieldName, arrayIndex, value, this::getSlotValue)) {
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    public void setMapValue(final String fieldName, final String mapKey, final Object value) {
+        final MapRecord delegate = getMapRecord();
+        if (delegate != null) {
+            delegate.setMapValue(fieldName, mapKey, value);
+            return;
+        }
+
+        if (RecordValueUpdates.setMapValue(schema, fieldName, mapKey, value, this::getSlotValue)) {
+            serializedForm = Optional.empty();
+        }
+    }
+}
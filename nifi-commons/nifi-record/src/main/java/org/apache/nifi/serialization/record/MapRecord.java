@@ -21,12 +21,7 @@ import org.apache.nifi.serialization.SchemaValidationException;
 import org.apache.nifi.serialization.SimpleRecordSchema;
 import org.apache.nifi.serialization.record.field.FieldConverter;
 import org.apache.nifi.serialization.record.field.StandardFieldConverterRegistry;
-import org.apache.nifi.serialization.record.type.ArrayDataType;
-import org.apache.nifi.serialization.record.type.ChoiceDataType;
-import org.apache.nifi.serialization.record.type.MapDataType;
-import org.apache.nifi.serialization.record.type.RecordDataType;
 import org.apache.nifi.serialization.record.util.DataTypeUtils;
-import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -86,6 +81,19 @@ public class MapRecord implements Record {
         this.dropUnknownFields = dropUnknownFields;
     }
 
+    /**
+     * Creates a MapRecord that continues the state of an {@link ArrayRecord} whose values have already been checked
+     */
+    MapRecord(final RecordSchema schema, final Map<String, Object> values, final Optional<SerializedForm> serializedForm, final boolean checkTypes,
+              final boolean dropUnknownFields, final Map<String, RecordField> updatedFields) {
+        this.schema = schema;
+        this.values = values;
+        this.serializedForm = serializedForm;
+        this.checkTypes = checkTypes;
+        this.dropUnknownFields = dropUnknownFields;
+        this.updatedFields = updatedFields;
+    }
+
     private Map<String, Object> checkTypes(final Map<String, Object> values, final RecordSchema schema) {
         for (final RecordField field : schema.getFields()) {
             Object value = getExplicitValue(field, values);
@@ -318,13 +326,16 @@ public class MapRecord implements Record {
         if (obj == null) {
             return false;
         }
+        if (obj instanceof final ArrayRecord other) {
+            return schema.equals(other.getSchema()) && valuesEqual(values, other.toMap());
+        }
         if (!(obj instanceof final MapRecord other)) {
             return false;
         }
         return schema.equals(other.schema) && valuesEqual(values, other.values);
     }
 
-    private boolean valuesEqual(final Map<String, Object> thisValues, final Map<String, Object> otherValues) {
+    static boolean valuesEqual(final Map<String, Object> thisValues, final Map<String, Object> otherValues) {
         if (thisValues == null || otherValues == null) {
             return false;
         }
@@ -390,7 +401,7 @@ public class MapRecord implements Record {
         return false;
     }
 
-    private boolean isSerializedFormReset(final Object value) {
+    static boolean isSerializedFormReset(final Object value) {
         if (value == null) {
             return true;
         }
@@ -399,6 +410,10 @@ public class MapRecord implements Record {
             if (childRecord.isSerializedFormReset()) {
                 return true;
             }
+        } else if (value instanceof final ArrayRecord childRecord) {
+            if (childRecord.getSerializedForm().isEmpty()) {
+                return true;
+            }
         } else if (value instanceof final Collection<?> collection) {
             for (final Object collectionValue : collection) {
                 if (isSerializedFormReset(collectionValue)) {
@@ -423,45 +438,60 @@ public class MapRecord implements Record {
 
     public Map<String, Object> toMap(boolean convertSubRecords) {
         if (convertSubRecords) {
-            Map<String, Object> newMap = new LinkedHashMap<>();
-            values.forEach((key, value) -> {
-                Object valueToAdd;
-
-                if (value instanceof MapRecord) {
-                    valueToAdd = ((MapRecord) value).toMap(true);
-                } else if (value != null
-                        && value.getClass().isArray()
-                        && ((Object[]) value).length > 0
-                        && ((Object[]) value)[0] instanceof MapRecord) {
-                    Object[] records = (Object[]) value;
-                    Map<String, Object>[] maps = new Map[records.length];
-                    for (int index = 0; index < records.length; index++) {
-                        maps[index] = ((MapRecord) records[index]).toMap(true);
-                    }
-                    valueToAdd = maps;
-                } else if (value instanceof final List<?> valueList) {
-                    if (!valueList.isEmpty() && valueList.get(0) instanceof MapRecord) {
-                        List<Map<String, Object>> newRecords = new ArrayList<>();
-                        for (Object o : valueList) {
-                            MapRecord rec = (MapRecord) o;
-                            newRecords.add(rec.toMap(true));
-                        }
-
-                        valueToAdd = newRecords;
-                    } else {
-                        valueToAdd = value;
+            return convertSubRecords(values);
+        } else {
+            return Collections.unmodifiableMap(values);
+        }
+    }
+
+    static Map<String, Object> convertSubRecords(final Map<String, Object> values) {
+        Map<String, Object> newMap = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            Object valueToAdd;
+
+            if (isConvertibleRecord(value)) {
+                valueToAdd = toConvertedMap(value);
+            } else if (value != null
+                    && value.getClass().isArray()
+                    && ((Object[]) value).length > 0
+                    && isConvertibleRecord(((Object[]) value)[0])) {
+                Object[] records = (Object[]) value;
+                Map<String, Object>[] maps = new Map[records.length];
+                for (int index = 0; index < records.length; index++) {
+                    maps[index] = toConvertedMap(records[index]);
+                }
+                valueToAdd = maps;
+            } else if (value instanceof final List<?> valueList) {
+                if (!valueList.isEmpty() && isConvertibleRecord(valueList.get(0))) {
+                    List<Map<String, Object>> newRecords = new ArrayList<>();
+                    for (Object o : valueList) {
+                        newRecords.add(toConvertedMap(o));
                     }
+
+                    valueToAdd = newRecords;
                 } else {
                     valueToAdd = value;
                 }
+            } else {
+                valueToAdd = value;
+            }
 
-                newMap.put(key, valueToAdd);
-            });
+            newMap.put(key, valueToAdd);
+        });
 
-            return newMap;
-        } else {
-            return Collections.unmodifiableMap(values);
+        return newMap;
+    }
+
+    private static boolean isConvertibleRecord(final Object value) {
+        return value instanceof MapRecord || value instanceof ArrayRecord;
+    }
+
+    private static Map<String, Object> toConvertedMap(final Object record) {
+        if (record instanceof final ArrayRecord arrayRecord) {
+            return arrayRecord.toMap(true);
         }
+
+        return ((MapRecord) record).toMap(true);
     }
 
     @Override
@@ -548,49 +578,7 @@ public class MapRecord implements Record {
 
     @Override
     public void regenerateSchema() {
-        final List<RecordField> schemaFields = new ArrayList<>(schema.getFieldCount());
-
-        for (final RecordField schemaField : schema.getFields()) {
-            final Object fieldValue = getValue(schemaField);
-            if (schemaField.getDataType().getFieldType() == RecordFieldType.CHOICE) {
-                schemaFields.add(schemaField);
-            } else if (fieldValue instanceof final Record childRecord) {
-                childRecord.regenerateSchema();
-                schemaFields.add(new RecordField(schemaField.getFieldName(), RecordFieldType.RECORD.getRecordDataType(childRecord.getSchema()), schemaField.isNullable()));
-            } else if (schemaField.getDataType().getFieldType() == RecordFieldType.ARRAY && fieldValue instanceof Object[]) {
-                // Handle arrays of records - regenerate schema based on actual element schemas
-                final ArrayDataType arrayType = (ArrayDataType) schemaField.getDataType();
-                final DataType elementType = arrayType.getElementType();
-                if (elementType.getFieldType() == RecordFieldType.RECORD) {
-                    final Object[] array = (Object[]) fieldValue;
-                    RecordSchema mergedElementSchema = null;
-                    for (final Object element : array) {
-                        if (element instanceof Record) {
-                            final Record elementRecord = (Record) element;
-                            elementRecord.regenerateSchema();
-                            if (mergedElementSchema == null) {
-                                mergedElementSchema = elementRecord.getSchema();
-                            } else {
-                                mergedElementSchema = DataTypeUtils.merge(mergedElementSchema, elementRecord.getSchema());
-                            }
-                        }
-                    }
-                    if (mergedElementSchema != null) {
-                        final DataType newElementType = RecordFieldType.RECORD.getRecordDataType(mergedElementSchema);
-                        final DataType newArrayType = RecordFieldType.ARRAY.getArrayDataType(newElementType);
-                        schemaFields.add(new RecordField(schemaField.getFieldName(), newArrayType, schemaField.isNullable()));
-                    } else {
-                        schemaFields.add(schemaField);
-                    }
-                } else {
-                    schemaFields.add(schemaField);
-                }
-            } else {
-                schemaFields.add(schemaField);
-            }
-        }
-
-        schema = new SimpleRecordSchema(schemaFields);
+        schema = RecordSchemaUpdates.regenerateSchema(this, schema);
     }
 
     private Optional<RecordField> setValueAndGetField(final String fieldName, final Object value) {
@@ -633,73 +621,14 @@ public class MapRecord implements Record {
 
     @Override
     public void setArrayValue(final String fieldName, final int arrayIndex, final Object value) {
-        final Optional<RecordField> field = getSchema().getField(fieldName);
-        if (field.isEmpty()) {
-            return;
-        }
-
-        final RecordField recordField = field.get();
-        final DataType dataType = recordField.getDataType();
-        if (dataType.getFieldType() != RecordFieldType.ARRAY) {
-            throw new IllegalTypeConversionException("Cannot set the value of an array index on Record because the field '" + fieldName
-                + "' is of type '" + dataType + "' and cannot be coerced into an ARRAY type");
-        }
-
-        final Object arrayObject = values.get(recordField.getFieldName());
-        if (arrayObject == null) {
-            return;
-        }
-        if (!(arrayObject instanceof Object[])) {
-            return;
-        }
-
-        final Object[] array = (Object[]) arrayObject;
-        if (arrayIndex >= array.length) {
-            return;
-        }
-
-        final ArrayDataType arrayDataType = (ArrayDataType) dataType;
-        final DataType elementType = arrayDataType.getElementType();
-        final Object coerced = DataTypeUtils.convertType(value, elementType, fieldName);
-
-        final boolean update = !Objects.equals(coerced, array[arrayIndex]);
-        if (update) {
-            array[arrayIndex] = coerced;
+        if (RecordValueUpdates.setArrayValue(getSchema(), fieldName, arrayIndex, value, values::get)) {
             serializedForm = Optional.empty();
         }
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void setMapValue(final String fieldName, final String mapKey, final Object value) {
-        final Optional<RecordField> field = getSchema().getField(fieldName);
-        if (field.isEmpty()) {
-            return;
-        }
-
-        final RecordField recordField = field.get();
-        final DataType dataType = recordField.getDataType();
-        if (dataType.getFieldType() != RecordFieldType.MAP) {
-            throw new IllegalTypeConversionException("Cannot set the value of map entry on Record because the field '" + fieldName
-                + "' is of type '" + dataType + "' and cannot be coerced into an MAP type");
-        }
-
-        Object mapObject = values.get(recordField.getFieldName());
-        if (mapObject == null) {
-            mapObject = new LinkedHashMap<>();
-        }
-        if (!(mapObject instanceof Map)) {
-            return;
-        }
-
-        final Map<String, Object> map = (Map<String, Object>) mapObject;
-
-        final MapDataType mapDataType = (MapDataType) dataType;
-        final DataType valueDataType = mapDataType.getValueType();
-        final Object coerced = DataTypeUtils.convertType(value, valueDataType, fieldName);
-
-        final Object replaced = map.put(mapKey, coerced);
-        if (replaced == null || !replaced.equals(coerced)) {
+        if (RecordValueUpdates.setMapValue(getSchema(), fieldName, mapKey, value, values::get)) {
             serializedForm = Optional.empty();
         }
     }
@@ -711,140 +640,10 @@ public class MapRecord implements Record {
 
     @Override
     public void incorporateInactiveFields() {
-        final Map<String, RecordField> fieldsByName = new LinkedHashMap<>();
-
-        boolean fieldUpdated = false;
-        for (final RecordField field : schema.getFields()) {
-            final RecordField updated = getUpdatedRecordField(field);
-            if (!updated.equals(field)) {
-                fieldUpdated = true;
-            }
-
-            fieldsByName.put(updated.getFieldName(), updated);
-        }
-
-        if (!fieldUpdated && (inactiveFields == null || inactiveFields.isEmpty())) {
-            return;
-        }
-
-        if (inactiveFields != null) {
-            for (final RecordField field : inactiveFields) {
-                final RecordField existingField = fieldsByName.get(field.getFieldName());
-                if (existingField == null) {
-                    fieldsByName.put(field.getFieldName(), field);
-                } else {
-                    if (Objects.equals(existingField, field)) {
-                        continue;
-                    }
-
-                    final RecordField merged = DataTypeUtils.merge(existingField, field);
-                    fieldsByName.put(field.getFieldName(), merged);
-                }
-            }
-        }
-
-        this.schema = new SimpleRecordSchema(new ArrayList<>(fieldsByName.values()));
-    }
-
-    private RecordField getUpdatedRecordField(final RecordField field) {
-        final String fieldName = field.getFieldName();
-        final RecordField specField;
-        if (updatedFields == null) {
-            specField = field;
-        } else {
-            specField = updatedFields.getOrDefault(fieldName, field);
-        }
-
-        final DataType dataType = specField.getDataType();
-        final RecordFieldType fieldType = dataType.getFieldType();
-
-        if (isSimpleType(fieldType)) {
-            return specField;
+        final RecordSchema updatedSchema = RecordSchemaUpdates.incorporateInactiveFields(this, schema, updatedFields, inactiveFields);
+        if (updatedSchema != null) {
+            this.schema = updatedSchema;
         }
-
-        final Object value = getValue(specField);
-        if (value == null) {
-            return specField;
-        }
-
-        if (fieldType == RecordFieldType.RECORD && value instanceof Record) {
-            final Record childRecord = (Record) value;
-            childRecord.incorporateInactiveFields();
-
-            final RecordSchema definedChildSchema = ((RecordDataType) dataType).getChildSchema();
-            final RecordSchema actualChildSchema = childRecord.getSchema();
-            final RecordSchema combinedChildSchema = DataTypeUtils.merge(definedChildSchema, actualChildSchema);
-            final DataType combinedDataType = RecordFieldType.RECORD.getRecordDataType(combinedChildSchema);
-
-            return new RecordField(specField.getFieldName(), combinedDataType, specField.getDefaultValue(), specField.getAliases(), specField.isNullable());
-        }
-
-        if (fieldType == RecordFieldType.ARRAY && value instanceof Object[]) {
-            final DataType elementType = ((ArrayDataType) dataType).getElementType();
-            final RecordFieldType elementFieldType = elementType.getFieldType();
-
-            if (elementFieldType == RecordFieldType.RECORD) {
-                final Object[] array = (Object[]) value;
-                RecordSchema mergedSchema = ((RecordDataType) elementType).getChildSchema();
-
-                for (final Object element : array) {
-                    if (element == null) {
-                        continue;
-                    }
-
-                    final Record record = (Record) element;
-                    record.incorporateInactiveFields();
-                    mergedSchema = DataTypeUtils.merge(mergedSchema, record.getSchema());
-                }
-
-                final DataType mergedRecordType = RecordFieldType.RECORD.getRecordDataType(mergedSchema);
-                final DataType mergedDataType = RecordFieldType.ARRAY.getArrayDataType(mergedRecordType);
-                return new RecordField(specField.getFieldName(), mergedDataType, specField.getDefaultValue(), specField.getAliases(), specField.isNullable());
-            }
-
-            return specField;
-        }
-
-        if (fieldType == RecordFieldType.CHOICE) {
-            final ChoiceDataType choiceDataType = (ChoiceDataType) dataType;
-            final List<DataType> possibleTypes = choiceDataType.getPossibleSubTypes();
-
-            final DataType chosenDataType = DataTypeUtils.chooseDataType(value, choiceDataType);
-            if (chosenDataType.getFieldType() != RecordFieldType.RECORD || !(value instanceof Record)) {
-                return specField;
-            }
-
-            final RecordDataType recordDataType = (RecordDataType) chosenDataType;
-            final Record childRecord = (Record) value;
-            childRecord.incorporateInactiveFields();
-
-            final RecordSchema definedChildSchema = recordDataType.getChildSchema();
-            final RecordSchema actualChildSchema = childRecord.getSchema();
-            final RecordSchema combinedChildSchema = DataTypeUtils.merge(definedChildSchema, actualChildSchema);
-            final DataType combinedDataType = RecordFieldType.RECORD.getRecordDataType(combinedChildSchema);
-
-            final List<DataType> updatedPossibleTypes = new ArrayList<>(possibleTypes.size());
-            for (final DataType possibleType : possibleTypes) {
-                if (possibleType.equals(chosenDataType)) {
-                    updatedPossibleTypes.add(combinedDataType);
-                } else {
-                    updatedPossibleTypes.add(possibleType);
-                }
-            }
-
-            final DataType mergedDataType = RecordFieldType.CHOICE.getChoiceDataType(updatedPossibleTypes);
-            return new RecordField(specField.getFieldName(), mergedDataType, specField.getDefaultValue(), specField.getAliases(), specField.isNullable());
-        }
-
-        return specField;
-    }
-
-    private boolean isSimpleType(final RecordFieldType fieldType) {
-        return switch (fieldType) {
-            case ARRAY, RECORD, MAP, CHOICE -> false;
-            default -> true;
-        };
-
     }
 
     @Override
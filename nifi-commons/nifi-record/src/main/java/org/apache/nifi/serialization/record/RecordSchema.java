@@ -39,6 +39,23 @@ public interface RecordSchema {
      */
     RecordField getField(int index);
 
+    /**
+     * Returns the index of the field whose name is exactly the given name. Unlike {@link #getField(String)}, aliases are not considered.
+     *
+     * @param fieldName the name of the field
+     * @return the 0-based index of the field with the given name, or <code>-1</code> if the schema has no field with that name
+     */
+    default int getFieldIndex(final String fieldName) {
+        final List<RecordField> fields = getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getFieldName().equals(fieldName)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * @return the data types of the fields
      */
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.type.ArrayDataType;
+import org.apache.nifi.serialization.record.type.ChoiceDataType;
+import org.apache.nifi.serialization.record.type.RecordDataType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Schema updates that are shared by the {@link Record} implementations that track the fields added or changed through
+ * {@link Record#setValue(RecordField, Object)}, so that each implementation updates its schema in exactly the same way.
+ */
+final class RecordSchemaUpdates {
+
+    private RecordSchemaUpdates() {
+    }
+
+    /**
+     * Determines the schema that incorporates the fields that were added to the given Record, and the fields whose definitions were changed,
+     * through {@link Record#setValue(RecordField, Object)}.
+     *
+     * @param record the Record
+     * @param schema the Record's current schema
+     * @param updatedFields the fields of the schema whose definitions were changed, keyed by field name, or <code>null</code>
+     * @param inactiveFields the fields that are not in the schema, or <code>null</code>
+     * @return the updated schema, or <code>null</code> if the schema does not need to be updated
+     */
+    static RecordSchema incorporateInactiveFields(final Record record, final RecordSchema schema, final Map<String, RecordField> updatedFields,
+                                                  final Set<RecordField> inactiveFields) {
+        final Map<String, RecordField> fieldsByName = new LinkedHashMap<>();
+
+        boolean fieldUpdated = false;
+        for (final RecordField field : schema.getFields()) {
+            final RecordField updated = getUpdatedRecordField(record, field, updatedFields);
+            if (!updated.equals(field)) {
+                fieldUpdated = true;
+            }
+
+            fieldsByName.put(updated.getFieldName(), updated);
+        }
+
+        if (!fieldUpdated && (inactiveFields == null || inactiveFields.isEmpty())) {
+            return null;
+        }
+
+        if (inactiveFields != null) {
+            for (final RecordField field : inactiveFields) {
+                final RecordField existingField = fieldsByName.get(field.getFieldName());
+                if (existingField == null) {
+                    fieldsByName.put(field.getFieldName(), field);
+                } else {
+                    if (Objects.equals(existingField, field)) {
+                        continue;
+                    }
+
+                    final RecordField merged = DataTypeUtils.merge(existingField, field);
+                    fieldsByName.put(field.getFieldName(), merged);
+                }
+            }
+        }
+
+        return new SimpleRecordSchema(new ArrayList<>(fieldsByName.values()));
+    }
+
+    private static RecordField getUpdatedRecordField(final Record record, final RecordField field, final Map<String, RecordField> updatedFields) {
+        final String fieldName = field.getFieldName();
+        final RecordField specField;
+        if (updatedFields == null) {
+            specField = field;
+        } else {
+            specField = updatedFields.getOrDefault(fieldName, field);
+        }
+
+        final DataType dataType = specField.getDataType();
+        final RecordFieldType fieldType = dataType.getFieldType();
+
+        if (isSimpleType(fieldType)) {
+            return specField;
+        }
+
+        final Object value = record.getValue(specField);
+        if (value == null) {
+            return specField;
+        }
+
+        if (fieldType == RecordFieldType.RECORD && value instanceof Record) {
+            final Record childRecord = (Record) value;
+            childRecord.incorporateInactiveFields();
+
+            final RecordSchema definedChildSchema = ((RecordDataType) dataType).getChildSchema();
+            final RecordSchema actualChildSchema = childRecord.getSchema();
+            final RecordSchema combinedChildSchema = DataTypeUtils.merge(definedChildSchema, actualChildSchema);
+            final DataType combinedDataType = RecordFieldType.RECORD.getRecordDataType(combinedChildSchema);
+
+            return new RecordField(specField.getFieldName(), combinedDataType, specField.getDefaultValue(), specField.getAliases(), specField.isNullable());
+        }
+
+        if (fieldType == RecordFieldType.ARRAY && value instanceof Object[]) {
+            final DataType elementType = ((ArrayDataType) dataType).getElementType();
+            final RecordFieldType elementFieldType = elementType.getFieldType();
+
+            if (elementFieldType == RecordFieldType.RECORD) {
+                final Object[] array = (Object[]) value;
+                RecordSchema mergedSchema = ((RecordDataType) elementType).getChildSchema();
+
+                for (final Object element : array) {
+                    if (element == null) {
+                        continue;
+                    }
+
+                    final Record elementRecord = (Record) element;
+                    elementRecord.incorporateInactiveFields();
+                    mergedSchema = DataTypeUtils.merge(mergedSchema, elementRecord.getSchema());
+                }
+
+                final DataType mergedRecordType = RecordFieldType.RECORD.getRecordDataType(mergedSchema);
+                final DataType mergedDataType = RecordFieldType.ARRAY.getArrayDataType(mergedRecordType);
+                return new RecordField(specField.getFieldName(), mergedDataType, specField.getDefaultValue(), specField.getAliases(), specField.isNullable());
+            }
+
+            return specField;
+        }
+
+        if (fieldType == RecordFieldType.CHOICE) {
+            final ChoiceDataType choiceDataType = (ChoiceDataType) dataType;
+            final List<DataType> possibleTypes = choiceDataType.getPossibleSubTypes();
+
+            final DataType chosenDataType = DataTypeUtils.chooseDataType(value, choiceDataType);
+            if (chosenDataType.getFieldType() != RecordFieldType.RECORD || !(value instanceof Record)) {
+                return specField;
+            }
+
+            final RecordDataType recordDataType = (RecordDataType) chosenDataType;
+            final Record childRecord = (Record) value;
+            childRecord.incorporateInactiveFields();
+
+            final RecordSchema definedChildSchema = recordDataType.getChildSchema();
+            final RecordSchema actualChildSchema = childRecord.getSchema();
+            final RecordSchema combinedChildSchema = DataTypeUtils.merge(definedChildSchema, actualChildSchema);
+            final DataType combinedDataType = RecordFieldType.RECORD.getRecordDataType(combinedChildSchema);
+
+            final List<DataType> updatedPossibleTypes = new ArrayList<>(possibleTypes.size());
+            for (final DataType possibleType : possibleTypes) {
+                if (possibleType.equals(chosenDataType)) {
+                    updatedPossibleTypes.add(combinedDataType);
+                } else {
+                    updatedPossibleTypes.add(possibleType);
+                }
+            }
+
+            final DataType mergedDataType = RecordFieldType.CHOICE.getChoiceDataType(updatedPossibleTypes);
+            return new RecordField(specField.getFieldName(), mergedDataType, specField.getDefaultValue(), specField.getAliases(), specField.isNullable());
+        }
+
+        return specField;
+    }
+
+    private static boolean isSimpleType(final RecordFieldType fieldType) {
+        return switch (fieldType) {
+            case ARRAY, RECORD, MAP, CHOICE -> false;
+            default -> true;
+        };
+
+    }
+
+    /**
+     * Creates a new schema for the given Record based on the types of its values, regenerating the schemas of its child Records.
+     *
+     * @param record the Record
+     * @param schema the Record's current schema
+     * @return the new schema
+     */
+    static RecordSchema regenerateSchema(final Record record, final RecordSchema schema) {
+        final List<RecordField> schemaFields = new ArrayList<>(schema.getFieldCount());
+
+        for (final RecordField schemaField : schema.getFields()) {
+            final Object fieldValue = record.getValue(schemaField);
+            if (schemaField.getDataType().getFieldType() == RecordFieldType.CHOICE) {
+                schemaFields.add(schemaField);
+            } else if (fieldValue instanceof final Record childRecord) {
+                childRecord.regenerateSchema();
+                schemaFields.add(new RecordField(schemaField.getFieldName(), RecordFieldType.RECORD.getRecordDataType(childRecord.getSchema()), schemaField.isNullable()));
+            } else if (schemaField.getDataType().getFieldType() == RecordFieldType.ARRAY && fieldValue instanceof Object[]) {
+                // Handle arrays of records - regenerate schema based on actual element schemas
+                final ArrayDataType arrayType = (ArrayDataType) schemaField.getDataType();
+                final DataType elementType = arrayType.getElementType();
+                if (elementType.getFieldType() == RecordFieldType.RECORD) {
+                    final Object[] array = (Object[]) fieldValue;
+                    RecordSchema mergedElementSchema = null;
+                    for (final Object element : array) {
+                        if (element instanceof Record) {
+                            final Record elementRecord = (Record) element;
+                            elementRecord.regenerateSchema();
+                            if (mergedElementSchema == null) {
+                                mergedElementSchema = elementRecord.getSchema();
+                            } else {
+                                mergedElementSchema = DataTypeUtils.merge(mergedElementSchema, elementRecord.getSchema());
+                            }
+                        }
+                    }
+                    if (mergedElementSchema != null) {
+                        final DataType newElementType = RecordFieldType.RECORD.getRecordDataType(mergedElementSchema);
+                        final DataType newArrayType = RecordFieldType.ARRAY.getArrayDataType(newElementType);
+                        schemaFields.add(new RecordField(schemaField.getFieldName(), newArrayType, schemaField.isNullable()));
+                    } else {
+                        schemaFields.add(schemaField);
+                    }
+                } else {
+                    schemaFields.add(schemaField);
+                }
+            } else {
+                schemaFields.add(schemaField);
+            }
+        }
+
+        return new SimpleRecordSchema(schemaFields);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.record.type.ArrayDataType;
+import org.apache.nifi.serialization.record.type.MapDataType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Updates of array elements and map entries that are shared by the {@link Record} implementations, so that each implementation
+ * coerces the new value and rejects incompatible fields in exactly the same way.
+ */
+final class RecordValueUpdates {
+
+    private RecordValueUpdates() {
+    }
+
+    /**
+     * Sets the element at the given index of the array held by the given field, coerced into the array's element type.
+     *
+     * @param schema the Record's schema
+     * @param fieldName the name of the ARRAY field
+     * @param arrayIndex the index of the element to set
+     * @param value the new value of the element
+     * @param valueLookup returns the Record's current value of a field, given the field's name
+     * @return <code>true</code> if the array was updated, <code>false</code> otherwise
+     */
+    static boolean setArrayValue(final RecordSchema schema, final String fieldName, final int arrayIndex, final Object value,
+                                 final Function<String, Object> valueLookup) {
+        final Optional<RecordField> field = schema.getField(fieldName);
+        if (field.isEmpty()) {
+            return false;
+        }
+
+        final RecordField recordField = field.get();
+        final DataType dataType = recordField.getDataType();
+        if (dataType.getFieldType() != RecordFieldType.ARRAY) {
+            throw new IllegalTypeConversionException("Cannot set the value of an array index on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an ARRAY type");
+        }
+
+        final Object arrayObject = valueLookup.apply(recordField.getFieldName());
+        if (!(arrayObject instanceof final Object[] array)) {
+            return false;
+        }
+
+        if (arrayIndex >= array.length) {
+            return false;
+        }
+
+        final ArrayDataType arrayDataType = (ArrayDataType) dataType;
+        final DataType elementType = arrayDataType.getElementType();
+        final Object coerced = DataTypeUtils.convertType(value, elementType, fieldName);
+
+        final boolean update = !Objects.equals(coerced, array[arrayIndex]);
+        if (update) {
+            array[arrayIndex] = coerced;
+        }
+
+        return update;
+    }
+
+    /**
+     * Sets the entry for the given key of the map held by the given field, coerced into the map's value type.
+     *
+     * @param schema the Record's schema
+     * @param fieldName the name of the MAP field
+     * @param mapKey the key of the entry to set
+     * @param value the new value of the entry
+     * @param valueLookup returns the Record's current value of a field, given the field's name
+     * @return <code>true</code> if the map may have been updated, <code>false</code> otherwise
+     */
+    @SuppressWarnings("unchecked")
+    static boolean setMapValue(final RecordSchema schema, final String fieldName, final String mapKey, final Object value,
+                               final Function<String, Object> valueLookup) {
+        final Optional<RecordField> field = schema.getField(fieldName);
+        if (field.isEmpty()) {
+            return false;
+        }
+
+        final RecordField recordField = field.get();
+        final DataType dataType = recordField.getDataType();
+        if (dataType.getFieldType() != RecordFieldType.MAP) {
+            throw new IllegalTypeConversionException("Cannot set the value of map entry on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an MAP type");
+        }
+
+        Object mapObject = valueLookup.apply(recordField.getFieldName());
+        if (mapObject == null) {
+            mapObject = new LinkedHashMap<>();
+        }
+        if (!(mapObject instanceof Map)) {
+            return false;
+        }
+
+        final Map<String, Object> map = (Map<String, Object>) mapObject;
+
+        final MapDataType mapDataType = (MapDataType) dataType;
+        final DataType valueDataType = mapDataType.getValueType();
+        final Object coerced = DataTypeUtils.convertType(value, valueDataType, fieldName);
+
+        final Object replaced = map.put(mapKey, coerced);
+        return replaced == null || !replaced.equals(coerced);
+    }
+}
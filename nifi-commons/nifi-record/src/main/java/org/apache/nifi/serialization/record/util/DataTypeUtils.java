@@ -18,6 +18,7 @@
 package org.apache.nifi.serialization.record.util;
 
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
@@ -974,7 +975,7 @@ public class DataTypeUtils {
     }
 
     public static boolean isMapTypeCompatible(final Object value) {
-        return value != null && (value instanceof Map || value instanceof MapRecord);
+        return value != null && (value instanceof Map || value instanceof MapRecord || value instanceof ArrayRecord);
     }
 
     private static String toString(final Object value, final Supplier<DateFormat> format, final Charset charset) {
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.SchemaValidationException;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.type.ChoiceDataType;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestArrayRecord {
+
+    private static final List<RecordField> STRING_NUMBER_FIELDS = List.of(
+        new RecordField("string", RecordFieldType.STRING.getDataType()),
+        new RecordField("number", RecordFieldType.INT.getDataType())
+    );
+
+    @Test
+    void testValuesMatchMapRecord() {
+        final List<RecordField> fields = new ArrayList<>(STRING_NUMBER_FIELDS);
+        fields.add(new RecordField("defaultOfHello", RecordFieldType.STRING.getDataType(), "hello"));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final Record arrayRecord = new ArrayRecord(schema, new Object[] {"hi", 8, ArrayRecord.ABSENT});
+        final Record mapRecord = new MapRecord(schema, new HashMap<>(Map.of("string", "hi", "number", 8)));
+
+        assertArrayEquals(mapRecord.getValues(), arrayRecord.getValues());
+        assertEquals("hi", arrayRecord.getValue("string"));
+        assertEquals(8, arrayRecord.getAsInt("number"));
+        assertEquals("8", arrayRecord.getAsString("number"));
+        assertEquals("hello", arrayRecord.getValue("defaultOfHello"));
+        assertNull(arrayRecord.getValue("unknown"));
+        assertEquals(mapRecord.toMap(), arrayRecord.toMap());
+        assertEquals(Set.of("string", "number"), arrayRecord.getRawFieldNames());
+
+        assertEquals(mapRecord, arrayRecord);
+        assertEquals(arrayRecord, mapRecord);
+        assertEquals(mapRecord.hashCode(), arrayRecord.hashCode());
+    }
+
+    @Test
+    void testAbsentAndNullValues() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {null, ArrayRecord.ABSENT});
+
+        assertNull(record.getValue("string"));
+        assertNull(record.getValue("number"));
+        assertEquals(Set.of("string"), record.getRawFieldNames());
+        assertTrue(record.toMap().containsKey("string"));
+        assertFalse(record.toMap().containsKey("number"));
+        assertEquals(new MapRecord(schema, new HashMap<>(Collections.singletonMap("string", null))), record);
+    }
+
+    @Test
+    void testAliasInGivenField() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("foo", RecordFieldType.STRING.getDataType(), null, Set.of("bar")));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final Record record = new ArrayRecord(schema, new Object[] {33});
+        assertEquals(33, record.getValue("foo"));
+        assertEquals(33, record.getValue("bar"));
+
+        final RecordField withAlias = new RecordField("hello", RecordFieldType.STRING.getDataType(), null, Set.of("foo"));
+        assertEquals(33, record.getValue(withAlias));
+        assertNull(record.getValue(new RecordField("hello", RecordFieldType.STRING.getDataType())));
+    }
+
+    @Test
+    void testSetValueClearsSerializedForm() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", 8}, SerializedForm.of("Hello there", "text/unit-test"), false, false);
+
+        assertTrue(record.getSerializedForm().isPresent());
+        record.setValue("number", 8);
+        assertTrue(record.getSerializedForm().isPresent());
+        record.setValue("number", 9);
+        assertFalse(record.getSerializedForm().isPresent());
+        assertEquals(9, record.getValue("number"));
+    }
+
+    @Test
+    void testRemoveClearsSerializedForm() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", ArrayRecord.ABSENT}, SerializedForm.of("Hello there", "text/unit-test"), false, false);
+
+        record.remove(schema.getField("number").orElseThrow());
+        assertTrue(record.getSerializedForm().isPresent());
+
+        record.remove(schema.getField("string").orElseThrow());
+        assertFalse(record.getSerializedForm().isPresent());
+        assertNull(record.getValue("string"));
+        assertTrue(record.getRawFieldNames().isEmpty());
+    }
+
+    @Test
+    void testSetValueOfUnknownField() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", 8});
+
+        record.setValue("other", "value");
+        assertEquals("value", record.getValue("other"));
+        assertEquals("hello", record.getValue("string"));
+
+        record.incorporateInactiveFields();
+        assertEquals(List.of("string", "number", "other"), record.getSchema().getFieldNames());
+        assertSame(RecordFieldType.STRING, record.getSchema().getDataType("other").orElseThrow().getFieldType());
+    }
+
+    @Test
+    void testIncorporateInactiveFieldsWithUpdate() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", 8});
+
+        record.setValue("number", "value");
+        record.incorporateInactiveFields();
+
+        final DataType dataType = record.getSchema().getDataType("number").orElseThrow();
+        assertSame(RecordFieldType.CHOICE, dataType.getFieldType());
+        assertEquals(2, ((ChoiceDataType) dataType).getPossibleSubTypes().size());
+        assertEquals("value", record.getValue("number"));
+        assertEquals("hello", record.getValue("string"));
+    }
+
+    @Test
+    void testRename() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", 8}, SerializedForm.of("Hello there", "text/unit-test"), false, false);
+
+        assertTrue(record.rename(schema.getField("string").orElseThrow(), "newString"));
+        assertFalse(record.getSerializedForm().isPresent());
+        assertEquals("hello", record.getValue("newString"));
+        assertNull(record.getValue("string"));
+
+        // The shared schema must not be modified
+        assertTrue(schema.getField("string").isPresent());
+    }
+
+    @Test
+    void testIncorporateSchema() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", 8});
+
+        final RecordSchema other = new SimpleRecordSchema(List.of(new RecordField("other", RecordFieldType.BOOLEAN.getDataType())));
+        record.incorporateSchema(other);
+
+        assertEquals(List.of("string", "number", "other"), record.getSchema().getFieldNames());
+        assertEquals("hello", record.getValue("string"));
+        assertNull(record.getValue("other"));
+
+        record.setValue("other", true);
+        assertEquals(true, record.getValue("other"));
+    }
+
+    @Test
+    void testSchemaFieldRemoved() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", 8});
+
+        schema.removeField("string");
+        assertEquals(8, record.getValue("number"));
+        assertEquals("hello", record.getValue("string"));
+        assertEquals(List.of("number"), record.getSchema().getFieldNames());
+    }
+
+    @Test
+    void testCheckTypes() {
+        final List<RecordField> fields = List.of(new RecordField("number", RecordFieldType.INT.getDataType(), false));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        assertThrows(SchemaValidationException.class, () -> new ArrayRecord(schema, new Object[] {ArrayRecord.ABSENT}, true, false));
+        assertThrows(SchemaValidationException.class, () -> new ArrayRecord(schema, new Object[] {"hello"}, true, false));
+        assertThrows(IllegalArgumentException.class, () -> new ArrayRecord(schema, new Object[] {1, 2}));
+
+        final Record record = new ArrayRecord(schema, new Object[] {1}, true, false);
+        record.setValue("number", "2");
+        assertEquals(2, record.getValue("number"));
+    }
+
+    @Test
+    void testToMapConvertsSubRecords() {
+        final RecordSchema childSchema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final RecordSchema schema = new SimpleRecordSchema(List.of(
+            new RecordField("child", RecordFieldType.RECORD.getRecordDataType(childSchema)),
+            new RecordField("children", RecordFieldType.ARRAY.getArrayDataType(RecordFieldType.RECORD.getRecordDataType(childSchema)))
+        ));
+
+        final Record child = new ArrayRecord(childSchema, new Object[] {"hello", 8});
+        final Record record = new ArrayRecord(schema, new Object[] {child, new Object[] {child}});
+
+        final Map<String, Object> expectedChild = new LinkedHashMap<>(Map.of("string", "hello", "number", 8));
+        final Map<String, Object> converted = ((ArrayRecord) record).toMap(true);
+        assertEquals(expectedChild, converted.get("child"));
+        assertArrayEquals(new Object[] {expectedChild}, (Object[]) converted.get("children"));
+        assertEquals(converted.get("child"), new MapRecord(schema, new HashMap<>(Map.of("child", child))).toMap(true).get("child"));
+    }
+
+    @Test
+    void testChildChangeClearsSerializedForm() {
+        final RecordSchema childSchema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final RecordSchema schema = new SimpleRecordSchema(List.of(new RecordField("child", RecordFieldType.RECORD.getRecordDataType(childSchema))));
+
+        final Record child = new ArrayRecord(childSchema, new Object[] {"hello", 8}, SerializedForm.of("child", "text/unit-test"), false, false);
+        final Record record = new ArrayRecord(schema, new Object[] {child}, SerializedForm.of("parent", "text/unit-test"), false, false);
+        assertTrue(record.getSerializedForm().isPresent());
+
+        child.setValue("string", "goodbye");
+        assertFalse(record.getSerializedForm().isPresent());
+    }
+
+    @Test
+    void testSetArrayAndMapValues() {
+        final RecordSchema schema = new SimpleRecordSchema(List.of(
+            new RecordField("numbers", RecordFieldType.ARRAY.getArrayDataType(RecordFieldType.INT.getDataType())),
+            new RecordField("labels", RecordFieldType.MAP.getMapDataType(RecordFieldType.STRING.getDataType()))
+        ));
+        final Map<String, Object> labels = new LinkedHashMap<>();
+        final Record record = new ArrayRecord(schema, new Object[] {new Object[] {1, 2}, labels}, SerializedForm.of("original", "text/unit-test"), false, false);
+
+        record.setArrayValue("numbers", 1, 2);
+        assertTrue(record.getSerializedForm().isPresent());
+        record.setArrayValue("numbers", 1, "3");
+        assertFalse(record.getSerializedForm().isPresent());
+        assertArrayEquals(new Object[] {1, 3}, (Object[]) record.getValue("numbers"));
+
+        record.setMapValue("labels", "color", "red");
+        assertEquals(Map.of("color", "red"), labels);
+
+        assertThrows(IllegalTypeConversionException.class, () -> record.setArrayValue("labels", 0, "value"));
+        assertThrows(IllegalTypeConversionException.class, () -> record.setMapValue("numbers", "key", 1));
+    }
+
+    @Test
+    void testToString() {
+        final RecordSchema schema = new SimpleRecordSchema(STRING_NUMBER_FIELDS);
+        final Record record = new ArrayRecord(schema, new Object[] {"hello", 8});
+
+        assertEquals("ArrayRecord[{string=hello, number=8}]", record.toString());
+    }
+}
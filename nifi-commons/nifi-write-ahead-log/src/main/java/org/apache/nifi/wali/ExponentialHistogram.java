@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of non-negative values in which bucket <code>N</code> holds the values in the range
+ * <code>[2<sup>N-1</sup>, 2<sup>N</sup> - 1]</code> and bucket 0 holds zero. Recording a value is lock-free and
+ * allocation-free, which makes the histogram suitable for use on the hot path of the Write-Ahead Log. Percentiles
+ * are therefore accurate to within a factor of two.
+ */
+public class ExponentialHistogram {
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(final long value) {
+        final long normalized = Math.max(0L, value);
+        bucketCounts.incrementAndGet(getBucketIndex(normalized));
+        count.increment();
+        sum.add(normalized);
+        max.accumulateAndGet(normalized, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long total = count.sum();
+        return total == 0 ? 0D : (double) sum.sum() / total;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of the recorded values. The value returned is the largest value that
+     * falls into the bucket that contains the percentile, or the maximum recorded value if that is smaller.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return an upper bound for the given percentile, or 0 if no values have been recorded
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0D || percentile > 100D) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100 but was " + percentile);
+        }
+
+        final long[] counts = getBucketCounts();
+        long total = 0L;
+        for (final long bucketCount : counts) {
+            total += bucketCount;
+        }
+
+        if (total == 0L) {
+            return 0L;
+        }
+
+        final long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100D));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * @return a copy of the number of values recorded in each bucket, indexed by bucket
+     */
+    public long[] getBucketCounts() {
+        final long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = bucketCounts.get(i);
+        }
+
+        return counts;
+    }
+
+    /**
+     * @param bucketIndex the index of the bucket
+     * @return the largest value that is recorded in the bucket with the given index
+     */
+    public static long getBucketUpperBound(final int bucketIndex) {
+        return bucketIndex >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucketIndex) - 1;
+    }
+
+    private static int getBucketIndex(final long value) {
+        return Math.min(BUCKET_COUNT - 1, BUCKET_COUNT - Long.numberOfLeadingZeros(value));
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialHistogram[count=" + getCount() + ", mean=" + String.format("%.1f", getMean()) + ", p50=" + getPercentile(50D)
+            + ", p99=" + getPercentile(99D) + ", max=" + getMax() + "]";
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+/**
+ * Statistics about the group commits that have been performed by a {@link SequentialAccessWriteAheadLog}. Each group commit
+ * writes the updates of one or more callers to the journal, one transaction per caller, and then syncs the journal to disk once.
+ */
+public class GroupCommitStatistics {
+    private final ExponentialHistogram updatesPerCommit = new ExponentialHistogram();
+    private final ExponentialHistogram recordsPerCommit = new ExponentialHistogram();
+    private final ExponentialHistogram commitMicros = new ExponentialHistogram();
+    private final ExponentialHistogram updateLatencyMicros = new ExponentialHistogram();
+
+    void recordCommit(final int updateCount, final int recordCount, final long commitNanos) {
+        updatesPerCommit.record(updateCount);
+        recordsPerCommit.record(recordCount);
+        commitMicros.record(commitNanos / 1000L);
+    }
+
+    void recordUpdateLatency(final long latencyNanos) {
+        updateLatencyMicros.record(latencyNanos / 1000L);
+    }
+
+    /**
+     * @return the number of group commits that have been performed
+     */
+    public long getCommitCount() {
+        return updatesPerCommit.getCount();
+    }
+
+    /**
+     * @return the number of calls to update the repository that have been made durable by group commits
+     */
+    public long getUpdateCount() {
+        return updatesPerCommit.getSum();
+    }
+
+    /**
+     * @return the number of records that have been made durable by group commits
+     */
+    public long getRecordCount() {
+        return recordsPerCommit.getSum();
+    }
+
+    /**
+     * @return a histogram of the number of calls to update the repository that were coalesced into each group commit
+     */
+    public ExponentialHistogram getUpdatesPerCommit() {
+        return updatesPerCommit;
+    }
+
+    /**
+     * @return a histogram of the number of records that were written by each group commit
+     */
+    public ExponentialHistogram getRecordsPerCommit() {
+        return recordsPerCommit;
+    }
+
+    /**
+     * @return a histogram of the number of microseconds taken to write and sync each group commit
+     */
+    public ExponentialHistogram getCommitMicros() {
+        return commitMicros;
+    }
+
+    /**
+     * @return a histogram of the number of microseconds that each call to update the repository waited before its records were durable
+     */
+    public ExponentialHistogram getUpdateLatencyMicros() {
+        return updateLatencyMicros;
+    }
+}
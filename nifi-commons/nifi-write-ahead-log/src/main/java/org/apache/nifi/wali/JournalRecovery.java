@@ -24,4 +24,19 @@ public interface JournalRecovery {
     long getMaxTransactionId();
 
     boolean isEOFExceptionEncountered();
+
+    /**
+     * @return the number of nanoseconds spent reading transactions from the journal before decoding them, or 0 if transactions were read and decoded together
+     */
+    long getReadNanos();
+
+    /**
+     * @return the number of nanoseconds spent decoding transactions. If transactions were decoded by multiple threads, this is the sum of the time spent by each thread
+     */
+    long getDecodeNanos();
+
+    /**
+     * @return the number of nanoseconds spent applying the decoded transactions to the recovered records
+     */
+    long getApplyNanos();
 }
@@ -27,6 +27,7 @@ import org.wali.UpdateType;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -42,12 +43,21 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 
 public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private static final Logger logger = LoggerFactory.getLogger(LengthDelimitedJournal.class);
@@ -215,11 +225,11 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         }
 
         final int serdeHeaderLength = in.readInt();
-        final InputStream serdeHeaderIn = new LimitingInputStream(in, serdeHeaderLength);
-        final DataInputStream dis = new DataInputStream(serdeHeaderIn);
-        serde.readHeader(dis);
+        final byte[] serdeHeader = new byte[serdeHeaderLength];
+        in.readFully(serdeHeader);
+        serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
 
-        return new SerDeAndVersion(serde, serdeVersion);
+        return new SerDeAndVersion(serde, serdeClassName, serdeVersion, serdeHeader);
     }
 
     // Visible/overrideable for testing.
@@ -247,9 +257,10 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
             try {
                 DataOutputStream dataOut = bados.getDataOutputStream();
+                final boolean previousStateRequired = serde.isPreviousRecordStateRequired();
                 for (final T record : records) {
                     final Object recordId = serde.getRecordIdentifier(record);
-                    final T previousRecordState = recordLookup.lookup(recordId);
+                    final T previousRecordState = previousStateRequired ? recordLookup.lookup(recordId) : null;
                     serde.serializeEdit(previousRecordState, record, dataOut);
 
                     final int size = bados.getByteArrayOutputStream().size();
@@ -409,8 +420,16 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     @Override
     public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
+        return recoverRecords(recordMap, swapLocations, null, 1);
+    }
+
+    @Override
+    public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations, final ExecutorService decodeExecutor, final int parallelism) throws IOException {
         long maxTransactionId = -1L;
         int updateCount = 0;
+        long readNanos = 0L;
+        long decodeNanos = 0L;
+        long applyNanos = 0L;
 
         boolean eofException = false;
         logger.info("Recovering records from journal {}", journalFile);
@@ -433,26 +452,31 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                         + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
                 }
 
+                if (decodeExecutor != null && parallelism > 1 && isParallelDecodingSupported(serdeAndVersion)) {
+                    final ParallelRecovery parallelRecovery = new ParallelRecovery(recordMap, swapLocations, serdeAndVersion, decodeExecutor, parallelism);
+                    try {
+                        parallelRecovery.recover(in, byteCountingIn, transactionIndicator, journalLength);
+                    } finally {
+                        parallelRecovery.cancel();
+                    }
+
+                    logger.info("Successfully recovered {} updates from journal {} using {} threads to decode transactions", parallelRecovery.updateCount, journalFile, parallelism);
+                    return new StandardJournalRecovery(parallelRecovery.updateCount, parallelRecovery.maxTransactionId, parallelRecovery.eofException,
+                        parallelRecovery.readNanos, parallelRecovery.decodeNanos.sum(), parallelRecovery.applyNanos);
+                }
+
                 long consumedAtLog = 0L;
 
                 // We don't want to apply the updates in a transaction until we've finished recovering the entire
                 // transaction. Otherwise, we could apply say 8 out of 10 updates and then hit an EOF. In such a case,
-                // we want to rollback the entire transaction. We handle this by not updating recordMap or swapLocations
-                // variables directly but instead keeping track of the things that occurred and then once we've read the
-                // entire transaction, we can apply those updates to the recordMap and swapLocations.
-                final Map<Object, T> transactionRecordMap = new HashMap<>();
-                final Set<Object> idsRemoved = new HashSet<>();
-                final Set<String> swapLocationsRemoved = new HashSet<>();
-                final Set<String> swapLocationsAdded = new HashSet<>();
-                int transactionUpdates = 0;
+                // we want to rollback the entire transaction. We handle this by collecting the updates of the transaction
+                // and applying them to the recordMap and swapLocations only once we've read the entire transaction.
+                final List<T> transactionRecords = new ArrayList<>();
 
                 // While we have a transaction to recover, recover it
                 while (transactionIndicator == TRANSACTION_FOLLOWS) {
-                    transactionRecordMap.clear();
-                    idsRemoved.clear();
-                    swapLocationsRemoved.clear();
-                    swapLocationsAdded.clear();
-                    transactionUpdates = 0;
+                    transactionRecords.clear();
+                    final long decodeStart = System.nanoTime();
 
                     // Format is <Transaction ID: 8 bytes> <Transaction Length: 4 bytes> <Transaction data: # of bytes indicated by Transaction Length Field>
                     final long transactionId = in.readLong();
@@ -467,60 +491,15 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                     final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
 
                     while (transactionByteCountingIn.getBytesConsumed() < transactionLength || serde.isMoreInExternalFile()) {
-                        final T record = serde.deserializeEdit(transactionDis, recordMap, serdeAndVersion.getVersion());
-
-                        // Update our RecordMap so that we have the most up-to-date version of the Record.
-                        final Object recordId = serde.getRecordIdentifier(record);
-                        final UpdateType updateType = serde.getUpdateType(record);
-
-                        switch (updateType) {
-                            case DELETE: {
-                                idsRemoved.add(recordId);
-                                transactionRecordMap.remove(recordId);
-                                break;
-                            }
-                            case SWAP_IN: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.add(location);
-                                    swapLocationsAdded.remove(location);
-                                    transactionRecordMap.put(recordId, record);
-                                }
-                                break;
-                            }
-                            case SWAP_OUT: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.remove(location);
-                                    swapLocationsAdded.add(location);
-                                    idsRemoved.add(recordId);
-                                    transactionRecordMap.remove(recordId);
-                                }
-
-                                break;
-                            }
-                            default: {
-                                transactionRecordMap.put(recordId, record);
-                                idsRemoved.remove(recordId);
-                                break;
-                            }
-                        }
-
-                        transactionUpdates++;
+                        transactionRecords.add(serde.deserializeEdit(transactionDis, recordMap, serdeAndVersion.getVersion()));
                     }
 
+                    final long applyStart = System.nanoTime();
+                    decodeNanos += applyStart - decodeStart;
+
                     // Apply the transaction
-                    for (final Object id : idsRemoved) {
-                        recordMap.remove(id);
-                    }
-                    recordMap.putAll(transactionRecordMap);
-                    swapLocations.removeAll(swapLocationsRemoved);
-                    swapLocations.addAll(swapLocationsAdded);
-                    updateCount += transactionUpdates;
+                    updateCount += applyTransaction(serde, transactionRecords, recordMap, swapLocations);
+                    applyNanos += System.nanoTime() - applyStart;
 
                     // Check if there is another transaction to read
                     transactionIndicator = in.read();
@@ -534,9 +513,7 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                     // NiFi has become "stuck".
                     final long consumed = byteCountingIn.getBytesConsumed();
                     if (consumed - consumedAtLog > 50_000_000) {
-                        final double percentage = consumed / journalLength * 100D;
-                        final String pct = new DecimalFormat("#.00").format(percentage);
-                        logger.info("{}% of the way finished recovering journal {}, having recovered {} updates", pct, journalFile, updateCount);
+                        logProgress(consumed, journalLength, updateCount);
                         consumedAtLog = consumed;
                     }
                 }
@@ -559,7 +536,97 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         }
 
         logger.info("Successfully recovered {} updates from journal {}", updateCount, journalFile);
-        return new StandardJournalRecovery(updateCount, maxTransactionId, eofException);
+        return new StandardJournalRecovery(updateCount, maxTransactionId, eofException, readNanos, decodeNanos, applyNanos);
+    }
+
+    private void logProgress(final long consumed, final double journalLength, final int updateCount) {
+        final double percentage = consumed / journalLength * 100D;
+        final String pct = new DecimalFormat("#.00").format(percentage);
+        logger.info("{}% of the way finished recovering journal {}, having recovered {} updates", pct, journalFile, updateCount);
+    }
+
+    /**
+     * Applies the updates of a single transaction to the given record map and swap locations. The updates are applied only after all of them have been
+     * examined, so that a record that is, for instance, swapped out and then swapped back in within the same transaction ends up in the correct state.
+     *
+     * @return the number of updates in the transaction
+     */
+    private int applyTransaction(final SerDe<T> serde, final List<T> transactionRecords, final Map<Object, T> recordMap, final Set<String> swapLocations) {
+        final Map<Object, T> transactionRecordMap = new HashMap<>();
+        final Set<Object> idsRemoved = new HashSet<>();
+        final Set<String> swapLocationsRemoved = new HashSet<>();
+        final Set<String> swapLocationsAdded = new HashSet<>();
+
+        for (final T record : transactionRecords) {
+            // Update our RecordMap so that we have the most up-to-date version of the Record.
+            final Object recordId = serde.getRecordIdentifier(record);
+            final UpdateType updateType = serde.getUpdateType(record);
+
+            switch (updateType) {
+                case DELETE: {
+                    idsRemoved.add(recordId);
+                    transactionRecordMap.remove(recordId);
+                    break;
+                }
+                case SWAP_IN: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.add(location);
+                        swapLocationsAdded.remove(location);
+                        transactionRecordMap.put(recordId, record);
+                    }
+                    break;
+                }
+                case SWAP_OUT: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.remove(location);
+                        swapLocationsAdded.add(location);
+                        idsRemoved.add(recordId);
+                        transactionRecordMap.remove(recordId);
+                    }
+
+                    break;
+                }
+                default: {
+                    transactionRecordMap.put(recordId, record);
+                    idsRemoved.remove(recordId);
+                    break;
+                }
+            }
+        }
+
+        for (final Object id : idsRemoved) {
+            recordMap.remove(id);
+        }
+        recordMap.putAll(transactionRecordMap);
+        swapLocations.removeAll(swapLocationsRemoved);
+        swapLocations.addAll(swapLocationsAdded);
+
+        return transactionRecords.size();
+    }
+
+    /**
+     * Transactions can be decoded independently of one another only if each edit contains the complete state of its record and if the
+     * SerDe Factory creates a separate SerDe for each decoding thread.
+     */
+    private boolean isParallelDecodingSupported(final SerDeAndVersion serdeAndVersion) {
+        final SerDe<T> serde = serdeAndVersion.getSerDe();
+        if (serde.isPreviousRecordStateRequired()) {
+            logger.debug("Will recover journal {} using a single thread because {} requires the previous state of each record", journalFile, serde.getClass().getName());
+            return false;
+        }
+
+        if (serdeFactory.createSerDe(serdeAndVersion.getEncodingName()) == serde) {
+            logger.debug("Will recover journal {} using a single thread because the SerDe Factory does not create a new SerDe for each thread", journalFile);
+            return false;
+        }
+
+        return true;
     }
 
     /**
@@ -594,19 +661,246 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     private class SerDeAndVersion {
         private final SerDe<T> serde;
+        private final String encodingName;
         private final int version;
+        private final byte[] header;
 
-        public SerDeAndVersion(final SerDe<T> serde, final int version) {
+        public SerDeAndVersion(final SerDe<T> serde, final String encodingName, final int version, final byte[] header) {
             this.serde = serde;
+            this.encodingName = encodingName;
             this.version = version;
+            this.header = header;
         }
 
         public SerDe<T> getSerDe() {
             return serde;
         }
 
+        public String getEncodingName() {
+            return encodingName;
+        }
+
         public int getVersion() {
             return version;
         }
+
+        /**
+         * @return a new SerDe that has read the same header as the SerDe returned by {@link #getSerDe()}
+         */
+        public SerDe<T> createSerDe() throws IOException {
+            final SerDe<T> newSerDe = serdeFactory.createSerDe(encodingName);
+            newSerDe.readHeader(new DataInputStream(new ByteArrayInputStream(header)));
+            return newSerDe;
+        }
+    }
+
+    /**
+     * A transaction that has been read from the journal but not yet decoded
+     */
+    private record EncodedTransaction(long transactionId, byte[] data) {
+    }
+
+    /**
+     * The records decoded from a batch of consecutive transactions. If decoding failed part way through the batch, the transactions before
+     * the failure are retained, and the failure is held along with the transaction that could not be decoded.
+     */
+    private static class DecodedBatch<T> {
+        private final List<List<T>> transactions = new ArrayList<>();
+        private Exception failure;
+        private EncodedTransaction failedTransaction;
+        private int failedTransactionBytesConsumed;
+    }
+
+    /**
+     * Recovers a journal by reading its transactions on the calling thread, decoding batches of transactions concurrently using an ExecutorService,
+     * and then applying the decoded transactions to the record map on the calling thread in the order in which they appear in the journal, which is
+     * the order of their Transaction IDs. At most two batches per thread are held in memory at any one time.
+     */
+    private class ParallelRecovery {
+        private static final int MAX_BATCH_BYTES = 1024 * 1024;
+        private static final int MAX_BATCH_TRANSACTIONS = 1000;
+
+        private final Map<Object, T> recordMap;
+        private final Set<String> swapLocations;
+        private final SerDeAndVersion serdeAndVersion;
+        private final ExecutorService executor;
+        private final int maxBatchesInFlight;
+        private final Deque<Future<DecodedBatch<T>>> batchesInFlight = new ArrayDeque<>();
+
+        private final LongAdder decodeNanos = new LongAdder();
+        private long readNanos = 0L;
+        private long applyNanos = 0L;
+        private long maxTransactionId = -1L;
+        private int updateCount = 0;
+        private boolean eofException = false;
+        private boolean stopped = false;
+
+        ParallelRecovery(final Map<Object, T> recordMap, final Set<String> swapLocations, final SerDeAndVersion serdeAndVersion, final ExecutorService executor,
+                         final int parallelism) {
+            this.recordMap = recordMap;
+            this.swapLocations = swapLocations;
+            this.serdeAndVersion = serdeAndVersion;
+            this.executor = executor;
+            this.maxBatchesInFlight = parallelism * 2;
+        }
+
+        void recover(final DataInputStream in, final ByteCountingInputStream byteCountingIn, final int firstTransactionIndicator, final double journalLength) throws IOException {
+            List<EncodedTransaction> batch = new ArrayList<>();
+            long batchBytes = 0L;
+            long consumedAtLog = 0L;
+            int transactionIndicator = firstTransactionIndicator;
+
+            try {
+                while (transactionIndicator == TRANSACTION_FOLLOWS && !stopped) {
+                    final long readStart = System.nanoTime();
+
+                    // Format is <Transaction ID: 8 bytes> <Transaction Length: 4 bytes> <Transaction data: # of bytes indicated by Transaction Length Field>
+                    final long transactionId = in.readLong();
+                    maxTransactionId = Math.max(maxTransactionId, transactionId);
+                    final int transactionLength = in.readInt();
+                    final byte[] transactionData = new byte[transactionLength];
+                    in.readFully(transactionData);
+
+                    batch.add(new EncodedTransaction(transactionId, transactionData));
+                    batchBytes += transactionLength;
+
+                    // Check if there is another transaction to read
+                    transactionIndicator = in.read();
+                    readNanos += System.nanoTime() - readStart;
+
+                    if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
+                        throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
+                            + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
+                    }
+
+                    if (batchBytes >= MAX_BATCH_BYTES || batch.size() >= MAX_BATCH_TRANSACTIONS) {
+                        submit(batch);
+                        batch = new ArrayList<>();
+                        batchBytes = 0L;
+                    }
+
+                    final long consumed = byteCountingIn.getBytesConsumed();
+                    if (consumed - consumedAtLog > 50_000_000) {
+                        logProgress(consumed, journalLength, updateCount);
+                        consumedAtLog = consumed;
+                    }
+                }
+            } catch (final EOFException eof) {
+                eofException = true;
+                logger.warn("Encountered unexpected End-of-File when reading journal file {}; assuming that NiFi was shutdown unexpectedly and continuing recovery", journalFile);
+            } catch (final IOException e) {
+                if (remainingBytesAllNul(in)) {
+                    logger.warn("Failed to recover some of the data from Write-Ahead Log Journal because encountered trailing NUL bytes. "
+                        + "This will sometimes happen after a sudden power loss. The rest of this journal file will be skipped for recovery purposes."
+                        + "The following Exception was encountered while recovering the updates to the journal:", e);
+                } else {
+                    throw e;
+                }
+            }
+
+            // Every transaction that was read in full is applied, even if the journal ended unexpectedly
+            if (!batch.isEmpty()) {
+                submit(batch);
+            }
+            while (!batchesInFlight.isEmpty() && !stopped) {
+                applyNextBatch();
+            }
+        }
+
+        private void submit(final List<EncodedTransaction> batch) throws IOException {
+            batchesInFlight.addLast(executor.submit(() -> decode(batch)));
+
+            while (batchesInFlight.size() >= maxBatchesInFlight && !stopped) {
+                applyNextBatch();
+            }
+        }
+
+        private DecodedBatch<T> decode(final List<EncodedTransaction> batch) {
+            final long start = System.nanoTime();
+            final DecodedBatch<T> decoded = new DecodedBatch<>();
+
+            EncodedTransaction transaction = null;
+            ByteCountingInputStream transactionIn = null;
+            try {
+                final SerDe<T> serde = serdeAndVersion.createSerDe();
+                final Map<Object, T> noPreviousStates = Collections.emptyMap();
+
+                for (final EncodedTransaction encodedTransaction : batch) {
+                    transaction = encodedTransaction;
+                    transactionIn = new ByteCountingInputStream(new ByteArrayInputStream(encodedTransaction.data()));
+                    final DataInputStream transactionDis = new DataInputStream(transactionIn);
+
+                    final List<T> records = new ArrayList<>();
+                    while (transactionIn.getBytesConsumed() < encodedTransaction.data().length || serde.isMoreInExternalFile()) {
+                        records.add(serde.deserializeEdit(transactionDis, noPreviousStates, serdeAndVersion.getVersion()));
+                    }
+
+                    decoded.transactions.add(records);
+                }
+            } catch (final Exception e) {
+                decoded.failure = e;
+                decoded.failedTransaction = transaction;
+                decoded.failedTransactionBytesConsumed = transactionIn == null ? 0 : (int) transactionIn.getBytesConsumed();
+            }
+
+            decodeNanos.add(System.nanoTime() - start);
+            return decoded;
+        }
+
+        private void applyNextBatch() throws IOException {
+            final DecodedBatch<T> decoded;
+            try {
+                decoded = batchesInFlight.removeFirst().get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while recovering journal " + journalFile, e);
+            } catch (final ExecutionException e) {
+                throw new IOException("Failed to decode transactions from journal " + journalFile, e.getCause());
+            }
+
+            final long applyStart = System.nanoTime();
+            final SerDe<T> serde = serdeAndVersion.getSerDe();
+            for (final List<T> transactionRecords : decoded.transactions) {
+                updateCount += applyTransaction(serde, transactionRecords, recordMap, swapLocations);
+            }
+
+            applyNanos += System.nanoTime() - applyStart;
+
+            if (decoded.failure == null) {
+                return;
+            }
+
+            // As with a journal that is recovered by a single thread, the transaction that could not be decoded and all that follow it are skipped
+            if (decoded.failure instanceof EOFException) {
+                eofException = true;
+                logger.warn("Encountered unexpected End-of-File when decoding transaction {} of journal file {}; assuming that NiFi was shutdown unexpectedly and continuing recovery",
+                    decoded.failedTransaction == null ? null : decoded.failedTransaction.transactionId(), journalFile);
+            } else if (decoded.failedTransaction != null && isAllNul(decoded.failedTransaction.data(), decoded.failedTransactionBytesConsumed)) {
+                logger.warn("Failed to recover some of the data from Write-Ahead Log Journal because encountered trailing NUL bytes. "
+                    + "This will sometimes happen after a sudden power loss. The rest of this journal file will be skipped for recovery purposes."
+                    + "The following Exception was encountered while recovering the updates to the journal:", decoded.failure);
+            } else {
+                throw new IOException("Failed to decode transactions from journal " + journalFile, decoded.failure);
+            }
+
+            stopped = true;
+        }
+
+        void cancel() {
+            for (final Future<DecodedBatch<T>> future : batchesInFlight) {
+                future.cancel(false);
+            }
+            batchesInFlight.clear();
+        }
+    }
+
+    private static boolean isAllNul(final byte[] data, final int offset) {
+        for (int i = Math.max(0, offset); i < data.length; i++) {
+            if (data[i] != NUL_BYTE) {
+                return false;
+            }
+        }
+
+        return true;
     }
 }
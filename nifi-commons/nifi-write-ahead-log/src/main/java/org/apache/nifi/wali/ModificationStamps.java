@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Keeps track of the records that have changed since they were last written to a checkpoint, mapping each record's numeric identifier
+ * to a stamp that indicates when the record last changed. Identifiers and stamps are held in primitive arrays using open addressing, as
+ * in {@link OffHeapRecordStore}, so that recording a change neither boxes the identifier and stamp nor allocates an entry.
+ * </p>
+ *
+ * <p>
+ * The table is divided into segments, each of which is guarded by its own lock, so that concurrent updates seldom contend with one another.
+ * Stamps must be positive.
+ * </p>
+ */
+final class ModificationStamps {
+    private static final int SEGMENT_SHIFT = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_SHIFT;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    ModificationStamps() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private static long hash(final long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    private Segment getSegment(final long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_SHIFT))];
+    }
+
+    /**
+     * Records that the record with the given identifier changed at the given stamp, replacing any earlier stamp
+     *
+     * @param key the record identifier
+     * @param stamp the stamp, which must be positive
+     */
+    void put(final long key, final long stamp) {
+        final long hash = hash(key);
+        getSegment(hash).put(key, hash, stamp);
+    }
+
+    /**
+     * @param key the record identifier
+     * @return the stamp at which the record last changed, or 0 if it has not changed since it was last written to a checkpoint
+     */
+    long get(final long key) {
+        final long hash = hash(key);
+        return getSegment(hash).get(key, hash);
+    }
+
+    /**
+     * @param maxStamp the greatest stamp to include
+     * @return the identifiers of the records whose last change has a stamp no greater than the given stamp
+     */
+    long[] keysModifiedAtMost(final long maxStamp) {
+        long[] keys = new long[0];
+        int count = 0;
+        for (final Segment segment : segments) {
+            final long[] segmentKeys = segment.keysModifiedAtMost(maxStamp);
+            if (count + segmentKeys.length > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, count + segmentKeys.length));
+            }
+
+            System.arraycopy(segmentKeys, 0, keys, count, segmentKeys.length);
+            count += segmentKeys.length;
+        }
+
+        return count == keys.length ? keys : Arrays.copyOf(keys, count);
+    }
+
+    /**
+     * Forgets the records whose last change has a stamp no greater than the given stamp. Records that changed again after that stamp are kept.
+     *
+     * @param maxStamp the greatest stamp to forget
+     */
+    void removeModifiedAtMost(final long maxStamp) {
+        for (final Segment segment : segments) {
+            segment.removeModifiedAtMost(maxStamp);
+        }
+    }
+
+    /**
+     * @return the number of records that have changed since they were last written to a checkpoint
+     */
+    int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    private static final class Segment {
+        private static final int INITIAL_CAPACITY = 256;
+        private static final float LOAD_FACTOR = 0.6F;
+        private static final long EMPTY = 0L;
+
+        // A stamp of EMPTY indicates that the slot in the table is not in use
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private long[] stamps = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        synchronized void put(final long key, final long hash, final long stamp) {
+            final int index = indexOf(key, hash);
+            if (index >= 0) {
+                stamps[index] = stamp;
+                return;
+            }
+
+            if (size + 1 > stamps.length * LOAD_FACTOR) {
+                rebuild(stamps.length * 2, Long.MIN_VALUE);
+            }
+
+            final int insertionIndex = findEmptySlot(hash, stamps);
+            keys[insertionIndex] = key;
+            stamps[insertionIndex] = stamp;
+            size++;
+        }
+
+        synchronized long get(final long key, final long hash) {
+            final int index = indexOf(key, hash);
+            return index < 0 ? EMPTY : stamps[index];
+        }
+
+        synchronized long[] keysModifiedAtMost(final long maxStamp) {
+            final long[] segmentKeys = new long[size];
+            int count = 0;
+            for (int i = 0; i < stamps.length; i++) {
+                if (stamps[i] != EMPTY && stamps[i] <= maxStamp) {
+                    segmentKeys[count++] = keys[i];
+                }
+            }
+
+            return count == segmentKeys.length ? segmentKeys : Arrays.copyOf(segmentKeys, count);
+        }
+
+        synchronized void removeModifiedAtMost(final long maxStamp) {
+            int remaining = 0;
+            for (final long stamp : stamps) {
+                if (stamp != EMPTY && stamp > maxStamp) {
+                    remaining++;
+                }
+            }
+
+            // Size the table for the records that remain, so that the memory used after a burst of changes is given back
+            int capacity = INITIAL_CAPACITY;
+            while (remaining + 1 > capacity * LOAD_FACTOR) {
+                capacity *= 2;
+            }
+
+            rebuild(capacity, maxStamp);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private static int tableIndex(final long hash, final int mask) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private int indexOf(final long key, final long hash) {
+            final int mask = stamps.length - 1;
+            int index = tableIndex(hash, mask);
+            while (stamps[index] != EMPTY) {
+                if (keys[index] == key) {
+                    return index;
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private static int findEmptySlot(final long hash, final long[] table) {
+            final int mask = table.length - 1;
+            int index = tableIndex(hash, mask);
+            while (table[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+
+            return index;
+        }
+
+        // Moves the entries whose stamps are greater than the given stamp into a new table of the given capacity
+        private void rebuild(final int capacity, final long maxRemovedStamp) {
+            final long[] previousKeys = keys;
+            final long[] previousStamps = stamps;
+
+            keys = new long[capacity];
+            stamps = new long[capacity];
+            size = 0;
+            for (int i = 0; i < previousStamps.length; i++) {
+                if (previousStamps[i] != EMPTY && previousStamps[i] > maxRemovedStamp) {
+                    final int index = findEmptySlot(hash(previousKeys[i]), stamps);
+                    keys[index] = previousKeys[i];
+                    stamps[index] = previousStamps[i];
+                    size++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,482 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * A map of primitive <code>long</code> keys to byte array values, in which the values are held outside of the Java heap in direct
+ * ByteBuffers. Keys are held in primitive arrays, using open addressing with linear probing, so no objects are created per entry.
+ * </p>
+ *
+ * <p>
+ * Values are stored in fixed-size slots whose sizes are powers of two, from 32 bytes to 1 MB; larger values are given a buffer of
+ * their own. Slots are carved out of larger chunks of direct memory and are reused once freed, but chunks are never released
+ * back to the operating system. The store is divided into segments, each of which is guarded by its own lock, so that
+ * concurrent updates to different keys seldom contend with one another.
+ * </p>
+ */
+final class OffHeapRecordStore {
+    private static final int SEGMENT_SHIFT = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_SHIFT;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    OffHeapRecordStore() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private static long hash(final long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    private Segment getSegment(final long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_SHIFT))];
+    }
+
+    /**
+     * @return a copy of the value for the given key, or <code>null</code> if the store does not contain the key
+     */
+    byte[] get(final long key) {
+        final long hash = hash(key);
+        return getSegment(hash).get(key, hash);
+    }
+
+    boolean containsKey(final long key) {
+        final long hash = hash(key);
+        return getSegment(hash).containsKey(key, hash);
+    }
+
+    /**
+     * Stores a copy of the first <code>length</code> bytes of the given value, replacing any value previously stored for the key
+     */
+    void put(final long key, final byte[] value, final int length) {
+        final long hash = hash(key);
+        getSegment(hash).put(key, hash, value, length);
+    }
+
+    /**
+     * @return <code>true</code> if the store contained the key
+     */
+    boolean remove(final long key) {
+        final long hash = hash(key);
+        return getSegment(hash).remove(key, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * @return the keys that are in the store. Keys that are added or removed while this method runs may or may not be included.
+     */
+    long[] keys() {
+        long[] keys = new long[0];
+        for (final Segment segment : segments) {
+            final long[] segmentKeys = segment.keys();
+            final int previousLength = keys.length;
+            keys = Arrays.copyOf(keys, previousLength + segmentKeys.length);
+            System.arraycopy(segmentKeys, 0, keys, previousLength, segmentKeys.length);
+        }
+
+        return keys;
+    }
+
+    /**
+     * @return the number of bytes of direct memory that have been allocated for values
+     */
+    long getAllocatedBytes() {
+        long allocated = 0L;
+        for (final Segment segment : segments) {
+            allocated += segment.getAllocatedBytes();
+        }
+
+        return allocated;
+    }
+
+    /**
+     * @return the number of bytes of direct memory occupied by the slots that currently hold values
+     */
+    long getUsedBytes() {
+        long used = 0L;
+        for (final Segment segment : segments) {
+            used += segment.getUsedBytes();
+        }
+
+        return used;
+    }
+
+    private static final class Segment {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final float LOAD_FACTOR = 0.6F;
+        private static final long EMPTY = 0L;
+
+        private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+        private final Lock readLock = rwLock.readLock();
+        private final Lock writeLock = rwLock.writeLock();
+        private final SlabAllocator allocator = new SlabAllocator();
+
+        // An address of EMPTY indicates that the slot in the table is not in use
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private long[] addresses = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        byte[] get(final long key, final long hash) {
+            readLock.lock();
+            try {
+                final int index = indexOf(key, hash);
+                return index < 0 ? null : allocator.read(addresses[index]);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        boolean containsKey(final long key, final long hash) {
+            readLock.lock();
+            try {
+                return indexOf(key, hash) >= 0;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        void put(final long key, final long hash, final byte[] value, final int length) {
+            writeLock.lock();
+            try {
+                final int index = indexOf(key, hash);
+                if (index >= 0) {
+                    addresses[index] = allocator.reallocate(addresses[index], value, length);
+                    return;
+                }
+
+                if (size + 1 > addresses.length * LOAD_FACTOR) {
+                    resize(addresses.length * 2);
+                }
+
+                final int insertionIndex = findEmptySlot(hash, addresses);
+                keys[insertionIndex] = key;
+                addresses[insertionIndex] = allocator.allocate(value, length);
+                size++;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        boolean remove(final long key, final long hash) {
+            writeLock.lock();
+            try {
+                final int index = indexOf(key, hash);
+                if (index < 0) {
+                    return false;
+                }
+
+                allocator.free(addresses[index]);
+                deleteSlot(index);
+                size--;
+                return true;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        int size() {
+            readLock.lock();
+            try {
+                return size;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        long[] keys() {
+            readLock.lock();
+            try {
+                final long[] segmentKeys = new long[size];
+                int count = 0;
+                for (int i = 0; i < addresses.length; i++) {
+                    if (addresses[i] != EMPTY) {
+                        segmentKeys[count++] = keys[i];
+                    }
+                }
+
+                return segmentKeys;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        long getAllocatedBytes() {
+            readLock.lock();
+            try {
+                return allocator.getAllocatedBytes();
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        long getUsedBytes() {
+            readLock.lock();
+            try {
+                return allocator.getUsedBytes();
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        private static int tableIndex(final long hash, final int mask) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private int indexOf(final long key, final long hash) {
+            final int mask = addresses.length - 1;
+            int index = tableIndex(hash, mask);
+            while (addresses[index] != EMPTY) {
+                if (keys[index] == key) {
+                    return index;
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private static int findEmptySlot(final long hash, final long[] table) {
+            final int mask = table.length - 1;
+            int index = tableIndex(hash, mask);
+            while (table[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+
+            return index;
+        }
+
+        private void resize(final int capacity) {
+            final long[] previousKeys = keys;
+            final long[] previousAddresses = addresses;
+
+            keys = new long[capacity];
+            addresses = new long[capacity];
+            for (int i = 0; i < previousAddresses.length; i++) {
+                if (previousAddresses[i] != EMPTY) {
+                    final int index = findEmptySlot(hash(previousKeys[i]), addresses);
+                    keys[index] = previousKeys[i];
+                    addresses[index] = previousAddresses[i];
+                }
+            }
+        }
+
+        // Removes the entry at the given index and shifts any later entries in the same probe sequence back into the gap,
+        // so that lookups never need to skip over deleted entries.
+        private void deleteSlot(final int index) {
+            final int mask = addresses.length - 1;
+            int gap = index;
+            int next = index;
+            while (true) {
+                next = (next + 1) & mask;
+                if (addresses[next] == EMPTY) {
+                    break;
+                }
+
+                final int home = tableIndex(hash(keys[next]), mask);
+                final boolean homeBetweenGapAndNext = (gap <= next) ? (gap < home && home <= next) : (gap < home || home <= next);
+                if (!homeBetweenGapAndNext) {
+                    keys[gap] = keys[next];
+                    addresses[gap] = addresses[next];
+                    gap = next;
+                }
+            }
+
+            keys[gap] = 0L;
+            addresses[gap] = EMPTY;
+        }
+    }
+
+    /**
+     * Allocates slots of direct memory for values. Each slot holds the length of the value, as an int, followed by the value itself.
+     * An address encodes the size class (offset by one so that no address is zero) in its top 6 bits, the index of the chunk in the
+     * next 26 bits, and the index of the slot within the chunk in the low 32 bits. Not thread-safe; guarded by the Segment's lock.
+     */
+    private static final class SlabAllocator {
+        private static final int MIN_SLOT_SHIFT = 5;
+        private static final int MAX_SLOT_SHIFT = 20;
+        private static final int OVERSIZED_CLASS = MAX_SLOT_SHIFT - MIN_SLOT_SHIFT + 1;
+        private static final int CLASS_COUNT = OVERSIZED_CLASS + 1;
+        private static final int MIN_CHUNK_SIZE = 64 * 1024;
+        private static final int MIN_SLOTS_PER_CHUNK = 4;
+        private static final int LENGTH_PREFIX_BYTES = Integer.BYTES;
+
+        private final List<List<ByteBuffer>> chunks = new ArrayList<>(CLASS_COUNT);
+        private final int[] nextUnusedSlot = new int[CLASS_COUNT];
+        private final long[][] freeSlots = new long[CLASS_COUNT][];
+        private final int[] freeSlotCounts = new int[CLASS_COUNT];
+        private long allocatedBytes = 0L;
+        private long usedBytes = 0L;
+
+        SlabAllocator() {
+            for (int i = 0; i < CLASS_COUNT; i++) {
+                chunks.add(new ArrayList<>());
+                freeSlots[i] = new long[16];
+            }
+        }
+
+        long allocate(final byte[] value, final int length) {
+            final int sizeClass = getSizeClass(length);
+            final long address = allocateSlot(sizeClass, length);
+            write(address, value, length);
+            return address;
+        }
+
+        long reallocate(final long address, final byte[] value, final int length) {
+            if (getClass(address) == getSizeClass(length) && getClass(address) != OVERSIZED_CLASS) {
+                write(address, value, length);
+                return address;
+            }
+
+            free(address);
+            return allocate(value, length);
+        }
+
+        byte[] read(final long address) {
+            final ByteBuffer chunk = getChunk(address);
+            final int offset = getOffset(address);
+            final int length = chunk.getInt(offset);
+            final byte[] value = new byte[length];
+            chunk.get(offset + LENGTH_PREFIX_BYTES, value, 0, length);
+            return value;
+        }
+
+        void free(final long address) {
+            final int sizeClass = getClass(address);
+            if (sizeClass == OVERSIZED_CLASS) {
+                final int chunkIndex = getChunkIndex(address);
+                final ByteBuffer buffer = chunks.get(OVERSIZED_CLASS).set(chunkIndex, null);
+                allocatedBytes -= buffer.capacity();
+                usedBytes -= buffer.capacity();
+            } else {
+                usedBytes -= getSlotSize(sizeClass);
+            }
+
+            if (freeSlotCounts[sizeClass] == freeSlots[sizeClass].length) {
+                freeSlots[sizeClass] = Arrays.copyOf(freeSlots[sizeClass], freeSlots[sizeClass].length * 2);
+            }
+            freeSlots[sizeClass][freeSlotCounts[sizeClass]++] = address;
+        }
+
+        long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        long getUsedBytes() {
+            return usedBytes;
+        }
+
+        private long allocateSlot(final int sizeClass, final int length) {
+            if (sizeClass == OVERSIZED_CLASS) {
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(length + LENGTH_PREFIX_BYTES);
+                allocatedBytes += buffer.capacity();
+                usedBytes += buffer.capacity();
+
+                final List<ByteBuffer> oversized = chunks.get(OVERSIZED_CLASS);
+                if (freeSlotCounts[OVERSIZED_CLASS] > 0) {
+                    final long address = freeSlots[OVERSIZED_CLASS][--freeSlotCounts[OVERSIZED_CLASS]];
+                    oversized.set(getChunkIndex(address), buffer);
+                    return address;
+                }
+
+                oversized.add(buffer);
+                return createAddress(OVERSIZED_CLASS, oversized.size() - 1, 0);
+            }
+
+            usedBytes += getSlotSize(sizeClass);
+            if (freeSlotCounts[sizeClass] > 0) {
+                return freeSlots[sizeClass][--freeSlotCounts[sizeClass]];
+            }
+
+            final List<ByteBuffer> classChunks = chunks.get(sizeClass);
+            final int slotsPerChunk = getSlotsPerChunk(sizeClass);
+            if (classChunks.isEmpty() || nextUnusedSlot[sizeClass] == slotsPerChunk) {
+                final ByteBuffer chunk = ByteBuffer.allocateDirect(slotsPerChunk * getSlotSize(sizeClass));
+                allocatedBytes += chunk.capacity();
+                classChunks.add(chunk);
+                nextUnusedSlot[sizeClass] = 0;
+            }
+
+            return createAddress(sizeClass, classChunks.size() - 1, nextUnusedSlot[sizeClass]++);
+        }
+
+        private void write(final long address, final byte[] value, final int length) {
+            final ByteBuffer chunk = getChunk(address);
+            final int offset = getOffset(address);
+            chunk.putInt(offset, length);
+            chunk.put(offset + LENGTH_PREFIX_BYTES, value, 0, length);
+        }
+
+        private ByteBuffer getChunk(final long address) {
+            return chunks.get(getClass(address)).get(getChunkIndex(address));
+        }
+
+        private int getOffset(final long address) {
+            final int sizeClass = getClass(address);
+            return sizeClass == OVERSIZED_CLASS ? 0 : getSlotIndex(address) * getSlotSize(sizeClass);
+        }
+
+        private static int getSizeClass(final int length) {
+            final int required = length + LENGTH_PREFIX_BYTES;
+            final int shift = Math.max(MIN_SLOT_SHIFT, Integer.SIZE - Integer.numberOfLeadingZeros(required - 1));
+            return shift > MAX_SLOT_SHIFT ? OVERSIZED_CLASS : shift - MIN_SLOT_SHIFT;
+        }
+
+        private static int getSlotSize(final int sizeClass) {
+            return 1 << (sizeClass + MIN_SLOT_SHIFT);
+        }
+
+        private static int getSlotsPerChunk(final int sizeClass) {
+            return Math.max(MIN_SLOTS_PER_CHUNK, MIN_CHUNK_SIZE / getSlotSize(sizeClass));
+        }
+
+        private static long createAddress(final int sizeClass, final int chunkIndex, final int slotIndex) {
+            return ((long) (sizeClass + 1) << 58) | ((long) chunkIndex << 32) | (slotIndex & 0xFFFFFFFFL);
+        }
+
+        private static int getClass(final long address) {
+            return (int) (address >>> 58) - 1;
+        }
+
+        private static int getChunkIndex(final long address) {
+            return (int) ((address >>> 32) & 0x3FFFFFF);
+        }
+
+        private static int getSlotIndex(final long address) {
+            return (int) address;
+        }
+    }
+}
@@ -0,0 +1,851 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wali.SerDe;
+import org.wali.SerDeFactory;
+import org.wali.UpdateType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * An implementation of {@link WriteAheadSnapshot} that keeps the serialized form of each 'active' record outside of the Java heap,
+ * in an {@link OffHeapRecordStore} keyed by the record's numeric identifier, rather than keeping the records themselves in a
+ * HashMap as {@link HashMapSnapshot} does. This greatly reduces the heap used, and the work done by the garbage collector, when the
+ * repository holds many millions of records. In exchange, each update must serialize the record and each lookup must deserialize it.
+ * </p>
+ *
+ * <p>
+ * Rather than rewriting every record on each checkpoint, this snapshot writes an incremental checkpoint containing only the records
+ * that were created, updated or removed since the previous checkpoint. A full checkpoint is written only periodically, when
+ * incremental checkpoints would otherwise accumulate. Incremental checkpoints are written without blocking updates, so a record may
+ * be written in a state newer than the checkpoint's Transaction ID. This is safe provided that each edit in the journal contains the
+ * complete state of the record, as the journal then simply reapplies that state on recovery. This implementation therefore requires
+ * record identifiers that are integral numbers and a {@link SerDe} whose edits are not relative to the record's previous state.
+ * </p>
+ *
+ * <p>
+ * The full checkpoint is written to the same file as that of {@link HashMapSnapshot}, and a repository that was written using
+ * {@link HashMapSnapshot} can be recovered using this class.
+ * </p>
+ */
+public class OffHeapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapSnapshot.class);
+    private static final int ENCODING_VERSION = 1;
+    private static final String SNAPSHOT_FILENAME = "checkpoint";
+    private static final String PARTIAL_SUFFIX = ".partial";
+    private static final String INCREMENTAL_FILENAME_PREFIX = SNAPSHOT_FILENAME + ".incremental.";
+    private static final Pattern INCREMENTAL_FILENAME_PATTERN = Pattern.compile(Pattern.quote(INCREMENTAL_FILENAME_PREFIX) + "(\\d+)(" + Pattern.quote(PARTIAL_SUFFIX) + ")?");
+
+    private static final int END_OF_RECORDS = 0;
+    private static final int RECORD_FOLLOWS = 1;
+    private static final int RECORD_REMOVED = 2;
+
+    public static final int DEFAULT_MAX_INCREMENTAL_CHECKPOINTS = 20;
+
+    private final File storageDirectory;
+    private final SerDeFactory<T> serdeFactory;
+    private final int maxIncrementalCheckpoints;
+    private final OffHeapRecordStore store = new OffHeapRecordStore();
+    private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
+
+    // Identifiers of the records that have changed since they were last written to a checkpoint, mapped to a stamp indicating when they last changed
+    private final ModificationStamps modifiedRecords = new ModificationStamps();
+    private final AtomicLong modificationStamp = new AtomicLong(0L);
+
+    // The SerDe used to serialize records into the store, and its header, which is needed to deserialize them again
+    private final String serdeEncoding;
+    private final int serdeVersion;
+    private final byte[] serdeHeader;
+    private final ThreadLocal<SerDe<T>> serializers;
+    private final ThreadLocal<SerDe<T>> deserializers;
+    private final ThreadLocal<ByteArrayDataOutputStream> serializationBuffers = ThreadLocal.withInitial(() -> new ByteArrayDataOutputStream(1024));
+
+    // guarded by synchronizing on this
+    private long checkpointSequence = 0L;
+    private long fullCheckpointSequence = 0L;
+    private int incrementalCheckpointCount = 0;
+    private long incrementalRecordCount = 0L;
+
+    public OffHeapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory) throws IOException {
+        this(storageDirectory, serdeFactory, DEFAULT_MAX_INCREMENTAL_CHECKPOINTS);
+    }
+
+    /**
+     * @param storageDirectory the directory to write checkpoints to
+     * @param serdeFactory the factory for the SerDe to use. The SerDe instances that it creates are each used by only one thread at a time
+     * @param maxIncrementalCheckpoints the number of incremental checkpoints that may be written before a full checkpoint is written
+     * @throws IOException if unable to write the SerDe's header
+     * @throws IllegalArgumentException if the SerDe requires the previous state of a record in order to serialize an edit
+     */
+    public OffHeapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxIncrementalCheckpoints) throws IOException {
+        if (maxIncrementalCheckpoints < 0) {
+            throw new IllegalArgumentException("Maximum number of incremental checkpoints cannot be negative");
+        }
+
+        this.storageDirectory = storageDirectory;
+        this.serdeFactory = serdeFactory;
+        this.maxIncrementalCheckpoints = maxIncrementalCheckpoints;
+
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+        if (serde.isPreviousRecordStateRequired()) {
+            throw new IllegalArgumentException("Cannot use SerDe " + serde.getClass().getName() + " with an Off-Heap Snapshot because its edits depend on the previous state of the record");
+        }
+
+        final ByteArrayDataOutputStream headerOut = new ByteArrayDataOutputStream(256);
+        serde.writeHeader(headerOut.getDataOutputStream());
+        headerOut.getDataOutputStream().flush();
+
+        this.serdeEncoding = serde.getClass().getName();
+        this.serdeVersion = serde.getVersion();
+        this.serdeHeader = headerOut.getByteArrayOutputStream().toByteArray();
+
+        this.serializers = ThreadLocal.withInitial(this::createSerializer);
+        this.deserializers = ThreadLocal.withInitial(this::createDeserializer);
+    }
+
+    private SerDe<T> createSerializer() {
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+        try {
+            serde.writeHeader(new DataOutputStream(new ByteArrayOutputStream()));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to initialize serializer for Write-Ahead Log Snapshot at " + storageDirectory, e);
+        }
+
+        return serde;
+    }
+
+    private SerDe<T> createDeserializer() {
+        final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+        try {
+            serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to initialize deserializer for Write-Ahead Log Snapshot at " + storageDirectory, e);
+        }
+
+        return serde;
+    }
+
+    private byte[] serialize(final T record) {
+        final ByteArrayDataOutputStream buffer = serializationBuffers.get();
+        final ByteArrayOutputStream baos = buffer.getByteArrayOutputStream();
+        baos.reset();
+
+        try {
+            serializers.get().serializeRecord(record, buffer.getDataOutputStream());
+            buffer.getDataOutputStream().flush();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to serialize record for Write-Ahead Log Snapshot at " + storageDirectory, e);
+        }
+
+        final byte[] serialized = baos.toByteArray();
+
+        // Avoid holding on to a large buffer because a single record was large
+        if (baos.size() > 1024 * 1024) {
+            serializationBuffers.remove();
+        }
+
+        return serialized;
+    }
+
+    private T deserialize(final byte[] serialized) {
+        try {
+            return deserializers.get().deserializeRecord(new DataInputStream(new ByteArrayInputStream(serialized)), serdeVersion);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to deserialize record from Write-Ahead Log Snapshot at " + storageDirectory, e);
+        }
+    }
+
+    private static long toKey(final Object recordId) {
+        if (recordId instanceof Long || recordId instanceof Integer || recordId instanceof Short || recordId instanceof Byte) {
+            return ((Number) recordId).longValue();
+        }
+
+        throw new IllegalArgumentException("Off-heap Write-Ahead Log Snapshot requires integral Record Identifiers but received " + recordId
+            + (recordId == null ? "" : " of type " + recordId.getClass().getName()));
+    }
+
+    private void putRecord(final long key, final T record) {
+        final byte[] serialized = serialize(record);
+        store.put(key, serialized, serialized.length);
+        modifiedRecords.put(key, modificationStamp.incrementAndGet());
+    }
+
+    private void removeRecord(final long key) {
+        if (store.remove(key)) {
+            modifiedRecords.put(key, modificationStamp.incrementAndGet());
+        }
+    }
+
+    @Override
+    public void update(final Collection<T> records) {
+        final String logMessage = "Received Record (ID={}) with UpdateType of {} but no indicator of where the Record is to be {}; these records may be {} when the repository is restored!";
+        for (final T record : records) {
+            final Object recordId = serdeFactory.getRecordIdentifier(record);
+            final UpdateType updateType = serdeFactory.getUpdateType(record);
+            final long key = toKey(recordId);
+
+            switch (updateType) {
+                case DELETE:
+                    removeRecord(key);
+                    break;
+                case SWAP_OUT:
+                    final String location = serdeFactory.getLocation(record);
+                    if (location == null) {
+                        logger.error(logMessage, recordId, UpdateType.SWAP_OUT, "Swapped Out to", "lost");
+                    } else {
+                        removeRecord(key);
+                        this.swapLocations.add(location);
+                    }
+                    break;
+                case SWAP_IN:
+                    final String swapLocation = serdeFactory.getLocation(record);
+                    if (swapLocation == null) {
+                        logger.error(logMessage, recordId, UpdateType.SWAP_IN, "Swapped In from", "duplicated");
+                    } else {
+                        swapLocations.remove(swapLocation);
+                    }
+                    putRecord(key, record);
+                    break;
+                default:
+                    putRecord(key, record);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public int getRecordCount() {
+        return store.size();
+    }
+
+    /**
+     * @return the number of bytes of direct memory that have been allocated to hold records
+     */
+    public long getAllocatedBytes() {
+        return store.getAllocatedBytes();
+    }
+
+    /**
+     * @return the number of bytes of direct memory that are currently occupied by records
+     */
+    public long getUsedBytes() {
+        return store.getUsedBytes();
+    }
+
+    @Override
+    public T lookup(final Object recordId) {
+        final byte[] serialized = store.get(toKey(recordId));
+        return serialized == null ? null : deserialize(serialized);
+    }
+
+    @Override
+    public SnapshotCapture<T> prepareSnapshot(final long maxTransactionId) {
+        return prepareSnapshot(maxTransactionId, this.swapLocations);
+    }
+
+    @Override
+    public SnapshotCapture<T> prepareSnapshot(final long maxTransactionId, final Set<String> swapFileLocations) {
+        // Nothing is copied here. The records are read from the store when the snapshot is written, and any record that has changed
+        // since this point is also in the journal that was created along with this capture.
+        return new Capture(new HashSet<>(swapFileLocations), maxTransactionId, modificationStamp.get());
+    }
+
+    private File getSnapshotFile() {
+        return new File(storageDirectory, SNAPSHOT_FILENAME);
+    }
+
+    private File getPartialFile() {
+        return new File(storageDirectory, SNAPSHOT_FILENAME + PARTIAL_SUFFIX);
+    }
+
+    private File getIncrementalFile(final long sequence) {
+        return new File(storageDirectory, INCREMENTAL_FILENAME_PREFIX + sequence);
+    }
+
+    @Override
+    public synchronized void writeSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
+        if (!(snapshot instanceof OffHeapSnapshot.Capture)) {
+            throw new IllegalArgumentException("Cannot write Snapshot Capture " + snapshot + " because it was not created by " + this);
+        }
+
+        final Capture capture = (Capture) snapshot;
+        final boolean full = fullCheckpointSequence == 0L
+            || incrementalCheckpointCount >= maxIncrementalCheckpoints
+            || incrementalRecordCount > store.size() / 2;
+
+        if (full) {
+            writeFullCheckpoint(capture);
+        } else {
+            writeIncrementalCheckpoint(capture);
+        }
+    }
+
+    private void writeFullCheckpoint(final Capture capture) throws IOException {
+        final long sequence = checkpointSequence + 1;
+        final File snapshotFile = getSnapshotFile();
+        final File partialFile = getPartialFile();
+
+        // As in HashMapSnapshot, never overwrite the Snapshot file directly. Write a partial file, delete the Snapshot file and then
+        // rename the partial file, so that a viable Snapshot file can always be found on recovery.
+        if (!snapshotFile.exists() && partialFile.exists()) {
+            final boolean rename = partialFile.renameTo(snapshotFile);
+            if (!rename) {
+                throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
+            }
+        }
+
+        int recordCount = 0;
+        try (final FileOutputStream fileOut = new FileOutputStream(partialFile);
+             final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            writeHeader(dataOut, sequence, capture.getMaxTransactionId());
+
+            for (final long key : store.keys()) {
+                final byte[] serialized = store.get(key);
+                if (serialized != null) {
+                    writeRecord(dataOut, key, serialized);
+                    recordCount++;
+                }
+            }
+            dataOut.write(END_OF_RECORDS);
+
+            writeSwapLocations(dataOut, capture.getSwapLocations());
+
+            dataOut.flush();
+            fileOut.getChannel().force(false);
+        }
+
+        if (snapshotFile.exists() && !snapshotFile.delete()) {
+            logger.warn("Unable to delete existing Snapshot file {}", snapshotFile);
+        }
+
+        final boolean rename = partialFile.renameTo(snapshotFile);
+        if (!rename) {
+            throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
+        }
+
+        // Every change up to the capture is now contained in the full checkpoint, so the incremental checkpoints are no longer needed
+        for (final Long existingSequence : findIncrementalFiles().keySet()) {
+            deleteIncrementalFile(getIncrementalFile(existingSequence));
+        }
+
+        modifiedRecords.removeModifiedAtMost(capture.getModificationStamp());
+
+        checkpointSequence = sequence;
+        fullCheckpointSequence = sequence;
+        incrementalCheckpointCount = 0;
+        incrementalRecordCount = 0L;
+
+        logger.debug("Wrote full checkpoint {} with {} records to {}", sequence, recordCount, snapshotFile);
+    }
+
+    private void writeIncrementalCheckpoint(final Capture capture) throws IOException {
+        final long sequence = checkpointSequence + 1;
+        final File incrementalFile = getIncrementalFile(sequence);
+        final File partialFile = new File(storageDirectory, incrementalFile.getName() + PARTIAL_SUFFIX);
+
+        // Only those changes made before the capture are written. Later changes are also in the new journal and will be written by the next checkpoint.
+        final long[] written = modifiedRecords.keysModifiedAtMost(capture.getModificationStamp());
+        try (final FileOutputStream fileOut = new FileOutputStream(partialFile);
+             final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            writeHeader(dataOut, sequence, capture.getMaxTransactionId());
+
+            for (final long key : written) {
+                final byte[] serialized = store.get(key);
+                if (serialized == null) {
+                    dataOut.write(RECORD_REMOVED);
+                    dataOut.writeLong(key);
+                } else {
+                    writeRecord(dataOut, key, serialized);
+                }
+            }
+            dataOut.write(END_OF_RECORDS);
+
+            writeSwapLocations(dataOut, capture.getSwapLocations());
+
+            dataOut.flush();
+            fileOut.getChannel().force(false);
+        } catch (final IOException e) {
+            deleteIncrementalFile(partialFile);
+            throw e;
+        }
+
+        final boolean rename = partialFile.renameTo(incrementalFile);
+        if (!rename) {
+            deleteIncrementalFile(partialFile);
+            throw new IOException("Failed to rename partial incremental snapshot file " + partialFile + " to " + incrementalFile);
+        }
+
+        // Records that changed again while the checkpoint was being written keep their newer stamp and are written next time
+        modifiedRecords.removeModifiedAtMost(capture.getModificationStamp());
+
+        checkpointSequence = sequence;
+        incrementalCheckpointCount++;
+        incrementalRecordCount += written.length;
+
+        logger.debug("Wrote incremental checkpoint {} with {} changed records to {}", sequence, written.length, incrementalFile);
+    }
+
+    private void writeHeader(final DataOutputStream dataOut, final long sequence, final long maxTransactionId) throws IOException {
+        dataOut.writeUTF(OffHeapSnapshot.class.getName());
+        dataOut.writeInt(ENCODING_VERSION);
+        dataOut.writeUTF(serdeEncoding);
+        dataOut.writeInt(serdeVersion);
+        dataOut.writeLong(maxTransactionId);
+        dataOut.writeLong(sequence);
+        dataOut.writeInt(serdeHeader.length);
+        dataOut.write(serdeHeader);
+    }
+
+    private static void writeRecord(final DataOutputStream dataOut, final long key, final byte[] serialized) throws IOException {
+        dataOut.write(RECORD_FOLLOWS);
+        dataOut.writeLong(key);
+        dataOut.writeInt(serialized.length);
+        dataOut.write(serialized);
+    }
+
+    private static void writeSwapLocations(final DataOutputStream dataOut, final Set<String> swapLocations) throws IOException {
+        dataOut.writeInt(swapLocations.size());
+        for (final String swapLocation : swapLocations) {
+            dataOut.writeUTF(swapLocation);
+        }
+    }
+
+    private void deleteIncrementalFile(final File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (final IOException e) {
+            logger.warn("Unable to delete incremental snapshot file {}", file, e);
+        }
+    }
+
+    /**
+     * @return the sequence numbers of the complete incremental checkpoint files in the storage directory, in ascending order, mapped to the files.
+     *         Any partial incremental checkpoint files are deleted.
+     */
+    private TreeMap<Long, File> findIncrementalFiles() {
+        final TreeMap<Long, File> incrementalFiles = new TreeMap<>();
+        final File[] files = storageDirectory.listFiles();
+        if (files == null) {
+            return incrementalFiles;
+        }
+
+        for (final File file : files) {
+            final Matcher matcher = INCREMENTAL_FILENAME_PATTERN.matcher(file.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            if (matcher.group(2) != null) {
+                deleteIncrementalFile(file);
+            } else {
+                incrementalFiles.put(Long.parseLong(matcher.group(1)), file);
+            }
+        }
+
+        return incrementalFiles;
+    }
+
+    @Override
+    public synchronized SnapshotRecovery<T> recover() throws IOException {
+        final File partialFile = getPartialFile();
+        final File snapshotFile = getSnapshotFile();
+        final boolean partialExists = partialFile.exists();
+        final boolean snapshotExists = snapshotFile.exists();
+        final TreeMap<Long, File> incrementalFiles = findIncrementalFiles();
+
+        if (!partialExists && !snapshotExists) {
+            if (!incrementalFiles.isEmpty()) {
+                throw new IOException("Found " + incrementalFiles.size() + " incremental snapshot files in " + storageDirectory
+                    + " but no full snapshot file; cannot recover the Write-Ahead Log");
+            }
+
+            return SnapshotRecovery.emptyRecovery();
+        }
+
+        if (partialExists && snapshotExists) {
+            // both files exist -- assume NiFi crashed/died while checkpointing. Delete the partial file.
+            Files.delete(partialFile.toPath());
+        } else if (partialExists) {
+            // partial exists but snapshot does not -- we must have completed creating the partial and deleted the snapshot
+            // but crashed before renaming the partial to the snapshot. Just rename partial to snapshot.
+            Files.move(partialFile.toPath(), snapshotFile.toPath());
+        }
+
+        if (snapshotFile.length() == 0) {
+            logger.warn("{} Found 0-byte Snapshot file; skipping Snapshot file in recovery", this);
+            return SnapshotRecovery.emptyRecovery();
+        }
+
+        final Map<Object, T> recoveredRecords = new HashMap<>();
+        final Set<String> recoveredSwapLocations = new HashSet<>();
+
+        long maxTransactionId;
+        long sequence;
+        try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            final String snapshotClass = dataIn.readUTF();
+            if (snapshotClass.equals(HashMapSnapshot.class.getName())) {
+                maxTransactionId = recoverHashMapSnapshot(dataIn, recoveredRecords, recoveredSwapLocations);
+                sequence = 0L;
+            } else if (snapshotClass.equals(OffHeapSnapshot.class.getName())) {
+                final RecoveredCheckpoint checkpoint = recoverCheckpoint(dataIn, snapshotFile, recoveredRecords, recoveredSwapLocations);
+                maxTransactionId = checkpoint.maxTransactionId();
+                sequence = checkpoint.sequence();
+            } else {
+                throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " was written using the "
+                    + snapshotClass + " class; cannot restore using " + getClass().getName());
+            }
+        }
+
+        logger.info("{} restored {} Records and {} Swap Files from Snapshot, ending with Transaction ID {}", this, recoveredRecords.size(), recoveredSwapLocations.size(), maxTransactionId);
+
+        final long fullSequence = sequence;
+        int incrementalCount = 0;
+        long incrementalRecords = 0L;
+        File recoveryFile = snapshotFile;
+        for (final Map.Entry<Long, File> entry : incrementalFiles.entrySet()) {
+            final long incrementalSequence = entry.getKey();
+            final File incrementalFile = entry.getValue();
+
+            // Incremental checkpoints that precede the full checkpoint are already contained within it
+            if (incrementalSequence <= fullSequence) {
+                deleteIncrementalFile(incrementalFile);
+                continue;
+            }
+
+            if (incrementalSequence != sequence + 1) {
+                throw new IOException("Expected to find incremental snapshot file " + getIncrementalFile(sequence + 1) + " but found " + incrementalFile
+                    + "; cannot recover the Write-Ahead Log");
+            }
+
+            recoveredSwapLocations.clear();
+            try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(incrementalFile)))) {
+                final String snapshotClass = dataIn.readUTF();
+                if (!snapshotClass.equals(OffHeapSnapshot.class.getName())) {
+                    throw new IOException("Incremental snapshot file " + incrementalFile + " was written using the " + snapshotClass + " class; cannot restore using " + getClass().getName());
+                }
+
+                final RecoveredCheckpoint checkpoint = recoverCheckpoint(dataIn, incrementalFile, recoveredRecords, recoveredSwapLocations);
+                maxTransactionId = checkpoint.maxTransactionId();
+                incrementalRecords += checkpoint.recordCount();
+            }
+
+            sequence = incrementalSequence;
+            incrementalCount++;
+            recoveryFile = incrementalFile;
+        }
+
+        if (incrementalCount > 0) {
+            logger.info("{} applied {} incremental checkpoints, restoring {} Records and {} Swap Files, ending with Transaction ID {}",
+                this, incrementalCount, recoveredRecords.size(), recoveredSwapLocations.size(), maxTransactionId);
+        }
+
+        checkpointSequence = sequence;
+        fullCheckpointSequence = fullSequence;
+        incrementalCheckpointCount = incrementalCount;
+        incrementalRecordCount = incrementalRecords;
+        swapLocations.addAll(recoveredSwapLocations);
+
+        return new StandardSnapshotRecovery<>(new RecoveredRecordMap(recoveredRecords), recoveredSwapLocations, recoveryFile, maxTransactionId);
+    }
+
+    private long recoverHashMapSnapshot(final DataInputStream dataIn, final Map<Object, T> recoveredRecords, final Set<String> recoveredSwapLocations) throws IOException {
+        final int snapshotVersion = dataIn.readInt();
+        final String serdeEncoding = dataIn.readUTF();
+        final int serdeVersion = dataIn.readInt();
+        final long maxTransactionId = dataIn.readLong();
+        final int numRecords = dataIn.readInt();
+        logger.debug("Recovering Snapshot at {} written by HashMapSnapshot version {} using SerDe {} version {}", storageDirectory, snapshotVersion, serdeEncoding, serdeVersion);
+
+        final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+        serde.readHeader(dataIn);
+
+        for (int i = 0; i < numRecords; i++) {
+            final T record = serde.deserializeRecord(dataIn, serdeVersion);
+            if (record == null) {
+                throw new EOFException();
+            }
+
+            if (serde.getUpdateType(record) == UpdateType.DELETE) {
+                logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+                continue;
+            }
+
+            final Object recordId = serde.getRecordIdentifier(record);
+            recoveredRecords.put(recordId, record);
+            final byte[] serialized = serialize(record);
+            store.put(toKey(recordId), serialized, serialized.length);
+        }
+
+        final int numSwapRecords = dataIn.readInt();
+        for (int i = 0; i < numSwapRecords; i++) {
+            recoveredSwapLocations.add(dataIn.readUTF());
+        }
+
+        return maxTransactionId;
+    }
+
+    private RecoveredCheckpoint recoverCheckpoint(final DataInputStream dataIn, final File file, final Map<Object, T> recoveredRecords,
+                                                  final Set<String> recoveredSwapLocations) throws IOException {
+        final int snapshotVersion = dataIn.readInt();
+        if (snapshotVersion > ENCODING_VERSION) {
+            throw new IOException("Write-Ahead Log Snapshot file " + file + " was written using version " + snapshotVersion + " of the "
+                + OffHeapSnapshot.class.getName() + " class; cannot restore using Version " + ENCODING_VERSION);
+        }
+
+        final String fileSerdeEncoding = dataIn.readUTF();
+        final int fileSerdeVersion = dataIn.readInt();
+        final long maxTransactionId = dataIn.readLong();
+        final long sequence = dataIn.readLong();
+        final byte[] fileSerdeHeader = new byte[dataIn.readInt()];
+        dataIn.readFully(fileSerdeHeader);
+
+        // If the records were serialized in exactly the form that is held in the store, they can be stored without serializing them again
+        final boolean sameSerialization = fileSerdeEncoding.equals(serdeEncoding) && fileSerdeVersion == serdeVersion && Arrays.equals(fileSerdeHeader, serdeHeader);
+        final SerDe<T> fileSerde = serdeFactory.createSerDe(fileSerdeEncoding);
+        fileSerde.readHeader(new DataInputStream(new ByteArrayInputStream(fileSerdeHeader)));
+
+        long recordCount = 0L;
+        int indicator;
+        while ((indicator = dataIn.read()) != END_OF_RECORDS) {
+            if (indicator == RECORD_REMOVED) {
+                final long key = dataIn.readLong();
+                store.remove(key);
+                recoveredRecords.remove(key);
+            } else if (indicator == RECORD_FOLLOWS) {
+                final long key = dataIn.readLong();
+                final byte[] serialized = new byte[dataIn.readInt()];
+                dataIn.readFully(serialized);
+
+                final T record = fileSerde.deserializeRecord(new DataInputStream(new ByteArrayInputStream(serialized)), fileSerdeVersion);
+                if (record == null) {
+                    throw new EOFException("Snapshot file " + file + " ended in the middle of a record");
+                }
+
+                recoveredRecords.put(serdeFactory.getRecordIdentifier(record), record);
+                if (sameSerialization) {
+                    store.put(key, serialized, serialized.length);
+                } else {
+                    final byte[] reserialized = serialize(record);
+                    store.put(key, reserialized, reserialized.length);
+                }
+            } else if (indicator < 0) {
+                throw new EOFException("Snapshot file " + file + " ended unexpectedly");
+            } else {
+                throw new IOException("Snapshot file " + file + " contains invalid record indicator " + indicator);
+            }
+
+            recordCount++;
+        }
+
+        final int numSwapLocations = dataIn.readInt();
+        for (int i = 0; i < numSwapLocations; i++) {
+            recoveredSwapLocations.add(dataIn.readUTF());
+        }
+
+        return new RecoveredCheckpoint(sequence, maxTransactionId, recordCount);
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapSnapshot[" + storageDirectory + "]";
+    }
+
+    private record RecoveredCheckpoint(long sequence, long maxTransactionId, long recordCount) {
+    }
+
+    /**
+     * The records recovered from the snapshot, which the journals then update. Each update is also applied to the store.
+     */
+    private class RecoveredRecordMap extends AbstractMap<Object, T> {
+        private final Map<Object, T> records;
+
+        RecoveredRecordMap(final Map<Object, T> records) {
+            this.records = records;
+        }
+
+        @Override
+        public T get(final Object key) {
+            return records.get(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return records.containsKey(key);
+        }
+
+        @Override
+        public T put(final Object key, final T value) {
+            putRecord(toKey(key), value);
+            return records.put(key, value);
+        }
+
+        @Override
+        public T remove(final Object key) {
+            removeRecord(toKey(key));
+            return records.remove(key);
+        }
+
+        @Override
+        public int size() {
+            return records.size();
+        }
+
+        @Override
+        public Set<Entry<Object, T>> entrySet() {
+            return Collections.unmodifiableMap(records).entrySet();
+        }
+    }
+
+    public class Capture implements SnapshotCapture<T> {
+        private final Set<String> swapLocations;
+        private final long maxTransactionId;
+        private final long modificationStamp;
+
+        private Capture(final Set<String> swapLocations, final long maxTransactionId, final long modificationStamp) {
+            this.swapLocations = swapLocations;
+            this.maxTransactionId = maxTransactionId;
+            this.modificationStamp = modificationStamp;
+        }
+
+        /**
+         * @return a read-only view of the records that are currently in the snapshot. Records are deserialized as they are accessed,
+         *         and the view reflects changes made after the capture was taken.
+         */
+        @Override
+        public Map<Object, T> getRecords() {
+            return new RecordView();
+        }
+
+        @Override
+        public long getMaxTransactionId() {
+            return maxTransactionId;
+        }
+
+        @Override
+        public Set<String> getSwapLocations() {
+            return swapLocations;
+        }
+
+        long getModificationStamp() {
+            return modificationStamp;
+        }
+    }
+
+    private class RecordView extends AbstractMap<Object, T> {
+        @Override
+        public T get(final Object key) {
+            return lookup(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return store.containsKey(toKey(key));
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+
+        @Override
+        public Set<Entry<Object, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Object, T>> iterator() {
+                    return new RecordIterator(store.keys());
+                }
+
+                @Override
+                public int size() {
+                    return store.size();
+                }
+            };
+        }
+    }
+
+    private class RecordIterator implements Iterator<Map.Entry<Object, T>> {
+        private final long[] keys;
+        private int index = 0;
+        private Map.Entry<Object, T> next;
+
+        RecordIterator(final long[] keys) {
+            this.keys = keys;
+            advance();
+        }
+
+        // Records that were removed after the keys were gathered are skipped
+        private void advance() {
+            next = null;
+            while (next == null && index < keys.length) {
+                final byte[] serialized = store.get(keys[index++]);
+                if (serialized != null) {
+                    final T record = deserialize(serialized);
+                    next = new AbstractMap.SimpleImmutableEntry<>(serdeFactory.getRecordIdentifier(record), record);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Object, T> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            final Map.Entry<Object, T> current = next;
+            advance();
+            return current;
+        }
+    }
+}
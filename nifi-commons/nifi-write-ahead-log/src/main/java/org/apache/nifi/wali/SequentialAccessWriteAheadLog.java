@@ -25,15 +25,24 @@ import org.wali.WriteAheadRepository;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -53,6 +62,22 @@ import java.util.regex.Pattern;
  * that records are recovered correctly if two threads simultaneously update the write-ahead log
  * with updates for the same record.
  * </p>
+ *
+ * <p>
+ * If group commit is enabled, updates that must be synced to disk are not written and synced individually. Instead, concurrent
+ * updates are queued, and one thread at a time becomes the leader. The leader may optionally wait for a short window, in order to
+ * allow more updates to join the group, and then writes each queued update to the journal and syncs the journal once on behalf of
+ * all of them. The leader waits without holding any lock. Other threads park until their update has been synced or until they are
+ * handed the leadership to write the next group, so a thread whose update was synced as part of an earlier group returns without
+ * waiting for the next one. Each call to {@link #update(Collection, boolean)} still returns only once its own records have been
+ * synced to disk.
+ * </p>
+ *
+ * <p>
+ * Each update in a group is written as its own journal transaction, so each caller is given the failure of its own update. A failure
+ * to write to the journal prevents any further writes until the next checkpoint, as it does without group commit, so the updates of a
+ * group that had not yet been synced when the failure occurred are failed as well.
+ * </p>
  */
 public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
     private static final int PARTITION_INDEX = 0;
@@ -77,17 +102,91 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
     private final WriteAheadSnapshot<T> snapshot;
     private final RecordLookup<T> recordLookup;
-    private SnapshotRecovery<T> snapshotRecovery;
 
     private volatile boolean recovered = false;
     private WriteAheadJournal<T> journal;
     private volatile long nextTransactionId = 0L;
 
+    private final boolean groupCommitEnabled;
+    private final long groupCommitWindowNanos;
+    private final int groupCommitMaxRecords;
+    private final Queue<PendingUpdate<T>> pendingUpdates = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingRecordCount = new AtomicInteger(0);
+    private final GroupCommitStatistics groupCommitStatistics = new GroupCommitStatistics();
+    private final AtomicReference<Thread> groupCommitLeader = new AtomicReference<>();
+
+    private volatile int recoveryThreadCount = 1;
+
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory) throws IOException {
         this(storageDirectory, serdeFactory, SyncListener.NOP_SYNC_LISTENER);
     }
 
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, new HashMapSnapshot<>(storageDirectory, serdeFactory), false, 0L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that keeps the 'active' records in the given snapshot, rather than in a {@link HashMapSnapshot}
+     *
+     * @param storageDirectory the directory in which to store the snapshot and journals
+     * @param serdeFactory the factory for the serializer/deserializer of the records
+     * @param syncListener the listener to notify when the repository is synced to disk
+     * @param snapshot the snapshot that holds the 'active' records and writes them to the storage directory
+     * @param <S> the type of the snapshot
+     * @throws IOException if unable to create the storage directory
+     */
+    public <S extends WriteAheadSnapshot<T> & RecordLookup<T>> SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory,
+                                                                                           final SyncListener syncListener, final S snapshot) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, snapshot, false, 0L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that uses group commit for updates that must be synced to disk
+     *
+     * @param storageDirectory the directory in which to store the snapshot and journals
+     * @param serdeFactory the factory for the serializer/deserializer of the records
+     * @param syncListener the listener to notify when the repository is synced to disk
+     * @param groupCommitWindow how long the thread that performs a group commit waits for other updates to join the group before writing it. A value of 0
+     *            means that only updates that were queued while the previous group commit was being performed are included
+     * @param groupCommitWindowUnit the unit of the group commit window
+     * @param groupCommitMaxRecords the maximum number of records to write in a single group commit. Once this many records are queued, the group
+     *            commit is written without waiting for the rest of the window
+     * @throws IOException if unable to create the storage directory
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final long groupCommitWindow, final TimeUnit groupCommitWindowUnit, final int groupCommitMaxRecords) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, new HashMapSnapshot<>(storageDirectory, serdeFactory), groupCommitWindow, groupCommitWindowUnit, groupCommitMaxRecords);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that keeps the 'active' records in the given snapshot and uses group commit for updates that must be synced to disk
+     *
+     * @param storageDirectory the directory in which to store the snapshot and journals
+     * @param serdeFactory the factory for the serializer/deserializer of the records
+     * @param syncListener the listener to notify when the repository is synced to disk
+     * @param snapshot the snapshot that holds the 'active' records and writes them to the storage directory
+     * @param groupCommitWindow how long the thread that performs a group commit waits for other updates to join the group before writing it
+     * @param groupCommitWindowUnit the unit of the group commit window
+     * @param groupCommitMaxRecords the maximum number of records to write in a single group commit
+     * @param <S> the type of the snapshot
+     * @throws IOException if unable to create the storage directory
+     */
+    public <S extends WriteAheadSnapshot<T> & RecordLookup<T>> SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory,
+                                                                                           final SyncListener syncListener, final S snapshot, final long groupCommitWindow,
+                                                                                           final TimeUnit groupCommitWindowUnit, final int groupCommitMaxRecords) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, snapshot, true, groupCommitWindowUnit.toNanos(groupCommitWindow), groupCommitMaxRecords);
+    }
+
+    private <S extends WriteAheadSnapshot<T> & RecordLookup<T>> SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory,
+                                                                                            final SyncListener syncListener, final S snapshot, final boolean groupCommitEnabled,
+                                                                                            final long groupCommitWindowNanos, final int groupCommitMaxRecords) throws IOException {
+        if (groupCommitWindowNanos < 0) {
+            throw new IllegalArgumentException("Group commit window cannot be negative");
+        }
+        if (groupCommitMaxRecords < 1) {
+            throw new IllegalArgumentException("Group commit maximum number of records must be at least 1");
+        }
+
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new IOException("Directory " + storageDirectory + " does not exist and cannot be created");
         }
@@ -95,9 +194,8 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IOException("File " + storageDirectory + " is a regular file and not a directory");
         }
 
-        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
-        this.snapshot = hashMapSnapshot;
-        this.recordLookup = hashMapSnapshot;
+        this.snapshot = snapshot;
+        this.recordLookup = snapshot;
 
         this.storageDirectory = storageDirectory;
         this.journalsDirectory = new File(storageDirectory, "journals");
@@ -109,6 +207,10 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.serdeFactory = serdeFactory;
         this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+
+        this.groupCommitEnabled = groupCommitEnabled;
+        this.groupCommitWindowNanos = groupCommitWindowNanos;
+        this.groupCommitMaxRecords = groupCommitMaxRecords;
     }
 
     @Override
@@ -117,6 +219,11 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IllegalStateException("Cannot update repository until record recovery has been performed");
         }
 
+        if (forceSync && groupCommitEnabled) {
+            groupCommit(records);
+            return PARTITION_INDEX;
+        }
+
         journalReadLock.lock();
         try {
             journal.update(records, recordLookup);
@@ -134,6 +241,141 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         return PARTITION_INDEX;
     }
 
+    private void groupCommit(final Collection<T> records) throws IOException {
+        final PendingUpdate<T> pendingUpdate = new PendingUpdate<>(records, Thread.currentThread());
+        pendingUpdates.add(pendingUpdate);
+
+        // If enough records are now queued, wake the leader if it is waiting for the group commit window to elapse.
+        if (pendingRecordCount.addAndGet(records.size()) >= groupCommitMaxRecords) {
+            final Thread leader = groupCommitLeader.get();
+            if (leader != null) {
+                LockSupport.unpark(leader);
+            }
+        }
+
+        // The leader writes all queued updates, so by the time that a thread becomes the leader, its own update may already have been synced.
+        while (!pendingUpdate.isComplete()) {
+            if (groupCommitLeader.compareAndSet(null, Thread.currentThread())) {
+                try {
+                    if (!pendingUpdate.isComplete()) {
+                        waitForGroupCommitWindow();
+                        writeGroupCommit();
+                    }
+                } finally {
+                    groupCommitLeader.set(null);
+                    handOffGroupCommitLeadership();
+                }
+            } else {
+                // Woken when the update has been synced or when the leader has finished writing its group
+                LockSupport.park(this);
+            }
+        }
+
+        groupCommitStatistics.recordUpdateLatency(System.nanoTime() - pendingUpdate.getQueuedNanos());
+
+        final Throwable failure = pendingUpdate.getFailure();
+        if (failure != null) {
+            throw new IOException("Failed to write group commit to Write-Ahead Log at " + storageDirectory, failure);
+        }
+    }
+
+    // Wakes the thread of the oldest queued update, if any, so that it can become the leader and write the next group
+    private void handOffGroupCommitLeadership() {
+        final PendingUpdate<T> next = pendingUpdates.peek();
+        if (next != null) {
+            LockSupport.unpark(next.getThread());
+        }
+    }
+
+    // called only by the group commit leader
+    private void writeGroupCommit() {
+        final List<PendingUpdate<T>> group = new ArrayList<>();
+        int groupRecordCount = 0;
+        PendingUpdate<T> pendingUpdate;
+        while (groupRecordCount < groupCommitMaxRecords && (pendingUpdate = pendingUpdates.poll()) != null) {
+            group.add(pendingUpdate);
+            groupRecordCount += pendingUpdate.getRecords().size();
+        }
+
+        pendingRecordCount.addAndGet(-groupRecordCount);
+
+        final long startNanos = System.nanoTime();
+        final List<PendingUpdate<T>> written = new ArrayList<>(group.size());
+        journalReadLock.lock();
+        try {
+            for (final PendingUpdate<T> update : group) {
+                try {
+                    journal.update(update.getRecords(), recordLookup);
+                    written.add(update);
+                } catch (final Throwable t) {
+                    update.complete(t);
+                }
+            }
+
+            if (!written.isEmpty()) {
+                try {
+                    journal.fsync();
+                    syncListener.onSync(PARTITION_INDEX);
+                } catch (final Throwable t) {
+                    written.forEach(update -> update.complete(t));
+                    written.clear();
+                }
+            }
+
+            for (final PendingUpdate<T> update : written) {
+                try {
+                    snapshot.update(update.getRecords());
+                    update.complete(null);
+                } catch (final Throwable t) {
+                    update.complete(t);
+                }
+            }
+        } finally {
+            journalReadLock.unlock();
+        }
+
+        groupCommitStatistics.recordCommit(group.size(), groupRecordCount, System.nanoTime() - startNanos);
+    }
+
+    private void waitForGroupCommitWindow() {
+        if (groupCommitWindowNanos == 0L) {
+            return;
+        }
+
+        final long deadline = System.nanoTime() + groupCommitWindowNanos;
+        while (pendingRecordCount.get() < groupCommitMaxRecords) {
+            final long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0L) {
+                break;
+            }
+
+            LockSupport.parkNanos(this, remainingNanos);
+        }
+    }
+
+    /**
+     * Sets the number of threads to use for decoding journal transactions when recovering records. Transactions are always applied in the order in
+     * which they were written, regardless of the number of threads used to decode them. Transactions are decoded by a single thread if the number of
+     * threads is 1, or if the SerDe requires the previous state of each record in order to decode an edit. This method must be called before
+     * {@link #recoverRecords()} in order to take effect.
+     *
+     * @param recoveryThreadCount the number of threads to use for decoding journal transactions
+     */
+    public void setRecoveryThreadCount(final int recoveryThreadCount) {
+        if (recoveryThreadCount < 1) {
+            throw new IllegalArgumentException("Recovery thread count must be at least 1");
+        }
+
+        this.recoveryThreadCount = recoveryThreadCount;
+    }
+
+    /**
+     * @return statistics about the group commits that have been performed, or an empty Optional if group commit is not enabled
+     */
+    public Optional<GroupCommitStatistics> getGroupCommitStatistics() {
+        return groupCommitEnabled ? Optional.of(groupCommitStatistics) : Optional.empty();
+    }
+
     @Override
     public synchronized Collection<T> recoverRecords() throws IOException {
         if (recovered) {
@@ -144,7 +386,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         final long recoverStart = System.nanoTime();
         recovered = true;
-        snapshotRecovery = snapshot.recover();
+        final SnapshotRecovery<T> snapshotRecovery = snapshot.recover();
         this.recoveredSwapLocations.addAll(snapshotRecovery.getRecoveredSwapLocations());
 
         final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoverStart);
@@ -179,30 +421,47 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         int journalFilesRecovered = 0;
         int journalFilesSkipped = 0;
         long maxTransactionId = snapshotTransactionId;
+        long journalReadNanos = 0L;
+        long journalDecodeNanos = 0L;
+        long journalApplyNanos = 0L;
 
-        for (final File journalFile : orderedJournalFiles) {
-            final long journalMinTransactionId = getMinTransactionId(journalFile);
-            if (journalMinTransactionId < snapshotTransactionId) {
-                logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
-                    journalFile, journalMinTransactionId, snapshotTransactionId);
-
-                journalFilesSkipped++;
-                continue;
-            }
+        final long journalRecoveryStart = System.nanoTime();
+        final int decodeThreads = recoveryThreadCount;
+        final ExecutorService decodeExecutor = decodeThreads > 1 ? createDecodeExecutor(decodeThreads) : null;
+        try {
+            for (final File journalFile : orderedJournalFiles) {
+                final long journalMinTransactionId = getMinTransactionId(journalFile);
+                if (journalMinTransactionId < snapshotTransactionId) {
+                    logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
+                        journalFile, journalMinTransactionId, snapshotTransactionId);
+
+                    journalFilesSkipped++;
+                    continue;
+                }
 
-            logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
-            journalFilesRecovered++;
+                logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
+                journalFilesRecovered++;
 
-            try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
-                final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations);
-                final int updates = journalRecovery.getUpdateCount();
+                try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+                    final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations, decodeExecutor, decodeThreads);
+                    final int updates = journalRecovery.getUpdateCount();
 
-                logger.debug("Recovered {} updates from journal {}", updates, journalFile);
-                totalUpdates += updates;
-                maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
+                    logger.debug("Recovered {} updates from journal {}", updates, journalFile);
+                    totalUpdates += updates;
+                    maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
+                    journalReadNanos += journalRecovery.getReadNanos();
+                    journalDecodeNanos += journalRecovery.getDecodeNanos();
+                    journalApplyNanos += journalRecovery.getApplyNanos();
+                }
+            }
+        } finally {
+            if (decodeExecutor != null) {
+                decodeExecutor.shutdownNow();
             }
         }
 
+        final long journalRecoveryNanos = System.nanoTime() - journalRecoveryStart;
+
         logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
             totalUpdates, journalFilesRecovered, journalFilesSkipped);
         this.nextTransactionId = maxTransactionId + 1;
@@ -213,11 +472,26 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.recoveredSwapLocations.addAll(swapLocations);
 
+        final long checkpointStart = System.nanoTime();
         checkpoint(this.recoveredSwapLocations);
+        final long checkpointNanos = System.nanoTime() - checkpointStart;
+
+        logger.info("Write-Ahead Log recovery phases for {}: snapshot {} millis, journal replay {} millis [read {} millis, decode {} millis using {} threads, apply {} millis], checkpoint {} millis",
+            storageDirectory, snapshotRecoveryMillis, TimeUnit.NANOSECONDS.toMillis(journalRecoveryNanos), TimeUnit.NANOSECONDS.toMillis(journalReadNanos),
+            TimeUnit.NANOSECONDS.toMillis(journalDecodeNanos), decodeThreads, TimeUnit.NANOSECONDS.toMillis(journalApplyNanos), TimeUnit.NANOSECONDS.toMillis(checkpointNanos));
 
         return recoveredRecords.values();
     }
 
+    private ExecutorService createDecodeExecutor(final int threads) {
+        final AtomicInteger threadIndex = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "Write-Ahead Log Recovery-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private long getMinTransactionId(final File journalFile) {
         final String filename = journalFile.getName();
         final String numeral = filename.substring(0, filename.indexOf("."));
@@ -337,4 +611,43 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             journalWriteLock.unlock();
         }
     }
+
+    private static class PendingUpdate<T> {
+        private final Collection<T> records;
+        private final Thread thread;
+        private final long queuedNanos = System.nanoTime();
+        private volatile boolean complete = false;
+        private volatile Throwable failure;
+
+        PendingUpdate(final Collection<T> records, final Thread thread) {
+            this.records = records;
+            this.thread = thread;
+        }
+
+        Collection<T> getRecords() {
+            return records;
+        }
+
+        Thread getThread() {
+            return thread;
+        }
+
+        long getQueuedNanos() {
+            return queuedNanos;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        Throwable getFailure() {
+            return failure;
+        }
+
+        void complete(final Throwable failure) {
+            this.failure = failure;
+            this.complete = true;
+            LockSupport.unpark(thread);
+        }
+    }
 }
@@ -21,11 +21,22 @@ public class StandardJournalRecovery implements JournalRecovery {
     private final int updateCount;
     private final long maxTransactionId;
     private final boolean eofException;
+    private final long readNanos;
+    private final long decodeNanos;
+    private final long applyNanos;
 
     public StandardJournalRecovery(final int updateCount, final long maxTransactionId, final boolean eofException) {
+        this(updateCount, maxTransactionId, eofException, 0L, 0L, 0L);
+    }
+
+    public StandardJournalRecovery(final int updateCount, final long maxTransactionId, final boolean eofException, final long readNanos, final long decodeNanos,
+                                   final long applyNanos) {
         this.updateCount = updateCount;
         this.maxTransactionId = maxTransactionId;
         this.eofException = eofException;
+        this.readNanos = readNanos;
+        this.decodeNanos = decodeNanos;
+        this.applyNanos = applyNanos;
     }
 
     @Override
@@ -42,4 +53,19 @@ public class StandardJournalRecovery implements JournalRecovery {
     public boolean isEOFExceptionEncountered() {
         return eofException;
     }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    @Override
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    @Override
+    public long getApplyNanos() {
+        return applyNanos;
+    }
 }
@@ -22,11 +22,27 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 public interface WriteAheadJournal<T> extends Closeable {
 
     JournalRecovery recoverRecords(Map<Object, T> recordMap, Set<String> swapLocations) throws IOException;
 
+    /**
+     * Recovers the records from the journal, decoding transactions concurrently where the journal supports it. Regardless of how the transactions
+     * are decoded, they are applied to the given record map and swap locations in the order in which they were written.
+     *
+     * @param recordMap the records to update with the contents of the journal
+     * @param swapLocations the swap locations to update with the contents of the journal
+     * @param decodeExecutor the ExecutorService to use for decoding transactions
+     * @param parallelism the number of threads of the ExecutorService that may be used for decoding transactions
+     * @return information about the recovery
+     * @throws IOException if unable to recover the records
+     */
+    default JournalRecovery recoverRecords(Map<Object, T> recordMap, Set<String> swapLocations, ExecutorService decodeExecutor, int parallelism) throws IOException {
+        return recoverRecords(recordMap, swapLocations);
+    }
+
     /**
      * Updates the journal with the given set of records
      *
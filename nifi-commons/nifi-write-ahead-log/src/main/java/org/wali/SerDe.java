@@ -185,4 +185,14 @@ public interface SerDe<T> {
     default boolean isMoreInExternalFile() throws IOException {
         return false;
     }
+
+    /**
+     * Indicates whether or not {@link #serializeEdit(Object, Object, DataOutputStream)} makes use of the previous state of the record. If not,
+     * callers need not look up the previous state before serializing an edit, and each edit that is written contains the complete state of the record.
+     *
+     * @return <code>true</code> if the previous state of the record is used when serializing an edit, <code>false</code> otherwise
+     */
+    default boolean isPreviousRecordStateRequired() {
+        return true;
+    }
 }
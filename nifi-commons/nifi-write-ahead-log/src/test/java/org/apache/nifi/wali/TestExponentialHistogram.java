@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestExponentialHistogram {
+
+    @Test
+    public void testEmptyHistogram() {
+        final ExponentialHistogram histogram = new ExponentialHistogram();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getMax());
+        assertEquals(0D, histogram.getMean());
+        assertEquals(0L, histogram.getPercentile(99D));
+    }
+
+    @Test
+    public void testBucketsAndPercentiles() {
+        final ExponentialHistogram histogram = new ExponentialHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(3L);
+        }
+        histogram.record(1000L);
+
+        assertEquals(100L, histogram.getCount());
+        assertEquals(1297L, histogram.getSum());
+        assertEquals(1000L, histogram.getMax());
+        assertEquals(3L, histogram.getPercentile(50D));
+        assertEquals(3L, histogram.getPercentile(99D));
+        assertEquals(1000L, histogram.getPercentile(100D));
+
+        final long[] expectedCounts = new long[64];
+        expectedCounts[2] = 99L;
+        expectedCounts[10] = 1L;
+        assertArrayEquals(expectedCounts, histogram.getBucketCounts());
+        assertEquals(1023L, ExponentialHistogram.getBucketUpperBound(10));
+    }
+
+    @Test
+    public void testNegativeValuesRecordedAsZero() {
+        final ExponentialHistogram histogram = new ExponentialHistogram();
+        histogram.record(-5L);
+        assertEquals(1L, histogram.getBucketCounts()[0]);
+        assertEquals(0L, histogram.getSum());
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        final ExponentialHistogram histogram = new ExponentialHistogram();
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101D));
+    }
+}
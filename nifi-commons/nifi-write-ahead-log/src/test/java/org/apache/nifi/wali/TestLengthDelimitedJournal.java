@@ -21,6 +21,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
+import org.wali.SerDe;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
 import org.wali.UpdateType;
@@ -42,6 +43,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -553,4 +557,121 @@ public class TestLengthDelimitedJournal {
             assertEquals(0, recordMap.size());
         }
     }
+
+    @Test
+    public void testParallelRecoveryMatchesSerialRecovery() throws IOException, InterruptedException {
+        final SerDeFactory<DummyRecord> fullStateSerdeFactory = new FullStateSerDeFactory();
+        final Map<Object, DummyRecord> expectedRecords = new HashMap<>();
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, fullStateSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+
+            for (int i = 0; i < 5000; i++) {
+                final String id = String.valueOf(i % 300);
+                final List<DummyRecord> transaction = new ArrayList<>();
+                transaction.add(new DummyRecord(id, UpdateType.UPDATE).setProperty("transaction", String.valueOf(i)));
+                if (i % 7 == 0) {
+                    transaction.add(new DummyRecord(String.valueOf((i + 1) % 300), UpdateType.DELETE));
+                }
+
+                journal.update(transaction, key -> null);
+
+                // The last transaction is truncated below, so it is not expected to be recovered
+                if (i < 4999) {
+                    for (final DummyRecord record : transaction) {
+                        if (record.getUpdateType() == UpdateType.DELETE) {
+                            expectedRecords.remove(record.getId());
+                        } else {
+                            expectedRecords.put(record.getId(), record);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Truncate the last transaction so that it must be skipped by both serial and parallel recovery
+        try (final FileOutputStream fos = new FileOutputStream(journalFile, true)) {
+            fos.getChannel().truncate(journalFile.length() - 8);
+        }
+
+        final Map<Object, DummyRecord> serialRecords = new HashMap<>();
+        final JournalRecovery serialRecovery;
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, fullStateSerdeFactory, streamPool, 0L)) {
+            serialRecovery = journal.recoverRecords(serialRecords, new HashSet<>());
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, fullStateSerdeFactory, streamPool, 0L)) {
+            final Map<Object, DummyRecord> parallelRecords = new HashMap<>();
+            final JournalRecovery parallelRecovery = journal.recoverRecords(parallelRecords, new HashSet<>(), executor, 4);
+
+            assertTrue(serialRecovery.isEOFExceptionEncountered());
+            assertTrue(parallelRecovery.isEOFExceptionEncountered());
+            assertEquals(4999L, parallelRecovery.getMaxTransactionId());
+            assertEquals(serialRecovery.getUpdateCount(), parallelRecovery.getUpdateCount());
+            assertEquals(expectedRecords, serialRecords);
+            assertEquals(expectedRecords, parallelRecords);
+            assertTrue(parallelRecovery.getDecodeNanos() > 0L);
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testParallelRecoveryOfTrailingNulBytes() throws IOException {
+        final SerDeFactory<DummyRecord> fullStateSerdeFactory = new FullStateSerDeFactory();
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, fullStateSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+            journal.update(List.of(new DummyRecord("1", UpdateType.CREATE), new DummyRecord("2", UpdateType.CREATE)), id -> null);
+            journal.update(List.of(new DummyRecord("1", UpdateType.DELETE), new DummyRecord("2", UpdateType.DELETE)), id -> null);
+        }
+
+        final byte[] contents = Files.readAllBytes(journalFile.toPath());
+        final byte[] withNuls = new byte[contents.length - 8 + 28];
+        System.arraycopy(contents, 0, withNuls, 0, contents.length - 8);
+        try (final OutputStream fos = new FileOutputStream(journalFile)) {
+            fos.write(withNuls);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, fullStateSerdeFactory, streamPool, 0L)) {
+            final Map<Object, DummyRecord> recordMap = new HashMap<>();
+            journal.recoverRecords(recordMap, new HashSet<>(), executor, 2);
+            assertEquals(Set.of("1", "2"), recordMap.keySet());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a new SerDe for each call, each of which indicates that its edits contain the complete state of the record,
+     * so that journals can be recovered using multiple threads
+     */
+    private static class FullStateSerDeFactory implements SerDeFactory<DummyRecord> {
+        @Override
+        public SerDe<DummyRecord> createSerDe(final String encodingName) {
+            return new DummyRecordSerde() {
+                @Override
+                public boolean isPreviousRecordStateRequired() {
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public Object getRecordIdentifier(final DummyRecord record) {
+            return record.getId();
+        }
+
+        @Override
+        public UpdateType getUpdateType(final DummyRecord record) {
+            return record.getUpdateType();
+        }
+
+        @Override
+        public String getLocation(final DummyRecord record) {
+            return record.getSwapLocation();
+        }
+    }
 }
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wali.DummyRecord;
+import org.wali.DummyRecordSerde;
+import org.wali.SerDe;
+import org.wali.SerDeFactory;
+import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
+import org.wali.UpdateType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestOffHeapSnapshot {
+
+    private final File storageDirectory = new File("target/test-offheap-snapshot");
+    private SerDeFactory<DummyRecord> serdeFactory;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        deleteRecursively(storageDirectory);
+        Files.createDirectories(storageDirectory.toPath());
+
+        serdeFactory = new LongIdSerDeFactory();
+    }
+
+    @Test
+    public void testSuccessfulRoundTrip() throws IOException {
+        final OffHeapSnapshot<DummyRecord> snapshot = new OffHeapSnapshot<>(storageDirectory, serdeFactory);
+        for (int i = 0; i < 10; i++) {
+            snapshot.update(Collections.singleton(createRecord(i, UpdateType.CREATE, "value-" + i)));
+        }
+
+        for (int i = 2; i < 10; i += 2) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.DELETE)));
+        }
+
+        for (int i = 1; i < 10; i += 2) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.SWAP_OUT);
+            record.setSwapLocation("swapFile-" + i);
+            snapshot.update(Collections.singleton(record));
+        }
+
+        final DummyRecord swapIn7 = createRecord(7, UpdateType.SWAP_IN, "value-7");
+        swapIn7.setSwapLocation("swapFile-7");
+        snapshot.update(Collections.singleton(swapIn7));
+
+        final Set<String> swappedOutLocations = Set.of("swapFile-1", "swapFile-3", "swapFile-5", "swapFile-9");
+
+        assertEquals(2, snapshot.getRecordCount());
+        assertEquals("value-7", snapshot.lookup(7L).getProperty("key"));
+        assertNull(snapshot.lookup(3L));
+
+        final SnapshotCapture<DummyRecord> capture = snapshot.prepareSnapshot(180L);
+        assertEquals(180L, capture.getMaxTransactionId());
+        assertEquals(swappedOutLocations, capture.getSwapLocations());
+
+        final Map<Object, DummyRecord> records = capture.getRecords();
+        assertEquals(2, records.size());
+        assertTrue(records.containsKey(0L));
+        assertTrue(records.containsKey(7L));
+
+        snapshot.writeSnapshot(capture);
+
+        final OffHeapSnapshot<DummyRecord> recoveredSnapshot = new OffHeapSnapshot<>(storageDirectory, serdeFactory);
+        final SnapshotRecovery<DummyRecord> recovery = recoveredSnapshot.recover();
+        assertEquals(180L, recovery.getMaxTransactionId());
+        assertEquals(swappedOutLocations, recovery.getRecoveredSwapLocations());
+        assertEquals(getProperties(records), getProperties(recovery.getRecords()));
+        assertEquals(2, recoveredSnapshot.getRecordCount());
+    }
+
+    @Test
+    public void testIncrementalCheckpointsRecovered() throws IOException {
+        final OffHeapSnapshot<DummyRecord> snapshot = new OffHeapSnapshot<>(storageDirectory, serdeFactory, 3);
+        for (int i = 0; i < 100; i++) {
+            snapshot.update(Collections.singleton(createRecord(i, UpdateType.CREATE, "initial")));
+        }
+
+        // The first checkpoint must be a full checkpoint
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+        final File snapshotFile = new File(storageDirectory, "checkpoint");
+        assertTrue(snapshotFile.exists());
+        final long fullCheckpointLength = snapshotFile.length();
+
+        snapshot.update(Collections.singleton(createRecord(5, UpdateType.UPDATE, "updated")));
+        snapshot.update(Collections.singleton(new DummyRecord("6", UpdateType.DELETE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(20L));
+
+        final File incrementalFile = new File(storageDirectory, "checkpoint.incremental.2");
+        assertTrue(incrementalFile.exists());
+        assertEquals(fullCheckpointLength, snapshotFile.length());
+        assertTrue(incrementalFile.length() < fullCheckpointLength);
+
+        snapshot.update(Collections.singleton(createRecord(100, UpdateType.CREATE, "created")));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(30L));
+        assertTrue(new File(storageDirectory, "checkpoint.incremental.3").exists());
+
+        final SnapshotRecovery<DummyRecord> recovery = new OffHeapSnapshot<>(storageDirectory, serdeFactory, 3).recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+
+        final Map<Object, DummyRecord> records = recovery.getRecords();
+        assertEquals(100, records.size());
+        assertEquals("updated", records.get(5L).getProperty("key"));
+        assertFalse(records.containsKey(6L));
+        assertEquals("created", records.get(100L).getProperty("key"));
+        assertEquals("initial", records.get(99L).getProperty("key"));
+    }
+
+    @Test
+    public void testFullCheckpointRemovesIncrementalCheckpoints() throws IOException {
+        final OffHeapSnapshot<DummyRecord> snapshot = new OffHeapSnapshot<>(storageDirectory, serdeFactory, 2);
+        for (int i = 0; i < 100; i++) {
+            snapshot.update(Collections.singleton(createRecord(i, UpdateType.CREATE, "initial")));
+        }
+
+        for (int i = 1; i <= 4; i++) {
+            snapshot.update(Collections.singleton(createRecord(i, UpdateType.UPDATE, "checkpoint-" + i)));
+            snapshot.writeSnapshot(snapshot.prepareSnapshot(i));
+        }
+
+        // checkpoint 1 is full, checkpoints 2 and 3 are incremental, and checkpoint 4 is full again
+        final Set<String> filenames = Set.of(storageDirectory.list());
+        assertEquals(Set.of("checkpoint"), filenames);
+
+        final OffHeapSnapshot<DummyRecord> recoveredSnapshot = new OffHeapSnapshot<>(storageDirectory, serdeFactory, 2);
+        final Map<Object, DummyRecord> records = recoveredSnapshot.recover().getRecords();
+        assertEquals(100, records.size());
+        for (int i = 1; i <= 4; i++) {
+            assertEquals("checkpoint-" + i, records.get((long) i).getProperty("key"));
+        }
+
+        // After recovery, the next checkpoint is incremental again
+        recoveredSnapshot.update(Collections.singleton(createRecord(50, UpdateType.UPDATE, "after-recovery")));
+        recoveredSnapshot.writeSnapshot(recoveredSnapshot.prepareSnapshot(5L));
+        assertTrue(new File(storageDirectory, "checkpoint.incremental.5").exists());
+    }
+
+    @Test
+    public void testRecoverSnapshotWrittenByHashMapSnapshot() throws IOException {
+        final HashMapSnapshot<DummyRecord> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        for (int i = 0; i < 20; i++) {
+            hashMapSnapshot.update(Collections.singleton(createRecord(i, UpdateType.CREATE, "value-" + i)));
+        }
+
+        final DummyRecord swapOut = new DummyRecord("19", UpdateType.SWAP_OUT);
+        swapOut.setSwapLocation("swapFile-19");
+        hashMapSnapshot.update(Collections.singleton(swapOut));
+        hashMapSnapshot.writeSnapshot(hashMapSnapshot.prepareSnapshot(40L));
+
+        final OffHeapSnapshot<DummyRecord> snapshot = new OffHeapSnapshot<>(storageDirectory, serdeFactory);
+        final SnapshotRecovery<DummyRecord> recovery = snapshot.recover();
+        assertEquals(40L, recovery.getMaxTransactionId());
+        assertEquals(Set.of("swapFile-19"), recovery.getRecoveredSwapLocations());
+        assertEquals(19, recovery.getRecords().size());
+        assertEquals(19, snapshot.getRecordCount());
+        assertEquals("value-3", snapshot.lookup(3L).getProperty("key"));
+
+        // The first checkpoint after migrating must rewrite the snapshot in full
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(41L));
+        assertEquals(Set.of("checkpoint"), Set.of(storageDirectory.list()));
+        assertEquals(19, new OffHeapSnapshot<>(storageDirectory, serdeFactory).recover().getRecords().size());
+    }
+
+    @Test
+    public void testWriteAheadLogRecoversJournalsOnTopOfIncrementalCheckpoint() throws IOException {
+        final Map<String, String> expected = new HashMap<>();
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = createRepo();
+        repo.recoverRecords();
+
+        for (int i = 0; i < 50; i++) {
+            repo.update(Collections.singleton(createRecord(i, UpdateType.CREATE, "initial")), false);
+            expected.put(String.valueOf(i), "initial");
+        }
+
+        // The first checkpoint after creating all of the records writes them incrementally, and the next rewrites the snapshot in full
+        repo.checkpoint();
+        repo.update(Collections.singleton(createRecord(10, UpdateType.UPDATE, "full")), false);
+        expected.put("10", "full");
+        repo.checkpoint();
+        assertEquals(Set.of("checkpoint", "journals"), Set.of(storageDirectory.list()));
+
+        repo.update(List.of(createRecord(1, UpdateType.UPDATE, "incremental"), new DummyRecord("2", UpdateType.DELETE)), false);
+        expected.put("1", "incremental");
+        expected.remove("2");
+        repo.checkpoint();
+        assertTrue(new File(storageDirectory, "checkpoint.incremental.4").exists());
+
+        repo.update(List.of(createRecord(1, UpdateType.UPDATE, "journal"), new DummyRecord("3", UpdateType.DELETE), createRecord(50, UpdateType.CREATE, "journal")), false);
+        expected.put("1", "journal");
+        expected.remove("3");
+        expected.put("50", "journal");
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveredRepo = createRepo();
+        final Collection<DummyRecord> recovered = recoveredRepo.recoverRecords();
+        final Map<String, String> recoveredProperties = new HashMap<>();
+        for (final DummyRecord record : recovered) {
+            recoveredProperties.put(record.getId(), record.getProperty("key"));
+        }
+        assertEquals(expected, recoveredProperties);
+        recoveredRepo.shutdown();
+    }
+
+    @Test
+    public void testNonNumericRecordIdentifierRejected() throws IOException {
+        final DummyRecordSerde serde = new DummyRecordSerde() {
+            @Override
+            public boolean isPreviousRecordStateRequired() {
+                return false;
+            }
+        };
+
+        final OffHeapSnapshot<DummyRecord> snapshot = new OffHeapSnapshot<>(storageDirectory, new SingletonSerDeFactory<>(serde));
+        final DummyRecord record = new DummyRecord("not-a-number", UpdateType.CREATE);
+        assertThrows(IllegalArgumentException.class, () -> snapshot.update(Collections.singleton(record)));
+    }
+
+    @Test
+    public void testSerDeRequiringPreviousRecordStateRejected() {
+        final SerDeFactory<DummyRecord> previousStateSerDeFactory = new LongIdSerDeFactory() {
+            @Override
+            public SerDe<DummyRecord> createSerDe(final String encodingName) {
+                return new DummyRecordSerde();
+            }
+        };
+
+        assertTrue(new DummyRecordSerde().isPreviousRecordStateRequired());
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapSnapshot<>(storageDirectory, previousStateSerDeFactory));
+    }
+
+    @Test
+    public void testRecordStoreReusesSlots() {
+        final OffHeapRecordStore store = new OffHeapRecordStore();
+        final byte[] small = new byte[100];
+        final byte[] large = new byte[10_000];
+        small[0] = 1;
+        large[0] = 2;
+
+        for (long i = 1; i <= 10_000; i++) {
+            store.put(i, i % 2 == 0 ? large : small, i % 2 == 0 ? large.length : small.length);
+        }
+        assertEquals(10_000, store.size());
+        assertEquals(10_000, store.keys().length);
+        final long allocated = store.getAllocatedBytes();
+
+        for (long i = 1; i <= 10_000; i++) {
+            assertTrue(store.remove(i));
+        }
+        assertEquals(0, store.size());
+        assertEquals(0L, store.getUsedBytes());
+        assertFalse(store.remove(1L));
+
+        small[0] = 3;
+        large[0] = 4;
+        for (long i = 1; i <= 10_000; i++) {
+            store.put(i, i % 2 == 0 ? large : small, i % 2 == 0 ? large.length : small.length);
+        }
+        assertEquals(allocated, store.getAllocatedBytes());
+        assertEquals(3, store.get(1L)[0]);
+        assertEquals(4, store.get(2L)[0]);
+        assertEquals(large.length, store.get(2L).length);
+        assertNull(store.get(10_001L));
+    }
+
+    @Test
+    public void testModificationStampsKeepLaterChanges() {
+        final ModificationStamps stamps = new ModificationStamps();
+        for (long i = 1; i <= 10_000; i++) {
+            stamps.put(i, i);
+        }
+        stamps.put(1L, 20_000L);
+        assertEquals(10_000, stamps.size());
+        assertEquals(4_999, stamps.keysModifiedAtMost(5_000L).length);
+
+        stamps.removeModifiedAtMost(5_000L);
+        assertEquals(5_001, stamps.size());
+        assertEquals(0L, stamps.get(2L));
+        assertEquals(5_001L, stamps.get(5_001L));
+        assertEquals(20_000L, stamps.get(1L));
+
+        stamps.removeModifiedAtMost(20_000L);
+        assertEquals(0, stamps.size());
+        assertEquals(0, stamps.keysModifiedAtMost(Long.MAX_VALUE).length);
+    }
+
+    private SequentialAccessWriteAheadLog<DummyRecord> createRepo() throws IOException {
+        final OffHeapSnapshot<DummyRecord> snapshot = new OffHeapSnapshot<>(storageDirectory, serdeFactory);
+        return new SequentialAccessWriteAheadLog<>(storageDirectory, serdeFactory, SyncListener.NOP_SYNC_LISTENER, snapshot);
+    }
+
+    private DummyRecord createRecord(final int id, final UpdateType updateType, final String value) {
+        final DummyRecord record = new DummyRecord(String.valueOf(id), updateType);
+        record.setProperty("key", value);
+        return record;
+    }
+
+    private Map<Object, String> getProperties(final Map<Object, DummyRecord> records) {
+        final Map<Object, String> properties = new HashMap<>();
+        records.forEach((id, record) -> properties.put(id, record.getProperty("key")));
+        return properties;
+    }
+
+    private void deleteRecursively(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                deleteRecursively(child);
+            }
+        }
+
+        file.delete();
+    }
+
+    /**
+     * Creates a new DummyRecordSerde for each call and identifies records by their IDs as numbers,
+     * as is required by the OffHeapSnapshot
+     */
+    private static class LongIdSerDeFactory implements SerDeFactory<DummyRecord> {
+        @Override
+        public SerDe<DummyRecord> createSerDe(final String encodingName) {
+            return new LongIdRecordSerde();
+        }
+
+        @Override
+        public Object getRecordIdentifier(final DummyRecord record) {
+            return Long.valueOf(record.getId());
+        }
+
+        @Override
+        public UpdateType getUpdateType(final DummyRecord record) {
+            return record.getUpdateType();
+        }
+
+        @Override
+        public String getLocation(final DummyRecord record) {
+            return record.getSwapLocation();
+        }
+    }
+
+    private static class LongIdRecordSerde extends DummyRecordSerde {
+        @Override
+        public Object getRecordIdentifier(final DummyRecord record) {
+            return Long.valueOf(record.getId());
+        }
+
+        @Override
+        public boolean isPreviousRecordStateRequired() {
+            return false;
+        }
+    }
+}
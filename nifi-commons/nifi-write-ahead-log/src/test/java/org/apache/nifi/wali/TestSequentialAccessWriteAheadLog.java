@@ -26,6 +26,7 @@ import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
 import org.wali.UpdateType;
 import org.wali.WriteAheadRepository;
 
@@ -41,6 +42,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -187,6 +192,114 @@ public class TestSequentialAccessWriteAheadLog {
         assertEquals(expected, new HashSet<>(recovered));
     }
 
+    @Test
+    public void testGroupCommitThenRecover(TestInfo testInfo) throws Exception {
+        final File storageDir = new File("target", testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+            1, TimeUnit.MILLISECONDS, 1000);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int threadCount = 8;
+        final int updatesPerThread = 100;
+        final Set<DummyRecord> expected = Collections.synchronizedSet(new HashSet<>());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                final int threadIndex = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        final DummyRecord record = new DummyRecord(threadIndex + "-" + j, UpdateType.CREATE);
+                        repo.update(Collections.singleton(record), true);
+                        expected.add(record);
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final GroupCommitStatistics statistics = repo.getGroupCommitStatistics().orElseThrow();
+        assertEquals(threadCount * updatesPerThread, statistics.getUpdateCount());
+        assertEquals(threadCount * updatesPerThread, statistics.getRecordCount());
+        assertEquals(threadCount * updatesPerThread, statistics.getUpdateLatencyMicros().getCount());
+        assertTrue(statistics.getCommitCount() > 0);
+        assertTrue(statistics.getCommitCount() <= threadCount * updatesPerThread);
+        assertEquals(statistics.getCommitCount(), statistics.getCommitMicros().getCount());
+
+        // Updates that are not synced do not go through group commit
+        repo.update(Collections.singleton(new DummyRecord("unsynced", UpdateType.CREATE)), false);
+        assertEquals(threadCount * updatesPerThread, statistics.getUpdateCount());
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo(testInfo);
+        final Set<DummyRecord> recovered = new HashSet<>(recoveryRepo.recoverRecords());
+        assertEquals(threadCount * updatesPerThread + 1, recovered.size());
+        assertTrue(recovered.containsAll(expected));
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testGroupCommitReportsFailureOfEachUpdate(TestInfo testInfo) throws Exception {
+        final File storageDir = new File("target", testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final DummyRecordSerde serde = new DummyRecordSerde();
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(serde);
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+            10, TimeUnit.SECONDS, 2);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        // Both updates join the same group, and the second one to be written cannot be serialized
+        serde.setThrowIOEAfterNSerializeEdits(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final List<Throwable> failures = new ArrayList<>();
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+                futures.add(executor.submit(() -> repo.update(Collections.singleton(record), true)));
+            }
+
+            for (final Future<?> future : futures) {
+                final ExecutionException e = assertThrows(ExecutionException.class, future::get);
+                failures.add(e.getCause().getCause());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // The update that could not be serialized is given its own failure. The other update was written but cannot be synced
+        // because the journal no longer accepts writes, which is what it would have been told had it been written on its own.
+        assertEquals(1, failures.stream().filter(failure -> failure.getMessage().contains("time to throw IOE")).count());
+        assertEquals(1, failures.stream().filter(failure -> failure.getMessage().contains("already encountered a failure")).count());
+
+        final GroupCommitStatistics statistics = repo.getGroupCommitStatistics().orElseThrow();
+        assertEquals(1, statistics.getCommitCount());
+        assertEquals(2, statistics.getUpdateCount());
+        repo.shutdown();
+    }
+
+    @Test
+    public void testGroupCommitStatisticsOnlyAvailableWhenEnabled(TestInfo testInfo) throws IOException {
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = createWriteRepo(testInfo);
+        assertFalse(repo.getGroupCommitStatistics().isPresent());
+        repo.shutdown();
+    }
+
     private SequentialAccessWriteAheadLog<DummyRecord> createRecoveryRepo(TestInfo testInfo) throws IOException {
         final File targetDir = new File("target");
         final File storageDir = new File(targetDir, testInfo.getTestMethod().get().getName());
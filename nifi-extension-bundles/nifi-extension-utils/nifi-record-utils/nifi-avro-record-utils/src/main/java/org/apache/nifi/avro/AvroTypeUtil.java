@@ -35,8 +35,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
@@ -961,9 +961,31 @@ public class AvroTypeUtil {
     }
 
     public static Map<String, Object> convertAvroRecordToMap(final GenericRecord avroRecord, final RecordSchema recordSchema, final Charset charset) {
+        final Object[] fieldValues = convertAvroRecordToValues(avroRecord, recordSchema, charset);
+        final List<RecordField> recordFields = recordSchema.getFields();
         final Map<String, Object> values = new HashMap<>(recordSchema.getFieldCount());
+        for (int i = 0; i < fieldValues.length; i++) {
+            values.put(recordFields.get(i).getFieldName(), fieldValues[i]);
+        }
 
-        for (final RecordField recordField : recordSchema.getFields()) {
+        return values;
+    }
+
+    /**
+     * Converts the given Avro Record into the values of the fields of the given Record Schema, in the order of {@link RecordSchema#getFields()},
+     * as expected by {@link ArrayRecord}. A field that the Avro Record does not have is given a <code>null</code> value.
+     *
+     * @param avroRecord the Avro Record
+     * @param recordSchema the Record Schema
+     * @param charset the character set to use when converting byte arrays to Strings
+     * @return the values of the fields of the Record Schema
+     */
+    public static Object[] convertAvroRecordToValues(final GenericRecord avroRecord, final RecordSchema recordSchema, final Charset charset) {
+        final List<RecordField> recordFields = recordSchema.getFields();
+        final Object[] values = new Object[recordFields.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            final RecordField recordField = recordFields.get(i);
             final String relevantFieldName = getMatchingFieldName(avroRecord, recordField);
             final Object value = (relevantFieldName == null) ? null : avroRecord.get(relevantFieldName);
 
@@ -971,7 +993,6 @@ public class AvroTypeUtil {
             try {
                 final Field avroField = avroRecord.getSchema().getField(relevantFieldName);
                 if (avroField == null) {
-                    values.put(fieldName, null);
                     continue;
                 }
 
@@ -979,9 +1000,7 @@ public class AvroTypeUtil {
                 final Object rawValue = normalizeValue(value, fieldSchema, fieldName);
 
                 final DataType desiredType = recordField.getDataType();
-                final Object coercedValue = DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
-
-                values.put(fieldName, coercedValue);
+                values[i] = DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
             } catch (Exception ex) {
                 logger.debug("fail to convert field {}", fieldName, ex);
                 throw ex;
@@ -1207,14 +1226,14 @@ public class AvroTypeUtil {
                 final GenericData.Record record = (GenericData.Record) value;
                 final Schema recordSchema = record.getSchema();
                 final List<Field> recordFields = recordSchema.getFields();
-                final Map<String, Object> values = new HashMap<>(recordFields.size());
+                // The fields of the child schema are created in the order of the Avro fields, so the values can be held by position
+                final Object[] values = new Object[recordFields.size()];
                 for (final Field field : recordFields) {
-                    final Object avroFieldValue = record.get(field.name());
-                    final Object fieldValue = normalizeValue(avroFieldValue, field.schema(), fieldName + "/" + field.name());
-                    values.put(field.name(), fieldValue);
+                    final Object avroFieldValue = record.get(field.pos());
+                    values[field.pos()] = normalizeValue(avroFieldValue, field.schema(), fieldName + "/" + field.name());
                 }
                 final RecordSchema childSchema = createSchema(recordSchema, false);
-                return new MapRecord(childSchema, values);
+                return new ArrayRecord(childSchema, values);
             case BYTES:
                 final ByteBuffer bb = (ByteBuffer) value;
                 final LogicalType logicalType = avroSchema.getLogicalType();
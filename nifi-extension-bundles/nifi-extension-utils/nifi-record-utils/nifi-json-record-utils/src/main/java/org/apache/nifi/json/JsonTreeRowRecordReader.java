@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
@@ -135,7 +136,7 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
     private Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final String fieldNamePrefix,
                                            final boolean coerceTypes, final boolean dropUnknown) throws IOException, MalformedRecordException {
 
-        final Map<String, Object> values = new LinkedHashMap<>(schema.getFieldCount() * 2);
+        final Supplier<String> supplier = jsonNode::toString;
 
         if (dropUnknown) {
             // Delete unknown fields for updated serialized representation
@@ -149,9 +150,14 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
                 }
             }
 
-            for (final RecordField recordField : schema.getFields()) {
+            // Only fields of the schema are kept, so the values can be held by the position of each field in the schema
+            final List<RecordField> recordFields = schema.getFields();
+            final Object[] values = new Object[recordFields.size()];
+            for (int i = 0; i < values.length; i++) {
+                final RecordField recordField = recordFields.get(i);
                 final JsonNode childNode = getChildNode(jsonNode, recordField);
                 if (childNode == null) {
+                    values[i] = ArrayRecord.ABSENT;
                     continue;
                 }
 
@@ -166,9 +172,12 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
                     value = getRawNodeValue(childNode, recordField.getDataType(), fieldName);
                 }
 
-                values.put(fieldName, value);
+                values[i] = value;
             }
+
+            return new ArrayRecord(schema, values, SerializedForm.of(supplier, "application/json"), false, dropUnknown);
         } else {
+            final Map<String, Object> values = new LinkedHashMap<>(schema.getFieldCount() * 2);
             final Iterator<String> fieldNames = jsonNode.fieldNames();
             while (fieldNames.hasNext()) {
                 final String fieldName = fieldNames.next();
@@ -187,10 +196,9 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
 
                 values.put(fieldName, value);
             }
-        }
 
-        final Supplier<String> supplier = jsonNode::toString;
-        return new MapRecord(schema, values, SerializedForm.of(supplier, "application/json"), false, dropUnknown);
+            return new MapRecord(schema, values, SerializedForm.of(supplier, "application/json"), false, dropUnknown);
+        }
     }
 
     protected Object convertField(final JsonNode fieldNode, final String fieldName, final DataType desiredType, final boolean dropUnknown) throws IOException, MalformedRecordException {
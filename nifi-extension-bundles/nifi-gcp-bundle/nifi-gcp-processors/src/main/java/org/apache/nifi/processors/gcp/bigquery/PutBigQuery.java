@@ -68,7 +68,6 @@ import org.apache.nifi.processors.gcp.bigquery.proto.ProtoUtils;
 import org.apache.nifi.proxy.ProxyConfiguration;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 
 import java.io.IOException;
@@ -516,22 +515,22 @@ public class PutBigQuery extends AbstractBigQueryProcessor {
             TableFieldSchema fieldSchema = findFieldSchema(tableFields, key);
             if (fieldSchema != null && fieldSchema.getType() == TableFieldSchema.Type.STRUCT) {
                 // Nested RECORD type
-                if (obj instanceof MapRecord) {
-                    result.put(key, convertMapRecord(((MapRecord) obj).toMap(), fieldSchema.getFieldsList()));
+                if (obj instanceof Record) {
+                    result.put(key, convertMapRecord(((Record) obj).toMap(), fieldSchema.getFieldsList()));
                     continue;
-                } else if (obj instanceof Object[] && ((Object[]) obj).length > 0 && ((Object[]) obj)[0] instanceof MapRecord) {
+                } else if (obj instanceof Object[] && ((Object[]) obj).length > 0 && ((Object[]) obj)[0] instanceof Record) {
                     List<Map<String, Object>> list = new ArrayList<>();
                     for (Object item : (Object[]) obj) {
-                        list.add(convertMapRecord(((MapRecord) item).toMap(), fieldSchema.getFieldsList()));
+                        list.add(convertMapRecord(((Record) item).toMap(), fieldSchema.getFieldsList()));
                     }
                     result.put(key, list);
                     continue;
                 }
-            } else if (obj instanceof Object[] && ((Object[]) obj).length > 0 && ((Object[]) obj)[0] instanceof MapRecord) {
+            } else if (obj instanceof Object[] && ((Object[]) obj).length > 0 && ((Object[]) obj)[0] instanceof Record) {
                 // Repeated RECORDs without proper schema match; best effort
                 List<Map<String, Object>> list = new ArrayList<>();
                 for (Object item : (Object[]) obj) {
-                    list.add(convertMapRecord(((MapRecord) item).toMap(), fieldSchema != null ? fieldSchema.getFieldsList() : List.of()));
+                    list.add(convertMapRecord(((Record) item).toMap(), fieldSchema != null ? fieldSchema.getFieldsList() : List.of()));
                 }
                 result.put(key, list);
                 continue;
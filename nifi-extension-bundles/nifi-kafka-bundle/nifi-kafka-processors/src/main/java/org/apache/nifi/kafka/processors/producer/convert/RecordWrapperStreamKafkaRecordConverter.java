@@ -29,7 +29,6 @@ import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
 import org.apache.nifi.serialization.RecordSetWriterFactory;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.PushBackRecordSet;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSet;
@@ -118,7 +117,7 @@ public class RecordWrapperStreamKafkaRecordConverter implements KafkaRecordConve
                     String topic = null;
                     Integer partition = null;
                     if (metadataStrategy == RecordMetadataStrategy.FROM_RECORD) {
-                        final MapRecord myMetadataRecord = (MapRecord) record.getValue(WrapperRecord.METADATA);
+                        final Record myMetadataRecord = (Record) record.getValue(WrapperRecord.METADATA);
                         topic = myMetadataRecord.getAsString(WrapperRecord.TOPIC);
                         partition = myMetadataRecord.getAsInt(WrapperRecord.PARTITION);
                     }
@@ -131,7 +130,7 @@ public class RecordWrapperStreamKafkaRecordConverter implements KafkaRecordConve
 
             private List<RecordHeader> getKafkaHeaders(final Record record) {
                 final List<RecordHeader> headers = new ArrayList<>();
-                final MapRecord headersRecord = (MapRecord) record.getValue(WrapperRecord.HEADERS);
+                final Record headersRecord = (Record) record.getValue(WrapperRecord.HEADERS);
                 if (headersRecord != null) {
                     headersRecord.toMap().forEach((key, value) -> headers.add(
                             new RecordHeader(key, value.toString().getBytes(StandardCharsets.UTF_8))));
@@ -44,13 +44,17 @@ import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.migration.PropertyConfiguration;
 import org.apache.nifi.processor.AbstractProcessor;
+import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.processor.ProcessContext;
 import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.ProcessorInitializationContext;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.metrics.CommitTiming;
+import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.processors.standard.calcite.RecordPathFunctions;
 import org.apache.nifi.processors.standard.calcite.RecordResultSetOutputStreamCallback;
+import org.apache.nifi.queryrecord.BufferedRecordDataSource;
 import org.apache.nifi.queryrecord.RecordDataSource;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
@@ -60,6 +64,7 @@ import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.sql.CalciteDatabase;
 import org.apache.nifi.sql.NiFiTable;
 import org.apache.nifi.sql.NiFiTableSchema;
+import org.apache.nifi.sql.ResettableDataSource;
 import org.apache.nifi.util.StopWatch;
 import org.apache.nifi.util.StringUtils;
 import org.apache.nifi.util.Tuple;
@@ -79,6 +84,7 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import static org.apache.nifi.util.db.JdbcProperties.DEFAULT_PRECISION;
@@ -193,6 +199,7 @@ import static org.apache.nifi.util.db.JdbcProperties.DEFAULT_SCALE;
 public class QueryRecord extends AbstractProcessor {
 
     public static final String ROUTE_ATTRIBUTE_KEY = "QueryRecord.Route";
+    static final String BUFFERED_CONTENT_BYTES_GAUGE = "Buffered Content Bytes";
 
     static final PropertyDescriptor RECORD_READER_FACTORY = new PropertyDescriptor.Builder()
         .name("Record Reader")
@@ -215,11 +222,25 @@ public class QueryRecord extends AbstractProcessor {
         .defaultValue("true")
         .required(true)
         .build();
+    static final PropertyDescriptor MAX_BUFFERED_CONTENT_BYTES = new PropertyDescriptor.Builder()
+        .name("Max Buffered Content Bytes")
+        .description("When more than one SQL query is configured, the records of a FlowFile may be parsed once and held in memory so that all of the queries "
+            + "are evaluated against the same records, rather than parsing the FlowFile content again for each query. This property specifies the maximum "
+            + "total number of FlowFile content bytes whose records may be held in memory at once, across all concurrent tasks of the Processor. The limit "
+            + "is compared against the size of the FlowFile content as stored in the Content Repository, not against the memory used by the parsed records, "
+            + "which may be several times larger depending on the record format. A FlowFile whose content would exceed this limit is parsed once for each "
+            + "query. If not specified, the content is always parsed once for each query. The number of content bytes whose records are buffered is "
+            + "reported by the 'Buffered Content Bytes' gauge each time a FlowFile's records are buffered or released.")
+        .expressionLanguageSupported(ExpressionLanguageScope.NONE)
+        .addValidator(StandardValidators.DATA_SIZE_VALIDATOR)
+        .required(false)
+        .build();
 
     private static final List<PropertyDescriptor> PROPERTY_DESCRIPTORS = List.of(
             RECORD_READER_FACTORY,
             RECORD_WRITER_FACTORY,
             INCLUDE_ZERO_RECORD_FLOWFILES,
+            MAX_BUFFERED_CONTENT_BYTES,
             DEFAULT_PRECISION,
             DEFAULT_SCALE
     );
@@ -242,6 +263,8 @@ public class QueryRecord extends AbstractProcessor {
         .removalListener(this::onCacheEviction)
         .build();
 
+    private final AtomicLong bufferedContentBytes = new AtomicLong(0L);
+
     @Override
     public void migrateProperties(PropertyConfiguration config) {
         config.removeProperty("cache-schema");
@@ -356,7 +379,20 @@ public class QueryRecord extends AbstractProcessor {
         final Map<String, String> originalAttributes = original.getAttributes();
         int recordsRead = 0;
 
+        final long contentSize = original.getSize();
+        final boolean bufferContent = reserveContentBuffer(context, session, contentSize);
+
         try {
+            // When the records are buffered, all queries share the records instead of each query parsing the content again
+            final ResettableDataSource sharedDataSource;
+            if (bufferContent) {
+                final BufferedRecordDataSource bufferedDataSource = new RecordDataSource(readerSchema, session, original, recordReaderFactory, getLogger()).buffer();
+                session.adjustCounter("Records Buffered", bufferedDataSource.getRowCount(), false);
+                sharedDataSource = bufferedDataSource;
+            } else {
+                sharedDataSource = null;
+            }
+
             for (final PropertyDescriptor descriptor : context.getProperties().keySet()) {
                 if (!descriptor.isDynamic()) {
                     continue;
@@ -372,7 +408,10 @@ public class QueryRecord extends AbstractProcessor {
 
                 try {
                     final String sql = context.getProperty(descriptor).evaluateAttributeExpressions(original).getValue();
-                    final QueryResult queryResult = query(session, original, readerSchema, sql, recordReaderFactory);
+                    final ResettableDataSource dataSource = sharedDataSource == null
+                        ? new RecordDataSource(readerSchema, session, original, recordReaderFactory, getLogger())
+                        : sharedDataSource;
+                    final QueryResult queryResult = query(dataSource, readerSchema, sql);
 
                     final ResultSet rs = queryResult.getResultSet();
                     final RecordResultSetOutputStreamCallback writer = new RecordResultSetOutputStreamCallback(getLogger(),
@@ -440,11 +479,50 @@ public class QueryRecord extends AbstractProcessor {
             original = session.putAttribute(original, ROUTE_ATTRIBUTE_KEY, REL_FAILURE.getName());
             session.remove(createdFlowFiles);
             session.transfer(original, REL_FAILURE);
+        } finally {
+            if (bufferContent) {
+                final long totalBuffered = bufferedContentBytes.addAndGet(-contentSize);
+                session.recordGauge(BUFFERED_CONTENT_BYTES_GAUGE, totalBuffered, CommitTiming.NOW);
+            }
         }
 
         session.adjustCounter("Records Read", recordsRead, false);
     }
 
+    /**
+     * Determines whether or not the records of a FlowFile with the given content size should be buffered in memory and shared by all queries.
+     * If so, the content size is counted against the Max Buffered Content Bytes until the caller releases it. The gauge is recorded immediately
+     * rather than on commit, so that its values are reported even if the session is rolled back.
+     */
+    private boolean reserveContentBuffer(final ProcessContext context, final ProcessSession session, final long contentSize) {
+        final Double maxBufferedContentBytes = context.getProperty(MAX_BUFFERED_CONTENT_BYTES).asDataSize(DataUnit.B);
+        if (maxBufferedContentBytes == null || getQueryCount(context) < 2) {
+            return false;
+        }
+
+        long buffered;
+        do {
+            buffered = bufferedContentBytes.get();
+            if (buffered + contentSize > maxBufferedContentBytes) {
+                return false;
+            }
+        } while (!bufferedContentBytes.compareAndSet(buffered, buffered + contentSize));
+
+        session.recordGauge(BUFFERED_CONTENT_BYTES_GAUGE, buffered + contentSize, CommitTiming.NOW);
+        return true;
+    }
+
+    private int getQueryCount(final ProcessContext context) {
+        int queryCount = 0;
+        for (final PropertyDescriptor descriptor : context.getProperties().keySet()) {
+            if (descriptor.isDynamic()) {
+                queryCount++;
+            }
+        }
+
+        return queryCount;
+    }
+
     private synchronized CachedStatement getStatement(final String sql, final RecordSchema schema, final Supplier<CachedStatement> statementBuilder) {
         final Tuple<String, RecordSchema> tuple = new Tuple<>(sql, schema);
         final BlockingQueue<CachedStatement> statementQueue = statementQueues.get(tuple, key -> new LinkedBlockingQueue<>());
@@ -472,15 +550,14 @@ public class QueryRecord extends AbstractProcessor {
         }
     }
 
-    private QueryResult query(final ProcessSession session, final FlowFile flowFile, final RecordSchema schema, final String sql, final RecordReaderFactory recordReaderFactory)
-                throws SQLException {
+    private QueryResult query(final ResettableDataSource dataSource, final RecordSchema schema, final String sql) throws SQLException {
 
         final Supplier<CachedStatement> statementBuilder = () -> buildCachedStatement(sql, schema);
 
         final CachedStatement cachedStatement = getStatement(sql, schema, statementBuilder);
         final PreparedStatement stmt = cachedStatement.statement();
         final NiFiTable table = cachedStatement.table();
-        table.setDataSource(new RecordDataSource(schema, session, flowFile, recordReaderFactory, getLogger()));
+        table.setDataSource(dataSource);
 
         final ResultSet rs;
         try {
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.queryrecord;
+
+import org.apache.nifi.sql.IterableRowStream;
+import org.apache.nifi.sql.NiFiTableSchema;
+import org.apache.nifi.sql.ResettableDataSource;
+import org.apache.nifi.sql.RowStream;
+
+import java.util.List;
+
+/**
+ * A data source whose rows have already been read from a FlowFile and are held in memory, so that each query
+ * against the FlowFile iterates over the same rows instead of parsing the FlowFile content again.
+ */
+public class BufferedRecordDataSource implements ResettableDataSource {
+    private final NiFiTableSchema tableSchema;
+    private final List<Object[]> rows;
+
+    BufferedRecordDataSource(final NiFiTableSchema tableSchema, final List<Object[]> rows) {
+        this.tableSchema = tableSchema;
+        this.rows = rows;
+    }
+
+    @Override
+    public NiFiTableSchema getSchema() {
+        return tableSchema;
+    }
+
+    @Override
+    public RowStream reset() {
+        return new IterableRowStream<>(rows, row -> row);
+    }
+
+    /**
+     * @return the number of rows that are held in memory
+     */
+    public int getRowCount() {
+        return rows.size();
+    }
+}
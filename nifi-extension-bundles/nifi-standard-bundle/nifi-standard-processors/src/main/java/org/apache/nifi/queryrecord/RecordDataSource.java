@@ -66,15 +66,7 @@ public class RecordDataSource implements ResettableDataSource {
 
     @Override
     public RowStream reset() throws IOException {
-        final InputStream in = session.read(flowFile);
-        final RecordReader reader;
-        try {
-            reader = readerFactory.createRecordReader(flowFile, in, logger);
-        } catch (final Exception e) {
-            in.close();
-            throw new IOException(e);
-        }
-
+        final RecordReader reader = createRecordReader(session.read(flowFile));
         final RecordSet recordSet = reader.createRecordSet();
 
         return new RowStream() {
@@ -91,6 +83,35 @@ public class RecordDataSource implements ResettableDataSource {
         };
     }
 
+    /**
+     * Parses all of the records in the FlowFile so that they can be queried any number of times without parsing the content again
+     *
+     * @return a data source that holds the values of all of the records in memory
+     * @throws IOException if unable to read the records from the FlowFile
+     */
+    public BufferedRecordDataSource buffer() throws IOException {
+        final List<Object[]> rows = new ArrayList<>();
+        try (final RecordReader reader = createRecordReader(session.read(flowFile))) {
+            final RecordSet recordSet = reader.createRecordSet();
+
+            Record record;
+            while ((record = recordSet.next()) != null) {
+                rows.add(record.getValues());
+            }
+        }
+
+        return new BufferedRecordDataSource(tableSchema, rows);
+    }
+
+    private RecordReader createRecordReader(final InputStream in) throws IOException {
+        try {
+            return readerFactory.createRecordReader(flowFile, in, logger);
+        } catch (final Exception e) {
+            in.close();
+            throw new IOException(e);
+        }
+    }
+
     public static NiFiTableSchema createTableSchema(final RecordSchema recordSchema) {
         final List<ColumnSchema> columns = new ArrayList<>();
 
@@ -75,6 +75,7 @@ import static org.apache.nifi.util.db.JdbcProperties.DEFAULT_SCALE;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestQueryRecord {
 
@@ -1025,6 +1026,62 @@ public class TestQueryRecord {
         out.assertContentEquals("\"name\",\"points\"\n\"Tom\",\"49\"\n");
     }
 
+    @Test
+    public void testMultipleQueriesWithBufferedContent() throws InitializationException {
+        final TestRunner runner = createMultipleQueryRunner();
+        runner.setProperty(QueryRecord.MAX_BUFFERED_CONTENT_BYTES, "1 KB");
+
+        runner.enqueue("Tom,49\nAlice,36\n");
+        runner.run();
+
+        assertMultipleQueryResults(runner);
+        assertEquals(2L, runner.getCounterValue("Records Buffered"));
+        assertEquals(List.of(16.0, 0.0), runner.getGaugeValues(QueryRecord.BUFFERED_CONTENT_BYTES_GAUGE));
+    }
+
+    @Test
+    public void testMultipleQueriesWithContentLargerThanBuffer() throws InitializationException {
+        final TestRunner runner = createMultipleQueryRunner();
+        runner.setProperty(QueryRecord.MAX_BUFFERED_CONTENT_BYTES, "8 B");
+
+        runner.enqueue("Tom,49\nAlice,36\n");
+        runner.run();
+
+        assertMultipleQueryResults(runner);
+        assertNull(runner.getCounterValue("Records Buffered"));
+        assertTrue(runner.getGaugeValues(QueryRecord.BUFFERED_CONTENT_BYTES_GAUGE).isEmpty());
+    }
+
+    private TestRunner createMultipleQueryRunner() throws InitializationException {
+        final MockRecordParser parser = new MockRecordParser();
+        parser.addSchemaField("name", RecordFieldType.STRING);
+        parser.addSchemaField("age", RecordFieldType.INT);
+        parser.addRecord("Tom", 49);
+        parser.addRecord("Alice", 36);
+
+        final MockRecordWriter writer = new MockRecordWriter("\"name\",\"age\"");
+
+        final TestRunner runner = getRunner();
+        runner.addControllerService("parser", parser);
+        runner.enableControllerService(parser);
+        runner.addControllerService("writer", writer);
+        runner.enableControllerService(writer);
+
+        runner.setProperty("older", "select name, age from FLOWFILE WHERE age > 40");
+        runner.setProperty("younger", "select name, age from FLOWFILE WHERE age <= 40");
+        runner.setProperty(QueryRecord.RECORD_READER_FACTORY, "parser");
+        runner.setProperty(QueryRecord.RECORD_WRITER_FACTORY, "writer");
+        return runner;
+    }
+
+    private void assertMultipleQueryResults(final TestRunner runner) {
+        runner.assertTransferCount(QueryRecord.REL_ORIGINAL, 1);
+        runner.assertTransferCount("older", 1);
+        runner.assertTransferCount("younger", 1);
+        runner.getFlowFilesForRelationship("older").getFirst().assertContentEquals("\"name\",\"age\"\n\"Tom\",\"49\"\n");
+        runner.getFlowFilesForRelationship("younger").getFirst().assertContentEquals("\"name\",\"age\"\n\"Alice\",\"36\"\n");
+    }
+
     @Test
     public void testNullable() throws InitializationException {
         final MockRecordParser parser = new MockRecordParser();
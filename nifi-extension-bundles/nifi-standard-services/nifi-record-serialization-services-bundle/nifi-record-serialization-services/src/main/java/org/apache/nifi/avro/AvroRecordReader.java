@@ -20,12 +20,12 @@ package org.apache.nifi.avro;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
-import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
 
 import java.io.IOException;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 public abstract class AvroRecordReader implements RecordReader {
 
@@ -40,8 +40,8 @@ public abstract class AvroRecordReader implements RecordReader {
             }
 
             final RecordSchema schema = getSchema();
-            final Map<String, Object> values = AvroTypeUtil.convertAvroRecordToMap(record, schema);
-            return new MapRecord(schema, values);
+            final Object[] values = AvroTypeUtil.convertAvroRecordToValues(record, schema, StandardCharsets.UTF_8);
+            return new ArrayRecord(schema, values);
         } catch (IOException | MalformedRecordException e) {
             throw e;
         } catch (Exception e) {
@@ -151,6 +151,16 @@ public interface FlowFileQueue {
      */
     void putAll(Collection<FlowFileRecord> files);
 
+    /**
+     * Sets the listener that is to be notified each time that FlowFiles are placed into the queue, so that the component that
+     * consumes from the queue can be triggered without waiting to check for work. A queue may notify the listener while holding
+     * internal locks, so the listener must not block or call back into the queue.
+     *
+     * @param listener the listener to notify, or <code>null</code> if no listener is to be notified
+     */
+    default void setFlowFilesQueuedListener(Runnable listener) {
+    }
+
     /**
      * @param expiredRecords expired records
      * @param pollStrategy strategy of polling
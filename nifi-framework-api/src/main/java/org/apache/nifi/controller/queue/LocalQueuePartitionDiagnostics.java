@@ -29,4 +29,18 @@ public interface LocalQueuePartitionDiagnostics {
     boolean isAnyActiveFlowFilePenalized();
 
     boolean isAllActiveFlowFilesPenalized();
+
+    /**
+     * @return the number of times that a swap file was swapped in using contents that had already been read in the background
+     */
+    default long getSwapPrefetchHitCount() {
+        return 0L;
+    }
+
+    /**
+     * @return the number of times that a swap file had to be read while swapping it in because background reading was enabled but had not completed
+     */
+    default long getSwapPrefetchMissCount() {
+        return 0L;
+    }
 }
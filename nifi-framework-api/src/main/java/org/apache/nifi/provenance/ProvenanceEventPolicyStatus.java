@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+/**
+ * A point-in-time view of how a Provenance Repository's event policy has treated the Provenance Events registered with it.
+ */
+public class ProvenanceEventPolicyStatus {
+    private final long keptEventCount;
+    private final long droppedEventCount;
+    private final long aggregatedEventCount;
+    private final long summaryEventCount;
+
+    public ProvenanceEventPolicyStatus(final long keptEventCount, final long droppedEventCount, final long aggregatedEventCount, final long summaryEventCount) {
+        this.keptEventCount = keptEventCount;
+        this.droppedEventCount = droppedEventCount;
+        this.aggregatedEventCount = aggregatedEventCount;
+        this.summaryEventCount = summaryEventCount;
+    }
+
+    /**
+     * @return the number of events that have been stored as they were registered
+     */
+    public long getKeptEventCount() {
+        return keptEventCount;
+    }
+
+    /**
+     * @return the number of events that have been discarded by sampling
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount;
+    }
+
+    /**
+     * @return the number of events that have been rolled up into summary events instead of being stored
+     */
+    public long getAggregatedEventCount() {
+        return aggregatedEventCount;
+    }
+
+    /**
+     * @return the number of summary events that have been stored in place of aggregated events
+     */
+    public long getSummaryEventCount() {
+        return summaryEventCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ProvenanceEventPolicyStatus[kept=" + keptEventCount + ", dropped=" + droppedEventCount + ", aggregated=" + aggregatedEventCount
+            + ", summaries=" + summaryEventCount + "]";
+    }
+}
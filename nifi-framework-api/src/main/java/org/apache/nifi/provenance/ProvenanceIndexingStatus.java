@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+/**
+ * A point-in-time view of how far the indexing of Provenance Events has fallen behind the storage of those events.
+ */
+public class ProvenanceIndexingStatus {
+    private final int queuedDocumentCount;
+    private final int queueCapacity;
+    private final long indexingLagMillis;
+    private final double documentsIndexedPerSecond;
+
+    public ProvenanceIndexingStatus(final int queuedDocumentCount, final int queueCapacity, final long indexingLagMillis, final double documentsIndexedPerSecond) {
+        this.queuedDocumentCount = queuedDocumentCount;
+        this.queueCapacity = queueCapacity;
+        this.indexingLagMillis = indexingLagMillis;
+        this.documentsIndexedPerSecond = documentsIndexedPerSecond;
+    }
+
+    /**
+     * @return the number of documents that have been stored but are waiting to be indexed
+     */
+    public int getQueuedDocumentCount() {
+        return queuedDocumentCount;
+    }
+
+    /**
+     * @return the maximum number of documents that may wait to be indexed before storing further events blocks
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return the number of milliseconds between the most recently indexed document being queued and it being indexed
+     */
+    public long getIndexingLagMillis() {
+        return indexingLagMillis;
+    }
+
+    /**
+     * @return the average number of documents indexed per second over the recent past
+     */
+    public double getDocumentsIndexedPerSecond() {
+        return documentsIndexedPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "ProvenanceIndexingStatus[queued=" + queuedDocumentCount + "/" + queueCapacity + ", lagMillis=" + indexingLagMillis
+            + ", documentsPerSecond=" + documentsIndexedPerSecond + "]";
+    }
+}
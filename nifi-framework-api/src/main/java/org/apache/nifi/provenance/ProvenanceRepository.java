@@ -248,4 +248,24 @@ public interface ProvenanceRepository extends ProvenanceEventRepository {
      * name
      */
     long getContainerUsableSpace(String containerName) throws IOException;
+
+    /**
+     * Returns the current status of the indexing of Provenance Events, or <code>null</code>
+     * if this repository does not index events asynchronously
+     *
+     * @return the status of the indexing of Provenance Events
+     */
+    default ProvenanceIndexingStatus getIndexingStatus() {
+        return null;
+    }
+
+    /**
+     * Returns how many Provenance Events have been kept, dropped by sampling or rolled up into summary events
+     * by the repository's event policy, or <code>null</code> if this repository does not apply an event policy
+     *
+     * @return the status of the repository's event policy
+     */
+    default ProvenanceEventPolicyStatus getEventPolicyStatus() {
+        return null;
+    }
 }
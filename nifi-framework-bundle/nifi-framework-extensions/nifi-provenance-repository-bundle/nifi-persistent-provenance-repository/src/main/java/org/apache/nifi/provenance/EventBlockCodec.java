@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a block of Provenance Events in a columnar layout. Every string in the block, such as a component identifier, an attribute key or an
+ * attribute value, is stored once in a dictionary at the start of the block and is referenced from the columns by its index. The columns then
+ * hold one field of every event in turn, so that similar values are adjacent and the block compresses well.
+ */
+final class EventBlockCodec {
+    private static final int NULL_REFERENCE = 0;
+
+    private EventBlockCodec() {
+    }
+
+    /**
+     * Encodes the given events
+     *
+     * @param events the events to encode
+     * @param eventIds the identifiers of the events, in the same order as the events
+     * @return the encoded block
+     * @throws IOException if unable to encode the events
+     */
+    static byte[] encode(final List<ProvenanceEventRecord> events, final long[] eventIds) throws IOException {
+        final Map<String, Integer> dictionary = new HashMap<>();
+        final List<String> dictionaryValues = new ArrayList<>();
+
+        final ByteArrayOutputStream columnBytes = new ByteArrayOutputStream(events.size() * 256);
+        final DataOutputStream columns = new DataOutputStream(columnBytes);
+
+        long previousId = eventIds[0];
+        for (final long eventId : eventIds) {
+            writeSignedVarLong(columns, eventId - previousId);
+            previousId = eventId;
+        }
+
+        long previousTime = 0L;
+        for (final ProvenanceEventRecord event : events) {
+            writeSignedVarLong(columns, event.getEventTime() - previousTime);
+            previousTime = event.getEventTime();
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeSignedVarLong(columns, event.getEventTime() - event.getFlowFileEntryDate());
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeSignedVarLong(columns, event.getEventTime() - event.getLineageStartDate());
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeSignedVarLong(columns, event.getEventDuration());
+        }
+
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getEventType().name(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getComponentId(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getComponentType(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getFlowFileUuid(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getSourceQueueIdentifier(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getRelationship(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getDetails(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getTransitUri(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getAlternateIdentifierUri(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getSourceSystemFlowFileIdentifier(), dictionary, dictionaryValues);
+        }
+
+        for (final ProvenanceEventRecord event : events) {
+            writeList(columns, event.getParentUuids(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeList(columns, event.getChildUuids(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeMap(columns, event.getPreviousAttributes(), dictionary, dictionaryValues);
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeMap(columns, event.getUpdatedAttributes(), dictionary, dictionaryValues);
+        }
+
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getContentClaimContainer(), dictionary, dictionaryValues);
+            writeReference(columns, event.getContentClaimSection(), dictionary, dictionaryValues);
+            writeReference(columns, event.getContentClaimIdentifier(), dictionary, dictionaryValues);
+            writeOptionalLong(columns, event.getContentClaimOffset());
+            writeSignedVarLong(columns, event.getFileSize());
+        }
+        for (final ProvenanceEventRecord event : events) {
+            writeReference(columns, event.getPreviousContentClaimContainer(), dictionary, dictionaryValues);
+            writeReference(columns, event.getPreviousContentClaimSection(), dictionary, dictionaryValues);
+            writeReference(columns, event.getPreviousContentClaimIdentifier(), dictionary, dictionaryValues);
+            writeOptionalLong(columns, event.getPreviousContentClaimOffset());
+            writeOptionalLong(columns, event.getPreviousFileSize());
+        }
+        columns.flush();
+
+        final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(columnBytes.size() + dictionaryValues.size() * 16 + 16);
+        final DataOutputStream block = new DataOutputStream(blockBytes);
+        writeVarLong(block, dictionaryValues.size());
+        for (final String value : dictionaryValues) {
+            final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(block, utf8.length);
+            block.write(utf8);
+        }
+        columnBytes.writeTo(block);
+        block.flush();
+
+        return blockBytes.toByteArray();
+    }
+
+    /**
+     * Decodes a block of events that was encoded by {@link #encode(List, long[])}
+     *
+     * @param encoded the encoded block
+     * @param eventCount the number of events in the block
+     * @param firstEventId the identifier of the first event in the block
+     * @param storageFilename the name of the file that holds the block
+     * @param storageOffset the offset of the block in the file
+     * @param maxAttributeChars the maximum number of characters to retain of any attribute value
+     * @return the decoded events
+     * @throws IOException if the block cannot be decoded
+     */
+    static List<StandardProvenanceEventRecord> decode(final byte[] encoded, final int eventCount, final long firstEventId, final String storageFilename,
+                                                      final long storageOffset, final int maxAttributeChars) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+
+        final int dictionarySize = (int) readVarLong(in);
+        final String[] dictionary = new String[dictionarySize + 1];
+        for (int i = 1; i <= dictionarySize; i++) {
+            final byte[] utf8 = new byte[(int) readVarLong(in)];
+            in.readFully(utf8);
+            dictionary[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        final String[] truncated = new String[dictionary.length];
+        for (int i = 1; i < dictionary.length; i++) {
+            final String value = dictionary[i];
+            truncated[i] = value.length() > maxAttributeChars ? value.substring(0, maxAttributeChars) : value;
+        }
+
+        final StandardProvenanceEventRecord.Builder[] builders = new StandardProvenanceEventRecord.Builder[eventCount];
+        final long[] eventTimes = new long[eventCount];
+
+        long eventId = firstEventId;
+        for (int i = 0; i < eventCount; i++) {
+            eventId += readSignedVarLong(in);
+            builders[i] = new StandardProvenanceEventRecord.Builder();
+            builders[i].setEventId(eventId);
+            builders[i].setStorageLocation(storageFilename, storageOffset);
+        }
+
+        long eventTime = 0L;
+        for (int i = 0; i < eventCount; i++) {
+            eventTime += readSignedVarLong(in);
+            eventTimes[i] = eventTime;
+            builders[i].setEventTime(eventTime);
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setFlowFileEntryDate(eventTimes[i] - readSignedVarLong(in));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setLineageStartDate(eventTimes[i] - readSignedVarLong(in));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setEventDuration(readSignedVarLong(in));
+        }
+
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setEventType(toEventType(readReference(in, dictionary)));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setComponentId(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setComponentType(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setFlowFileUUID(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setSourceQueueIdentifier(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setRelationship(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setDetails(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setTransitUri(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setAlternateIdentifierUri(readReference(in, dictionary));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setSourceSystemFlowFileIdentifier(readReference(in, dictionary));
+        }
+
+        for (int i = 0; i < eventCount; i++) {
+            final List<String> parentUuids = readList(in, dictionary);
+            if (parentUuids != null) {
+                builders[i].setParentUuids(parentUuids);
+            }
+        }
+        for (int i = 0; i < eventCount; i++) {
+            final List<String> childUuids = readList(in, dictionary);
+            if (childUuids != null) {
+                builders[i].setChildUuids(childUuids);
+            }
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setPreviousAttributes(readMap(in, dictionary, truncated));
+        }
+        for (int i = 0; i < eventCount; i++) {
+            builders[i].setUpdatedAttributes(readMap(in, dictionary, truncated));
+        }
+
+        for (int i = 0; i < eventCount; i++) {
+            final String container = readReference(in, dictionary);
+            final String section = readReference(in, dictionary);
+            final String identifier = readReference(in, dictionary);
+            final Long offset = readOptionalLong(in);
+            final long size = readSignedVarLong(in);
+            builders[i].setCurrentContentClaim(container, section, identifier, offset, size);
+        }
+        for (int i = 0; i < eventCount; i++) {
+            final String container = readReference(in, dictionary);
+            final String section = readReference(in, dictionary);
+            final String identifier = readReference(in, dictionary);
+            final Long offset = readOptionalLong(in);
+            final Long size = readOptionalLong(in);
+            if (container != null || section != null || identifier != null || size != null) {
+                builders[i].setPreviousContentClaim(container, section, identifier, offset, size == null ? 0L : size);
+            }
+        }
+
+        final List<StandardProvenanceEventRecord> decoded = new ArrayList<>(eventCount);
+        for (final StandardProvenanceEventRecord.Builder builder : builders) {
+            decoded.add(builder.build());
+        }
+        return decoded;
+    }
+
+    private static ProvenanceEventType toEventType(final String name) {
+        if (name == null) {
+            return ProvenanceEventType.UNKNOWN;
+        }
+
+        try {
+            return ProvenanceEventType.valueOf(name);
+        } catch (final IllegalArgumentException e) {
+            return ProvenanceEventType.UNKNOWN;
+        }
+    }
+
+    private static void writeReference(final DataOutputStream out, final String value, final Map<String, Integer> dictionary, final List<String> dictionaryValues) throws IOException {
+        if (value == null) {
+            writeVarLong(out, NULL_REFERENCE);
+            return;
+        }
+
+        Integer reference = dictionary.get(value);
+        if (reference == null) {
+            dictionaryValues.add(value);
+            reference = dictionaryValues.size();
+            dictionary.put(value, reference);
+        }
+
+        writeVarLong(out, reference);
+    }
+
+    private static String readReference(final DataInputStream in, final String[] dictionary) throws IOException {
+        final int reference = (int) readVarLong(in);
+        if (reference < 0 || reference >= dictionary.length) {
+            throw new IOException("Event block references dictionary entry " + reference + " but the dictionary has only " + (dictionary.length - 1) + " entries");
+        }
+        return dictionary[reference];
+    }
+
+    private static void writeList(final DataOutputStream out, final List<String> values, final Map<String, Integer> dictionary, final List<String> dictionaryValues) throws IOException {
+        if (values == null) {
+            writeVarLong(out, 0L);
+            return;
+        }
+
+        writeVarLong(out, values.size() + 1L);
+        for (final String value : values) {
+            writeReference(out, value, dictionary, dictionaryValues);
+        }
+    }
+
+    private static List<String> readList(final DataInputStream in, final String[] dictionary) throws IOException {
+        final int size = (int) readVarLong(in) - 1;
+        if (size < 0) {
+            return null;
+        }
+
+        final List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readReference(in, dictionary));
+        }
+        return values;
+    }
+
+    private static void writeMap(final DataOutputStream out, final Map<String, String> values, final Map<String, Integer> dictionary, final List<String> dictionaryValues) throws IOException {
+        if (values == null) {
+            writeVarLong(out, 0L);
+            return;
+        }
+
+        writeVarLong(out, values.size() + 1L);
+        for (final Map.Entry<String, String> entry : values.entrySet()) {
+            writeReference(out, entry.getKey(), dictionary, dictionaryValues);
+            writeReference(out, entry.getValue(), dictionary, dictionaryValues);
+        }
+    }
+
+    private static Map<String, String> readMap(final DataInputStream in, final String[] dictionary, final String[] truncatedValues) throws IOException {
+        final int size = (int) readVarLong(in) - 1;
+        if (size < 0) {
+            return null;
+        }
+
+        final Map<String, String> values = new HashMap<>((int) (size / 0.75f) + 1);
+        for (int i = 0; i < size; i++) {
+            final String key = readReference(in, dictionary);
+            final String value = readReference(in, truncatedValues);
+            values.put(key, value);
+        }
+        return values;
+    }
+
+    private static void writeOptionalLong(final DataOutputStream out, final Long value) throws IOException {
+        if (value == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            writeSignedVarLong(out, value);
+        }
+    }
+
+    private static Long readOptionalLong(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? readSignedVarLong(in) : null;
+    }
+
+    private static void writeSignedVarLong(final OutputStream out, final long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSignedVarLong(final InputStream in) throws IOException {
+        final long encoded = readVarLong(in);
+        return (encoded >>> 1) ^ -(encoded & 1L);
+    }
+
+    private static void writeVarLong(final OutputStream out, final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0L) {
+            out.write((int) ((remaining & 0x7FL) | 0x80L));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    private static long readVarLong(final InputStream in) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of event block");
+            }
+
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Event block contains a malformed variable-length integer");
+    }
+}
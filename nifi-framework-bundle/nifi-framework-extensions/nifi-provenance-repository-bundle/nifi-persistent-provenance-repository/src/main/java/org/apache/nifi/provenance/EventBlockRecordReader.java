@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.serialization.CompressableRecordReader;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.stream.io.StreamUtils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads Provenance Event files that were written by {@link EventBlockRecordWriter}. Each block is decoded in full when the first of its events is
+ * needed, and the remaining events of the block are then returned from memory. When skipping to an event, blocks that end before that event are
+ * skipped over without being decompressed.
+ */
+public class EventBlockRecordReader extends CompressableRecordReader {
+    private static final int BLOCK_HEADER_LENGTH = 4 + 8 + 8 + 1 + 4 + 4;
+
+    private final Deque<StandardProvenanceEventRecord> pendingEvents = new ArrayDeque<>();
+    private final Inflater inflater = new Inflater();
+
+    public EventBlockRecordReader(final InputStream in, final String filename, final TocReader tocReader, final int maxAttributeChars) throws IOException {
+        super(in, filename, tocReader, maxAttributeChars);
+    }
+
+    private void verifySerializationVersion(final int serializationVersion) {
+        if (serializationVersion > EventBlockRecordWriter.SERIALIZATION_VERSION) {
+            throw new IllegalArgumentException("Unable to deserialize record because the version is " + serializationVersion
+                    + " and supported versions are 1-" + EventBlockRecordWriter.SERIALIZATION_VERSION);
+        }
+    }
+
+    @Override
+    protected void readHeader(final DataInputStream in, final int serializationVersion) throws IOException {
+        verifySerializationVersion(serializationVersion);
+
+        // The first event id is recorded for diagnostic purposes only; every block carries the ids of its own events.
+        in.readLong();
+    }
+
+    @Override
+    public boolean isData() {
+        return !pendingEvents.isEmpty() || super.isData();
+    }
+
+    @Override
+    public void skipToBlock(final int blockIndex) throws IOException {
+        if (getTocReader() != null && blockIndex != getBlockIndex()) {
+            pendingEvents.clear();
+        }
+
+        super.skipToBlock(blockIndex);
+    }
+
+    @Override
+    protected StandardProvenanceEventRecord nextRecord(final DataInputStream in, final int serializationVersion) throws IOException {
+        verifySerializationVersion(serializationVersion);
+
+        if (pendingEvents.isEmpty()) {
+            readBlock(in);
+        }
+
+        return pendingEvents.pollFirst();
+    }
+
+    @Override
+    protected Optional<StandardProvenanceEventRecord> readToEvent(final long eventId, final DataInputStream dis, final int serializationVersion) throws IOException {
+        verifySerializationVersion(serializationVersion);
+
+        while (true) {
+            while (!pendingEvents.isEmpty()) {
+                final StandardProvenanceEventRecord event = pendingEvents.pollFirst();
+                if (event.getEventId() >= eventId) {
+                    return Optional.of(event);
+                }
+            }
+
+            if (!isData(dis)) {
+                return Optional.empty();
+            }
+
+            dis.mark(BLOCK_HEADER_LENGTH);
+            dis.readInt();
+            dis.readLong();
+            final long maxEventId = dis.readLong();
+
+            if (maxEventId < eventId) {
+                // None of the events in this block is the one we want. Skip over it instead of decompressing it.
+                dis.readByte();
+                dis.readInt();
+                final int payloadLength = dis.readInt();
+                StreamUtils.skip(dis, payloadLength);
+            } else {
+                dis.reset();
+                readBlock(dis);
+            }
+        }
+    }
+
+    private boolean isData(final InputStream in) throws IOException {
+        in.mark(1);
+        final int nextByte = in.read();
+        in.reset();
+
+        return nextByte > -1;
+    }
+
+    private void readBlock(final DataInputStream in) throws IOException {
+        final long blockOffset = getBytesConsumed();
+        final int eventCount = in.readInt();
+        final long minEventId = in.readLong();
+        in.readLong();
+        final byte encoding = in.readByte();
+        final int uncompressedLength = in.readInt();
+        final int payloadLength = in.readInt();
+
+        final byte[] payload = new byte[payloadLength];
+        StreamUtils.fillBuffer(in, payload);
+
+        final byte[] encoded;
+        if (encoding == EventBlockRecordWriter.ENCODING_DEFLATE) {
+            encoded = inflate(payload, uncompressedLength);
+        } else if (encoding == EventBlockRecordWriter.ENCODING_STORED) {
+            encoded = payload;
+        } else {
+            throw new IOException("Event block at offset " + blockOffset + " of " + getFilename() + " has unknown encoding " + encoding);
+        }
+
+        pendingEvents.addAll(EventBlockCodec.decode(encoded, eventCount, minEventId, getFilename(), blockOffset, getMaxAttributeLength()));
+    }
+
+    private byte[] inflate(final byte[] payload, final int uncompressedLength) throws IOException {
+        final byte[] inflated = new byte[uncompressedLength];
+
+        inflater.reset();
+        inflater.setInput(payload);
+        try {
+            int length = 0;
+            while (length < uncompressedLength && !inflater.finished()) {
+                final int inflatedBytes = inflater.inflate(inflated, length, uncompressedLength - length);
+                if (inflatedBytes == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflatedBytes;
+            }
+
+            if (length != uncompressedLength) {
+                throw new IOException("Event block in " + getFilename() + " was expected to inflate to " + uncompressedLength + " bytes but inflated to " + length + " bytes");
+            }
+        } catch (final DataFormatException e) {
+            throw new IOException("Event block in " + getFilename() + " is corrupt", e);
+        }
+
+        return inflated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+
+    private String getDescription() {
+        try {
+            return "EventBlockRecordReader, toc: " + getTocReader().getFile().getAbsolutePath() + ", journal: " + getFilename();
+        } catch (Exception e) {
+            return "EventBlockRecordReader@" + Integer.toHexString(this.hashCode());
+        }
+    }
+}
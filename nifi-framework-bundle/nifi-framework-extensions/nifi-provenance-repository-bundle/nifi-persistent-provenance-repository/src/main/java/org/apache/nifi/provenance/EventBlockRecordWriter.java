@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.serialization.CompressableRecordWriter;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.toc.TocWriter;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * A Record Writer that writes Provenance Events in blocks rather than one at a time. Each block holds up to {@link #MAX_EVENTS_PER_BLOCK} events
+ * that are encoded column by column, with component identifiers, attribute keys and attribute values dictionary-encoded, and the encoded block is
+ * then compressed. A block never spans more than one block of the Table of Contents, so the Table of Contents can still be used to locate any event.
+ */
+public class EventBlockRecordWriter extends CompressableRecordWriter {
+    public static final int SERIALIZATION_VERSION = 1;
+    public static final String SERIALIZATION_NAME = "EventBlockRecordWriter";
+    public static final int MAX_EVENTS_PER_BLOCK = 128;
+
+    static final byte ENCODING_STORED = 0;
+    static final byte ENCODING_DEFLATE = 1;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] compressionBuffer = new byte[8192];
+
+    public EventBlockRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final boolean compressed, final int uncompressedBlockSize) throws IOException {
+        super(file, idGenerator, writer, compressed, uncompressedBlockSize);
+    }
+
+    @Override
+    public Map<ProvenanceEventRecord, StorageSummary> writeRecords(final Iterable<ProvenanceEventRecord> events) throws IOException {
+        if (isDirty()) {
+            throw new IOException("Cannot update Provenance Repository because this Record Writer has already failed to write to the Repository");
+        }
+
+        final Map<ProvenanceEventRecord, StorageSummary> storageSummaries = new HashMap<>();
+        final List<ProvenanceEventRecord> block = new ArrayList<>(MAX_EVENTS_PER_BLOCK);
+
+        for (final ProvenanceEventRecord event : events) {
+            block.add(event);
+
+            if (block.size() >= MAX_EVENTS_PER_BLOCK) {
+                writeBlock(block, storageSummaries);
+                block.clear();
+            }
+        }
+
+        if (!block.isEmpty()) {
+            writeBlock(block, storageSummaries);
+        }
+
+        return storageSummaries;
+    }
+
+    private synchronized void writeBlock(final List<ProvenanceEventRecord> events, final Map<ProvenanceEventRecord, StorageSummary> summaryMap) throws IOException {
+        final long[] eventIds = new long[events.size()];
+        final long startBytes;
+        final long endBytes;
+
+        try {
+            for (int i = 0; i < eventIds.length; i++) {
+                final long eventId = events.get(i).getEventId();
+                eventIds[i] = eventId == -1 ? getIdGenerator().getAndIncrement() : eventId;
+            }
+
+            startBytes = getBytesWritten();
+            ensureStreamState(eventIds[0], startBytes);
+
+            writeBlock(events, eventIds, getBufferedOutputStream());
+            endBytes = getBytesWritten();
+        } catch (final IOException ioe) {
+            markDirty();
+            throw ioe;
+        }
+
+        incrementRecordsWritten(eventIds.length);
+
+        final long serializedLength = (endBytes - startBytes) / eventIds.length;
+        final TocWriter tocWriter = getTocWriter();
+        final Integer blockIndex = tocWriter == null ? null : tocWriter.getCurrentBlockIndex();
+        final File file = getFile();
+        final String storageLocation = file.getParentFile().getName() + "/" + file.getName();
+        for (int i = 0; i < eventIds.length; i++) {
+            summaryMap.put(events.get(i), new StorageSummary(eventIds[i], storageLocation, blockIndex, serializedLength, endBytes));
+        }
+    }
+
+    private void writeBlock(final List<ProvenanceEventRecord> events, final long[] eventIds, final DataOutputStream out) throws IOException {
+        final byte[] encoded = EventBlockCodec.encode(events, eventIds);
+        final int compressedLength = compress(encoded);
+        final boolean deflated = compressedLength < encoded.length;
+
+        out.writeInt(eventIds.length);
+        out.writeLong(eventIds[0]);
+        out.writeLong(eventIds[eventIds.length - 1]);
+        out.writeByte(deflated ? ENCODING_DEFLATE : ENCODING_STORED);
+        out.writeInt(encoded.length);
+
+        if (deflated) {
+            out.writeInt(compressedLength);
+            out.write(compressionBuffer, 0, compressedLength);
+        } else {
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+    }
+
+    private int compress(final byte[] data) {
+        if (compressionBuffer.length < data.length) {
+            compressionBuffer = new byte[data.length];
+        }
+
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+
+        int length = 0;
+        while (!deflater.finished() && length < compressionBuffer.length) {
+            length += deflater.deflate(compressionBuffer, length, compressionBuffer.length - length);
+        }
+
+        // If the compressed form does not fit in a buffer the size of the input, the block is stored uncompressed.
+        return deflater.finished() ? length : data.length;
+    }
+
+    @Override
+    public StorageSummary writeRecord(final ProvenanceEventRecord record) throws IOException {
+        return writeRecords(Collections.singletonList(record)).get(record);
+    }
+
+    @Override
+    protected synchronized void writeRecord(final ProvenanceEventRecord event, final long eventId, final DataOutputStream out) throws IOException {
+        // Events are normally written a block at a time by writeRecords, so a single event is written as a block that holds only that event
+        writeBlock(Collections.singletonList(event), new long[] {eventId}, out);
+    }
+
+    @Override
+    protected synchronized void writeHeader(final long firstEventId, final DataOutputStream out) throws IOException {
+        out.writeLong(firstEventId);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    protected int getSerializationVersion() {
+        return SERIALIZATION_VERSION;
+    }
+
+    @Override
+    protected String getSerializationName() {
+        return SERIALIZATION_NAME;
+    }
+}
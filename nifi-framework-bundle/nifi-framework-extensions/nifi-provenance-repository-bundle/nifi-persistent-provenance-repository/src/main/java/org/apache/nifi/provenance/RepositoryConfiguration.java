@@ -17,6 +17,8 @@
 package org.apache.nifi.provenance;
 
 import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.index.lucene.CommitPreference;
+import org.apache.nifi.provenance.policy.EventPolicy;
 import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
@@ -27,11 +29,16 @@ import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public class RepositoryConfiguration {
@@ -40,6 +47,16 @@ public class RepositoryConfiguration {
     public static final String CONCURRENT_MERGE_THREADS = "nifi.provenance.repository.concurrent.merge.threads";
     public static final String WARM_CACHE_FREQUENCY = "nifi.provenance.repository.warm.cache.frequency";
     public static final String MAINTENACE_FREQUENCY = "nifi.provenance.repository.maintenance.frequency";
+    public static final String EVENT_FILE_FORMAT = "nifi.provenance.repository.event.file.format";
+    public static final String EVENT_FILE_FORMAT_SCHEMA = "schema";
+    public static final String EVENT_FILE_FORMAT_BLOCK = "block";
+    public static final String INDEX_QUEUE_CAPACITY = "nifi.provenance.repository.index.queue.capacity";
+    public static final String INDEX_COMMIT_PREFERENCE = "nifi.provenance.repository.index.commit.preference";
+    public static final String LINEAGE_INDEX_ENABLED = "nifi.provenance.repository.lineage.index.enabled";
+    public static final String EVENT_POLICY_COMPONENT_PREFIX = "nifi.provenance.repository.event.policy.component.";
+    public static final String EVENT_POLICY_EVENT_TYPE_PREFIX = "nifi.provenance.repository.event.policy.event.type.";
+    public static final String EVENT_POLICY_CRITICAL_COMPONENTS = "nifi.provenance.repository.event.policy.critical.components";
+    public static final String EVENT_POLICY_AGGREGATION_INTERVAL = "nifi.provenance.repository.event.policy.aggregation.interval";
 
     private final Map<String, File> storageDirectories = new LinkedHashMap<>();
     private long recordLifeMillis = TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
@@ -57,9 +74,17 @@ public class RepositoryConfiguration {
     private List<SearchableField> searchableFields = new ArrayList<>();
     private List<SearchableField> searchableAttributes = new ArrayList<>();
     private boolean compress = true;
+    private boolean eventBlockFormat = false;
     private boolean alwaysSync = false;
     private int queryThreadPoolSize = 2;
     private int indexThreadPoolSize = 1;
+    private int indexQueueCapacity = 1000;
+    private CommitPreference indexCommitPreference = CommitPreference.NO_PREFERENCE;
+    private boolean lineageIndexEnabled = false;
+    private final Map<String, EventPolicy> componentEventPolicies = new HashMap<>();
+    private final Map<ProvenanceEventType, EventPolicy> eventTypeEventPolicies = new EnumMap<>(ProvenanceEventType.class);
+    private final Set<String> criticalComponentIds = new HashSet<>();
+    private long eventAggregationMillis = TimeUnit.MINUTES.toMillis(1L);
     private boolean allowRollover = true;
     private int concurrentMergeThreads = 4;
     private Integer warmCacheFrequencyMinutes = null;
@@ -214,10 +239,11 @@ public class RepositoryConfiguration {
 
     /**
      * @return whether or not event files will be compressed when they are
-     * rolled over
+     * rolled over. Event files that are written in the event block format are
+     * never compressed on rollover, because each of their blocks is already compressed.
      */
     public boolean isCompressOnRollover() {
-        return compress;
+        return compress && !eventBlockFormat;
     }
 
     /**
@@ -227,6 +253,108 @@ public class RepositoryConfiguration {
         this.compress = compress;
     }
 
+    /**
+     * @return whether or not new event files will be written in blocks of dictionary-encoded, compressed events
+     */
+    public boolean isEventBlockFormat() {
+        return eventBlockFormat;
+    }
+
+    /**
+     * @param eventBlockFormat if true, new event files will be written in blocks of dictionary-encoded, compressed events
+     */
+    public void setEventBlockFormat(final boolean eventBlockFormat) {
+        this.eventBlockFormat = eventBlockFormat;
+    }
+
+    /**
+     * @return the maximum number of documents that may be waiting to be indexed before adding further events blocks
+     */
+    public int getIndexQueueCapacity() {
+        return indexQueueCapacity;
+    }
+
+    public void setIndexQueueCapacity(final int indexQueueCapacity) {
+        if (indexQueueCapacity < 1) {
+            throw new IllegalArgumentException("Index Queue Capacity must be at least 1 but was " + indexQueueCapacity);
+        }
+        this.indexQueueCapacity = indexQueueCapacity;
+    }
+
+    /**
+     * @return when the index should be committed as documents are added to it
+     */
+    public CommitPreference getIndexCommitPreference() {
+        return indexCommitPreference;
+    }
+
+    public void setIndexCommitPreference(final CommitPreference indexCommitPreference) {
+        this.indexCommitPreference = indexCommitPreference;
+    }
+
+    /**
+     * @return whether or not each partition maintains an index of FlowFile UUID to Event ID that is used for computing lineage
+     */
+    public boolean isLineageIndexEnabled() {
+        return lineageIndexEnabled;
+    }
+
+    public void setLineageIndexEnabled(final boolean lineageIndexEnabled) {
+        this.lineageIndexEnabled = lineageIndexEnabled;
+    }
+
+    /**
+     * @return the policies that determine which events generated by each component are stored, keyed by component identifier
+     */
+    public Map<String, EventPolicy> getComponentEventPolicies() {
+        return Collections.unmodifiableMap(componentEventPolicies);
+    }
+
+    public void setComponentEventPolicy(final String componentId, final EventPolicy policy) {
+        this.componentEventPolicies.put(componentId, policy);
+    }
+
+    /**
+     * @return the policies that determine which events of each type are stored, for components that do not have a policy of their own
+     */
+    public Map<ProvenanceEventType, EventPolicy> getEventTypeEventPolicies() {
+        return Collections.unmodifiableMap(eventTypeEventPolicies);
+    }
+
+    public void setEventTypeEventPolicy(final ProvenanceEventType eventType, final EventPolicy policy) {
+        this.eventTypeEventPolicies.put(eventType, policy);
+    }
+
+    /**
+     * @return the identifiers of the components whose events are always stored, regardless of any event policy
+     */
+    public Set<String> getCriticalComponentIds() {
+        return Collections.unmodifiableSet(criticalComponentIds);
+    }
+
+    public void addCriticalComponentId(final String componentId) {
+        this.criticalComponentIds.add(componentId);
+    }
+
+    /**
+     * @return <code>true</code> if any event policy has been configured, <code>false</code> if every event is stored
+     */
+    public boolean isEventPolicyConfigured() {
+        return !componentEventPolicies.isEmpty() || !eventTypeEventPolicies.isEmpty();
+    }
+
+    /**
+     * @param timeUnit the desired time unit
+     * @return the length of the time buckets into which aggregated events are rolled up
+     */
+    public long getEventAggregationInterval(final TimeUnit timeUnit) {
+        return timeUnit.convert(eventAggregationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setEventAggregationInterval(final long interval, final TimeUnit timeUnit) {
+        this.eventAggregationMillis = timeUnit.toMillis(interval);
+    }
+
     /**
      * @return the number of threads to use to query the repo
      */
@@ -394,8 +522,11 @@ public class RepositoryConfiguration {
         final int indexThreads = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_INDEX_THREAD_POOL_SIZE, 2);
         final int journalCount = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_JOURNAL_COUNT, 16);
         final int concurrentMergeThreads = nifiProperties.getIntegerProperty(CONCURRENT_MERGE_THREADS, 2);
+        final int indexQueueCapacity = nifiProperties.getIntegerProperty(INDEX_QUEUE_CAPACITY, 1000);
+        final String indexCommitPreference = nifiProperties.getProperty(INDEX_COMMIT_PREFERENCE, CommitPreference.NO_PREFERENCE.name()).trim();
         final String warmCacheFrequency = nifiProperties.getProperty(WARM_CACHE_FREQUENCY);
         final String maintenanceFrequency = nifiProperties.getProperty(MAINTENACE_FREQUENCY);
+        final String eventFileFormat = nifiProperties.getProperty(EVENT_FILE_FORMAT, EVENT_FILE_FORMAT_SCHEMA).trim();
         final long storageMillis = FormatUtils.getTimeDuration(storageTime, TimeUnit.MILLISECONDS);
         final long maxStorageBytes = DataUnit.parseDataSize(storageSize, DataUnit.B).longValue();
         final long rolloverMillis = FormatUtils.getTimeDuration(rolloverTime, TimeUnit.MILLISECONDS);
@@ -406,6 +537,7 @@ public class RepositoryConfiguration {
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
 
         final Boolean alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.provenance.repository.always.sync", "false"));
+        final boolean lineageIndexEnabled = Boolean.parseBoolean(nifiProperties.getProperty(LINEAGE_INDEX_ENABLED, "false").trim());
 
         final int defaultMaxAttrChars = 65536;
         final String maxAttrLength = nifiProperties.getProperty("nifi.provenance.repository.max.attribute.length", String.valueOf(defaultMaxAttrChars));
@@ -435,6 +567,12 @@ public class RepositoryConfiguration {
             config.addStorageDirectory(entry.getKey(), entry.getValue().toFile());
         }
         config.setCompressOnRollover(compressOnRollover);
+        if (EVENT_FILE_FORMAT_BLOCK.equalsIgnoreCase(eventFileFormat)) {
+            config.setEventBlockFormat(true);
+        } else if (!EVENT_FILE_FORMAT_SCHEMA.equalsIgnoreCase(eventFileFormat)) {
+            logger.warn("Found {} property set to {} but supported values are {} and {}; using {} instead",
+                    EVENT_FILE_FORMAT, eventFileFormat, EVENT_FILE_FORMAT_SCHEMA, EVENT_FILE_FORMAT_BLOCK, EVENT_FILE_FORMAT_SCHEMA);
+        }
         config.setSearchableFields(searchableFields);
         config.setSearchableAttributes(searchableAttributes);
         config.setMaxEventFileCapacity(rolloverBytes);
@@ -447,6 +585,14 @@ public class RepositoryConfiguration {
         config.setJournalCount(journalCount);
         config.setMaxAttributeChars(maxAttrChars);
         config.setConcurrentMergeThreads(concurrentMergeThreads);
+        config.setIndexQueueCapacity(indexQueueCapacity);
+
+        try {
+            config.setIndexCommitPreference(CommitPreference.valueOf(indexCommitPreference.toUpperCase()));
+        } catch (final IllegalArgumentException e) {
+            logger.warn("Found {} property set to {} but supported values are {}; using {} instead",
+                    INDEX_COMMIT_PREFERENCE, indexCommitPreference, Arrays.toString(CommitPreference.values()), CommitPreference.NO_PREFERENCE);
+        }
 
         if (warmCacheFrequency != null && !warmCacheFrequency.trim().equals("")) {
             config.setWarmCacheFrequencyMinutes((int) FormatUtils.getTimeDuration(warmCacheFrequency, TimeUnit.MINUTES));
@@ -460,8 +606,56 @@ public class RepositoryConfiguration {
         }
 
         config.setAlwaysSync(alwaysSync);
+        config.setLineageIndexEnabled(lineageIndexEnabled);
+        applyEventPolicies(nifiProperties, config);
 
         config.setDebugFrequency(nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_REPO_DEBUG_FREQUENCY, config.getDebugFrequency()));
         return config;
     }
+
+    private static void applyEventPolicies(final NiFiProperties nifiProperties, final RepositoryConfiguration config) {
+        for (final String propertyName : nifiProperties.getPropertyKeys()) {
+            if (propertyName.startsWith(EVENT_POLICY_COMPONENT_PREFIX)) {
+                final String componentId = propertyName.substring(EVENT_POLICY_COMPONENT_PREFIX.length());
+                parseEventPolicy(nifiProperties, propertyName).ifPresent(policy -> config.setComponentEventPolicy(componentId, policy));
+            } else if (propertyName.startsWith(EVENT_POLICY_EVENT_TYPE_PREFIX)) {
+                final String eventTypeName = propertyName.substring(EVENT_POLICY_EVENT_TYPE_PREFIX.length());
+                final ProvenanceEventType eventType;
+                try {
+                    eventType = ProvenanceEventType.valueOf(eventTypeName.toUpperCase());
+                } catch (final IllegalArgumentException e) {
+                    logger.warn("Found {} property but {} is not a Provenance Event Type; supported values are {}. Ignoring property.",
+                            propertyName, eventTypeName, Arrays.toString(ProvenanceEventType.values()));
+                    continue;
+                }
+
+                parseEventPolicy(nifiProperties, propertyName).ifPresent(policy -> config.setEventTypeEventPolicy(eventType, policy));
+            }
+        }
+
+        final String criticalComponents = nifiProperties.getProperty(EVENT_POLICY_CRITICAL_COMPONENTS);
+        if (criticalComponents != null) {
+            for (final String componentId : criticalComponents.split(",")) {
+                if (!componentId.isBlank()) {
+                    config.addCriticalComponentId(componentId.trim());
+                }
+            }
+        }
+
+        final String aggregationInterval = nifiProperties.getProperty(EVENT_POLICY_AGGREGATION_INTERVAL);
+        if (aggregationInterval != null && !aggregationInterval.isBlank()) {
+            final long millis = FormatUtils.getTimeDuration(aggregationInterval.trim(), TimeUnit.MILLISECONDS);
+            config.setEventAggregationInterval(Math.max(1L, millis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Optional<EventPolicy> parseEventPolicy(final NiFiProperties nifiProperties, final String propertyName) {
+        final String value = nifiProperties.getProperty(propertyName);
+        try {
+            return Optional.of(EventPolicy.parse(value));
+        } catch (final IllegalArgumentException e) {
+            logger.warn("Found {} property set to {} but it is not a valid event policy: {}. Ignoring property.", propertyName, value, e.getMessage());
+            return Optional.empty();
+        }
+    }
 }
@@ -29,6 +29,7 @@ import org.apache.nifi.provenance.index.lucene.LuceneEventIndex;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lucene.IndexManager;
 import org.apache.nifi.provenance.lucene.StandardIndexManager;
+import org.apache.nifi.provenance.policy.EventPolicyFilter;
 import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchableField;
@@ -44,6 +45,7 @@ import org.apache.nifi.provenance.toc.StandardTocWriter;
 import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
 import org.apache.nifi.provenance.util.CloseableUtil;
+import org.apache.nifi.provenance.util.NamedThreadFactory;
 import org.apache.nifi.reporting.Severity;
 import org.apache.nifi.util.NiFiProperties;
 import org.apache.nifi.util.file.FileUtils;
@@ -58,6 +60,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -85,11 +90,17 @@ import java.util.Set;
  * stored on a separate physical partition on disk. As a result, this allows striping of data across multiple partitions in order to achieve linear scalability
  * across disks for far greater performance.
  * </p>
+ *
+ * <p>
+ * If any event policies are configured, each event is passed through an {@link EventPolicyFilter} before it is stored, which may
+ * drop the event by sampling or roll it up into a summary event that is stored once its time bucket has ended.
+ * </p>
  */
 public class WriteAheadProvenanceRepository implements ProvenanceRepository {
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadProvenanceRepository.class);
     protected static final int BLOCK_SIZE = 1024 * 32;
     public static final String EVENT_CATEGORY = "Provenance Repository";
+    private static final long SUMMARY_FLUSH_MILLIS = 1000L;
 
     private final RepositoryConfiguration config;
 
@@ -99,6 +110,8 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
     private EventReporter eventReporter;
     private Authorizer authorizer;
     private ProvenanceAuthorizableFactory resourceFactory;
+    private EventPolicyFilter eventPolicyFilter;
+    private ScheduledExecutorService summaryExecutor;
 
     /**
      * This constructor exists solely for the use of the Java Service Loader mechanism and should not be used.
@@ -122,6 +135,10 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         final IdentifierLookup idLookup) throws IOException {
         final RecordWriterFactory recordWriterFactory = (file, idGenerator, compressed, createToc) -> {
             final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), false, false) : null;
+            if (config.isEventBlockFormat()) {
+                return new EventBlockRecordWriter(file, idGenerator, tocWriter, compressed, BLOCK_SIZE);
+            }
+
             return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, BLOCK_SIZE, idLookup);
         };
 
@@ -151,6 +168,13 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         this.authorizer = authorizer;
         this.resourceFactory = resourceFactory;
 
+        if (config.isEventPolicyConfigured()) {
+            eventPolicyFilter = new EventPolicyFilter(config.getCriticalComponentIds(), config.getComponentEventPolicies(), config.getEventTypeEventPolicies(),
+                config.getEventAggregationInterval(TimeUnit.MILLISECONDS));
+            logger.info("Provenance Events will be filtered by event policies for components {} and event types {}, keeping all events for components {}",
+                config.getComponentEventPolicies(), config.getEventTypeEventPolicies(), config.getCriticalComponentIds());
+        }
+
         eventStore.initialize();
         eventIndex.initialize(eventStore);
 
@@ -164,6 +188,22 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         } else {
             logger.info("Provenance Event Index indicates that no events should be re-indexed upon startup. Will not wait for re-indexing to occur.");
         }
+
+        if (eventPolicyFilter != null && eventPolicyFilter.isAggregating()) {
+            summaryExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Provenance Event Summary", true));
+            summaryExecutor.scheduleWithFixedDelay(this::storeCompletedSummaries, SUMMARY_FLUSH_MILLIS, SUMMARY_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void storeCompletedSummaries() {
+        try {
+            final List<ProvenanceEventRecord> summaries = eventPolicyFilter.removeCompletedSummaries(System.currentTimeMillis());
+            if (!summaries.isEmpty()) {
+                storeEvents(summaries);
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to store Provenance summary events", e);
+        }
     }
 
     @Override
@@ -178,6 +218,19 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public void registerEvents(final Iterable<ProvenanceEventRecord> events) {
+        final EventPolicyFilter filter = eventPolicyFilter;
+        if (filter == null) {
+            storeEvents(events);
+            return;
+        }
+
+        final List<ProvenanceEventRecord> keptEvents = filter.filter(events);
+        if (!keptEvents.isEmpty()) {
+            storeEvents(keptEvents);
+        }
+    }
+
+    private void storeEvents(final Iterable<ProvenanceEventRecord> events) {
         final StorageResult storageResult;
 
         try {
@@ -211,6 +264,22 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public void close() {
+        if (summaryExecutor != null) {
+            summaryExecutor.shutdown();
+            try {
+                summaryExecutor.awaitTermination(SUMMARY_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (eventPolicyFilter != null && eventStore != null) {
+            final List<ProvenanceEventRecord> summaries = eventPolicyFilter.removeAllSummaries();
+            if (!summaries.isEmpty()) {
+                storeEvents(summaries);
+            }
+        }
+
         CloseableUtil.closeQuietly(eventStore, eventIndex);
     }
 
@@ -351,4 +420,16 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
             throw new IllegalArgumentException("There is no defined container with name " + containerName);
         }
     }
+
+    @Override
+    public ProvenanceIndexingStatus getIndexingStatus() {
+        final EventIndex index = eventIndex;
+        return index == null ? null : index.getIndexingStatus();
+    }
+
+    @Override
+    public ProvenanceEventPolicyStatus getEventPolicyStatus() {
+        final EventPolicyFilter filter = eventPolicyFilter;
+        return filter == null ? null : filter.getStatus();
+    }
 }
@@ -19,6 +19,7 @@ package org.apache.nifi.provenance.index;
 
 import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceIndexingStatus;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.search.Query;
@@ -71,6 +72,11 @@ public interface EventIndex extends Closeable {
      */
     long getSize();
 
+    /**
+     * @return the current depth of the indexing queue, how far indexing has fallen behind, and the rate at which documents are being indexed
+     */
+    ProvenanceIndexingStatus getIndexingStatus();
+
     /**
      * Submits a Query asynchronously and returns a QuerySubmission that can be used to obtain the results
      *
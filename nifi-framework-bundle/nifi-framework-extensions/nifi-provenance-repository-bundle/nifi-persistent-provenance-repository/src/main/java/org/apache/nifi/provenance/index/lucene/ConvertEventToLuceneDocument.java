@@ -32,9 +32,11 @@ import org.apache.nifi.provenance.lucene.LuceneUtil;
 import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.provenance.serialization.StorageSummary;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class ConvertEventToLuceneDocument {
@@ -58,6 +60,25 @@ public class ConvertEventToLuceneDocument {
         return convert(record, persistedEvent.getEventId());
     }
 
+    /**
+     * Converts each event of a batch that was stored together into the document that should be indexed for it, one event at a time.
+     * Events that contain nothing that should be indexed do not produce a document.
+     *
+     * @param events the events to convert, along with where each was stored
+     * @return the documents to index, in the iteration order of the given events
+     */
+    public List<StoredDocument> convert(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        final List<StoredDocument> documents = new ArrayList<>(events.size());
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            final Document document = convert(entry.getKey(), entry.getValue());
+            if (document != null) {
+                documents.add(new StoredDocument(document, entry.getValue()));
+            }
+        }
+
+        return documents;
+    }
+
     public Document convert(final ProvenanceEventRecord record, final long eventId) {
         final Document doc = new Document();
         addField(doc, SearchableFields.FlowFileUUID, record.getFlowFileUuid());
@@ -53,15 +53,29 @@ public class EventIndexTask implements Runnable {
     private final IndexDirectoryManager directoryManager;
     private final EventReporter eventReporter;
     private final int commitThreshold;
+    private final CommitPreference commitPreference;
+    private final IndexingStatistics statistics;
 
     private volatile CompletableFuture<Void> shutdownComplete;
 
     public EventIndexTask(final BlockingQueue<StoredDocument> documentQueue, final IndexManager indexManager,
         final IndexDirectoryManager directoryManager, final int maxEventsPerCommit, final EventReporter eventReporter) {
+        this(documentQueue, indexManager, directoryManager, maxEventsPerCommit, CommitPreference.NO_PREFERENCE, new IndexingStatistics(), eventReporter);
+    }
+
+    /**
+     * @param commitPreference {@link CommitPreference#FORCE_COMMIT} to commit the index after every batch of documents, {@link CommitPreference#PREVENT_COMMIT}
+     *            to commit only when an index is no longer the active index for its partition, or {@link CommitPreference#NO_PREFERENCE} to commit whenever
+     *            <code>maxEventsPerCommit</code> events have been written to an index
+     */
+    public EventIndexTask(final BlockingQueue<StoredDocument> documentQueue, final IndexManager indexManager, final IndexDirectoryManager directoryManager,
+        final int maxEventsPerCommit, final CommitPreference commitPreference, final IndexingStatistics statistics, final EventReporter eventReporter) {
         this.documentQueue = documentQueue;
         this.indexManager = indexManager;
         this.directoryManager = directoryManager;
         this.commitThreshold = maxEventsPerCommit;
+        this.commitPreference = commitPreference;
+        this.statistics = statistics;
         this.eventReporter = eventReporter;
     }
 
@@ -112,6 +126,9 @@ public class EventIndexTask implements Runnable {
 
                     index(docs, partitionName);
                 }
+
+                final long oldestQueuedNanos = toIndex.stream().mapToLong(StoredDocument::getQueuedNanos).min().getAsLong();
+                statistics.recordIndexed(toIndex.size(), oldestQueuedNanos);
             } catch (final Exception e) {
                 logger.error("Failed to index Provenance Events", e);
                 eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to index Provenance Events. See logs for more information.");
@@ -160,10 +177,13 @@ public class EventIndexTask implements Runnable {
                     .map(IndexableDocument::getDocument)
                     .collect(Collectors.toList());
 
+                directoryManager.recordDocuments(indexDirectory, documents);
                 indexWriter.index(documents, commitThreshold);
             } finally {
                 indexManager.returnIndexWriter(indexWriter, CommitPreference.FORCE_COMMIT.equals(commitPreference), false);
             }
+
+            directoryManager.persistSummaryIfInactive(indexDirectory);
         }
     }
 
@@ -196,8 +216,18 @@ public class EventIndexTask implements Runnable {
         }
 
         try {
-            // Perform the actual indexing.
-            boolean writerIndicatesCommit = indexWriter.index(documents, commitThreshold);
+            // Record the documents in the directory's summary before they are written, so that a query is never
+            // able to find a document in the index that the summary says cannot be there.
+            directoryManager.recordDocuments(indexDirectory, documents);
+
+            // Perform the actual indexing. The commit preference determines whether we commit after every batch, whenever the writer
+            // indicates that enough events have been written since the last commit, or only when the index is no longer active.
+            final boolean writerIndicatesCommit = indexWriter.index(documents, commitThreshold);
+            final boolean commitNow = switch (commitPreference) {
+                case FORCE_COMMIT -> true;
+                case PREVENT_COMMIT -> false;
+                case NO_PREFERENCE -> writerIndicatesCommit;
+            };
 
             // If we don't need to commit index based on what index writer tells us, we will still want
             // to commit the index if it's assigned to a partition and this is no longer the active index
@@ -226,7 +256,7 @@ public class EventIndexTask implements Runnable {
                 requestClose = true;
             }
 
-            if (writerIndicatesCommit) {
+            if (commitNow) {
                 commit(indexWriter);
                 requestCommit = false; // we've already committed the index writer so no need to request that the index manager do so also.
                 final boolean directoryManagerIndicatesClose = directoryManager.onIndexCommitted(indexDirectory);
@@ -243,11 +273,17 @@ public class EventIndexTask implements Runnable {
         } finally {
             indexManager.returnIndexWriter(indexWriter, requestCommit, requestClose);
         }
+
+        // Once the index is no longer being written to, its summary can be persisted for use after a restart.
+        if (requestClose) {
+            directoryManager.persistSummaryIfInactive(indexDirectory);
+        }
     }
 
     protected void commit(final EventIndexWriter indexWriter) throws IOException {
         final long start = System.nanoTime();
         final long approximateCommitCount = indexWriter.commit();
+        statistics.recordCommit();
         final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
         logger.debug("Successfully committed approximately {} Events to {} in {} millis", approximateCommitCount, indexWriter, millis);
     }
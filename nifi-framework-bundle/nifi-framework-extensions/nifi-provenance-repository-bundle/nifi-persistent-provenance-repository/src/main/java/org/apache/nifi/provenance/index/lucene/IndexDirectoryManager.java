@@ -17,10 +17,12 @@
 
 package org.apache.nifi.provenance.index.lucene;
 
+import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.util.DirectoryUtils;
 import org.apache.nifi.util.Tuple;
 import org.apache.nifi.util.file.FileUtils;
@@ -56,6 +58,7 @@ public class IndexDirectoryManager {
     // guarded by synchronizing on 'this'
     private final SortedMap<Long, List<IndexLocation>> indexLocationByTimestamp = new TreeMap<>();
     private final Map<String, IndexLocation> activeIndices = new HashMap<>();
+    private final Map<File, IndexDirectorySummary> summaries = new HashMap<>();
 
     public IndexDirectoryManager(final RepositoryConfiguration repoConfig) {
         this.repoConfig = repoConfig;
@@ -84,6 +87,7 @@ public class IndexDirectoryManager {
                 final List<IndexLocation> dirsForTimestamp = indexLocationByTimestamp.computeIfAbsent(startTime, t -> new ArrayList<>());
                 final IndexLocation indexLoc = new IndexLocation(indexDir, startTime, partitionName);
                 dirsForTimestamp.add(indexLoc);
+                IndexDirectorySummary.read(indexDir).ifPresent(summary -> summaries.put(indexDir, summary));
 
                 final Tuple<Long, IndexLocation> tuple = latestIndexByStorageDir.get(storageDir);
                 if (tuple == null || startTime > tuple.getKey()) {
@@ -110,6 +114,8 @@ public class IndexDirectoryManager {
     }
 
     public synchronized void removeDirectory(final File directory) {
+        summaries.remove(directory);
+
         final Iterator<Map.Entry<Long, List<IndexLocation>>> itr = indexLocationByTimestamp.entrySet().iterator();
         while (itr.hasNext()) {
             final Map.Entry<Long, List<IndexLocation>> entry = itr.next();
@@ -378,11 +384,101 @@ public class IndexDirectoryManager {
 
             indexLocationByTimestamp.computeIfAbsent(earliestTimestamp, t -> new ArrayList<>()).add(indexLoc);
             activeIndices.put(partitionName, indexLoc);
+
+            // A newly created index has no documents yet, so its summary can describe every document that is written to it. If the
+            // directory already exists, keep whatever summary it has, as a new one would not describe the documents already written.
+            final File indexDirectory = indexLoc.getIndexDirectory();
+            if (!indexDirectory.exists()) {
+                summaries.putIfAbsent(indexDirectory, new IndexDirectorySummary(indexDirectory));
+            }
         }
 
         return indexLoc.getIndexDirectory();
     }
 
+    /**
+     * Records the given documents in the summary of the given index directory. This must be called before the documents are
+     * written to the index so that the summary never excludes a document that a query could find.
+     *
+     * @param indexDirectory the index directory that the documents will be written to
+     * @param documents the documents
+     */
+    public void recordDocuments(final File indexDirectory, final List<Document> documents) {
+        final IndexDirectorySummary summary;
+        synchronized (this) {
+            summary = summaries.get(indexDirectory);
+        }
+
+        if (summary != null) {
+            summary.record(documents);
+        }
+    }
+
+    /**
+     * Determines whether or not the given index directory could contain a document that matches the given query. An index directory
+     * that has no summary, because it was created before summaries were kept or by an earlier run that did not shut down cleanly,
+     * could always contain a match.
+     *
+     * @param indexDirectory the index directory
+     * @param query the query
+     * @return <code>false</code> if the index directory cannot contain a document that matches the query, <code>true</code> otherwise
+     */
+    public boolean isPossibleMatch(final File indexDirectory, final Query query) {
+        final IndexDirectorySummary summary;
+        synchronized (this) {
+            summary = summaries.get(indexDirectory);
+        }
+
+        return summary == null || summary.isPossibleMatch(query);
+    }
+
+    /**
+     * Writes the summary of the given index directory to disk if the directory is no longer the active index for its partition
+     *
+     * @param indexDirectory the index directory
+     */
+    public void persistSummaryIfInactive(final File indexDirectory) {
+        final IndexDirectorySummary summary;
+        synchronized (this) {
+            for (final IndexLocation activeLocation : activeIndices.values()) {
+                if (activeLocation.getIndexDirectory().equals(indexDirectory)) {
+                    return;
+                }
+            }
+
+            summary = summaries.get(indexDirectory);
+        }
+
+        persist(summary);
+    }
+
+    /**
+     * Writes the summaries of all index directories to disk. This is done on shutdown so that the summaries of the active index
+     * directories are available on restart.
+     */
+    public void persistSummaries() {
+        final List<IndexDirectorySummary> toPersist;
+        synchronized (this) {
+            toPersist = new ArrayList<>(summaries.values());
+        }
+
+        for (final IndexDirectorySummary summary : toPersist) {
+            persist(summary);
+        }
+    }
+
+    private void persist(final IndexDirectorySummary summary) {
+        if (summary == null) {
+            return;
+        }
+
+        try {
+            summary.persist();
+        } catch (final IOException ioe) {
+            logger.warn("Failed to write {}; the index directory will be searched for every query after restart", summary, ioe);
+        }
+    }
+
     private File createIndex(final long earliestTimestamp, final String partitionName) {
         final File storageDir = repoConfig.getStorageDirectories().entrySet().stream()
             .filter(e -> e.getKey().equals(partitionName))
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * <p>
+ * A summary of the documents that have been written to a single index directory: the range of their event times, the event types that
+ * were indexed, and a Bloom filter of the component identifiers that were indexed. The summary is used to skip index directories that
+ * cannot contain any document matching a query, without opening the index.
+ * </p>
+ *
+ * <p>
+ * A summary is written to a file in its index directory once the directory is no longer being written to. The file is deleted again
+ * before any further documents are recorded, so that if the file exists, it describes every document in the index. Index directories
+ * that have no summary file, such as those that were created before summaries existed, are always searched.
+ * </p>
+ */
+public class IndexDirectorySummary {
+    private static final Logger logger = LoggerFactory.getLogger(IndexDirectorySummary.class);
+
+    static final String SUMMARY_FILENAME = "nifi-index-summary";
+    private static final int ENCODING_VERSION = 1;
+
+    // 64 Kib with 4 hash functions gives a false positive rate of about 0.5% for 5,000 distinct components
+    private static final int BLOOM_FILTER_WORDS = 1024;
+    private static final int BLOOM_FILTER_BITS = BLOOM_FILTER_WORDS * Long.SIZE;
+    private static final int BLOOM_FILTER_HASHES = 4;
+
+    private final File indexDirectory;
+    private long minEventTime = Long.MAX_VALUE;
+    private long maxEventTime = Long.MIN_VALUE;
+    private long documentCount = 0L;
+    private final Set<String> eventTypes = new HashSet<>();
+    private final long[] componentIdFilter = new long[BLOOM_FILTER_WORDS];
+    private boolean persisted = false;
+
+    public IndexDirectorySummary(final File indexDirectory) {
+        this.indexDirectory = indexDirectory;
+    }
+
+    /**
+     * Records the given documents, which are about to be written to the index directory. If the summary has been written to disk,
+     * the file is removed, as it no longer describes every document in the index.
+     *
+     * @param documents the documents that will be written to the index
+     */
+    public synchronized void record(final List<Document> documents) {
+        if (persisted) {
+            final File summaryFile = getSummaryFile();
+            if (summaryFile.exists() && !summaryFile.delete()) {
+                logger.warn("Failed to remove Index Summary {}; queries may not find events that are written to {} until NiFi is restarted", summaryFile, indexDirectory);
+            }
+            persisted = false;
+        }
+
+        for (final Document document : documents) {
+            final IndexableField eventTimeField = document.getField(SearchableFields.EventTime.getSearchableFieldName());
+            if (eventTimeField != null) {
+                final long eventTime = eventTimeField.numericValue().longValue();
+                minEventTime = Math.min(minEventTime, eventTime);
+                maxEventTime = Math.max(maxEventTime, eventTime);
+            }
+
+            final String eventType = document.get(SearchableFields.EventType.getSearchableFieldName());
+            if (eventType != null) {
+                eventTypes.add(eventType);
+            }
+
+            final String componentId = document.get(SearchableFields.ComponentID.getSearchableFieldName());
+            if (componentId != null) {
+                addToFilter(componentId);
+            }
+
+            documentCount++;
+        }
+    }
+
+    /**
+     * Determines whether or not any document in the index directory could match the given query. Only the time range, and any
+     * search terms for an exact Component ID or Event Type, are considered.
+     *
+     * @param query the query
+     * @return <code>false</code> if it is certain that no document in the index directory matches the query, <code>true</code> otherwise
+     */
+    public synchronized boolean isPossibleMatch(final Query query) {
+        if (documentCount == 0) {
+            return false;
+        }
+
+        if (query.getStartDate() != null && maxEventTime < query.getStartDate().getTime()) {
+            return false;
+        }
+        if (query.getEndDate() != null && minEventTime > query.getEndDate().getTime()) {
+            return false;
+        }
+
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String value = searchTerm.getValue();
+            if (value == null || Boolean.TRUE.equals(searchTerm.isInverted()) || value.contains("*") || value.contains("?")) {
+                continue;
+            }
+
+            // Values are indexed in lower case, as is done when the query is converted into a Lucene query.
+            final String searchableFieldName = searchTerm.getSearchableField().getSearchableFieldName();
+            if (SearchableFields.ComponentID.getSearchableFieldName().equals(searchableFieldName) && !mightContainComponent(value.toLowerCase())) {
+                return false;
+            }
+            if (SearchableFields.EventType.getSearchableFieldName().equals(searchableFieldName) && !eventTypes.contains(value.toLowerCase())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void addToFilter(final String componentId) {
+        final int hash1 = componentId.hashCode();
+        final int hash2 = secondaryHash(componentId);
+        for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+            final int bit = Math.floorMod(hash1 + i * hash2, BLOOM_FILTER_BITS);
+            componentIdFilter[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+        }
+    }
+
+    private boolean mightContainComponent(final String componentId) {
+        final int hash1 = componentId.hashCode();
+        final int hash2 = secondaryHash(componentId);
+        for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+            final int bit = Math.floorMod(hash1 + i * hash2, BLOOM_FILTER_BITS);
+            if ((componentIdFilter[bit / Long.SIZE] & (1L << (bit % Long.SIZE))) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * FNV-1a over the characters of the value. The filter is persisted, so both hash functions must be stable across JVMs.
+     */
+    private static int secondaryHash(final String value) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x01000193;
+        }
+
+        return hash | 1;
+    }
+
+    /**
+     * Writes the summary to a file in the index directory, indicating that it describes every document in the index
+     *
+     * @throws IOException if unable to write the summary
+     */
+    public synchronized void persist() throws IOException {
+        if (persisted) {
+            return;
+        }
+
+        if (!indexDirectory.exists()) {
+            logger.debug("Will not write Index Summary for {} because the directory does not exist", indexDirectory);
+            return;
+        }
+
+        final File summaryFile = getSummaryFile();
+        final File tempFile = new File(indexDirectory, SUMMARY_FILENAME + ".tmp");
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(ENCODING_VERSION);
+            out.writeLong(documentCount);
+            out.writeLong(minEventTime);
+            out.writeLong(maxEventTime);
+
+            out.writeInt(eventTypes.size());
+            for (final String eventType : eventTypes) {
+                out.writeUTF(eventType);
+            }
+
+            out.writeInt(componentIdFilter.length);
+            for (final long word : componentIdFilter) {
+                out.writeLong(word);
+            }
+        }
+
+        Files.move(tempFile.toPath(), summaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        persisted = true;
+        logger.debug("Wrote Index Summary for {} describing {} documents", indexDirectory, documentCount);
+    }
+
+    /**
+     * Reads the summary for the given index directory
+     *
+     * @param indexDirectory the index directory
+     * @return the summary, or an empty Optional if the index directory has no summary or the summary cannot be read
+     */
+    public static Optional<IndexDirectorySummary> read(final File indexDirectory) {
+        final File summaryFile = new File(indexDirectory, SUMMARY_FILENAME);
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(summaryFile)))) {
+            final int encodingVersion = in.readInt();
+            if (encodingVersion != ENCODING_VERSION) {
+                logger.warn("Index Summary {} has unsupported encoding version {}; {} will be searched for every query", summaryFile, encodingVersion, indexDirectory);
+                return Optional.empty();
+            }
+
+            final IndexDirectorySummary summary = new IndexDirectorySummary(indexDirectory);
+            summary.documentCount = in.readLong();
+            summary.minEventTime = in.readLong();
+            summary.maxEventTime = in.readLong();
+
+            final int eventTypeCount = in.readInt();
+            for (int i = 0; i < eventTypeCount; i++) {
+                summary.eventTypes.add(in.readUTF());
+            }
+
+            final int filterWords = in.readInt();
+            if (filterWords != BLOOM_FILTER_WORDS) {
+                logger.warn("Index Summary {} has a Component ID filter of {} words; {} will be searched for every query", summaryFile, filterWords, indexDirectory);
+                return Optional.empty();
+            }
+            for (int i = 0; i < filterWords; i++) {
+                summary.componentIdFilter[i] = in.readLong();
+            }
+
+            summary.persisted = true;
+            return Optional.of(summary);
+        } catch (final FileNotFoundException fnfe) {
+            return Optional.empty();
+        } catch (final IOException ioe) {
+            logger.warn("Failed to read Index Summary {}; {} will be searched for every query", summaryFile, indexDirectory, ioe);
+            return Optional.empty();
+        }
+    }
+
+    private File getSummaryFile() {
+        return new File(indexDirectory, SUMMARY_FILENAME);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "IndexDirectorySummary[directory=" + indexDirectory + ", documents=" + documentCount + ", minEventTime=" + minEventTime + ", maxEventTime=" + maxEventTime
+            + ", eventTypes=" + eventTypes + "]";
+    }
+}
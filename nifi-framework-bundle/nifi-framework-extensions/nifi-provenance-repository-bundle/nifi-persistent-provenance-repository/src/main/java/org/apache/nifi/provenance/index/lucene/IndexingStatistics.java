@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import org.apache.nifi.util.timebuffer.LongEntityAccess;
+import org.apache.nifi.util.timebuffer.TimedBuffer;
+import org.apache.nifi.util.timebuffer.TimestampedLong;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the throughput of the Event Index Tasks and how far behind the storage of events the indexing has fallen.
+ */
+public class IndexingStatistics {
+    private static final int RATE_WINDOW_SECONDS = 60;
+
+    private final TimedBuffer<TimestampedLong> documentsIndexed = new TimedBuffer<>(TimeUnit.SECONDS, RATE_WINDOW_SECONDS, new LongEntityAccess());
+    private final AtomicLong totalDocumentsIndexed = new AtomicLong(0L);
+    private final AtomicLong commitCount = new AtomicLong(0L);
+    private volatile long indexingLagNanos = 0L;
+
+    /**
+     * Records that the given documents have been written to an index
+     *
+     * @param documentCount the number of documents that were indexed
+     * @param oldestQueuedNanos the value of {@link System#nanoTime()} when the earliest of the documents was queued for indexing
+     */
+    public void recordIndexed(final int documentCount, final long oldestQueuedNanos) {
+        documentsIndexed.add(new TimestampedLong((long) documentCount));
+        totalDocumentsIndexed.addAndGet(documentCount);
+        indexingLagNanos = Math.max(0L, System.nanoTime() - oldestQueuedNanos);
+    }
+
+    public void recordCommit() {
+        commitCount.incrementAndGet();
+    }
+
+    /**
+     * @return the number of milliseconds that the most recently indexed batch of documents waited between being queued and being indexed
+     */
+    public long getIndexingLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(indexingLagNanos);
+    }
+
+    /**
+     * @return the average number of documents that have been indexed per second over the last minute
+     */
+    public double getDocumentsIndexedPerSecond() {
+        final TimestampedLong indexed = documentsIndexed.getAggregateValue(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(RATE_WINDOW_SECONDS));
+        return indexed == null ? 0D : (double) indexed.getValue() / RATE_WINDOW_SECONDS;
+    }
+
+    public long getTotalDocumentsIndexed() {
+        return totalDocumentsIndexed.get();
+    }
+
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.AsyncLineageSubmission;
 import org.apache.nifi.provenance.AsyncQuerySubmission;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceIndexingStatus;
 import org.apache.nifi.provenance.RepositoryConfiguration;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.StandardLineageResult;
@@ -68,13 +69,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -92,7 +93,8 @@ public class LuceneEventIndex implements EventIndex {
 
     private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
-    private final BlockingQueue<StoredDocument> documentQueue = new LinkedBlockingQueue<>(1000);
+    private final BlockingQueue<StoredDocument> documentQueue;
+    private final IndexingStatistics indexingStatistics = new IndexingStatistics();
     private final List<EventIndexTask> indexTasks = Collections.synchronizedList(new ArrayList<>());
     private final ExecutorService queryExecutor;
     private final ExecutorService indexExecutor;
@@ -121,6 +123,8 @@ public class LuceneEventIndex implements EventIndex {
 
     public LuceneEventIndex(final RepositoryConfiguration config, final IndexManager indexManager, final int maxEventsPerCommit, final EventReporter eventReporter) {
         this.eventReporter = eventReporter;
+        // The queue between the Event Store and the Event Index Tasks has the same bound as before, but its capacity is now configurable.
+        documentQueue = new ArrayBlockingQueue<>(config.getIndexQueueCapacity());
         queryExecutor = Executors.newFixedThreadPool(config.getQueryThreadPoolSize(), new NamedThreadFactory("Provenance Query"));
         indexExecutor = Executors.newFixedThreadPool(config.getIndexThreadPoolSize(), new NamedThreadFactory("Index Provenance Events"));
         cacheWarmerExecutor = Executors.newScheduledThreadPool(config.getStorageDirectories().size(), new NamedThreadFactory("Warm Lucene Index", true));
@@ -145,7 +149,8 @@ public class LuceneEventIndex implements EventIndex {
         }
 
         for (int i = 0; i < numIndexThreads; i++) {
-            final EventIndexTask task = new EventIndexTask(documentQueue, indexManager, directoryManager, maxEventsPerCommit, eventReporter);
+            final EventIndexTask task = new EventIndexTask(documentQueue, indexManager, directoryManager, maxEventsPerCommit, config.getIndexCommitPreference(),
+                indexingStatistics, eventReporter);
             indexTasks.add(task);
             indexExecutor.submit(task);
         }
@@ -312,6 +317,7 @@ public class LuceneEventIndex implements EventIndex {
             }
         }
 
+        directoryManager.persistSummaries();
         indexManager.close();
     }
 
@@ -429,32 +435,37 @@ public class LuceneEventIndex implements EventIndex {
         if (document == null) {
             logger.debug("Received Provenance Event {} to index but it contained no information that should be indexed, so skipping it", event.getEventId());
         } else {
-            final StoredDocument doc = new StoredDocument(document, location);
-            boolean added = false;
-            while (!added && !closed) {
+            enqueue(new StoredDocument(document, location));
+        }
+    }
 
-                added = documentQueue.offer(doc);
-                if (!added) {
-                    final long start = System.nanoTime();
-                    try {
-                        added = documentQueue.offer(doc, 1, TimeUnit.SECONDS);
-                    } catch (final InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        logger.warn("Interrupted while attempting to enqueue Provenance Event for indexing; this event will not be indexed");
-                        return;
-                    }
-                    final long nanos = System.nanoTime() - start;
-                    queuePauseNanos.add(new TimestampedLong(nanos));
+    private boolean enqueue(final StoredDocument doc) {
+        boolean added = false;
+        while (!added && !closed) {
+
+            added = documentQueue.offer(doc);
+            if (!added) {
+                final long start = System.nanoTime();
+                try {
+                    added = documentQueue.offer(doc, 1, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Interrupted while attempting to enqueue Provenance Event for indexing; this event will not be indexed");
+                    return false;
                 }
+                final long nanos = System.nanoTime() - start;
+                queuePauseNanos.add(new TimestampedLong(nanos));
+            }
 
-                if (added) {
-                    final long totalEventCount = eventCount.incrementAndGet();
-                    if (totalEventCount % 1_000_000 == 0 && logger.isDebugEnabled()) {
-                        incrementAndReportStats();
-                    }
+            if (added) {
+                final long totalEventCount = eventCount.incrementAndGet();
+                if (totalEventCount % 1_000_000 == 0 && logger.isDebugEnabled()) {
+                    incrementAndReportStats();
                 }
             }
         }
+
+        return added;
     }
 
     private void incrementAndReportStats() {
@@ -480,8 +491,16 @@ public class LuceneEventIndex implements EventIndex {
     public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
         eventsIndexed.add(new TimestampedLong((long) events.size()));
 
-        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
-            addEvent(entry.getKey(), entry.getValue());
+        // Each event of the batch is converted to a document before any of them are enqueued. The documents are then enqueued one at a time,
+        // so they may be interleaved with the documents of other threads. If the index is closed, or this thread is interrupted while waiting for space in the queue,
+        // the remaining documents of the batch are not indexed.
+        final List<StoredDocument> documents = eventConverter.convert(events);
+        logger.debug("Converted {} Provenance Events to {} documents to index", events.size(), documents.size());
+
+        for (final StoredDocument document : documents) {
+            if (!enqueue(document)) {
+                break;
+            }
         }
 
         for (final CachedQuery cachedQuery : cachedQueries) {
@@ -520,6 +539,13 @@ public class LuceneEventIndex implements EventIndex {
             throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
         }
 
+        // If the Event Store is able to tell us which events reference the FlowFiles, we can retrieve the events directly
+        // rather than searching each of the Lucene indices.
+        final Optional<List<Long>> lineageEventIds = eventStore.getEventIdsForFlowFiles(flowFileUuids);
+        if (lineageEventIds.isPresent()) {
+            return submitLineageComputation(lineageEventIds.get(), flowFileUuids, user, eventAuthorizer, computationType, eventId, startTimestamp, endTimestamp);
+        }
+
         final List<File> indexDirs = directoryManager.getDirectories(startTimestamp, endTimestamp);
         final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirs.size(), user == null ? null : user.getIdentity());
         lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
@@ -549,6 +575,47 @@ public class LuceneEventIndex implements EventIndex {
         return submission;
     }
 
+    private ComputeLineageSubmission submitLineageComputation(final List<Long> lineageEventIds, final Collection<String> flowFileUuids, final NiFiUser user,
+        final EventAuthorizer eventAuthorizer, final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
+
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, 1, user == null ? null : user.getIdentity());
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+
+        // Retrieve the most recent events first, consistent with the ordering used when querying the Lucene indices.
+        final List<Long> eventIds = new ArrayList<>(lineageEventIds);
+        eventIds.sort(Collections.reverseOrder());
+
+        queryExecutor.submit(() -> {
+            try {
+                // The Event Store does not know when each event occurred, so events are retrieved in batches and any that fall outside of the
+                // time range are discarded, until either all of the events have been read or the maximum number of lineage nodes is reached.
+                final List<ProvenanceEventRecord> events = new ArrayList<>();
+                for (int i = 0; i < eventIds.size() && events.size() < MAX_LINEAGE_NODES; i += MAX_LINEAGE_NODES) {
+                    final List<Long> batch = eventIds.subList(i, Math.min(i + MAX_LINEAGE_NODES, eventIds.size()));
+                    for (final ProvenanceEventRecord event : eventStore.getEvents(batch, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER)) {
+                        if (event.getEventTime() >= startTimestamp && event.getEventTime() <= endTimestamp && events.size() < MAX_LINEAGE_NODES) {
+                            events.add(event);
+                        }
+                    }
+                }
+
+                logger.debug("Retrieved {} of {} Events for lineage of FlowFiles {} from Event Store", events.size(), eventIds.size(), flowFileUuids);
+                submission.getResult().update(events, events.size());
+            } catch (final Exception e) {
+                submission.getResult().setError("Failed to retrieve Provenance Events from store; see logs for more details");
+                logger.error("Failed to retrieve Provenance Events from store to compute lineage of FlowFiles {}", flowFileUuids, e);
+            }
+        });
+
+        try {
+            submission.getResult().awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        return submission;
+    }
+
     private BooleanQuery buildLineageQuery(final Collection<String> flowFileUuids) {
         // Create a query for all Events related to the FlowFiles of interest. We do this by adding all ID's as
         // "SHOULD" clauses and then setting the minimum required to 1.
@@ -608,10 +675,23 @@ public class LuceneEventIndex implements EventIndex {
             }
         }
 
-        final List<File> indexDirectories = directoryManager.getDirectories(
+        final List<File> candidateDirectories = directoryManager.getDirectories(
             query.getStartDate() == null ? null : query.getStartDate().getTime(),
             query.getEndDate() == null ? null : query.getEndDate().getTime());
 
+        // Skip any index directory whose summary shows that it cannot contain a match, rather than opening and searching it.
+        final List<File> indexDirectories = new ArrayList<>(candidateDirectories.size());
+        for (final File indexDirectory : candidateDirectories) {
+            if (directoryManager.isPossibleMatch(indexDirectory, query)) {
+                indexDirectories.add(indexDirectory);
+            }
+        }
+
+        if (indexDirectories.size() < candidateDirectories.size()) {
+            logger.debug("Index summaries show that {} of {} index directories cannot contain matches for query {}", candidateDirectories.size() - indexDirectories.size(),
+                candidateDirectories.size(), query.getIdentifier());
+        }
+
         final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, indexDirectories.size(), userId);
         querySubmissionMap.put(query.getIdentifier(), submission);
 
@@ -800,6 +880,13 @@ public class LuceneEventIndex implements EventIndex {
         throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because " + user.getIdentity() + " is not the user who submitted the request");
     }
 
+    @Override
+    public ProvenanceIndexingStatus getIndexingStatus() {
+        final int queuedDocuments = documentQueue.size();
+        return new ProvenanceIndexingStatus(queuedDocuments, queuedDocuments + documentQueue.remainingCapacity(),
+            indexingStatistics.getIndexingLagMillis(), indexingStatistics.getDocumentsIndexedPerSecond());
+    }
+
     @Override
     public long getSize() {
         long total = 0;
@@ -23,10 +23,12 @@ import org.apache.nifi.provenance.serialization.StorageSummary;
 public class StoredDocument {
     private final Document document;
     private final StorageSummary storageSummary;
+    private final long queuedNanos;
 
     public StoredDocument(final Document document, final StorageSummary summary) {
         this.document = document;
         this.storageSummary = summary;
+        this.queuedNanos = System.nanoTime();
     }
 
     public Document getDocument() {
@@ -36,4 +38,11 @@ public class StoredDocument {
     public StorageSummary getStorageSummary() {
         return storageSummary;
     }
+
+    /**
+     * @return the value of {@link System#nanoTime()} when this document was created to be queued for indexing
+     */
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
 }
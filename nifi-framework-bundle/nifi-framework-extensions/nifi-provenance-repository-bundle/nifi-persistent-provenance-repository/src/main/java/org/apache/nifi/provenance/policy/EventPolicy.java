@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.policy;
+
+import java.util.Locale;
+
+/**
+ * Describes what the repository does with the Provenance Events that a policy applies to: keep every event,
+ * keep one out of every N events, or roll the events up into one summary event per time bucket.
+ */
+public class EventPolicy {
+    public static final String KEEP_VALUE = "keep";
+    public static final String AGGREGATE_VALUE = "aggregate";
+    public static final String SAMPLE_PREFIX = "sample:";
+
+    public static final EventPolicy KEEP = new EventPolicy(Mode.KEEP, 1);
+    public static final EventPolicy AGGREGATE = new EventPolicy(Mode.AGGREGATE, 1);
+
+    public enum Mode {
+        KEEP,
+        SAMPLE,
+        AGGREGATE;
+    }
+
+    private final Mode mode;
+    private final int sampleInterval;
+
+    private EventPolicy(final Mode mode, final int sampleInterval) {
+        this.mode = mode;
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * @param sampleInterval the number of events out of which one is kept
+     * @return a policy that keeps one out of every <code>sampleInterval</code> events
+     */
+    public static EventPolicy sample(final int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be at least 1 but was " + sampleInterval);
+        }
+
+        return sampleInterval == 1 ? KEEP : new EventPolicy(Mode.SAMPLE, sampleInterval);
+    }
+
+    /**
+     * Parses a policy from its property value, which is one of <code>keep</code>, <code>aggregate</code>, or
+     * <code>sample:N</code> to keep one out of every N events
+     *
+     * @param value the property value
+     * @return the policy that the value describes
+     * @throws IllegalArgumentException if the value does not describe a policy
+     */
+    public static EventPolicy parse(final String value) {
+        final String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        if (KEEP_VALUE.equals(normalized)) {
+            return KEEP;
+        }
+        if (AGGREGATE_VALUE.equals(normalized)) {
+            return AGGREGATE;
+        }
+        if (normalized.startsWith(SAMPLE_PREFIX)) {
+            final String interval = normalized.substring(SAMPLE_PREFIX.length()).trim();
+            try {
+                return sample(Integer.parseInt(interval));
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid sample interval <" + interval + ">", e);
+            }
+        }
+
+        throw new IllegalArgumentException("Expected one of " + KEEP_VALUE + ", " + AGGREGATE_VALUE + " or " + SAMPLE_PREFIX + "N but found <" + value + ">");
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the number of events out of which one is kept, which is 1 unless this is a sampling policy
+     */
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.SAMPLE ? SAMPLE_PREFIX + sampleInterval : mode.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.policy;
+
+import org.apache.nifi.provenance.ProvenanceEventPolicyStatus;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Decides, before Provenance Events are stored, which of them the repository keeps. Each event is matched against the configured
+ * {@link EventPolicy policies}: events from a critical component are always kept; otherwise a policy configured for the event's component
+ * takes precedence over a policy configured for the event's type, and events that match no policy are kept.
+ * </p>
+ *
+ * <p>
+ * Sampled events are kept one out of every N, counted separately for each policy. Aggregated events are not stored at all; instead, their
+ * count and size are rolled up per component, event type and time bucket, and each bucket is stored as a single summary event once the
+ * bucket has ended. A summary event is a copy of the first event in its bucket with the totals added to its attributes.
+ * </p>
+ */
+public class EventPolicyFilter {
+    public static final String SUMMARY_EVENT_COUNT_ATTRIBUTE = "provenance.summary.event.count";
+    public static final String SUMMARY_BYTE_COUNT_ATTRIBUTE = "provenance.summary.byte.count";
+    public static final String SUMMARY_START_TIME_ATTRIBUTE = "provenance.summary.start.time";
+    public static final String SUMMARY_END_TIME_ATTRIBUTE = "provenance.summary.end.time";
+
+    private final Set<String> criticalComponentIds;
+    private final Map<String, PolicyState> componentPolicies = new HashMap<>();
+    private final Map<ProvenanceEventType, PolicyState> eventTypePolicies = new EnumMap<>(ProvenanceEventType.class);
+    private final long bucketMillis;
+    private final boolean aggregating;
+
+    private final ConcurrentMap<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong keptCount = new AtomicLong(0L);
+    private final AtomicLong droppedCount = new AtomicLong(0L);
+    private final AtomicLong aggregatedCount = new AtomicLong(0L);
+    private final AtomicLong summaryCount = new AtomicLong(0L);
+
+    public EventPolicyFilter(final Set<String> criticalComponentIds, final Map<String, EventPolicy> componentPolicies,
+                             final Map<ProvenanceEventType, EventPolicy> eventTypePolicies, final long bucketMillis) {
+        if (bucketMillis < 1) {
+            throw new IllegalArgumentException("Aggregation interval must be at least 1 millisecond but was " + bucketMillis);
+        }
+
+        this.criticalComponentIds = new HashSet<>(criticalComponentIds);
+        componentPolicies.forEach((componentId, policy) -> this.componentPolicies.put(componentId, new PolicyState(policy)));
+        eventTypePolicies.forEach((eventType, policy) -> this.eventTypePolicies.put(eventType, new PolicyState(policy)));
+        this.bucketMillis = bucketMillis;
+
+        aggregating = componentPolicies.containsValue(EventPolicy.AGGREGATE) || eventTypePolicies.containsValue(EventPolicy.AGGREGATE);
+    }
+
+    /**
+     * @return <code>true</code> if any policy aggregates events, in which case {@link #removeCompletedSummaries(long)} must be called
+     *         periodically in order for the summary events to be stored
+     */
+    public boolean isAggregating() {
+        return aggregating;
+    }
+
+    /**
+     * Applies the policies to the given events, recording any aggregated events in their buckets
+     *
+     * @param events the events that are being registered with the repository
+     * @return the events that should be stored, in the order in which they were given
+     */
+    public List<ProvenanceEventRecord> filter(final Iterable<ProvenanceEventRecord> events) {
+        final List<ProvenanceEventRecord> kept = new ArrayList<>();
+        for (final ProvenanceEventRecord event : events) {
+            final PolicyState policyState = getPolicyState(event);
+            if (policyState == null) {
+                kept.add(event);
+                continue;
+            }
+
+            switch (policyState.policy.getMode()) {
+                case SAMPLE:
+                    if (policyState.counter.getAndIncrement() % policyState.policy.getSampleInterval() == 0) {
+                        kept.add(event);
+                    } else {
+                        droppedCount.incrementAndGet();
+                    }
+                    break;
+                case AGGREGATE:
+                    aggregate(event);
+                    break;
+                default:
+                    kept.add(event);
+                    break;
+            }
+        }
+
+        keptCount.addAndGet(kept.size());
+        return kept;
+    }
+
+    private PolicyState getPolicyState(final ProvenanceEventRecord event) {
+        final String componentId = event.getComponentId();
+        if (criticalComponentIds.contains(componentId)) {
+            return null;
+        }
+
+        final PolicyState componentPolicy = componentPolicies.get(componentId);
+        if (componentPolicy != null) {
+            return componentPolicy;
+        }
+
+        return eventTypePolicies.get(event.getEventType());
+    }
+
+    private void aggregate(final ProvenanceEventRecord event) {
+        final long eventTime = event.getEventTime();
+        final BucketKey key = new BucketKey(event.getComponentId(), event.getEventType(), eventTime - Math.floorMod(eventTime, bucketMillis));
+        buckets.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                return new Bucket(event);
+            }
+
+            bucket.add(event);
+            return bucket;
+        });
+
+        aggregatedCount.incrementAndGet();
+    }
+
+    /**
+     * Removes the buckets that ended at or before the given time and creates a summary event for each of them
+     *
+     * @param timestamp the current time, in milliseconds since the epoch
+     * @return the summary events that should be stored
+     */
+    public List<ProvenanceEventRecord> removeCompletedSummaries(final long timestamp) {
+        return removeSummaries(timestamp - bucketMillis);
+    }
+
+    /**
+     * Removes all buckets, whether or not they have ended, and creates a summary event for each of them. This is used when the
+     * repository is shut down so that the aggregated events are not lost.
+     *
+     * @return the summary events that should be stored
+     */
+    public List<ProvenanceEventRecord> removeAllSummaries() {
+        return removeSummaries(Long.MAX_VALUE);
+    }
+
+    private List<ProvenanceEventRecord> removeSummaries(final long maxBucketStart) {
+        if (buckets.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<ProvenanceEventRecord> summaries = new ArrayList<>();
+        for (final BucketKey key : buckets.keySet()) {
+            if (key.bucketStart() > maxBucketStart) {
+                continue;
+            }
+
+            final Bucket bucket = buckets.remove(key);
+            if (bucket != null) {
+                summaries.add(bucket.createSummaryEvent());
+            }
+        }
+
+        summaryCount.addAndGet(summaries.size());
+        return summaries;
+    }
+
+    public ProvenanceEventPolicyStatus getStatus() {
+        return new ProvenanceEventPolicyStatus(keptCount.get(), droppedCount.get(), aggregatedCount.get(), summaryCount.get());
+    }
+
+    private static class PolicyState {
+        private final EventPolicy policy;
+        private final AtomicLong counter = new AtomicLong(0L);
+
+        private PolicyState(final EventPolicy policy) {
+            this.policy = policy;
+        }
+    }
+
+    private record BucketKey(String componentId, ProvenanceEventType eventType, long bucketStart) {
+    }
+
+    /**
+     * The totals for one component, event type and time bucket. Buckets are only modified from within
+     * {@link ConcurrentMap#compute} and are only read after they have been removed from the map.
+     */
+    private static class Bucket {
+        private final ProvenanceEventRecord firstEvent;
+        private long eventCount = 1;
+        private long byteCount;
+        private long minEventTime;
+        private long maxEventTime;
+
+        private Bucket(final ProvenanceEventRecord firstEvent) {
+            this.firstEvent = firstEvent;
+            this.byteCount = firstEvent.getFileSize();
+            this.minEventTime = firstEvent.getEventTime();
+            this.maxEventTime = firstEvent.getEventTime();
+        }
+
+        private void add(final ProvenanceEventRecord event) {
+            eventCount++;
+            byteCount += event.getFileSize();
+            minEventTime = Math.min(minEventTime, event.getEventTime());
+            maxEventTime = Math.max(maxEventTime, event.getEventTime());
+        }
+
+        private ProvenanceEventRecord createSummaryEvent() {
+            final Map<String, String> updatedAttributes = new HashMap<>(firstEvent.getUpdatedAttributes());
+            updatedAttributes.put(SUMMARY_EVENT_COUNT_ATTRIBUTE, String.valueOf(eventCount));
+            updatedAttributes.put(SUMMARY_BYTE_COUNT_ATTRIBUTE, String.valueOf(byteCount));
+            updatedAttributes.put(SUMMARY_START_TIME_ATTRIBUTE, String.valueOf(minEventTime));
+            updatedAttributes.put(SUMMARY_END_TIME_ATTRIBUTE, String.valueOf(maxEventTime));
+
+            return new StandardProvenanceEventRecord.Builder()
+                .fromEvent(firstEvent)
+                .setUpdatedAttributes(updatedAttributes)
+                .setDetails("Summary of " + eventCount + " " + firstEvent.getEventType() + " events totalling " + byteCount + " bytes")
+                .build();
+        }
+    }
+}
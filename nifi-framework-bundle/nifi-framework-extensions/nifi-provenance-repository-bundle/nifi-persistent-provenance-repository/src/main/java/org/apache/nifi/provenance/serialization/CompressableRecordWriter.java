@@ -190,6 +190,15 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
         return recordCount;
     }
 
+    /**
+     * Adds to the number of records written, for subclasses that write records without calling {@link #writeRecord(ProvenanceEventRecord)}
+     *
+     * @param count the number of records that were written
+     */
+    protected synchronized void incrementRecordsWritten(final int count) {
+        recordCount += count;
+    }
+
     @Override
     protected synchronized DataOutputStream getBufferedOutputStream() {
         return out;
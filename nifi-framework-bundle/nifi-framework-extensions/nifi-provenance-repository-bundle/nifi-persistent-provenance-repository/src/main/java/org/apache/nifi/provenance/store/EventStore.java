@@ -26,6 +26,7 @@ import org.apache.nifi.provenance.store.iterator.EventIterator;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -131,4 +132,16 @@ public interface EventStore extends Closeable {
      * @throws IOException if unable to retrieve records from the store
      */
     EventIterator getEventsByTimestamp(long minTimestamp, long maxTimestamp) throws IOException;
+
+    /**
+     * Returns the ID's of all events in the store that reference any of the given FlowFile UUID's, either as the FlowFile that the event
+     * describes or as a parent or child of the event, without consulting the Event Index.
+     *
+     * @param flowFileUuids the UUID's of the FlowFiles of interest
+     * @return the ID's of the events that reference the FlowFiles, or an empty Optional if the store is unable to determine the events
+     *         that reference the FlowFiles, in which case the Event Index must be used instead
+     */
+    default Optional<List<Long>> getEventIdsForFlowFiles(Collection<String> flowFileUuids) {
+        return Optional.empty();
+    }
 }
@@ -23,6 +23,7 @@ import org.apache.nifi.provenance.store.iterator.EventIterator;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -110,4 +111,16 @@ public interface EventStorePartition extends Closeable {
      * @return the number of bytes purged from the partition
      */
     long purgeOldestEvents();
+
+    /**
+     * Returns the ID's of all events in the partition that reference any of the given FlowFile UUID's, either as the FlowFile that
+     * the event describes or as a parent or child of the event
+     *
+     * @param flowFileUuids the UUID's of the FlowFiles of interest
+     * @return the ID's of the events that reference the FlowFiles, or an empty Optional if the partition does not maintain an index of
+     *         FlowFile lineage or if some of its events have not been indexed
+     */
+    default Optional<List<Long>> getEventIdsForFlowFiles(Collection<String> flowFileUuids) {
+        return Optional.empty();
+    }
 }
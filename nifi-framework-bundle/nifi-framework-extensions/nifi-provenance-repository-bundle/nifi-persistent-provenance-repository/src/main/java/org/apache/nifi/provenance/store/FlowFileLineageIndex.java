@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.serialization.RecordReader;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.util.DirectoryUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * An index that maps each FlowFile UUID to the identifiers of the Provenance Events that reference it, for a single partition of the
+ * event store. An event is referenced by the UUID of the FlowFile that it describes, by each child UUID of a FORK, CLONE, or REPLAY event,
+ * by each parent UUID of a JOIN event, and by the Source System FlowFile Identifier of a RECEIVE event. These are the same UUIDs under which
+ * the event is indexed in Lucene, so the edges between parent and child FlowFiles can be followed by looking up each UUID in turn, without
+ * searching the Lucene indices.
+ * </p>
+ *
+ * <p>
+ * The entries for the event file that is currently being written are held in memory. When the event file is rolled over, its entries are
+ * written to a segment file in the <code>lineage</code> directory of the partition. A segment file consists of a header, a table of
+ * fixed-length entries ordered by UUID, and the event identifiers for each entry, so that a UUID can be found by a binary search without
+ * reading the entire segment. The segment is deleted when its event file is aged off.
+ * </p>
+ */
+class FlowFileLineageIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FlowFileLineageIndex.class);
+
+    static final String LINEAGE_DIRECTORY_NAME = "lineage";
+    private static final String SEGMENT_FILE_EXTENSION = ".lineage";
+    private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    private static final int ENCODING_VERSION = 1;
+    private static final int HEADER_LENGTH = 8;   // encoding version, entry count
+    private static final int ENTRY_LENGTH = 24;   // most significant bits, least significant bits, index of first event id, number of event ids
+
+    private final File lineageDirectory;
+    private final Map<Long, ActiveSegment> activeSegments = new ConcurrentHashMap<>();
+
+    FlowFileLineageIndex(final File partitionDirectory) {
+        this.lineageDirectory = new File(partitionDirectory, LINEAGE_DIRECTORY_NAME);
+    }
+
+    /**
+     * Ensures that the lineage directory exists, removes any segments whose event files no longer exist, and rebuilds the segments for the most
+     * recent event files that were not rolled over cleanly. If the lineage directory did not previously exist, the existing event files are not
+     * indexed; lookups will report the index as incomplete until those event files have been aged off.
+     *
+     * @param eventFiles the event files in the partition
+     * @param recordReaderFactory the factory to use for reading events from event files whose segments must be rebuilt
+     * @throws IOException if unable to create the lineage directory
+     */
+    void initialize(final List<File> eventFiles, final RecordReaderFactory recordReaderFactory) throws IOException {
+        final boolean previouslyIndexed = lineageDirectory.exists();
+        Files.createDirectories(lineageDirectory.toPath());
+
+        final Set<Long> eventFileIds = new HashSet<>();
+        for (final File eventFile : eventFiles) {
+            eventFileIds.add(DirectoryUtils.getMinId(eventFile));
+        }
+
+        final File[] segmentFiles = lineageDirectory.listFiles();
+        if (segmentFiles != null) {
+            for (final File segmentFile : segmentFiles) {
+                final String filename = segmentFile.getName();
+                if (filename.endsWith(SEGMENT_FILE_EXTENSION) && eventFileIds.contains(DirectoryUtils.getMinId(segmentFile))) {
+                    continue;
+                }
+
+                if (!segmentFile.delete()) {
+                    logger.warn("Failed to remove obsolete FlowFile Lineage segment {}; this file should be cleaned up manually", segmentFile);
+                }
+            }
+        }
+
+        if (!previouslyIndexed) {
+            logger.info("Created FlowFile Lineage Index at {}; lineage for events that were written before the index existed will be computed from the Event Index", lineageDirectory);
+            return;
+        }
+
+        final List<File> sortedEventFiles = new ArrayList<>(eventFiles);
+        sortedEventFiles.sort(DirectoryUtils.LARGEST_ID_FIRST);
+        for (final File eventFile : sortedEventFiles) {
+            final long firstEventId = DirectoryUtils.getMinId(eventFile);
+            if (getSegmentFile(firstEventId).exists()) {
+                break;
+            }
+
+            rebuildSegment(eventFile, firstEventId, recordReaderFactory);
+        }
+    }
+
+    private void rebuildSegment(final File eventFile, final long firstEventId, final RecordReaderFactory recordReaderFactory) {
+        final ActiveSegment segment = new ActiveSegment();
+
+        try (final RecordReader reader = recordReaderFactory.newRecordReader(eventFile, Collections.emptyList(), Integer.MAX_VALUE)) {
+            StandardProvenanceEventRecord event;
+            while ((event = reader.nextRecord()) != null) {
+                segment.add(event, event.getEventId());
+            }
+        } catch (final EOFException eof) {
+            logger.warn("Event File {} ended unexpectedly; FlowFile Lineage segment will include only the {} FlowFiles that could be read", eventFile, segment.size());
+        } catch (final Exception e) {
+            logger.warn("Failed to read Event File {}; lineage for its events will be computed from the Event Index", eventFile, e);
+            return;
+        }
+
+        try {
+            writeSegment(firstEventId, segment);
+            logger.info("Rebuilt FlowFile Lineage segment for {} with {} FlowFiles", eventFile, segment.size());
+        } catch (final IOException ioe) {
+            logger.warn("Failed to write FlowFile Lineage segment for {}; lineage for its events will be computed from the Event Index", eventFile, ioe);
+        }
+    }
+
+    /**
+     * Begins tracking a new event file, so that lookups treat it as indexed even before any events have been written to it
+     *
+     * @param firstEventId the ID of the first event that will be written to the event file
+     */
+    void startEventFile(final long firstEventId) {
+        activeSegments.putIfAbsent(firstEventId, new ActiveSegment());
+    }
+
+    /**
+     * Adds the given events, which have been written to the event file whose first event has the given ID, to the index
+     *
+     * @param firstEventId the ID of the first event in the event file that the events were written to
+     * @param storageLocations the events that were written, along with where they were written
+     */
+    void addEvents(final long firstEventId, final Map<ProvenanceEventRecord, StorageSummary> storageLocations) {
+        final ActiveSegment segment = activeSegments.computeIfAbsent(firstEventId, id -> new ActiveSegment());
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : storageLocations.entrySet()) {
+            segment.add(entry.getKey(), entry.getValue().getEventId());
+        }
+    }
+
+    /**
+     * Writes the entries for the event file whose first event has the given ID to a segment file. No further events may be added
+     * for the event file once this method has been called.
+     *
+     * @param firstEventId the ID of the first event in the event file that has been rolled over
+     * @throws IOException if unable to write the segment file
+     */
+    void completeEventFile(final long firstEventId) throws IOException {
+        final ActiveSegment segment = activeSegments.get(firstEventId);
+        if (segment == null) {
+            return;
+        }
+
+        // Write the segment before removing it from memory so that any lookup that is performed concurrently is able to find the entries.
+        try {
+            writeSegment(firstEventId, segment);
+        } finally {
+            activeSegments.remove(firstEventId);
+        }
+    }
+
+    /**
+     * Removes the entries for the event file whose first event has the given ID, as the event file has been aged off
+     *
+     * @param firstEventId the ID of the first event in the event file that was removed
+     */
+    void removeEventFile(final long firstEventId) {
+        activeSegments.remove(firstEventId);
+
+        final File segmentFile = getSegmentFile(firstEventId);
+        if (segmentFile.exists() && !segmentFile.delete()) {
+            logger.warn("Failed to remove FlowFile Lineage segment {}; this file should be cleaned up manually", segmentFile);
+        }
+    }
+
+    /**
+     * Returns the IDs of all events in the given event files that reference any of the given FlowFile UUIDs
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest
+     * @param firstEventIds the IDs of the first event in each event file to search
+     * @return the distinct IDs of the events that reference the FlowFiles, or an empty Optional if any of the given event files has not been indexed
+     */
+    Optional<List<Long>> getEventIds(final Collection<String> flowFileUuids, final Collection<Long> firstEventIds) {
+        final List<UUID> keys = new ArrayList<>(flowFileUuids.size());
+        for (final String flowFileUuid : flowFileUuids) {
+            keys.add(toKey(flowFileUuid));
+        }
+
+        // An event that references more than one of the FlowFiles is returned only once.
+        final Set<Long> eventIds = new LinkedHashSet<>();
+        for (final Long firstEventId : firstEventIds) {
+            final ActiveSegment activeSegment = activeSegments.get(firstEventId);
+            if (activeSegment != null) {
+                activeSegment.getEventIds(keys, eventIds);
+                continue;
+            }
+
+            final File segmentFile = getSegmentFile(firstEventId);
+            try (final FileChannel channel = FileChannel.open(segmentFile.toPath(), StandardOpenOption.READ)) {
+                readEventIds(channel, keys, eventIds);
+            } catch (final NoSuchFileException nsfe) {
+                logger.debug("No FlowFile Lineage segment exists for event file with first Event ID {}", firstEventId);
+                return Optional.empty();
+            } catch (final IOException ioe) {
+                logger.warn("Failed to read FlowFile Lineage segment {}", segmentFile, ioe);
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(new ArrayList<>(eventIds));
+    }
+
+    private void readEventIds(final FileChannel channel, final List<UUID> keys, final Set<Long> eventIds) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        readFully(channel, header, 0L);
+        final int encodingVersion = header.getInt(0);
+        if (encodingVersion != ENCODING_VERSION) {
+            throw new IOException("Unsupported FlowFile Lineage segment encoding version " + encodingVersion);
+        }
+
+        final int entryCount = header.getInt(4);
+        final long eventIdsOffset = HEADER_LENGTH + (long) entryCount * ENTRY_LENGTH;
+        final ByteBuffer entry = ByteBuffer.allocate(ENTRY_LENGTH);
+
+        for (final UUID key : keys) {
+            int low = 0;
+            int high = entryCount - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                readFully(channel, entry, HEADER_LENGTH + (long) mid * ENTRY_LENGTH);
+
+                final int comparison = new UUID(entry.getLong(0), entry.getLong(8)).compareTo(key);
+                if (comparison < 0) {
+                    low = mid + 1;
+                } else if (comparison > 0) {
+                    high = mid - 1;
+                } else {
+                    final int firstIndex = entry.getInt(16);
+                    final int count = entry.getInt(20);
+                    final ByteBuffer ids = ByteBuffer.allocate(count * Long.BYTES);
+                    readFully(channel, ids, eventIdsOffset + (long) firstIndex * Long.BYTES);
+                    for (int i = 0; i < count; i++) {
+                        eventIds.add(ids.getLong(i * Long.BYTES));
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("FlowFile Lineage segment ended unexpectedly");
+            }
+        }
+    }
+
+    private void writeSegment(final long firstEventId, final ActiveSegment segment) throws IOException {
+        final List<Map.Entry<UUID, EventIdList>> entries = segment.getSortedEntries();
+
+        final File segmentFile = getSegmentFile(firstEventId);
+        final File tempFile = new File(lineageDirectory, segmentFile.getName() + TEMPORARY_FILE_EXTENSION);
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(ENCODING_VERSION);
+            out.writeInt(entries.size());
+
+            int firstIndex = 0;
+            for (final Map.Entry<UUID, EventIdList> entry : entries) {
+                final UUID key = entry.getKey();
+                final int count = entry.getValue().size;
+                out.writeLong(key.getMostSignificantBits());
+                out.writeLong(key.getLeastSignificantBits());
+                out.writeInt(firstIndex);
+                out.writeInt(count);
+                firstIndex += count;
+            }
+
+            for (final Map.Entry<UUID, EventIdList> entry : entries) {
+                final EventIdList eventIdList = entry.getValue();
+                for (int i = 0; i < eventIdList.size; i++) {
+                    out.writeLong(eventIdList.ids[i]);
+                }
+            }
+        }
+
+        Files.move(tempFile.toPath(), segmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Wrote FlowFile Lineage segment {} with {} FlowFiles", segmentFile, entries.size());
+    }
+
+    private File getSegmentFile(final long firstEventId) {
+        return new File(lineageDirectory, firstEventId + SEGMENT_FILE_EXTENSION);
+    }
+
+    /**
+     * Returns the UUIDs of the FlowFiles that the given event should be found under when computing lineage. This mirrors the
+     * FlowFile UUIDs with which the event is indexed by the Lucene Event Index.
+     *
+     * @param event the event
+     * @return the UUIDs of the FlowFiles that reference the event
+     */
+    static Set<String> getLineageFlowFileUuids(final ProvenanceEventRecord event) {
+        final Set<String> uuids = new HashSet<>();
+        uuids.add(event.getFlowFileUuid());
+
+        final ProvenanceEventType eventType = event.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            uuids.addAll(event.getChildUuids());
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            uuids.addAll(event.getParentUuids());
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                uuids.add(sourceIdentifier.substring(lastColon + 1));
+            }
+        }
+
+        uuids.remove(null);
+        return uuids;
+    }
+
+    /**
+     * FlowFile UUIDs are stored as 128-bit values. Identifiers that are not valid UUIDs are hashed to a name-based UUID, so a lookup
+     * may at worst return additional events, never fewer.
+     */
+    private static UUID toKey(final String flowFileUuid) {
+        try {
+            return UUID.fromString(flowFileUuid);
+        } catch (final IllegalArgumentException iae) {
+            return UUID.nameUUIDFromBytes(flowFileUuid.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class ActiveSegment {
+        private final Map<UUID, EventIdList> entries = new HashMap<>();
+
+        synchronized void add(final ProvenanceEventRecord event, final long eventId) {
+            for (final String flowFileUuid : getLineageFlowFileUuids(event)) {
+                entries.computeIfAbsent(toKey(flowFileUuid), key -> new EventIdList()).add(eventId);
+            }
+        }
+
+        synchronized void getEventIds(final List<UUID> keys, final Set<Long> eventIds) {
+            for (final UUID key : keys) {
+                final EventIdList eventIdList = entries.get(key);
+                if (eventIdList != null) {
+                    for (int i = 0; i < eventIdList.size; i++) {
+                        eventIds.add(eventIdList.ids[i]);
+                    }
+                }
+            }
+        }
+
+        synchronized List<Map.Entry<UUID, EventIdList>> getSortedEntries() {
+            final List<Map.Entry<UUID, EventIdList>> sorted = new ArrayList<>(entries.entrySet());
+            sorted.sort(Map.Entry.comparingByKey());
+            return sorted;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private static class EventIdList {
+        private long[] ids = new long[2];
+        private int size = 0;
+
+        void add(final long eventId) {
+            if (size == ids.length) {
+                final long[] expanded = new long[ids.length * 2];
+                System.arraycopy(ids, 0, expanded, 0, size);
+                ids = expanded;
+            }
+
+            ids[size++] = eventId;
+        }
+    }
+}
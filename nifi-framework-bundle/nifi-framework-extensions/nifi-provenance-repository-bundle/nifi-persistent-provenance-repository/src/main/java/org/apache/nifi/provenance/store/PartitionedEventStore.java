@@ -167,6 +167,21 @@ public abstract class PartitionedEventStore implements EventStore {
         return getEvents(eventIds.size(), authorizer, part -> part.createEventIterator(eventIds), transformer);
     }
 
+    @Override
+    public Optional<List<Long>> getEventIdsForFlowFiles(final Collection<String> flowFileUuids) {
+        final List<Long> eventIds = new ArrayList<>();
+        for (final EventStorePartition partition : getPartitions()) {
+            final Optional<List<Long>> partitionEventIds = partition.getEventIdsForFlowFiles(flowFileUuids);
+            if (!partitionEventIds.isPresent()) {
+                return Optional.empty();
+            }
+
+            eventIds.addAll(partitionEventIds.get());
+        }
+
+        return Optional.of(eventIds);
+    }
+
     private List<ProvenanceEventRecord> getEvents(final int maxRecords, final EventAuthorizer authorizer,
         final Function<EventStorePartition, EventIterator> eventIteratorFactory, final EventTransformer transformer) throws IOException {
 
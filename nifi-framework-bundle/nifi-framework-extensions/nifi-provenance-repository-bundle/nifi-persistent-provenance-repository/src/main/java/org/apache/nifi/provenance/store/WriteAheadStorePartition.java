@@ -43,6 +43,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -74,6 +75,7 @@ public class WriteAheadStorePartition implements EventStorePartition {
     private final AtomicLong idGenerator;
     private final AtomicLong maxEventId = new AtomicLong(-1L);
     private final EventFileManager eventFileManager;
+    private final FlowFileLineageIndex lineageIndex;
     private volatile boolean closed = false;
 
     private final AtomicReference<RecordWriterLease> eventWriterLeaseRef = new AtomicReference<>();
@@ -92,6 +94,7 @@ public class WriteAheadStorePartition implements EventStorePartition {
         this.recordReaderFactory = recordReaderFactory;
         this.filesToCompress = filesToCompress;
         this.eventFileManager = eventFileManager;
+        this.lineageIndex = repoConfig.isLineageIndexEnabled() ? new FlowFileLineageIndex(storageDirectory) : null;
     }
 
     @Override
@@ -145,6 +148,10 @@ public class WriteAheadStorePartition implements EventStorePartition {
 
         this.maxEventId.set(maxEventId);
 
+        if (lineageIndex != null) {
+            lineageIndex.initialize(fileList, recordReaderFactory);
+        }
+
         // If configured to compress, compress any files that are not yet compressed.
         if (config.isCompressOnRollover()) {
             final File[] uncompressedFiles = partitionDirectory.listFiles(f -> f.getName().endsWith(".prov"));
@@ -290,6 +297,19 @@ public class WriteAheadStorePartition implements EventStorePartition {
         logger.trace("Updated lease from {} to {}", lease, updatedLease);
         if (lease != null) {
             lease.close();
+
+            if (lineageIndex != null) {
+                final File completedEventFile = lease.getWriter().getFile();
+                try {
+                    lineageIndex.completeEventFile(DirectoryUtils.getMinId(completedEventFile));
+                } catch (final IOException ioe) {
+                    logger.warn("Failed to write FlowFile Lineage segment for {}; lineage for its events will be computed from the Event Index", completedEventFile, ioe);
+                }
+            }
+        }
+
+        if (lineageIndex != null) {
+            lineageIndex.startEventFile(nextEventId);
         }
 
         synchronized (minEventIdToPathMap) {
@@ -338,6 +358,10 @@ public class WriteAheadStorePartition implements EventStorePartition {
 
             writer.flush();
 
+            if (lineageIndex != null) {
+                lineageIndex.addEvents(DirectoryUtils.getMinId(writer.getFile()), locationMap);
+            }
+
             // Update max event id to be equal to be the greater of the current value or the
             // max value just written.
             final long maxIdWritten = maxId;
@@ -472,6 +496,20 @@ public class WriteAheadStorePartition implements EventStorePartition {
         return new SelectiveRecordReaderEventIterator(allFiles, recordReaderFactory, eventIds, config.getMaxAttributeChars());
     }
 
+    @Override
+    public Optional<List<Long>> getEventIdsForFlowFiles(final Collection<String> flowFileUuids) {
+        if (lineageIndex == null) {
+            return Optional.empty();
+        }
+
+        final List<Long> firstEventIds;
+        synchronized (minEventIdToPathMap) {
+            firstEventIds = new ArrayList<>(minEventIdToPathMap.keySet());
+        }
+
+        return lineageIndex.getEventIds(flowFileUuids, firstEventIds);
+    }
+
     private Optional<File> getPathForEventId(final long id) {
         File lastFile = null;
 
@@ -568,6 +606,10 @@ public class WriteAheadStorePartition implements EventStorePartition {
                 logger.warn("Failed to remove Provenance Table-of-Contents file {}; this file should be cleaned up manually", tocFile);
             }
 
+            if (lineageIndex != null) {
+                lineageIndex.removeEventFile(firstEventId);
+            }
+
             return true;
         } finally {
             eventFileManager.releaseWriteLock(file);
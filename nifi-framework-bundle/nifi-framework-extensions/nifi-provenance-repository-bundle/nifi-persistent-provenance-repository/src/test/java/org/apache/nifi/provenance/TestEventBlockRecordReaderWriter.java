@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.serialization.RecordReader;
+import org.apache.nifi.provenance.serialization.RecordWriter;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.apache.nifi.provenance.toc.TocWriter;
+import org.apache.nifi.util.file.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEventBlockRecordReaderWriter extends AbstractTestRecordReaderWriter {
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+
+    @BeforeEach
+    public void setup() {
+        idGenerator.set(0L);
+    }
+
+    @Test
+    public void testContentClaimsAndAttributesRecovered() throws IOException {
+        final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testContentClaimsAndAttributesRecovered");
+        final File tocFile = TocUtil.getTocFile(journalFile);
+        final TocWriter tocWriter = new StandardTocWriter(tocFile, false, false);
+        final RecordWriter writer = createWriter(journalFile, tocWriter, false, 8192);
+
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("filename", "1.txt");
+        previousAttributes.put("uuid", UUID.randomUUID().toString());
+        final Map<String, String> updatedAttributes = Collections.singletonMap("mime.type", "text/plain");
+
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(ProvenanceEventType.CONTENT_MODIFIED);
+        builder.fromFlowFile(TestUtil.createFlowFile(3L, 3000L, previousAttributes));
+        builder.setAttributes(previousAttributes, updatedAttributes);
+        builder.setComponentId("1234");
+        builder.setComponentType("dummy processor");
+        builder.setDetails("modified content");
+        builder.setPreviousContentClaim("container-1", "section-1", "identifier-1", 1L, 1L);
+        builder.setCurrentContentClaim("container-2", "section-2", "identifier-2", 2L, 2L);
+        final ProvenanceEventRecord record = builder.build();
+
+        writer.writeHeader(0L);
+        writer.writeRecords(Collections.singletonList(record));
+        writer.close();
+
+        final TocReader tocReader = new StandardTocReader(tocFile);
+
+        try (final FileInputStream fis = new FileInputStream(journalFile);
+             final RecordReader reader = createReader(fis, journalFile.getName(), tocReader, 2048)) {
+            final StandardProvenanceEventRecord recovered = reader.nextRecord();
+            assertNotNull(recovered);
+            assertEquals(record, recovered);
+
+            assertEquals("dummy processor", recovered.getComponentType());
+            assertEquals("modified content", recovered.getDetails());
+            assertEquals(previousAttributes, recovered.getPreviousAttributes());
+            assertEquals("text/plain", recovered.getUpdatedAttributes().get("mime.type"));
+
+            assertEquals("container-1", recovered.getPreviousContentClaimContainer());
+            assertEquals("section-1", recovered.getPreviousContentClaimSection());
+            assertEquals("identifier-1", recovered.getPreviousContentClaimIdentifier());
+            assertEquals(1L, recovered.getPreviousContentClaimOffset().longValue());
+            assertEquals(1L, recovered.getPreviousFileSize().longValue());
+
+            assertEquals("container-2", recovered.getContentClaimContainer());
+            assertEquals("section-2", recovered.getContentClaimSection());
+            assertEquals("identifier-2", recovered.getContentClaimIdentifier());
+            assertEquals(2L, recovered.getContentClaimOffset().longValue());
+            assertEquals(2L, recovered.getFileSize());
+
+            assertNull(reader.nextRecord());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testSkipToEventWithinAndAcrossBlocks() throws IOException {
+        final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testSkipToEventWithinAndAcrossBlocks");
+        final File tocFile = TocUtil.getTocFile(journalFile);
+        final TocWriter tocWriter = new StandardTocWriter(tocFile, false, false);
+        final RecordWriter writer = createWriter(journalFile, tocWriter, false, 4096);
+
+        final int numEvents = EventBlockRecordWriter.MAX_EVENTS_PER_BLOCK * 5 + 7;
+        final List<ProvenanceEventRecord> events = new ArrayList<>();
+        for (int i = 0; i < numEvents; i++) {
+            events.add(createEvent());
+        }
+
+        writer.writeHeader(0L);
+        final Map<ProvenanceEventRecord, StorageSummary> summaries = writer.writeRecords(events);
+        writer.close();
+        assertEquals(numEvents, summaries.size());
+        assertEquals(numEvents, writer.getRecordsWritten());
+
+        final TocReader tocReader = new StandardTocReader(tocFile);
+        assertTrue(tocReader.getBlockIndex(tocReader.getLastBlockOffset()) > 0);
+
+        try (final FileInputStream fis = new FileInputStream(journalFile);
+             final RecordReader reader = createReader(fis, journalFile.getName(), tocReader, 2048)) {
+            for (int i = 0; i < numEvents; i++) {
+                final StandardProvenanceEventRecord recovered = reader.nextRecord();
+                assertNotNull(recovered);
+                assertEquals(i, recovered.getEventId());
+                assertEquals(events.get(i), recovered);
+            }
+
+            assertNull(reader.nextRecord());
+        }
+
+        for (final long eventId : new long[] {3L, 4L, 200L, 201L, 500L, numEvents - 1}) {
+            try (final FileInputStream fis = new FileInputStream(journalFile);
+                 final RecordReader reader = createReader(fis, journalFile.getName(), tocReader, 2048)) {
+                final Optional<ProvenanceEventRecord> eventOption = reader.skipToEvent(eventId);
+                assertTrue(eventOption.isPresent());
+                assertEquals(eventId, eventOption.get().getEventId());
+                assertEquals(events.get((int) eventId), eventOption.get());
+                assertEquals(eventOption.get(), reader.nextRecord());
+            }
+        }
+
+        try (final FileInputStream fis = new FileInputStream(journalFile);
+             final RecordReader reader = createReader(fis, journalFile.getName(), tocReader, 2048)) {
+            assertEquals(numEvents - 1, reader.getMaxEventId());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testSingleEventWrittenAsBlock() throws IOException {
+        final File journalFile = new File("target/storage/" + UUID.randomUUID() + "/testSingleEventWrittenAsBlock");
+        final TocWriter tocWriter = new StandardTocWriter(TocUtil.getTocFile(journalFile), false, false);
+        final EventBlockRecordWriter writer = (EventBlockRecordWriter) createWriter(journalFile, tocWriter, false, 8192);
+        final ProvenanceEventRecord event = createEvent();
+        writer.writeHeader(42L);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writer.writeRecord(event, 42L, new DataOutputStream(baos));
+        writer.close();
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(1, in.readInt());
+        assertEquals(42L, in.readLong());
+        assertEquals(42L, in.readLong());
+        final byte encoding = in.readByte();
+        final int uncompressedLength = in.readInt();
+        final byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+
+        final byte[] encoded;
+        if (encoding == EventBlockRecordWriter.ENCODING_DEFLATE) {
+            encoded = new byte[uncompressedLength];
+            final Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(payload);
+                assertEquals(uncompressedLength, inflater.inflate(encoded));
+            } catch (final DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+        } else {
+            encoded = payload;
+        }
+
+        final List<StandardProvenanceEventRecord> decoded = EventBlockCodec.decode(encoded, 1, 42L, journalFile.getName(), 0L, 2048);
+        assertEquals(1, decoded.size());
+        assertEquals(42L, decoded.getFirst().getEventId());
+        assertEquals(event.getComponentId(), decoded.getFirst().getComponentId());
+        assertEquals(event.getFlowFileUuid(), decoded.getFirst().getFlowFileUuid());
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Override
+    protected RecordWriter createWriter(final File file, final TocWriter tocWriter, final boolean compressed, final int uncompressedBlockSize) throws IOException {
+        return new EventBlockRecordWriter(file, idGenerator, tocWriter, compressed, uncompressedBlockSize);
+    }
+
+    @Override
+    protected RecordReader createReader(final InputStream in, final String journalFilename, final TocReader tocReader, final int maxAttributeSize) throws IOException {
+        return new EventBlockRecordReader(in, journalFilename, tocReader, maxAttributeSize);
+    }
+}
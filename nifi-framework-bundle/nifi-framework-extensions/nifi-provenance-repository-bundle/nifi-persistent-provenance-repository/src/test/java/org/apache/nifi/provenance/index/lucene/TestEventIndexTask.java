@@ -33,12 +33,14 @@ import org.mockito.Mockito;
 import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestEventIndexTask {
 
@@ -138,4 +140,56 @@ public class TestEventIndexTask {
         Thread.sleep(100L);
         assertEquals(1, commitCount.get());
     }
+
+    @Test
+    public void testForceCommitCommitsEveryBatchAndRecordsStatistics() {
+        assertTimeout(Duration.ofSeconds(15), this::runForceCommitCommitsEveryBatch);
+    }
+
+    private void runForceCommitCommitsEveryBatch() throws InterruptedException, IOException {
+        final BlockingQueue<StoredDocument> docQueue = new ArrayBlockingQueue<>(10);
+        final RepositoryConfiguration repoConfig = new RepositoryConfiguration();
+        final File storageDir = new File("target/storage/TestEventIndexTask/2");
+        repoConfig.addStorageDirectory("1", storageDir);
+
+        final AtomicInteger commitCount = new AtomicInteger(0);
+        final IndexWriter indexWriter = Mockito.mock(IndexWriter.class);
+        final EventIndexWriter eventIndexWriter = new LuceneEventIndexWriter(indexWriter, storageDir);
+
+        final IndexManager indexManager = Mockito.mock(IndexManager.class);
+        Mockito.when(indexManager.borrowIndexWriter(Mockito.any(File.class))).thenReturn(eventIndexWriter);
+
+        final IndexDirectoryManager directoryManager = new IndexDirectoryManager(repoConfig);
+        final IndexingStatistics statistics = new IndexingStatistics();
+
+        final EventIndexTask task = new EventIndexTask(docQueue, indexManager, directoryManager, 1_000_000, CommitPreference.FORCE_COMMIT, statistics, EventReporter.NO_OP) {
+            @Override
+            protected void commit(EventIndexWriter indexWriter) {
+                commitCount.incrementAndGet();
+            }
+        };
+
+        final Thread t = new Thread(task);
+        t.setDaemon(true);
+        t.start();
+
+        for (int i = 0; i < 3; i++) {
+            final Document document = new Document();
+            document.add(new LongPoint(SearchableFields.EventTime.getSearchableFieldName(), System.currentTimeMillis()));
+
+            final StorageSummary location = new StorageSummary(1L, "0.0.prov", "1", 0, 1000L, 1000L);
+            docQueue.put(new StoredDocument(document, location));
+
+            // Wait for each document to be indexed on its own so that each one forms a batch of its own
+            while (statistics.getTotalDocumentsIndexed() < i + 1) {
+                Thread.sleep(10L);
+            }
+        }
+
+        assertEquals(3, commitCount.get());
+        assertEquals(3, eventIndexWriter.getEventsIndexed());
+        assertTrue(statistics.getDocumentsIndexedPerSecond() > 0D);
+
+        task.shutdown();
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestIndexDirectorySummary {
+    private File indexDirectory;
+
+    @BeforeEach
+    public void setup() {
+        indexDirectory = new File("target/" + getClass().getSimpleName() + "/" + UUID.randomUUID());
+        assertTrue(indexDirectory.mkdirs());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        final File[] files = indexDirectory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        indexDirectory.delete();
+    }
+
+    @Test
+    public void testEmptySummaryMatchesNothing() {
+        final IndexDirectorySummary summary = new IndexDirectorySummary(indexDirectory);
+        assertFalse(summary.isPossibleMatch(new Query(UUID.randomUUID().toString())));
+    }
+
+    @Test
+    public void testTimeRange() {
+        final IndexDirectorySummary summary = new IndexDirectorySummary(indexDirectory);
+        summary.record(Arrays.asList(createDocument(1000L, "component-1", ProvenanceEventType.CREATE), createDocument(2000L, "component-1", ProvenanceEventType.DROP)));
+
+        assertTrue(summary.isPossibleMatch(createQuery(500L, 1000L)));
+        assertTrue(summary.isPossibleMatch(createQuery(1500L, 1600L)));
+        assertTrue(summary.isPossibleMatch(createQuery(2000L, null)));
+        assertFalse(summary.isPossibleMatch(createQuery(0L, 999L)));
+        assertFalse(summary.isPossibleMatch(createQuery(2001L, null)));
+    }
+
+    @Test
+    public void testComponentIdAndEventType() {
+        final IndexDirectorySummary summary = new IndexDirectorySummary(indexDirectory);
+        summary.record(Arrays.asList(createDocument(1000L, "Component-1", ProvenanceEventType.CREATE), createDocument(2000L, "component-2", ProvenanceEventType.DROP)));
+
+        assertTrue(summary.isPossibleMatch(createQuery(SearchableFields.ComponentID, "component-1", false)));
+        assertTrue(summary.isPossibleMatch(createQuery(SearchableFields.ComponentID, "COMPONENT-2", false)));
+        assertFalse(summary.isPossibleMatch(createQuery(SearchableFields.ComponentID, "component-3", false)));
+
+        assertTrue(summary.isPossibleMatch(createQuery(SearchableFields.EventType, "DROP", false)));
+        assertFalse(summary.isPossibleMatch(createQuery(SearchableFields.EventType, "FORK", false)));
+
+        // Wildcards and inverted terms cannot be answered by the summary
+        assertTrue(summary.isPossibleMatch(createQuery(SearchableFields.ComponentID, "component-3*", false)));
+        assertTrue(summary.isPossibleMatch(createQuery(SearchableFields.ComponentID, "component-1", true)));
+        assertTrue(summary.isPossibleMatch(createQuery(SearchableFields.FlowFileUUID, UUID.randomUUID().toString(), false)));
+    }
+
+    @Test
+    public void testPersistAndRead() throws IOException {
+        final IndexDirectorySummary summary = new IndexDirectorySummary(indexDirectory);
+        summary.record(Arrays.asList(createDocument(1000L, "component-1", ProvenanceEventType.CREATE)));
+
+        assertFalse(IndexDirectorySummary.read(indexDirectory).isPresent());
+        summary.persist();
+
+        final Optional<IndexDirectorySummary> restored = IndexDirectorySummary.read(indexDirectory);
+        assertTrue(restored.isPresent());
+        assertTrue(restored.get().isPossibleMatch(createQuery(SearchableFields.ComponentID, "component-1", false)));
+        assertFalse(restored.get().isPossibleMatch(createQuery(SearchableFields.ComponentID, "component-2", false)));
+        assertFalse(restored.get().isPossibleMatch(createQuery(2000L, null)));
+
+        // Recording further documents removes the persisted summary, since it no longer describes the whole index
+        restored.get().record(Arrays.asList(createDocument(3000L, "component-2", ProvenanceEventType.DROP)));
+        assertFalse(new File(indexDirectory, IndexDirectorySummary.SUMMARY_FILENAME).exists());
+        assertTrue(restored.get().isPossibleMatch(createQuery(2000L, null)));
+        assertTrue(restored.get().isPossibleMatch(createQuery(SearchableFields.ComponentID, "component-2", false)));
+    }
+
+    private Document createDocument(final long eventTime, final String componentId, final ProvenanceEventType eventType) {
+        final Document document = new Document();
+        document.add(new StringField(SearchableFields.ComponentID.getSearchableFieldName(), componentId.toLowerCase(), Store.NO));
+        document.add(new StringField(SearchableFields.EventType.getSearchableFieldName(), eventType.name().toLowerCase(), Store.NO));
+        document.add(new LongPoint(SearchableFields.EventTime.getSearchableFieldName(), eventTime));
+        return document;
+    }
+
+    private Query createQuery(final Long startTime, final Long endTime) {
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.setStartDate(startTime == null ? null : new Date(startTime));
+        query.setEndDate(endTime == null ? null : new Date(endTime));
+        return query;
+    }
+
+    private Query createQuery(final SearchableField field, final String value, final boolean inverted) {
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(field, value, inverted));
+        return query;
+    }
+}
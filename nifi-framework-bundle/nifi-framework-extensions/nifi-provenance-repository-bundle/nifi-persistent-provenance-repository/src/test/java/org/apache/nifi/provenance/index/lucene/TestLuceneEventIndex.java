@@ -49,15 +49,20 @@ import org.mockito.stubbing.Answer;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -274,6 +279,133 @@ public class TestLuceneEventIndex {
         assertEquals(2, events.size());
     }
 
+    @Test
+    public void testLineageFromEventStoreMatchesLuceneIndex() throws InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final LineageIndexedEventStore eventStore = new LineageIndexedEventStore();
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 3, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        final long timestamp = System.currentTimeMillis();
+        index.addEvents(eventStore.addEvent(createEvent(timestamp, "4444")).getStorageLocations());
+        index.addEvents(eventStore.addEvent(createEvent(timestamp, "5555")).getStorageLocations());
+        final ProvenanceEventRecord join = createJoinEvent(timestamp + 1000L, timestamp, "1234", "4444", "5555");
+        index.addEvents(eventStore.addEvent(join).getStorageLocations());
+        index.addEvents(eventStore.addEvent(createEvent(timestamp + 2000L, "6666")).getStorageLocations());
+        for (int i = 0; i < 3; i++) {
+            final ProvenanceEventRecord childEvent = createEvent(timestamp + 3000L + i, "1234");
+            final ProvenanceEventRecord event = new StandardProvenanceEventRecord.Builder()
+                    .fromEvent(childEvent)
+                    .setEventId(childEvent.getEventId())
+                    .setLineageStartDate(timestamp)
+                    .build();
+            index.addEvents(eventStore.addEvent(event).getStorageLocations());
+        }
+
+        final NiFiUser user = createUser();
+
+        eventStore.setLineageIndexAvailable(true);
+        final Set<Long> lineageFromStore = getLineageEventIds(() -> index.submitLineageComputation(join.getEventId(), user, EventAuthorizer.GRANT_ALL), 0);
+        final Set<Long> parentsFromStore = getLineageEventIds(() -> index.submitExpandParents(join.getEventId(), user, EventAuthorizer.GRANT_ALL), 0);
+        assertEquals(Set.of(2L, 4L, 5L, 6L), lineageFromStore);
+        assertEquals(Set.of(0L, 1L, 2L), parentsFromStore);
+
+        eventStore.setLineageIndexAvailable(false);
+        assertEquals(lineageFromStore, getLineageEventIds(() -> index.submitLineageComputation(join.getEventId(), user, EventAuthorizer.GRANT_ALL), lineageFromStore.size()));
+        assertEquals(parentsFromStore, getLineageEventIds(() -> index.submitExpandParents(join.getEventId(), user, EventAuthorizer.GRANT_ALL), parentsFromStore.size()));
+    }
+
+    @Test
+    public void testLineageFromEventStoreExcludesEventsOutsideTimeRange() throws InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final LineageIndexedEventStore eventStore = new LineageIndexedEventStore();
+        eventStore.setLineageIndexAvailable(true);
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 3, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        // The parent FlowFile has an event after the JOIN, which is outside of the time range used to expand the JOIN's parents
+        final long timestamp = System.currentTimeMillis();
+        eventStore.addEvent(createEvent(timestamp, "4444"));
+        final ProvenanceEventRecord join = createJoinEvent(timestamp + 1000L, timestamp, "1234", "4444");
+        eventStore.addEvent(join);
+        eventStore.addEvent(createEvent(timestamp + 2000L, "4444"));
+
+        final Set<Long> parents = getLineageEventIds(() -> index.submitExpandParents(join.getEventId(), createUser(), EventAuthorizer.GRANT_ALL), 0);
+        assertEquals(Set.of(0L, 1L), parents);
+    }
+
+    private Set<Long> getLineageEventIds(final Supplier<ComputeLineageSubmission> submissionSupplier, final int minimumEventCount) throws InterruptedException {
+        // Events are indexed asynchronously, so the Lucene indices may need to be queried more than once before they contain every event
+        while (true) {
+            final ComputeLineageSubmission submission = submissionSupplier.get();
+            assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+            assertNull(submission.getResult().getError());
+
+            final Set<Long> eventIds = submission.getResult().getNodes().stream()
+                    .filter(node -> node.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE)
+                    .map(node -> ((ProvenanceEventLineageNode) node).getEventIdentifier())
+                    .collect(Collectors.toSet());
+
+            if (eventIds.size() >= minimumEventCount) {
+                return eventIds;
+            }
+
+            Thread.sleep(25L);
+        }
+    }
+
+    private ProvenanceEventRecord createJoinEvent(final long timestamp, final long lineageStartDate, final String childUuid, final String... parentUuids) {
+        final ProvenanceEventRecord childEvent = createEvent(timestamp, childUuid);
+        return new StandardProvenanceEventRecord.Builder()
+                .fromEvent(childEvent)
+                .setEventId(childEvent.getEventId())
+                .setEventType(ProvenanceEventType.JOIN)
+                .setLineageStartDate(lineageStartDate)
+                .setParentUuids(Arrays.asList(parentUuids))
+                .setChildUuids(Collections.singletonList(childUuid))
+                .build();
+    }
+
+    /**
+     * An Event Store that is able to determine which events reference a FlowFile only when told that it has a lineage index,
+     * so that lineage can be computed both from the store and from the Lucene indices over the same events
+     */
+    private static class LineageIndexedEventStore extends ArrayListEventStore {
+        private volatile boolean lineageIndexAvailable = false;
+
+        public void setLineageIndexAvailable(final boolean lineageIndexAvailable) {
+            this.lineageIndexAvailable = lineageIndexAvailable;
+        }
+
+        @Override
+        public Optional<List<Long>> getEventIdsForFlowFiles(final Collection<String> flowFileUuids) {
+            if (!lineageIndexAvailable) {
+                return Optional.empty();
+            }
+
+            final List<ProvenanceEventRecord> events;
+            try {
+                events = getEvents(0L, Integer.MAX_VALUE);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            final List<Long> eventIds = new ArrayList<>();
+            for (final ProvenanceEventRecord event : events) {
+                if (flowFileUuids.contains(event.getFlowFileUuid()) || event.getChildUuids().stream().anyMatch(flowFileUuids::contains)
+                        || event.getParentUuids().stream().anyMatch(flowFileUuids::contains)) {
+                    eventIds.add(event.getEventId());
+                }
+            }
+
+            return Optional.of(eventIds);
+        }
+    }
+
     private NiFiUser createUser() {
         return new NiFiUser() {
             @Override
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.policy;
+
+import org.apache.nifi.provenance.ProvenanceEventPolicyStatus;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEventPolicyFilter {
+    private static final long BUCKET_MILLIS = 60_000L;
+
+    @Test
+    public void testParse() {
+        assertSame(EventPolicy.KEEP, EventPolicy.parse(" Keep "));
+        assertSame(EventPolicy.AGGREGATE, EventPolicy.parse("aggregate"));
+        assertSame(EventPolicy.KEEP, EventPolicy.parse("sample:1"));
+
+        final EventPolicy sample = EventPolicy.parse("sample: 10");
+        assertEquals(EventPolicy.Mode.SAMPLE, sample.getMode());
+        assertEquals(10, sample.getSampleInterval());
+
+        assertThrows(IllegalArgumentException.class, () -> EventPolicy.parse("sample:0"));
+        assertThrows(IllegalArgumentException.class, () -> EventPolicy.parse("sample:many"));
+        assertThrows(IllegalArgumentException.class, () -> EventPolicy.parse("drop"));
+    }
+
+    @Test
+    public void testSampleKeepsOneOfEveryN() {
+        final EventPolicyFilter filter = new EventPolicyFilter(Collections.emptySet(), Collections.emptyMap(),
+            Map.of(ProvenanceEventType.ATTRIBUTES_MODIFIED, EventPolicy.sample(4)), BUCKET_MILLIS);
+
+        final List<ProvenanceEventRecord> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(createEvent("proc-1", ProvenanceEventType.ATTRIBUTES_MODIFIED, 1000L, 10L));
+        }
+        events.add(createEvent("proc-1", ProvenanceEventType.DROP, 1000L, 10L));
+
+        final List<ProvenanceEventRecord> kept = filter.filter(events);
+        assertEquals(List.of(events.get(0), events.get(4), events.get(8), events.get(10)), kept);
+
+        final ProvenanceEventPolicyStatus status = filter.getStatus();
+        assertEquals(4, status.getKeptEventCount());
+        assertEquals(7, status.getDroppedEventCount());
+        assertEquals(0, status.getAggregatedEventCount());
+    }
+
+    @Test
+    public void testComponentPolicyOverridesEventTypePolicyAndCriticalComponentsAreKept() {
+        final EventPolicyFilter filter = new EventPolicyFilter(Set.of("critical"), Map.of("proc-1", EventPolicy.KEEP, "critical", EventPolicy.AGGREGATE),
+            Map.of(ProvenanceEventType.ROUTE, EventPolicy.AGGREGATE), BUCKET_MILLIS);
+
+        final ProvenanceEventRecord overridden = createEvent("proc-1", ProvenanceEventType.ROUTE, 1000L, 10L);
+        final ProvenanceEventRecord critical = createEvent("critical", ProvenanceEventType.ROUTE, 1000L, 10L);
+        final ProvenanceEventRecord aggregated = createEvent("proc-2", ProvenanceEventType.ROUTE, 1000L, 10L);
+
+        assertEquals(List.of(overridden, critical), filter.filter(List.of(overridden, critical, aggregated)));
+        assertEquals(1, filter.getStatus().getAggregatedEventCount());
+    }
+
+    @Test
+    public void testAggregateRollsUpEachBucket() {
+        final EventPolicyFilter filter = new EventPolicyFilter(Collections.emptySet(), Map.of("proc-1", EventPolicy.AGGREGATE), Collections.emptyMap(), BUCKET_MILLIS);
+        assertTrue(filter.isAggregating());
+
+        final List<ProvenanceEventRecord> events = List.of(
+            createEvent("proc-1", ProvenanceEventType.ROUTE, 1_000L, 100L),
+            createEvent("proc-1", ProvenanceEventType.ROUTE, 30_000L, 200L),
+            createEvent("proc-1", ProvenanceEventType.DROP, 40_000L, 50L),
+            createEvent("proc-1", ProvenanceEventType.ROUTE, 70_000L, 400L));
+
+        assertTrue(filter.filter(events).isEmpty());
+
+        // Only the buckets that have ended are removed
+        assertTrue(filter.removeCompletedSummaries(59_999L).isEmpty());
+        final List<ProvenanceEventRecord> firstBucket = filter.removeCompletedSummaries(60_000L);
+        assertEquals(2, firstBucket.size());
+
+        final ProvenanceEventRecord routeSummary = firstBucket.stream().filter(event -> event.getEventType() == ProvenanceEventType.ROUTE).findFirst().orElseThrow();
+        assertEquals(events.get(0).getFlowFileUuid(), routeSummary.getFlowFileUuid());
+        assertEquals("2", routeSummary.getUpdatedAttributes().get(EventPolicyFilter.SUMMARY_EVENT_COUNT_ATTRIBUTE));
+        assertEquals("300", routeSummary.getUpdatedAttributes().get(EventPolicyFilter.SUMMARY_BYTE_COUNT_ATTRIBUTE));
+        assertEquals("1000", routeSummary.getUpdatedAttributes().get(EventPolicyFilter.SUMMARY_START_TIME_ATTRIBUTE));
+        assertEquals("30000", routeSummary.getUpdatedAttributes().get(EventPolicyFilter.SUMMARY_END_TIME_ATTRIBUTE));
+        assertEquals("success", routeSummary.getRelationship());
+
+        final List<ProvenanceEventRecord> remaining = filter.removeAllSummaries();
+        assertEquals(1, remaining.size());
+        assertEquals("1", remaining.get(0).getUpdatedAttributes().get(EventPolicyFilter.SUMMARY_EVENT_COUNT_ATTRIBUTE));
+
+        final ProvenanceEventPolicyStatus status = filter.getStatus();
+        assertEquals(0, status.getKeptEventCount());
+        assertEquals(4, status.getAggregatedEventCount());
+        assertEquals(3, status.getSummaryEventCount());
+    }
+
+    private ProvenanceEventRecord createEvent(final String componentId, final ProvenanceEventType eventType, final long eventTime, final long fileSize) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setEventTime(eventTime)
+            .setComponentId(componentId)
+            .setComponentType("Unit Test")
+            .setFlowFileUUID(UUID.randomUUID().toString())
+            .setRelationship("success")
+            .setCurrentContentClaim(null, null, null, null, fileSize)
+            .build();
+    }
+}
@@ -422,6 +422,73 @@ public class TestPartitionedWriteAheadEventStore {
         }
     }
 
+    @Test
+    public void testGetEventIdsForFlowFiles() throws IOException {
+        final RepositoryConfiguration config = createConfig(1);
+        config.setMaxEventFileCount(2);
+        config.setLineageIndexEnabled(true);
+
+        final String parentUuid = UUID.randomUUID().toString();
+        final String firstChildUuid = UUID.randomUUID().toString();
+        final String secondChildUuid = UUID.randomUUID().toString();
+
+        final ProvenanceEventRecord fork = new StandardProvenanceEventRecord.Builder()
+            .fromEvent(createEvent(parentUuid))
+            .setEventType(ProvenanceEventType.FORK)
+            .setChildUuids(Arrays.asList(firstChildUuid, secondChildUuid))
+            .build();
+
+        final PartitionedWriteAheadEventStore store = new PartitionedWriteAheadEventStore(config, writerFactory, readerFactory, EventReporter.NO_OP, new EventFileManager());
+        store.initialize();
+
+        store.addEvents(Collections.singleton(createEvent(parentUuid)));
+        store.addEvents(Collections.singleton(fork));
+        store.addEvents(Collections.singleton(createEvent(firstChildUuid)));
+        store.addEvents(Collections.singleton(createEvent()));
+        store.addEvents(Collections.singleton(createEvent(secondChildUuid)));
+
+        assertEquals(Arrays.asList(0L, 1L), sorted(store.getEventIdsForFlowFiles(Collections.singleton(parentUuid)).get()));
+        assertEquals(Arrays.asList(1L, 2L), sorted(store.getEventIdsForFlowFiles(Collections.singleton(firstChildUuid)).get()));
+        assertEquals(Arrays.asList(1L, 2L, 4L), sorted(store.getEventIdsForFlowFiles(Arrays.asList(firstChildUuid, secondChildUuid)).get()));
+        assertTrue(store.getEventIdsForFlowFiles(Collections.singleton(UUID.randomUUID().toString())).get().isEmpty());
+
+        store.close();
+
+        // The active event file was never rolled over, so its entries must be rebuilt when the store is recovered.
+        final PartitionedWriteAheadEventStore recoveredStore = new PartitionedWriteAheadEventStore(config, writerFactory, readerFactory, EventReporter.NO_OP, new EventFileManager());
+        recoveredStore.initialize();
+
+        assertEquals(Arrays.asList(0L, 1L), sorted(recoveredStore.getEventIdsForFlowFiles(Collections.singleton(parentUuid)).get()));
+        assertEquals(Arrays.asList(1L, 4L), sorted(recoveredStore.getEventIdsForFlowFiles(Collections.singleton(secondChildUuid)).get()));
+    }
+
+    @Test
+    public void testGetEventIdsForFlowFilesWithEventsWrittenBeforeLineageIndex() throws IOException {
+        final RepositoryConfiguration config = createConfig(1);
+        config.setLineageIndexEnabled(false);
+
+        final PartitionedWriteAheadEventStore store = new PartitionedWriteAheadEventStore(config, writerFactory, readerFactory, EventReporter.NO_OP, new EventFileManager());
+        store.initialize();
+        final ProvenanceEventRecord event = createEvent();
+        store.addEvents(Collections.singleton(event));
+        assertFalse(store.getEventIdsForFlowFiles(Collections.singleton(event.getFlowFileUuid())).isPresent());
+        store.close();
+
+        config.setLineageIndexEnabled(true);
+        final PartitionedWriteAheadEventStore indexedStore = new PartitionedWriteAheadEventStore(config, writerFactory, readerFactory, EventReporter.NO_OP, new EventFileManager());
+        indexedStore.initialize();
+        indexedStore.addEvents(Collections.singleton(createEvent()));
+
+        // The event file that was written without the index cannot be searched, so lineage must be computed from the Event Index.
+        assertFalse(indexedStore.getEventIdsForFlowFiles(Collections.singleton(event.getFlowFileUuid())).isPresent());
+    }
+
+    private List<Long> sorted(final List<Long> eventIds) {
+        final List<Long> sorted = new ArrayList<>(eventIds);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
     @Test
     public void testCloseIterators() throws IOException {
         final RepositoryConfiguration config = createConfig();
@@ -512,7 +579,10 @@ public class TestPartitionedWriteAheadEventStore {
     }
 
     private ProvenanceEventRecord createEvent() {
-        final String uuid = UUID.randomUUID().toString();
+        return createEvent(UUID.randomUUID().toString());
+    }
+
+    private ProvenanceEventRecord createEvent(final String uuid) {
         final Map<String, String> previousAttributes = new HashMap<>();
         previousAttributes.put("uuid", uuid);
         final Map<String, String> updatedAttributes = new HashMap<>();
@@ -33,6 +33,8 @@ public class LocalQueuePartitionDTO {
     private long inFlightByteCount;
     private Boolean allActiveQueueFlowFilesPenalized;
     private Boolean anyActiveQueueFlowFilesPenalized;
+    private long swapPrefetchHitCount;
+    private long swapPrefetchMissCount;
 
     @Schema(description = "Total number of FlowFiles owned by the Connection")
     public int getTotalFlowFileCount() {
@@ -132,4 +134,22 @@ public class LocalQueuePartitionDTO {
     public void setAnyActiveQueueFlowFilesPenalized(Boolean anyFlowFilesPenalized) {
         this.anyActiveQueueFlowFilesPenalized = anyFlowFilesPenalized;
     }
+
+    @Schema(description = "The number of times that a Swap File was swapped in for this Connection using FlowFiles that had already been read in the background")
+    public long getSwapPrefetchHitCount() {
+        return swapPrefetchHitCount;
+    }
+
+    public void setSwapPrefetchHitCount(long swapPrefetchHitCount) {
+        this.swapPrefetchHitCount = swapPrefetchHitCount;
+    }
+
+    @Schema(description = "The number of times that a Swap File had to be read while swapping it in for this Connection because it had not yet been read in the background")
+    public long getSwapPrefetchMissCount() {
+        return swapPrefetchMissCount;
+    }
+
+    public void setSwapPrefetchMissCount(long swapPrefetchMissCount) {
+        this.swapPrefetchMissCount = swapPrefetchMissCount;
+    }
 }
@@ -69,6 +69,11 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
         serializeRecord(newRecordState, out);
     }
 
+    @Override
+    public boolean isPreviousRecordStateRequired() {
+        return false;
+    }
+
     @Override
     public void serializeRecord(final SerializedRepositoryRecord record, final DataOutputStream out) throws IOException {
         final RecordSchema schema = switch (record.getType()) {
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language;
+
+import org.apache.nifi.attribute.expression.language.compile.ExpressionCompiler;
+import org.apache.nifi.benchmark.BenchmarkFlowFiles;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.parameter.ParameterLookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the interpreted Expression Language backend with the backend that compiles each expression into a method handle.
+ * Each operation evaluates the expressions of one component against the attributes of one FlowFile, as UpdateAttribute and
+ * RouteOnAttribute do for every FlowFile. The {@code routing} expressions are boolean conditions; the {@code attributes}
+ * expressions produce new attribute values; {@code fallback} mixes in functions that are not compiled, which are evaluated by
+ * their interpreted Evaluators from within the compiled expression. The {@code shared} expressions repeat subexpressions across
+ * properties, whose values are evaluated once for each FlowFile when {@code sharing} is enabled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionLanguageBenchmark {
+
+    private static final Map<String, List<String>> EXPRESSION_SETS = Map.of(
+            "routing", List.of(
+                    "${filename:endsWith('.csv')}",
+                    "${filename:startsWith('sensor'):and(${mime.type:equals('text/csv')})}",
+                    "${region:equalsIgnoreCase('us-east'):or(${region:equalsIgnoreCase('us-west')})}",
+                    "${priority:isEmpty():not()}",
+                    "${source:contains('gateway')}",
+                    "${customer.id:notNull():and(${customer.tier:equals('gold')})}",
+                    "${path:startsWith('/data/incoming')}",
+                    "${error.message:isNull()}"),
+            "attributes", List.of(
+                    "${filename:substringBefore('.')}",
+                    "${filename:substringAfterLast('.'):toLower()}",
+                    "${region:toUpper():append('-'):append(${customer.tier})}",
+                    "${customer.id:trim():prepend('customer-')}",
+                    "${path:substringAfter('/data/'):substringBefore('/')}",
+                    "${priority:replaceEmpty('normal')}",
+                    "${error.message:replaceNull('none')}",
+                    "${source:substringBeforeLast('-')}"),
+            "fallback", List.of(
+                    "${filename:substringBefore('.'):replace('-', '_')}",
+                    "${filename:length():gt(10)}",
+                    "${region:toUpper():padLeft(10, '_')}",
+                    "${customer.id:matches('[0-9]+'):and(${customer.tier:equals('gold')})}"),
+            "shared", List.of(
+                    "${filename:substringBefore('.'):toUpper()}",
+                    "${filename:substringBefore('.'):append('.bak')}",
+                    "${filename:substringBefore('.'):replace('-', '_')}",
+                    "${path:substringAfter('/data/'):substringBefore('/')}",
+                    "${path:substringAfter('/data/'):substringBefore('/'):equals('incoming')}",
+                    "${region:toUpper():append('-'):append(${customer.tier})}",
+                    "${region:toUpper():equals('US-EAST')}",
+                    "${literal('archive'):toUpper():append('/'):append(${filename:substringBefore('.')})}")
+    );
+
+    @Param({"interpreted", "compiled"})
+    private String backend;
+
+    @Param({"routing", "attributes", "fallback", "shared"})
+    private String expressionSet;
+
+    @Param({"false", "true"})
+    private boolean sharing;
+
+    private List<CompiledExpression> expressions;
+    private Map<String, String> attributes;
+    private FlowFile[] flowFiles;
+    private int flowFileIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final ExpressionCompiler compiler = new ExpressionCompiler("compiled".equals(backend), sharing);
+
+        expressions = new ArrayList<>();
+        for (final String expression : EXPRESSION_SETS.get(expressionSet)) {
+            expressions.add(compiler.compile(expression));
+        }
+
+        attributes = new HashMap<>();
+        attributes.put("filename", "sensor-readings-2024.csv");
+        attributes.put("mime.type", "text/csv");
+        attributes.put("region", "us-east");
+        attributes.put("priority", "");
+        attributes.put("source", "edge-gateway-17");
+        attributes.put("customer.id", " 48213 ");
+        attributes.put("customer.tier", "gold");
+        attributes.put("path", "/data/incoming/sensors/2024");
+
+        // Each operation evaluates against a different FlowFile than the one before, so that shared values are never reused across operations
+        flowFiles = new FlowFile[] {BenchmarkFlowFiles.createFlowFile(1L, 1), BenchmarkFlowFiles.createFlowFile(2L, 1)};
+    }
+
+    @Benchmark
+    public void evaluate(final Blackhole blackhole) {
+        final FlowFile flowFile = flowFiles[flowFileIndex++ & 1];
+        final EvaluationScope evaluationScope = sharing ? EvaluationScope.forFlowFile(flowFile, null, ParameterLookup.EMPTY) : null;
+        final EvaluationContext evaluationContext = new StandardEvaluationContext(new ValueLookup(null, attributes), null, ParameterLookup.EMPTY, evaluationScope);
+        for (final CompiledExpression expression : expressions) {
+            blackhole.consume(expression.evaluate(evaluationContext, null));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Utility methods for building the FlowFile shapes that the benchmarks operate on.
+ */
+public final class BenchmarkFlowFiles {
+
+    private BenchmarkFlowFiles() {
+    }
+
+    /**
+     * Creates an attribute map containing exactly {@code attributeCount} entries. The first entry is always the
+     * {@code uuid} attribute; the remaining entries use keys and values that resemble typical processor output.
+     *
+     * @param attributeCount the total number of attributes, including the UUID
+     * @return the attribute map
+     */
+    public static Map<String, String> createAttributes(final int attributeCount) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put(CoreAttributes.UUID.key(), UUID.randomUUID().toString());
+
+        for (int i = 1; i < attributeCount; i++) {
+            attributes.put("benchmark.attribute." + i, "value-" + i);
+        }
+
+        return attributes;
+    }
+
+    public static FlowFileRecord createFlowFile(final long id, final int attributeCount) {
+        final long now = System.currentTimeMillis();
+        return new StandardFlowFileRecord.Builder()
+                .id(id)
+                .entryDate(now)
+                .lineageStart(now, 0L)
+                .size(0L)
+                .addAttributes(createAttributes(attributeCount))
+                .build();
+    }
+
+    public static List<FlowFileRecord> createFlowFiles(final long firstId, final int flowFileCount, final int attributeCount) {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            flowFiles.add(createFlowFile(firstId + i, attributeCount));
+        }
+
+        return flowFiles;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.benchmark.BenchmarkFlowFiles;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures put/poll/acknowledge round trips through {@link StandardFlowFileQueue} and the {@link SwappablePriorityQueue}
+ * that backs it. The queue is drained by every operation, so it never reaches the swap threshold.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class FlowFileQueueBenchmark {
+
+    @Param({"1", "50"})
+    private int attributeCount;
+
+    @Param({"1", "10000"})
+    private int flowFileCount;
+
+    private FlowFileQueue queue;
+    private List<FlowFileRecord> flowFiles;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        queue = createQueue(Math.max(20_000, flowFileCount * 2));
+        flowFiles = BenchmarkFlowFiles.createFlowFiles(1L, flowFileCount, attributeCount);
+    }
+
+    /**
+     * Enqueues FlowFiles one at a time, as a session commit to many connections does, and then drains them in a single poll.
+     */
+    @Benchmark
+    public List<FlowFileRecord> putThenPollBatch() {
+        for (final FlowFileRecord flowFile : flowFiles) {
+            queue.put(flowFile);
+        }
+
+        return pollAndAcknowledge();
+    }
+
+    /**
+     * Enqueues all FlowFiles at once, as a session commit to a single connection does, and then drains them in a single poll.
+     */
+    @Benchmark
+    public List<FlowFileRecord> putAllThenPollBatch() {
+        queue.putAll(flowFiles);
+        return pollAndAcknowledge();
+    }
+
+    private List<FlowFileRecord> pollAndAcknowledge() {
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        final List<FlowFileRecord> polled = queue.poll(flowFileCount, expired, PollStrategy.UNPENALIZED_FLOWFILES);
+        queue.acknowledge(polled);
+        return polled;
+    }
+
+    static FlowFileQueue createQueue(final int swapThreshold) {
+        return createQueue(swapThreshold, 1);
+    }
+
+    /**
+     * Creates a {@link StandardFlowFileQueue} if the stripe count is 1, or a {@link StripedFlowFileQueue} otherwise
+     */
+    static FlowFileQueue createQueue(final int swapThreshold, final int stripeCount) {
+        final FlowFileRepository flowFileRepository = mock(FlowFileRepository.class);
+        final ProvenanceEventRepository provenanceRepository = mock(ProvenanceEventRepository.class);
+        final ProcessScheduler processScheduler = mock(ProcessScheduler.class);
+        final FlowFileSwapManager swapManager = mock(FlowFileSwapManager.class);
+
+        if (stripeCount > 1) {
+            return new StripedFlowFileQueue("benchmark-queue", flowFileRepository, provenanceRepository, processScheduler, swapManager,
+                    EventReporter.NO_OP, swapThreshold, stripeCount, "0 sec", 0L, "0 B");
+        }
+
+        return new StandardFlowFileQueue("benchmark-queue", flowFileRepository, provenanceRepository, processScheduler, swapManager,
+                EventReporter.NO_OP, swapThreshold, "0 sec", 0L, "0 B");
+    }
+}
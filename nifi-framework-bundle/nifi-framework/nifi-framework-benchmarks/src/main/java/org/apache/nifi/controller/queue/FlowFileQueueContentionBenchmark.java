@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.benchmark.BenchmarkFlowFiles;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a single {@link FlowFileQueue} shared by many threads that each enqueue and dequeue one FlowFile per operation,
+ * which approximates a high fan-in connection. Use the JMH {@code -t} option to change the number of threads. A stripe count
+ * of 1 measures the {@link StandardFlowFileQueue}; larger values measure a {@link StripedFlowFileQueue} with that many stripes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class FlowFileQueueContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedQueue {
+        @Param({"1", "8"})
+        private int stripeCount;
+
+        private final AtomicLong idGenerator = new AtomicLong(0L);
+        private FlowFileQueue queue;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            queue = FlowFileQueueBenchmark.createQueue(20_000, stripeCount);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadFlowFile {
+        @Param({"1", "50"})
+        private int attributeCount;
+
+        private FlowFileRecord flowFile;
+        private final Set<FlowFileRecord> expired = new HashSet<>();
+
+        @Setup(Level.Trial)
+        public void setup(final SharedQueue sharedQueue) {
+            flowFile = BenchmarkFlowFiles.createFlowFile(sharedQueue.idGenerator.incrementAndGet(), attributeCount);
+        }
+    }
+
+    @Benchmark
+    public FlowFileRecord putPollAcknowledge(final SharedQueue sharedQueue, final ThreadFlowFile threadFlowFile) {
+        final FlowFileQueue queue = sharedQueue.queue;
+        queue.put(threadFlowFile.flowFile);
+
+        final FlowFileRecord polled = queue.poll(threadFlowFile.expired, PollStrategy.UNPENALIZED_FLOWFILES);
+        if (polled != null) {
+            queue.acknowledge(polled);
+        }
+
+        return polled;
+    }
+}
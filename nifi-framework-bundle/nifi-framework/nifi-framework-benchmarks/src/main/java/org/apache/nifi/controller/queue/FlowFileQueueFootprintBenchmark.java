@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.benchmark.BenchmarkFlowFiles;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap that is retained by a large number of FlowFiles sitting in a {@link StandardFlowFileQueue}. Each invocation
+ * fills the queue with {@code flowFileCount} FlowFiles and reports the heap retained after a full GC as the
+ * {@code bytesPerFlowFile} auxiliary counter. The swap threshold is set above the FlowFile count so that nothing is swapped out.
+ * <p>
+ * The {@code hashMapAttributes} benchmark retains the same attributes in plain HashMaps and serves as a reference for how much
+ * of the footprint is due to the attribute storage.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class FlowFileQueueFootprintBenchmark {
+
+    @Param({"1000000"})
+    private int flowFileCount;
+
+    @Param({"5", "20"})
+    private int attributeCount;
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+    private Object retained;
+    private long baselineBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+        public double bytesPerFlowFile;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0L;
+            bytesPerFlowFile = 0D;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        retained = null;
+        baselineBytes = usedHeapAfterGc();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown(final Footprint footprint) {
+        footprint.retainedBytes = usedHeapAfterGc() - baselineBytes;
+        footprint.bytesPerFlowFile = (double) footprint.retainedBytes / flowFileCount;
+        retained = null;
+    }
+
+    /**
+     * Enqueues FlowFiles in batches, as session commits do, and retains the queue.
+     */
+    @Benchmark
+    public void queuedFlowFiles() {
+        final FlowFileQueue queue = FlowFileQueueBenchmark.createQueue(flowFileCount + 1);
+
+        final int batchSize = 1000;
+        for (int first = 0; first < flowFileCount; first += batchSize) {
+            final int count = Math.min(batchSize, flowFileCount - first);
+            final List<FlowFileRecord> batch = BenchmarkFlowFiles.createFlowFiles(first + 1L, count, attributeCount);
+            queue.putAll(batch);
+        }
+
+        retained = queue;
+    }
+
+    /**
+     * Retains the same attributes, one HashMap per FlowFile, without any FlowFiles or queue.
+     */
+    @Benchmark
+    public void hashMapAttributes() {
+        final List<Map<String, String>> attributeMaps = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            attributeMaps.add(BenchmarkFlowFiles.createAttributes(attributeCount));
+        }
+
+        retained = attributeMaps;
+    }
+
+    private long usedHeapAfterGc() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, memoryBean.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.benchmark.BenchmarkFlowFiles;
+import org.apache.nifi.components.state.StateManager;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.connectable.StandardConnection;
+import org.apache.nifi.controller.BackoffMechanism;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.metrics.ComponentMetricReporter;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.metrics.NopPerformanceTracker;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.VolatileProvenanceRepository;
+import org.apache.nifi.util.NiFiProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures {@link StandardProcessSession#commit()} for sessions that pull FlowFiles from a queue and transfer them
+ * back out, optionally updating a single attribute on each FlowFile or reporting a ROUTE event for it. The connection
+ * is a self-loop so that the number of queued FlowFiles is stable across invocations. Each operation is one complete
+ * session.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class StandardProcessSessionCommitBenchmark {
+    private static final Relationship SUCCESS = new Relationship.Builder().name("success").build();
+
+    @Param({"1", "50"})
+    private int attributeCount;
+
+    @Param({"1", "10000"})
+    private int flowFilesPerSession;
+
+    private Path contentRepositoryDirectory;
+    private FileSystemRepository contentRepository;
+    private StandardRepositoryContext repositoryContext;
+    private long iteration;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        contentRepositoryDirectory = Files.createTempDirectory("nifi-benchmark-content");
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties("", Map.of(
+                NiFiProperties.REPOSITORY_CONTENT_PREFIX + "default", contentRepositoryDirectory.toString(),
+                NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false"
+        ));
+
+        final ResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        contentRepository = new FileSystemRepository(nifiProperties);
+        contentRepository.initialize(new StandardContentRepositoryContext(resourceClaimManager, EventReporter.NO_OP));
+
+        final FlowFileRepository flowFileRepository = new VolatileFlowFileRepository();
+        flowFileRepository.initialize(resourceClaimManager);
+
+        final VolatileProvenanceRepository provenanceRepository = new VolatileProvenanceRepository(VolatileProvenanceRepository.DEFAULT_BUFFER_SIZE, null, null);
+
+        final ProcessGroup processGroup = stubOnlyMock(ProcessGroup.class);
+        when(processGroup.getIdentifier()).thenReturn("benchmark-group");
+        when(processGroup.getLoggingAttributes()).thenReturn(Collections.emptyMap());
+
+        final Connectable connectable = stubOnlyMock(Connectable.class);
+        when(connectable.getIdentifier()).thenReturn("benchmark-component");
+        when(connectable.getName()).thenReturn("Benchmark Component");
+        when(connectable.getComponentType()).thenReturn("BenchmarkComponent");
+        when(connectable.getConnectableType()).thenReturn(ConnectableType.FUNNEL);
+        when(connectable.getProcessGroup()).thenReturn(processGroup);
+        when(connectable.getBackoffMechanism()).thenReturn(BackoffMechanism.PENALIZE_FLOWFILE);
+        when(connectable.getMaxBackoffPeriod()).thenReturn("10 mins");
+        when(connectable.hasIncomingConnection()).thenReturn(true);
+
+        final ProcessScheduler processScheduler = stubOnlyMock(ProcessScheduler.class);
+        final FlowFileSwapManager swapManager = stubOnlyMock(FlowFileSwapManager.class);
+        final FlowFileQueue queue = new StandardFlowFileQueue("benchmark-queue", flowFileRepository, provenanceRepository, processScheduler, swapManager,
+                EventReporter.NO_OP, flowFilesPerSession * 2, "0 sec", 0L, "0 B");
+
+        final Connection selfLoop = new StandardConnection.Builder(processScheduler)
+                .id("benchmark-connection")
+                .processGroup(processGroup)
+                .source(connectable)
+                .destination(connectable)
+                .relationships(Set.of(SUCCESS))
+                .flowFileQueueFactory((loadBalanceStrategy, partitioningAttribute, group) -> queue)
+                .build();
+
+        when(connectable.getIncomingConnections()).thenReturn(List.of(selfLoop));
+        when(connectable.getConnections()).thenReturn(Set.of(selfLoop));
+        when(connectable.getConnections(any(Relationship.class))).thenReturn(Set.of(selfLoop));
+
+        repositoryContext = new StandardRepositoryContext(connectable, new AtomicLong(0L), contentRepository, flowFileRepository,
+                new RingBufferEventRepository(1), new StandardCounterRepository(), stubOnlyMock(ComponentMetricReporter.class), provenanceRepository,
+                stubOnlyMock(StateManager.class), 1024 * 1024);
+
+        queue.putAll(BenchmarkFlowFiles.createFlowFiles(1L, flowFilesPerSession, attributeCount));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        contentRepository.shutdown();
+        deleteRecursively(contentRepositoryDirectory);
+    }
+
+    /**
+     * Transfers every FlowFile unchanged, which is the shape produced by routing processors.
+     */
+    @Benchmark
+    public void commitTransfer() {
+        final StandardProcessSession session = createSession();
+        final List<FlowFile> flowFiles = session.get(flowFilesPerSession);
+        session.transfer(flowFiles, SUCCESS);
+        session.commit();
+    }
+
+    /**
+     * Updates a single attribute on every FlowFile before transferring it, which is the shape produced by UpdateAttribute.
+     */
+    @Benchmark
+    public void commitAttributeUpdate() {
+        final StandardProcessSession session = createSession();
+        final String value = Long.toString(iteration++);
+        for (final FlowFile flowFile : session.get(flowFilesPerSession)) {
+            final FlowFile updated = session.putAttribute(flowFile, "benchmark.iteration", value);
+            session.transfer(updated, SUCCESS);
+        }
+        session.commit();
+    }
+
+    /**
+     * Reports a ROUTE event for every FlowFile before transferring it, which is the shape produced by RouteOnAttribute.
+     */
+    @Benchmark
+    public void commitRoute() {
+        final StandardProcessSession session = createSession();
+        for (final FlowFile flowFile : session.get(flowFilesPerSession)) {
+            session.getProvenanceReporter().route(flowFile, SUCCESS);
+            session.transfer(flowFile, SUCCESS);
+        }
+        session.commit();
+    }
+
+    // Mocks called on every operation must not record their invocations, or the retained history slows each iteration down
+    private static <T> T stubOnlyMock(final Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private StandardProcessSession createSession() {
+        return new StandardProcessSession(repositoryContext, () -> false, new NopPerformanceTracker());
+    }
+
+    static void deleteRecursively(final Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+
+        try (final var paths = Files.walk(directory)) {
+            for (final Path path : paths.sorted(Collections.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.benchmark.BenchmarkFlowFiles;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.wali.SequentialAccessWriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wali.SyncListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures many threads concurrently calling {@link SequentialAccessWriteAheadLog#update(java.util.Collection, boolean)} with
+ * <code>forceSync</code> set, as happens when <code>nifi.flowfile.repository.always.sync</code> is enabled, both with and
+ * without group commit. Each thread updates its own FlowFile so that no two threads update the same record concurrently.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class WriteAheadLogGroupCommitBenchmark {
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    @Param({"0"})
+    private long groupCommitWindowMicros;
+
+    private final AtomicLong flowFileIdGenerator = new AtomicLong(1L);
+    private Path repositoryDirectory;
+    private SequentialAccessWriteAheadLog<SerializedRepositoryRecord> writeAheadLog;
+    private FlowFileQueue queue;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositoryDirectory = Files.createTempDirectory("nifi-benchmark-flowfile-repository");
+
+        final StandardResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        final RepositoryRecordSerdeFactory serdeFactory = new StandardRepositoryRecordSerdeFactory(resourceClaimManager);
+        if (groupCommit) {
+            writeAheadLog = new SequentialAccessWriteAheadLog<>(repositoryDirectory.toFile(), serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+                groupCommitWindowMicros, TimeUnit.MICROSECONDS, 10_000);
+        } else {
+            writeAheadLog = new SequentialAccessWriteAheadLog<>(repositoryDirectory.toFile(), serdeFactory);
+        }
+        writeAheadLog.recoverRecords();
+
+        queue = mock(FlowFileQueue.class);
+        when(queue.getIdentifier()).thenReturn("benchmark-queue");
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkpoint() throws IOException {
+        writeAheadLog.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writeAheadLog.shutdown();
+        StandardProcessSessionCommitBenchmark.deleteRecursively(repositoryDirectory);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRecords {
+        private List<SerializedRepositoryRecord> records;
+
+        @Setup(Level.Trial)
+        public void setup(final WriteAheadLogGroupCommitBenchmark benchmark) {
+            final long flowFileId = benchmark.flowFileIdGenerator.getAndIncrement();
+            final FlowFileRecord flowFile = BenchmarkFlowFiles.createFlowFiles(flowFileId, 1, 10).get(0);
+            final StandardRepositoryRecord repositoryRecord = new StandardRepositoryRecord(benchmark.queue, flowFile);
+            repositoryRecord.setDestination(benchmark.queue);
+            records = List.of(new LiveSerializedRepositoryRecord(repositoryRecord));
+        }
+    }
+
+    @Benchmark
+    public int update(final ThreadRecords threadRecords) throws IOException {
+        return writeAheadLog.update(threadRecords.records, true);
+    }
+}
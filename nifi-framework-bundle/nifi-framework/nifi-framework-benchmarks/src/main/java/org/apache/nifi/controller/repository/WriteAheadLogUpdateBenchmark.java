@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.benchmark.BenchmarkFlowFiles;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.wali.SequentialAccessWriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures {@link SequentialAccessWriteAheadLog#update(java.util.Collection, boolean)} using the same record serialization
+ * that the {@link WriteAheadFlowFileRepository} uses. Each operation writes one transaction containing
+ * {@code recordsPerUpdate} UPDATE records. The log is checkpointed after every iteration so that the journal does not grow
+ * without bound.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class WriteAheadLogUpdateBenchmark {
+
+    @Param({"1", "50"})
+    private int attributeCount;
+
+    @Param({"1", "10000"})
+    private int recordsPerUpdate;
+
+    @Param({"false", "true"})
+    private boolean forceSync;
+
+    private Path repositoryDirectory;
+    private SequentialAccessWriteAheadLog<SerializedRepositoryRecord> writeAheadLog;
+    private List<SerializedRepositoryRecord> records;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositoryDirectory = Files.createTempDirectory("nifi-benchmark-flowfile-repository");
+
+        final StandardResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        final RepositoryRecordSerdeFactory serdeFactory = new StandardRepositoryRecordSerdeFactory(resourceClaimManager);
+        writeAheadLog = new SequentialAccessWriteAheadLog<>(repositoryDirectory.toFile(), serdeFactory);
+        writeAheadLog.recoverRecords();
+
+        final FlowFileQueue queue = mock(FlowFileQueue.class);
+        when(queue.getIdentifier()).thenReturn("benchmark-queue");
+
+        records = new ArrayList<>(recordsPerUpdate);
+        for (final FlowFileRecord flowFile : BenchmarkFlowFiles.createFlowFiles(1L, recordsPerUpdate, attributeCount)) {
+            final StandardRepositoryRecord repositoryRecord = new StandardRepositoryRecord(queue, flowFile);
+            repositoryRecord.setDestination(queue);
+            records.add(new LiveSerializedRepositoryRecord(repositoryRecord));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkpoint() throws IOException {
+        writeAheadLog.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writeAheadLog.shutdown();
+        StandardProcessSessionCommitBenchmark.deleteRecursively(repositoryDirectory);
+    }
+
+    @Benchmark
+    public int update() throws IOException {
+        return writeAheadLog.update(records, forceSync);
+    }
+}
@@ -177,6 +177,8 @@ public class ProcessorDiagnosticsEntityMerger implements ComponentEntityMerger<P
         localPartition.setSwapByteCount(0);
         localPartition.setSwapFiles(0);
         localPartition.setSwapFlowFileCount(0);
+        localPartition.setSwapPrefetchHitCount(0);
+        localPartition.setSwapPrefetchMissCount(0);
         localPartition.setTotalByteCount(0);
         localPartition.setTotalFlowFileCount(0);
 
@@ -198,6 +200,8 @@ public class ProcessorDiagnosticsEntityMerger implements ComponentEntityMerger<P
             localPartition.setSwapByteCount(localPartition.getSwapByteCount() + snapshotLocalPartition.getSwapByteCount());
             localPartition.setSwapFiles(localPartition.getSwapFiles() + snapshotLocalPartition.getSwapFiles());
             localPartition.setSwapFlowFileCount(localPartition.getSwapFlowFileCount() + snapshotLocalPartition.getSwapFlowFileCount());
+            localPartition.setSwapPrefetchHitCount(localPartition.getSwapPrefetchHitCount() + snapshotLocalPartition.getSwapPrefetchHitCount());
+            localPartition.setSwapPrefetchMissCount(localPartition.getSwapPrefetchMissCount() + snapshotLocalPartition.getSwapPrefetchMissCount());
             localPartition.setTotalByteCount(localPartition.getTotalByteCount() + snapshotLocalPartition.getTotalByteCount());
             localPartition.setTotalFlowFileCount(localPartition.getTotalFlowFileCount() + snapshotLocalPartition.getTotalFlowFileCount());
 
@@ -87,6 +87,9 @@ public final class StandardConnection implements Connection {
         scheduler = builder.scheduler;
 
         flowFileQueue = builder.flowFileQueueFactory.createFlowFileQueue(LoadBalanceStrategy.DO_NOT_LOAD_BALANCE, null, processGroup.get());
+        if (scheduler != null && scheduler.isWorkSignalSchedulingEnabled()) {
+            flowFileQueue.setFlowFilesQueuedListener(() -> scheduler.notifyWorkAvailable(destination.get()));
+        }
         hashCode = new HashCodeBuilder(7, 67).append(id).toHashCode();
     }
 
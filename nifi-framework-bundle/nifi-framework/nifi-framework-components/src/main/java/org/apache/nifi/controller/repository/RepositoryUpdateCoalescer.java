@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces the repository updates of concurrent session commits so that the Provenance Events of many sessions are registered with
+ * a single call to {@link ProvenanceEventRepository#registerEvents(Iterable)} and their FlowFile records are written with a single
+ * call to {@link FlowFileRepository#updateRepository(Collection)}.
+ * <p>
+ * Each committing thread queues its update. One thread at a time is the leader: it optionally waits for the configured window, or until
+ * the record limit is reached, and then writes all queued updates. The leader waits without holding any lock, so updates that arrive
+ * during the window are queued and join its batch. Other threads park until their update has been written or until they are handed
+ * the leadership to write the next batch. Each caller returns only after its own update has been written.
+ * </p>
+ * <p>
+ * If a batch cannot be written, the updates that it contained are written again one at a time, so that only the callers whose own
+ * updates cannot be written are given a failure. Provenance Events that were registered before the FlowFile Repository failed are
+ * not registered again.
+ * </p>
+ */
+public class RepositoryUpdateCoalescer {
+    private final FlowFileRepository flowFileRepository;
+    private final ProvenanceEventRepository provenanceRepository;
+    private final long windowNanos;
+    private final int maxRecords;
+
+    private final Queue<PendingUpdate> pendingUpdates = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingRecordCount = new AtomicInteger(0);
+    private final AtomicLong batchCount = new AtomicLong(0L);
+    private final AtomicLong updateCount = new AtomicLong(0L);
+    private final AtomicReference<Thread> leader = new AtomicReference<>();
+
+    /**
+     * @param flowFileRepository the repository to write FlowFile records to
+     * @param provenanceRepository the repository to register Provenance Events with
+     * @param window how long the thread that writes a batch waits for other updates to join it. A value of 0 means that a batch
+     *               consists of the updates that were queued while the previous batch was being written.
+     * @param windowUnit the unit of the window
+     * @param maxRecords the maximum number of FlowFile records to write in a single batch. Once this many records are queued, the
+     *                   batch is written without waiting for the rest of the window.
+     */
+    public RepositoryUpdateCoalescer(final FlowFileRepository flowFileRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final long window, final TimeUnit windowUnit, final int maxRecords) {
+        if (window < 0) {
+            throw new IllegalArgumentException("Window must not be negative");
+        }
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("Max Records must be at least 1");
+        }
+
+        this.flowFileRepository = flowFileRepository;
+        this.provenanceRepository = provenanceRepository;
+        this.windowNanos = windowUnit.toNanos(window);
+        this.maxRecords = maxRecords;
+    }
+
+    /**
+     * Registers the given Provenance Events and writes the given FlowFile records as part of a batch, returning once they have been written.
+     * The events are copied before this method waits, so any lazy transformation performed while iterating them happens on the calling thread.
+     *
+     * @param records the FlowFile records to write
+     * @param events the Provenance Events to register
+     * @throws IOException if the update could not be written
+     */
+    public void update(final Collection<RepositoryRecord> records, final Iterable<ProvenanceEventRecord> events) throws IOException {
+        final List<ProvenanceEventRecord> eventList = new ArrayList<>();
+        events.forEach(eventList::add);
+
+        final PendingUpdate pendingUpdate = new PendingUpdate(records, eventList, Thread.currentThread());
+        pendingUpdates.add(pendingUpdate);
+
+        // If enough records are now queued, wake the leader if it is waiting for the window to elapse.
+        if (pendingRecordCount.addAndGet(records.size()) >= maxRecords) {
+            final Thread currentLeader = leader.get();
+            if (currentLeader != null) {
+                LockSupport.unpark(currentLeader);
+            }
+        }
+
+        // The leader writes all queued updates, so by the time that a thread becomes the leader, its own update may already have been written.
+        while (!pendingUpdate.isComplete()) {
+            if (leader.compareAndSet(null, Thread.currentThread())) {
+                try {
+                    if (!pendingUpdate.isComplete()) {
+                        waitForWindow();
+                        writeBatch();
+                    }
+                } finally {
+                    leader.set(null);
+                    handOffLeadership();
+                }
+            } else {
+                // Woken when the update has been written or when the leader has finished writing its batch
+                LockSupport.park(this);
+            }
+        }
+
+        final Throwable failure = pendingUpdate.getFailure();
+        if (failure != null) {
+            if (failure instanceof IOException) {
+                throw new IOException("Failed to update repositories for a batch of session commits", failure);
+            }
+
+            throw new IOException("Failed to update repositories for a batch of session commits: " + failure, failure);
+        }
+    }
+
+    // Wakes the thread of the oldest queued update, if any, so that it can become the leader and write the next batch
+    private void handOffLeadership() {
+        final PendingUpdate next = pendingUpdates.peek();
+        if (next != null) {
+            LockSupport.unpark(next.getThread());
+        }
+    }
+
+    // called only by the leader
+    private void writeBatch() {
+        final List<PendingUpdate> batch = new ArrayList<>();
+        final List<RepositoryRecord> batchRecords = new ArrayList<>();
+        final List<ProvenanceEventRecord> batchEvents = new ArrayList<>();
+        PendingUpdate pendingUpdate;
+        while ((batch.isEmpty() || batchRecords.size() < maxRecords) && (pendingUpdate = pendingUpdates.poll()) != null) {
+            batch.add(pendingUpdate);
+            batchRecords.addAll(pendingUpdate.getRecords());
+            batchEvents.addAll(pendingUpdate.getEvents());
+        }
+
+        pendingRecordCount.addAndGet(-batchRecords.size());
+        batchCount.incrementAndGet();
+        updateCount.addAndGet(batch.size());
+
+        // Provenance Events are registered before the FlowFile Repository is updated, as is done for a single session commit.
+        boolean eventsRegistered = false;
+        try {
+            if (!batchEvents.isEmpty()) {
+                provenanceRepository.registerEvents(batchEvents);
+            }
+            eventsRegistered = true;
+            flowFileRepository.updateRepository(batchRecords);
+        } catch (final Throwable t) {
+            if (batch.size() == 1) {
+                batch.getFirst().complete(t);
+                return;
+            }
+
+            // Write each update of the batch on its own, so that an update that cannot be written does not fail the sessions of the others
+            for (final PendingUpdate update : batch) {
+                update.complete(writeUpdate(update, eventsRegistered));
+            }
+            return;
+        }
+
+        for (final PendingUpdate update : batch) {
+            update.complete(null);
+        }
+    }
+
+    private Throwable writeUpdate(final PendingUpdate update, final boolean eventsRegistered) {
+        try {
+            if (!eventsRegistered && !update.getEvents().isEmpty()) {
+                provenanceRepository.registerEvents(update.getEvents());
+            }
+            flowFileRepository.updateRepository(update.getRecords());
+            return null;
+        } catch (final Throwable t) {
+            return t;
+        }
+    }
+
+    private void waitForWindow() {
+        if (windowNanos == 0L) {
+            return;
+        }
+
+        final long deadline = System.nanoTime() + windowNanos;
+        while (pendingRecordCount.get() < maxRecords) {
+            final long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0L) {
+                break;
+            }
+
+            LockSupport.parkNanos(this, remainingNanos);
+        }
+    }
+
+    /**
+     * @return the number of batches that have been written
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return the number of session commits whose updates have been written as part of a batch
+     */
+    public long getUpdateCount() {
+        return updateCount.get();
+    }
+
+    private static class PendingUpdate {
+        private final Collection<RepositoryRecord> records;
+        private final List<ProvenanceEventRecord> events;
+        private final Thread thread;
+        private volatile boolean complete = false;
+        private volatile Throwable failure;
+
+        PendingUpdate(final Collection<RepositoryRecord> records, final List<ProvenanceEventRecord> events, final Thread thread) {
+            this.records = records;
+            this.events = events;
+            this.thread = thread;
+        }
+
+        Collection<RepositoryRecord> getRecords() {
+            return records;
+        }
+
+        List<ProvenanceEventRecord> getEvents() {
+            return events;
+        }
+
+        Thread getThread() {
+            return thread;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        Throwable getFailure() {
+            return failure;
+        }
+
+        void complete(final Throwable failure) {
+            this.failure = failure;
+            this.complete = true;
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -60,7 +60,6 @@ import org.apache.nifi.processor.metrics.CommitTiming;
 import org.apache.nifi.provenance.InternalProvenanceReporter;
 import org.apache.nifi.provenance.ProvenanceEventBuilder;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
-import org.apache.nifi.provenance.ProvenanceEventRepository;
 import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.provenance.ProvenanceReporter;
 import org.apache.nifi.stream.io.ByteCountingInputStream;
@@ -197,6 +196,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
     private StateMap clusterState;
     private final String retryAttribute;
     private final FlowFileLinkage flowFileLinkage = new FlowFileLinkage();
+    private volatile RepositoryUpdateCoalescer repositoryUpdateCoalescer;
 
     public StandardProcessSession(final RepositoryContext context, final TaskTermination taskTermination, final PerformanceTracker performanceTracker) {
         this.context = context;
@@ -227,6 +227,16 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         return sessionId;
     }
 
+    /**
+     * Sets the coalescer through which this session registers its Provenance Events and updates the FlowFile Repository on commit,
+     * so that the updates of sessions that commit concurrently are written together.
+     *
+     * @param repositoryUpdateCoalescer the coalescer to use, or <code>null</code> to update the repositories directly
+     */
+    public void setRepositoryUpdateCoalescer(final RepositoryUpdateCoalescer repositoryUpdateCoalescer) {
+        this.repositoryUpdateCoalescer = repositoryUpdateCoalescer;
+    }
+
     private void closeStreams(final Map<FlowFile, ? extends Closeable> streamMap, final String action, final String streamType) {
         if (streamMap.isEmpty()) {
             return;
@@ -595,15 +605,23 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             }
 
             final long updateProvenanceStart = System.nanoTime();
-            updateProvenanceRepo(checkpoint);
+            final RepositoryUpdateCoalescer coalescer = repositoryUpdateCoalescer;
+            if (coalescer == null) {
+                updateProvenanceRepo(checkpoint);
+            }
 
             final long flowFileRepoUpdateStart = System.nanoTime();
             final long updateProvenanceNanos = flowFileRepoUpdateStart - updateProvenanceStart;
 
-            // Update the FlowFile Repository
+            // Update the FlowFile Repository. When a coalescer is configured, the Provenance Events are registered
+            // together with the FlowFile Repository update, alongside those of other sessions that commit at the same time.
             try {
                 final Collection<StandardRepositoryRecord> repoRecords = checkpoint.records.values();
-                context.getFlowFileRepository().updateRepository((Collection) repoRecords);
+                if (coalescer == null) {
+                    context.getFlowFileRepository().updateRepository((Collection) repoRecords);
+                } else {
+                    coalescer.update((Collection) repoRecords, createProvenanceEvents(checkpoint));
+                }
             } catch (final IOException ioe) {
                 // if we fail to commit the session, we need to roll back
                 // the checkpoints as well because none of the checkpoints
@@ -831,10 +849,22 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         return records.get(flowFile.getId());
     }
 
+    /**
+     * Registers the Provenance Events of the given checkpoint with the Provenance Repository. This is called on commit unless a
+     * {@link RepositoryUpdateCoalescer} has been set, in which case the events are registered by the coalescer instead.
+     */
     protected void updateProvenanceRepo(final Checkpoint checkpoint) {
-        // Update Provenance Repository
-        final ProvenanceEventRepository provenanceRepo = context.getProvenanceRepository();
+        context.getProvenanceRepository().registerEvents(createProvenanceEvents(checkpoint));
+    }
 
+    /**
+     * Creates the Provenance Events that are to be registered when the given checkpoint is committed. The events are enriched with the
+     * committed representation of each FlowFile as they are iterated, so the returned Iterable must be iterated before the session is reset.
+     *
+     * @param checkpoint the checkpoint to commit
+     * @return the events to register with the Provenance Repository
+     */
+    private Iterable<ProvenanceEventRecord> createProvenanceEvents(final Checkpoint checkpoint) {
         // We need to de-dupe the events that we've created and those reported to the provenance reporter,
         // in case the Processor developer submitted the same events to the reporter. So we use a LinkedHashSet
         // for this, so that we are able to ensure that the events are submitted in the proper order.
@@ -1036,7 +1066,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             }
         };
 
-        provenanceRepo.registerEvents(iterable);
+        return iterable;
     }
 
     private void updateEventContentClaims(final ProvenanceEventBuilder builder, final FlowFile flowFile, final StandardRepositoryRecord repoRecord) {
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TestRepositoryUpdateCoalescer {
+
+    private FlowFileRepository flowFileRepository;
+    private ProvenanceEventRepository provenanceRepository;
+
+    @BeforeEach
+    public void setup() {
+        flowFileRepository = mock(FlowFileRepository.class);
+        provenanceRepository = mock(ProvenanceEventRepository.class);
+    }
+
+    @Test
+    public void testSingleUpdateWithoutWindow() throws IOException {
+        final RepositoryUpdateCoalescer coalescer = new RepositoryUpdateCoalescer(flowFileRepository, provenanceRepository, 0, TimeUnit.MILLISECONDS, 10);
+        final List<RepositoryRecord> records = List.of(mock(RepositoryRecord.class), mock(RepositoryRecord.class));
+        final List<ProvenanceEventRecord> events = List.of(mock(ProvenanceEventRecord.class));
+
+        coalescer.update(records, events);
+
+        verify(provenanceRepository).registerEvents(events);
+        verify(flowFileRepository).updateRepository(records);
+        assertEquals(1, coalescer.getBatchCount());
+        assertEquals(1, coalescer.getUpdateCount());
+    }
+
+    @Test
+    public void testUpdateWithoutEventsDoesNotRegisterEvents() throws IOException {
+        final RepositoryUpdateCoalescer coalescer = new RepositoryUpdateCoalescer(flowFileRepository, provenanceRepository, 0, TimeUnit.MILLISECONDS, 10);
+        coalescer.update(List.of(mock(RepositoryRecord.class)), List.of());
+
+        verify(provenanceRepository, never()).registerEvents(any());
+        verify(flowFileRepository).updateRepository(anyCollection());
+    }
+
+    @Test
+    @Timeout(30)
+    @SuppressWarnings("unchecked")
+    public void testConcurrentUpdatesCoalescedIntoSingleBatch() throws Exception {
+        final int threadCount = 4;
+
+        // The window is long enough that the batch can only be written early, once every thread's record is queued.
+        final RepositoryUpdateCoalescer coalescer = new RepositoryUpdateCoalescer(flowFileRepository, provenanceRepository, 20, TimeUnit.SECONDS, threadCount);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    coalescer.update(List.of(mock(RepositoryRecord.class)), List.of(mock(ProvenanceEventRecord.class), mock(ProvenanceEventRecord.class)));
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final ArgumentCaptor<Collection<RepositoryRecord>> recordsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(flowFileRepository, times(1)).updateRepository(recordsCaptor.capture());
+        assertEquals(threadCount, recordsCaptor.getValue().size());
+
+        final ArgumentCaptor<Iterable<ProvenanceEventRecord>> eventsCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(provenanceRepository, times(1)).registerEvents(eventsCaptor.capture());
+        assertEquals(threadCount * 2, ((Collection<ProvenanceEventRecord>) eventsCaptor.getValue()).size());
+
+        assertEquals(1, coalescer.getBatchCount());
+        assertEquals(threadCount, coalescer.getUpdateCount());
+    }
+
+    @Test
+    public void testFlowFileRepositoryFailureReported() throws IOException {
+        doThrow(new IOException("Intentional Unit Test Exception")).when(flowFileRepository).updateRepository(anyCollection());
+        final RepositoryUpdateCoalescer coalescer = new RepositoryUpdateCoalescer(flowFileRepository, provenanceRepository, 0, TimeUnit.MILLISECONDS, 10);
+
+        assertThrows(IOException.class, () -> coalescer.update(List.of(mock(RepositoryRecord.class)), List.of(mock(ProvenanceEventRecord.class))));
+    }
+
+    @Test
+    @Timeout(30)
+    public void testBatchFailureFailsOnlyFailingUpdate() throws Exception {
+        final RepositoryRecord failingRecord = mock(RepositoryRecord.class);
+        doAnswer(invocation -> {
+            final Collection<RepositoryRecord> records = invocation.getArgument(0);
+            if (records.contains(failingRecord)) {
+                throw new IOException("Intentional Unit Test Exception");
+            }
+            return null;
+        }).when(flowFileRepository).updateRepository(anyCollection());
+
+        // Both updates are written as one batch, which fails, so each update is then written on its own.
+        final RepositoryUpdateCoalescer coalescer = new RepositoryUpdateCoalescer(flowFileRepository, provenanceRepository, 20, TimeUnit.SECONDS, 2);
+        final RepositoryRecord successfulRecord = mock(RepositoryRecord.class);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> failing = executor.submit(() -> {
+                coalescer.update(List.of(failingRecord), List.of(mock(ProvenanceEventRecord.class)));
+                return null;
+            });
+            final Future<?> successful = executor.submit(() -> {
+                coalescer.update(List.of(successfulRecord), List.of(mock(ProvenanceEventRecord.class)));
+                return null;
+            });
+
+            successful.get();
+            final ExecutionException failure = assertThrows(ExecutionException.class, failing::get);
+            assertTrue(failure.getCause() instanceof IOException);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(flowFileRepository).updateRepository(List.of(successfulRecord));
+        verify(flowFileRepository).updateRepository(List.of(failingRecord));
+
+        // The events were registered with the batch before the FlowFile Repository failed, so they are not registered again.
+        verify(provenanceRepository, times(1)).registerEvents(any());
+        assertEquals(1, coalescer.getBatchCount());
+    }
+
+    @Test
+    public void testProvenanceFailureSkipsFlowFileRepositoryUpdate() throws IOException {
+        doThrow(new IllegalStateException("Intentional Unit Test Exception")).when(provenanceRepository).registerEvents(any());
+        final RepositoryUpdateCoalescer coalescer = new RepositoryUpdateCoalescer(flowFileRepository, provenanceRepository, 0, TimeUnit.MILLISECONDS, 10);
+
+        assertThrows(IOException.class, () -> coalescer.update(List.of(mock(RepositoryRecord.class)), List.of(mock(ProvenanceEventRecord.class))));
+        verify(flowFileRepository, never()).updateRepository(anyCollection());
+    }
+}
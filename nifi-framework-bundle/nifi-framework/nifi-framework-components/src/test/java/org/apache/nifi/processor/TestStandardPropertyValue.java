@@ -16,6 +16,7 @@
  */
 package org.apache.nifi.processor;
 
+import org.apache.nifi.attribute.expression.language.EvaluationScope;
 import org.apache.nifi.attribute.expression.language.StandardPropertyValue;
 import org.apache.nifi.components.DescribedValue;
 import org.apache.nifi.components.PropertyValue;
@@ -91,6 +92,24 @@ public class TestStandardPropertyValue {
         assertEquals("Hello, World!", value.evaluateAttributeExpressions(createFlowFile(attributes)).getValue());
     }
 
+    @Test
+    public void testSharedSubexpressionsWithModifiedAdditionalAttributes() {
+        System.setProperty(EvaluationScope.SHARING_ENABLED_PROPERTY, "true");
+        try {
+            final PropertyValue value = new StandardPropertyValue("${'$1':toUpper()}-${'$1':toUpper():append('!')}", lookup, ParameterLookup.EMPTY);
+            final FlowFile flowFile = createFlowFile(new HashMap<>());
+            final Map<String, String> additionalAttributes = new HashMap<>();
+
+            additionalAttributes.put("$1", "first");
+            assertEquals("FIRST-FIRST!", value.evaluateAttributeExpressions(flowFile, additionalAttributes).getValue());
+
+            additionalAttributes.put("$1", "second");
+            assertEquals("SECOND-SECOND!", value.evaluateAttributeExpressions(flowFile, additionalAttributes).getValue());
+        } finally {
+            System.clearProperty(EvaluationScope.SHARING_ENABLED_PROPERTY);
+        }
+    }
+
     @Test
     public void testGetValueAsIntegerAfterSubstitute() {
         final PropertyValue value = new StandardPropertyValue("1${value}", lookup, ParameterLookup.EMPTY);
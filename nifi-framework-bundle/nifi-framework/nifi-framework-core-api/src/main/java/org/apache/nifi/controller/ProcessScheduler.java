@@ -17,6 +17,7 @@
 package org.apache.nifi.controller;
 
 import org.apache.nifi.annotation.notification.PrimaryNodeState;
+import org.apache.nifi.connectable.Connectable;
 import org.apache.nifi.connectable.Funnel;
 import org.apache.nifi.connectable.Port;
 import org.apache.nifi.controller.service.ControllerServiceNode;
@@ -277,4 +278,18 @@ public interface ProcessScheduler {
 
     void notifyPrimaryNodeStateChange(ReportingTaskNode taskNode, PrimaryNodeState primaryNodeState);
 
+    /**
+     * Notifies the Scheduler that FlowFiles have been queued for the given component, so that the component can be triggered
+     * if it is waiting for work
+     *
+     * @param connectable the component that FlowFiles have been queued for
+     */
+    void notifyWorkAvailable(Connectable connectable);
+
+    /**
+     * @return <code>true</code> if components that are waiting for work are to be triggered when notified through
+     * {@link #notifyWorkAvailable(Connectable)}, <code>false</code> if notifications are ignored and need not be sent
+     */
+    boolean isWorkSignalSchedulingEnabled();
+
 }
@@ -22,6 +22,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledFuture;
@@ -29,11 +30,18 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class FlowEngine extends ScheduledThreadPoolExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(FlowEngine.class);
 
+    private final AtomicInteger runningTaskCount = new AtomicInteger(0);
+    private final AtomicLong saturatedSinceNanos = new AtomicLong(0L);
+    private final LongAdder saturatedNanos = new LongAdder();
+    private final LongAdder saturationCount = new LongAdder();
+
     /**
      * Creates a new instance of FlowEngine
      *
@@ -66,6 +74,22 @@ public final class FlowEngine extends ScheduledThreadPoolExecutor {
         });
     }
 
+    private FlowEngine(final int corePoolSize, final ThreadFactory threadFactory) {
+        super(corePoolSize, threadFactory);
+    }
+
+    /**
+     * Creates a new instance of FlowEngine whose tasks run on virtual threads. The core pool size limits the number of tasks
+     * that may run at the same time, but a task that blocks on I/O does not tie up a platform thread while it waits.
+     *
+     * @param maxConcurrentTasks the maximum number of tasks that may run in the engine at the same time
+     * @param threadNamePrefix for thread naming
+     * @return the engine
+     */
+    public static FlowEngine createVirtualThreadEngine(final int maxConcurrentTasks, final String threadNamePrefix) {
+        return new FlowEngine(maxConcurrentTasks, Thread.ofVirtual().name(threadNamePrefix + " Virtual Thread-", 1).factory());
+    }
+
     /**
      * Hook method called by the running thread whenever a runnable task is given to the thread to run.
      *
@@ -76,6 +100,11 @@ public final class FlowEngine extends ScheduledThreadPoolExecutor {
     protected void beforeExecute(final Thread thread, final Runnable runnable) {
         // Ensure classloader is correct
         thread.setContextClassLoader(NarThreadContextClassLoader.getInstance());
+
+        if (runningTaskCount.incrementAndGet() >= getCorePoolSize() && saturatedSinceNanos.compareAndSet(0L, System.nanoTime())) {
+            saturationCount.increment();
+        }
+
         super.beforeExecute(thread, runnable);
     }
 
@@ -129,6 +158,14 @@ public final class FlowEngine extends ScheduledThreadPoolExecutor {
     @Override
     protected void afterExecute(final Runnable runnable, final Throwable throwable) {
         super.afterExecute(runnable, throwable);
+
+        if (runningTaskCount.decrementAndGet() < getCorePoolSize()) {
+            final long saturatedSince = saturatedSinceNanos.getAndSet(0L);
+            if (saturatedSince != 0L) {
+                saturatedNanos.add(System.nanoTime() - saturatedSince);
+            }
+        }
+
         if (runnable instanceof FutureTask<?>) {
             final FutureTask<?> task = (FutureTask<?>) runnable;
             try {
@@ -158,6 +195,51 @@ public final class FlowEngine extends ScheduledThreadPoolExecutor {
         }
     }
 
+    /**
+     * @return <code>true</code> if all threads of the engine are currently busy running tasks, <code>false</code> otherwise
+     */
+    public boolean isSaturated() {
+        return runningTaskCount.get() >= getCorePoolSize();
+    }
+
+    /**
+     * @return the number of times that all threads of the engine became busy running tasks at the same time
+     */
+    public long getSaturationCount() {
+        return saturationCount.sum();
+    }
+
+    /**
+     * Returns the amount of time during which all threads of the engine were busy running tasks, so that any task that became
+     * due during that time had to wait for a thread
+     *
+     * @param timeUnit the unit of the returned time
+     * @return the total amount of time for which the engine has been saturated
+     */
+    public long getSaturatedTime(final TimeUnit timeUnit) {
+        long nanos = saturatedNanos.sum();
+        final long saturatedSince = saturatedSinceNanos.get();
+        if (saturatedSince != 0L) {
+            nanos += System.nanoTime() - saturatedSince;
+        }
+
+        return timeUnit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of scheduled tasks that are due to run but are waiting for a thread to become available
+     */
+    public int getOverdueTaskCount() {
+        int overdue = 0;
+        for (final Runnable queued : getQueue()) {
+            if (queued instanceof Delayed delayed && delayed.getDelay(TimeUnit.NANOSECONDS) <= 0L) {
+                overdue++;
+            }
+        }
+
+        return overdue;
+    }
+
     /**
      * Hook method called whenever the engine is terminated.
      */
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFlowEngine {
+
+    @Test
+    public void testVirtualThreadEngineRunsTasksOnVirtualThreads() throws Exception {
+        final FlowEngine engine = FlowEngine.createVirtualThreadEngine(2, "Test");
+        try {
+            final AtomicBoolean virtual = new AtomicBoolean(false);
+            engine.submit(() -> virtual.set(Thread.currentThread().isVirtual())).get(5, TimeUnit.SECONDS);
+            assertTrue(virtual.get());
+        } finally {
+            engine.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSaturationTracked() throws Exception {
+        final FlowEngine engine = new FlowEngine(2, "Test");
+        try {
+            assertEquals(0L, engine.getSaturationCount());
+
+            final CountDownLatch started = new CountDownLatch(2);
+            final CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 2; i++) {
+                engine.submit(() -> {
+                    started.countDown();
+                    release.await();
+                    return null;
+                });
+            }
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            engine.schedule(() -> { }, 0L, TimeUnit.MILLISECONDS);
+            Thread.sleep(20L);
+
+            assertEquals(1L, engine.getSaturationCount());
+            assertEquals(1, engine.getOverdueTaskCount());
+            assertTrue(engine.getSaturatedTime(TimeUnit.NANOSECONDS) > 0L);
+
+            release.countDown();
+            engine.shutdown();
+            assertTrue(engine.awaitTermination(5, TimeUnit.SECONDS));
+
+            final long saturatedMillis = engine.getSaturatedTime(TimeUnit.MILLISECONDS);
+            assertTrue(saturatedMillis >= 20L);
+            assertEquals(saturatedMillis, engine.getSaturatedTime(TimeUnit.MILLISECONDS));
+        } finally {
+            engine.shutdownNow();
+        }
+    }
+}
@@ -79,6 +79,7 @@ import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.FlowFileQueueFactory;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.queue.StripedFlowFileQueue;
 import org.apache.nifi.controller.queue.clustered.ContentRepositoryFlowFileAccess;
 import org.apache.nifi.controller.queue.clustered.SocketLoadBalancedFlowFileQueue;
 import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlowFileCodec;
@@ -99,6 +100,7 @@ import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
 import org.apache.nifi.controller.repository.QueueProvider;
 import org.apache.nifi.controller.repository.RepositoryStatusReport;
+import org.apache.nifi.controller.repository.RepositoryUpdateCoalescer;
 import org.apache.nifi.controller.repository.StandardContentRepositoryContext;
 import org.apache.nifi.controller.repository.StandardCounterRepository;
 import org.apache.nifi.controller.repository.StandardFlowFileRecord;
@@ -274,6 +276,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
     private final AtomicInteger maxTimerDrivenThreads;
     private final AtomicReference<FlowEngine> timerDrivenEngineRef;
+    private final FlowEngine virtualThreadEngine;
 
     private final ContentRepository contentRepository;
     private final FlowFileRepository flowFileRepository;
@@ -327,6 +330,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     private final ClusterCoordinator clusterCoordinator;
     private final FlowEngine validationThreadPool;
     private final FlowEngine flowAnalysisThreadPool;
+    private final FlowEngine swapPrefetchThreadPool;
     private final ValidationTrigger validationTrigger;
     private final ReloadComponent reloadComponent;
     private final VerifiableComponentFactory verifiableComponentFactory;
@@ -522,6 +526,12 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
 
         timerDrivenEngineRef = new AtomicReference<>(new FlowEngine(maxTimerDrivenThreads.get(), "Timer-Driven Process"));
+        if (nifiProperties.getVirtualThreadProcessorTypes().isEmpty()) {
+            virtualThreadEngine = null;
+        } else {
+            virtualThreadEngine = FlowEngine.createVirtualThreadEngine(nifiProperties.getVirtualThreadMaxConcurrentTasks(), "Timer-Driven Process");
+            LOG.info("Processors of types {} will run on up to {} virtual threads", nifiProperties.getVirtualThreadProcessorTypes(), nifiProperties.getVirtualThreadMaxConcurrentTasks());
+        }
 
         final FlowFileRepository flowFileRepo = createFlowFileRepository(nifiProperties, extensionManager, resourceClaimManager);
         flowFileRepository = flowFileRepo;
@@ -579,7 +589,8 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 getComponentMetricReporter(),
                 provenanceRepository,
                 stateManagerProvider,
-                maxAppendableBytes
+                maxAppendableBytes,
+                createRepositoryUpdateCoalescer()
         );
         assetManager = createAssetManager(nifiProperties);
 
@@ -631,7 +642,8 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
 
         final CronSchedulingAgent cronSchedulingAgent = new CronSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory);
-        final TimerDrivenSchedulingAgent timerDrivenAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, this.nifiProperties);
+        final TimerDrivenSchedulingAgent timerDrivenAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), virtualThreadEngine, repositoryContextFactory,
+            this.nifiProperties);
         processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, timerDrivenAgent);
         processScheduler.setSchedulingAgent(SchedulingStrategy.CRON_DRIVEN, cronSchedulingAgent);
 
@@ -667,6 +679,9 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         instanceId = ComponentIdGenerator.generateId().toString();
 
         this.validationThreadPool = new FlowEngine(5, "Validate Components", true);
+
+        final int swapPrefetchThreads = nifiProperties.getQueueSwapPrefetchThreads();
+        this.swapPrefetchThreadPool = swapPrefetchThreads > 0 ? new FlowEngine(swapPrefetchThreads, "Swap Prefetch", true) : null;
         this.validationTrigger = new StandardValidationTrigger(validationThreadPool, this::isInitialized);
 
         if (remoteInputSocketPort == null) {
@@ -1123,6 +1138,17 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
     }
 
+    private RepositoryUpdateCoalescer createRepositoryUpdateCoalescer() {
+        if (!nifiProperties.isSessionCommitCoalescingEnabled()) {
+            return null;
+        }
+
+        final long windowNanos = Math.max(0L, FormatUtils.getTimeDuration(nifiProperties.getSessionCommitCoalescingWindow(), TimeUnit.NANOSECONDS));
+        final int maxRecords = nifiProperties.getSessionCommitCoalescingMaxRecords();
+        LOG.info("Coalescing the repository updates of batched session commits with a window of {} nanos and at most {} records per update", windowNanos, maxRecords);
+        return new RepositoryUpdateCoalescer(flowFileRepository, provenanceRepository, windowNanos, TimeUnit.NANOSECONDS, maxRecords);
+    }
+
     private long getMaxAppendableBytes() {
         final String maxAppendableClaimSize = nifiProperties.getMaxAppendableClaimSize();
         final long maxAppendableClaimBytes = DataUnit.parseDataSize(maxAppendableClaimSize, DataUnit.B).longValue();
@@ -1587,6 +1613,9 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
             validationThreadPool.shutdown();
             flowAnalysisThreadPool.shutdown();
+            if (swapPrefetchThreadPool != null) {
+                swapPrefetchThreadPool.shutdownNow();
+            }
             clusterTaskExecutor.shutdownNow();
 
             if (stateProviderServer != null) {
@@ -1624,9 +1653,15 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
             if (kill) {
                 this.timerDrivenEngineRef.get().shutdownNow();
+                if (virtualThreadEngine != null) {
+                    virtualThreadEngine.shutdownNow();
+                }
                 LOG.info("Initiated immediate shutdown of flow controller...");
             } else {
                 this.timerDrivenEngineRef.get().shutdown();
+                if (virtualThreadEngine != null) {
+                    virtualThreadEngine.shutdown();
+                }
                 LOG.info("Initiated graceful shutdown of flow controller...waiting up to {} seconds", gracefulShutdownSeconds);
             }
 
@@ -1635,6 +1670,9 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 // in order to allow for a more graceful shutdown.
                 final long millisToWait = Math.max(2000, shutdownEnd - System.currentTimeMillis());
                 this.timerDrivenEngineRef.get().awaitTermination(millisToWait, TimeUnit.MILLISECONDS);
+                if (virtualThreadEngine != null) {
+                    virtualThreadEngine.awaitTermination(Math.max(0L, shutdownEnd - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
             } catch (final InterruptedException ie) {
                 LOG.info("Interrupted while waiting for controller termination.");
             }
@@ -1871,6 +1909,13 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         return timerDrivenEngineRef.get().getActiveCount();
     }
 
+    /**
+     * @return the number of tasks of the Processors configured to run on virtual threads that are currently running
+     */
+    public int getActiveVirtualThreadCount() {
+        return virtualThreadEngine == null ? 0 : virtualThreadEngine.getActiveCount();
+    }
+
     public void setMaxTimerDrivenThreadCount(final int maxThreadCount) {
         writeLock.lock();
         try {
@@ -2351,13 +2396,19 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         final FlowFileQueueFactory flowFileQueueFactory = (loadBalanceStrategy, partitioningAttribute, processGroup) -> {
             final FlowFileQueue flowFileQueue;
 
-            if (clusterCoordinator == null) {
+            if (clusterCoordinator == null && nifiProperties.getQueueStripeCount() > 1) {
+                flowFileQueue = new StripedFlowFileQueue(id, flowFileRepository, provenanceRepository, processScheduler, swapManager,
+                        eventReporter, nifiProperties.getQueueSwapThreshold(), nifiProperties.getQueueStripeCount(),
+                        processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold(),
+                        swapPrefetchThreadPool);
+            } else if (clusterCoordinator == null) {
                 flowFileQueue = new StandardFlowFileQueue(id, flowFileRepository, provenanceRepository, processScheduler, swapManager,
                         eventReporter, nifiProperties.getQueueSwapThreshold(),
-                        processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold());
+                        processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold(),
+                        swapPrefetchThreadPool);
             } else {
                 flowFileQueue = new SocketLoadBalancedFlowFileQueue(id, processScheduler, flowFileRepository, provenanceRepository, contentRepository,
-                        clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter);
+                        clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter, swapPrefetchThreadPool);
 
                 flowFileQueue.setFlowFileExpiration(processGroup.getDefaultFlowFileExpiration());
                 flowFileQueue.setBackPressureObjectThreshold(processGroup.getDefaultBackPressureObjectThreshold());
@@ -2527,7 +2578,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     }
 
     public int getActiveThreadCount() {
-        return timerDrivenEngineRef.get().getActiveCount();
+        return getActiveTimerDrivenThreadCount() + getActiveVirtualThreadCount();
     }
 
     //
@@ -71,6 +71,8 @@ public abstract class AbstractFlowFileQueue implements FlowFileQueue {
 
     private LoadBalanceCompression compression = LoadBalanceCompression.DO_NOT_COMPRESS;
 
+    private volatile Runnable flowFilesQueuedListener;
+
     public AbstractFlowFileQueue(final String identifier, final ProcessScheduler scheduler,
             final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo) {
         this.identifier = identifier;
@@ -88,6 +90,22 @@ public abstract class AbstractFlowFileQueue implements FlowFileQueue {
         return scheduler;
     }
 
+    @Override
+    public void setFlowFilesQueuedListener(final Runnable listener) {
+        this.flowFilesQueuedListener = listener;
+    }
+
+    /**
+     * Notifies the listener, if any, that FlowFiles have been placed into this queue. Must be called after the FlowFiles have been made
+     * available to be polled, so that a component that is triggered by the notification is able to obtain them.
+     */
+    protected void notifyFlowFilesQueued() {
+        final Runnable listener = flowFilesQueuedListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
     @Override
     public String getFlowFileExpiration() {
         return expirationPeriod.get().getPeriod();
@@ -21,11 +21,20 @@ public class StandardLocalQueuePartitionDiagnostics implements LocalQueuePartiti
     private final FlowFileQueueSize queueSize;
     private final boolean anyPenalized;
     private final boolean allPenalized;
+    private final long swapPrefetchHitCount;
+    private final long swapPrefetchMissCount;
 
     public StandardLocalQueuePartitionDiagnostics(final FlowFileQueueSize queueSize, final boolean anyPenalized, final boolean allPenalized) {
+        this(queueSize, anyPenalized, allPenalized, 0L, 0L);
+    }
+
+    public StandardLocalQueuePartitionDiagnostics(final FlowFileQueueSize queueSize, final boolean anyPenalized, final boolean allPenalized,
+                                                  final long swapPrefetchHitCount, final long swapPrefetchMissCount) {
         this.queueSize = queueSize;
         this.anyPenalized = anyPenalized;
         this.allPenalized = allPenalized;
+        this.swapPrefetchHitCount = swapPrefetchHitCount;
+        this.swapPrefetchMissCount = swapPrefetchMissCount;
     }
 
     @Override
@@ -57,4 +66,14 @@ public class StandardLocalQueuePartitionDiagnostics implements LocalQueuePartiti
     public boolean isAllActiveFlowFilesPenalized() {
         return allPenalized;
     }
+
+    @Override
+    public long getSwapPrefetchHitCount() {
+        return swapPrefetchHitCount;
+    }
+
+    @Override
+    public long getSwapPrefetchMissCount() {
+        return swapPrefetchMissCount;
+    }
 }
@@ -0,0 +1,612 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.status.FlowFileAvailability;
+import org.apache.nifi.controller.swap.StandardSwapSummary;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.apache.nifi.processor.FlowFileFilter;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.apache.nifi.reporting.Severity;
+import org.apache.nifi.util.concurrency.TimedLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * A FlowFileQueue that spreads its FlowFiles across several {@link SwappablePriorityQueue} stripes, each guarded by its own lock,
+ * so that many concurrent tasks can put FlowFiles into and poll FlowFiles from the same connection without all contending for a
+ * single lock. Each stripe swaps independently, using its share of the configured swap threshold.
+ * </p>
+ *
+ * <p>
+ * FlowFiles are ordered within a stripe but not across stripes, so the queue is intended for connections that have no prioritizer
+ * or only the First In First Out prioritizer. If any other prioritizer is configured, all FlowFiles are moved to the first stripe
+ * and all new FlowFiles are added to that stripe until the prioritizers are changed again, which provides the same ordering as a
+ * {@link StandardFlowFileQueue}.
+ * </p>
+ *
+ * <p>
+ * FlowFiles that have been polled are accounted for by this queue rather than by the stripe they were polled from, so that they
+ * can be acknowledged without knowing which stripe held them.
+ * </p>
+ */
+public class StripedFlowFileQueue extends AbstractFlowFileQueue implements FlowFileQueue {
+    private static final Logger logger = LoggerFactory.getLogger(StripedFlowFileQueue.class);
+
+    private static final String FIRST_IN_FIRST_OUT_PRIORITIZER = "org.apache.nifi.prioritizer.FirstInFirstOutPrioritizer";
+    private static final String STRIPE_PARTITION_PREFIX = "stripe-";
+
+    private final SwappablePriorityQueue[] stripes;
+    private final FlowFileSwapManager swapManager;
+    private final EventReporter eventReporter;
+    private final LongAdder unacknowledgedCount = new LongAdder();
+    private final LongAdder unacknowledgedBytes = new LongAdder();
+    private volatile boolean striped = true;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+    private final TimedLock writeLock;
+
+    public StripedFlowFileQueue(final String identifier, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
+                                final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
+                                final int swapThreshold, final int stripeCount, final String expirationPeriod, final long defaultBackPressureObjectThreshold,
+                                final String defaultBackPressureDataSizeThreshold) {
+        this(identifier, flowFileRepo, provRepo, scheduler, swapManager, eventReporter, swapThreshold, stripeCount, expirationPeriod, defaultBackPressureObjectThreshold,
+            defaultBackPressureDataSizeThreshold, null);
+    }
+
+    public StripedFlowFileQueue(final String identifier, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
+                                final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
+                                final int swapThreshold, final int stripeCount, final String expirationPeriod, final long defaultBackPressureObjectThreshold,
+                                final String defaultBackPressureDataSizeThreshold, final Executor swapPrefetchExecutor) {
+
+        super(identifier, scheduler, flowFileRepo, provRepo);
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe Count must be at least 1 but was " + stripeCount);
+        }
+
+        super.setFlowFileExpiration(expirationPeriod);
+        this.swapManager = swapManager;
+        this.eventReporter = eventReporter;
+
+        final int stripeSwapThreshold = Math.max(1, swapThreshold / stripeCount);
+        stripes = new SwappablePriorityQueue[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new SwappablePriorityQueue(swapManager, stripeSwapThreshold, eventReporter, this, this::drop, getStripePartitionName(i), swapPrefetchExecutor);
+        }
+
+        writeLock = new TimedLock(this.lock.writeLock(), getIdentifier() + " Write Lock", 100);
+
+        setBackPressureDataSizeThreshold(defaultBackPressureDataSizeThreshold);
+        setBackPressureObjectThreshold(defaultBackPressureObjectThreshold);
+    }
+
+    private static String getStripePartitionName(final int stripeIndex) {
+        return STRIPE_PARTITION_PREFIX + stripeIndex;
+    }
+
+    @Override
+    public void startLoadBalancing() {
+    }
+
+    @Override
+    public void stopLoadBalancing() {
+    }
+
+    @Override
+    public void offloadQueue() {
+    }
+
+    @Override
+    public void resetOffloadedQueue() {
+    }
+
+    @Override
+    public boolean isActivelyLoadBalancing() {
+        return false;
+    }
+
+    @Override
+    public synchronized void setPriorities(final List<FlowFilePrioritizer> newPriorities) {
+        for (final SwappablePriorityQueue stripe : stripes) {
+            stripe.setPriorities(newPriorities);
+        }
+
+        final boolean firstInFirstOut = newPriorities.stream()
+            .allMatch(prioritizer -> FIRST_IN_FIRST_OUT_PRIORITIZER.equals(prioritizer.getClass().getName()));
+
+        if (firstInFirstOut) {
+            striped = true;
+            return;
+        }
+
+        // Stop adding FlowFiles to the other stripes before moving their contents, including any Swap Files, to the first stripe.
+        striped = false;
+        for (int i = 1; i < stripes.length; i++) {
+            final FlowFileQueueContents contents = stripes[i].packageForRebalance(getStripePartitionName(0));
+            stripes[0].inheritQueueContents(contents);
+        }
+
+        logger.debug("{} has prioritizers {} configured, so all FlowFiles are now held by a single stripe", this, newPriorities);
+    }
+
+    @Override
+    public List<FlowFilePrioritizer> getPriorities() {
+        return stripes[0].getPriorities();
+    }
+
+    @Override
+    protected List<FlowFileRecord> getListableFlowFiles() {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        for (final SwappablePriorityQueue stripe : stripes) {
+            flowFiles.addAll(stripe.getActiveFlowFiles());
+        }
+
+        return flowFiles;
+    }
+
+    @Override
+    public QueueDiagnostics getQueueDiagnostics() {
+        boolean anyPenalized = false;
+        boolean allPenalized = true;
+        long swapPrefetchHitCount = 0L;
+        long swapPrefetchMissCount = 0L;
+        for (final SwappablePriorityQueue stripe : stripes) {
+            final LocalQueuePartitionDiagnostics diagnostics = stripe.getQueueDiagnostics();
+            swapPrefetchHitCount += diagnostics.getSwapPrefetchHitCount();
+            swapPrefetchMissCount += diagnostics.getSwapPrefetchMissCount();
+            if (diagnostics.getActiveQueueSize().getObjectCount() == 0) {
+                continue;
+            }
+
+            anyPenalized |= diagnostics.isAnyActiveFlowFilePenalized();
+            allPenalized &= diagnostics.isAllActiveFlowFilesPenalized();
+        }
+
+        final LocalQueuePartitionDiagnostics diagnostics = new StandardLocalQueuePartitionDiagnostics(getFlowFileQueueSize(), anyPenalized, anyPenalized && allPenalized,
+            swapPrefetchHitCount, swapPrefetchMissCount);
+        return new StandardQueueDiagnostics(diagnostics, Collections.emptyList());
+    }
+
+    @Override
+    public void put(final FlowFileRecord file) {
+        selectStripe().put(file);
+        notifyFlowFilesQueued();
+    }
+
+    @Override
+    public void putAll(final Collection<FlowFileRecord> files) {
+        // Keep the FlowFiles together so that they are added with a single lock acquisition and remain in order relative to one another.
+        selectStripe().putAll(files);
+        notifyFlowFilesQueued();
+    }
+
+    private SwappablePriorityQueue selectStripe() {
+        return striped ? stripes[ThreadLocalRandom.current().nextInt(stripes.length)] : stripes[0];
+    }
+
+    private int selectFirstStripeToPoll() {
+        return striped ? ThreadLocalRandom.current().nextInt(stripes.length) : 0;
+    }
+
+    @Override
+    public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final PollStrategy pollStrategy) {
+        final long expirationMillis = getFlowFileExpiration(TimeUnit.MILLISECONDS);
+        final int firstStripe = selectFirstStripeToPoll();
+
+        for (int i = 0; i < stripes.length; i++) {
+            final SwappablePriorityQueue stripe = stripes[(firstStripe + i) % stripes.length];
+            if (stripe.isActiveQueueEmpty()) {
+                continue;
+            }
+
+            // A stripe accounts for expired FlowFiles based on the size of the set that it is given, so each stripe needs its own set.
+            final Set<FlowFileRecord> stripeExpiredRecords = new HashSet<>();
+            final FlowFileRecord flowFile = stripe.poll(stripeExpiredRecords, expirationMillis, pollStrategy);
+            expiredRecords.addAll(stripeExpiredRecords);
+
+            if (flowFile != null) {
+                takeUnacknowledged(stripe, Collections.singletonList(flowFile));
+                return flowFile;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public List<FlowFileRecord> poll(final int maxResults, final Set<FlowFileRecord> expiredRecords, final PollStrategy pollStrategy) {
+        final long expirationMillis = getFlowFileExpiration(TimeUnit.MILLISECONDS);
+        final int firstStripe = selectFirstStripeToPoll();
+        final List<FlowFileRecord> records = new ArrayList<>(Math.min(maxResults, 100));
+
+        for (int i = 0; i < stripes.length && records.size() < maxResults; i++) {
+            final SwappablePriorityQueue stripe = stripes[(firstStripe + i) % stripes.length];
+            if (stripe.isActiveQueueEmpty()) {
+                continue;
+            }
+
+            final Set<FlowFileRecord> stripeExpiredRecords = new HashSet<>();
+            final List<FlowFileRecord> polled = stripe.poll(maxResults - records.size(), stripeExpiredRecords, expirationMillis, pollStrategy);
+            expiredRecords.addAll(stripeExpiredRecords);
+
+            if (!polled.isEmpty()) {
+                takeUnacknowledged(stripe, polled);
+                records.addAll(polled);
+            }
+        }
+
+        return records;
+    }
+
+    @Override
+    public List<FlowFileRecord> poll(final FlowFileFilter filter, final Set<FlowFileRecord> expiredRecords, final PollStrategy pollStrategy) {
+        final long expirationMillis = getFlowFileExpiration(TimeUnit.MILLISECONDS);
+        final int firstStripe = selectFirstStripeToPoll();
+        final TerminationTrackingFilter trackingFilter = new TerminationTrackingFilter(filter);
+        final List<FlowFileRecord> records = new ArrayList<>();
+
+        for (int i = 0; i < stripes.length && !trackingFilter.isTerminated(); i++) {
+            final SwappablePriorityQueue stripe = stripes[(firstStripe + i) % stripes.length];
+            if (stripe.isActiveQueueEmpty()) {
+                continue;
+            }
+
+            final Set<FlowFileRecord> stripeExpiredRecords = new HashSet<>();
+            final List<FlowFileRecord> polled = stripe.poll(trackingFilter, stripeExpiredRecords, expirationMillis, pollStrategy);
+            expiredRecords.addAll(stripeExpiredRecords);
+
+            if (!polled.isEmpty()) {
+                takeUnacknowledged(stripe, polled);
+                records.addAll(polled);
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Moves the given FlowFiles, which were just polled from the given stripe, from that stripe's unacknowledged count to this queue's
+     * unacknowledged count. The count of this queue is incremented first so that the queue never appears empty while the FlowFiles are
+     * being moved.
+     */
+    private void takeUnacknowledged(final SwappablePriorityQueue stripe, final List<FlowFileRecord> flowFiles) {
+        long bytes = 0L;
+        for (final FlowFileRecord flowFile : flowFiles) {
+            bytes += flowFile.getSize();
+        }
+
+        unacknowledgedCount.add(flowFiles.size());
+        unacknowledgedBytes.add(bytes);
+        stripe.acknowledge(flowFiles);
+    }
+
+    @Override
+    public void acknowledge(final FlowFileRecord flowFile) {
+        logger.trace("{} Acknowledging {}", this, flowFile);
+        unacknowledgedCount.decrement();
+        unacknowledgedBytes.add(-flowFile.getSize());
+    }
+
+    @Override
+    public void acknowledge(final Collection<FlowFileRecord> flowFiles) {
+        long bytes = 0L;
+        for (final FlowFileRecord flowFile : flowFiles) {
+            logger.trace("{} Acknowledging {}", this, flowFile);
+            bytes += flowFile.getSize();
+        }
+
+        unacknowledgedCount.add(-flowFiles.size());
+        unacknowledgedBytes.add(-bytes);
+    }
+
+    @Override
+    public boolean isUnacknowledgedFlowFile() {
+        if (unacknowledgedCount.sum() > 0) {
+            return true;
+        }
+
+        for (final SwappablePriorityQueue stripe : stripes) {
+            if (stripe.isUnacknowledgedFlowFile()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the combined size of all stripes, including the FlowFiles that have been polled but not yet acknowledged
+     */
+    FlowFileQueueSize getFlowFileQueueSize() {
+        int activeCount = 0;
+        long activeBytes = 0L;
+        int swappedCount = 0;
+        long swappedBytes = 0L;
+        int swapFileCount = 0;
+        int unackCount = (int) unacknowledgedCount.sum();
+        long unackBytes = unacknowledgedBytes.sum();
+
+        for (final SwappablePriorityQueue stripe : stripes) {
+            final FlowFileQueueSize stripeSize = stripe.getFlowFileQueueSize();
+            activeCount += stripeSize.getActiveCount();
+            activeBytes += stripeSize.getActiveBytes();
+            swappedCount += stripeSize.getSwappedCount();
+            swappedBytes += stripeSize.getSwappedBytes();
+            swapFileCount += stripeSize.getSwapFileCount();
+            unackCount += stripeSize.getUnacknowledgedCount();
+            unackBytes += stripeSize.getUnacknowledgedBytes();
+        }
+
+        return new FlowFileQueueSize(activeCount, activeBytes, swappedCount, swappedBytes, swapFileCount, unackCount, unackBytes);
+    }
+
+    @Override
+    public QueueSize size() {
+        return getFlowFileQueueSize().toQueueSize();
+    }
+
+    @Override
+    public long getTotalQueuedDuration(final long fromTimestamp) {
+        long sum = 0L;
+        for (final SwappablePriorityQueue stripe : stripes) {
+            sum += stripe.getTotalQueuedDuration(fromTimestamp);
+        }
+
+        return sum;
+    }
+
+    @Override
+    public long getMinLastQueueDate() {
+        long min = 0L;
+        for (final SwappablePriorityQueue stripe : stripes) {
+            final long stripeMin = stripe.getMinLastQueueDate();
+            if (stripeMin != 0L) {
+                min = min == 0L ? stripeMin : Long.min(min, stripeMin);
+            }
+        }
+
+        return min;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getFlowFileQueueSize().isEmpty();
+    }
+
+    @Override
+    public FlowFileAvailability getFlowFileAvailability() {
+        FlowFileAvailability availability = FlowFileAvailability.ACTIVE_QUEUE_EMPTY;
+        for (final SwappablePriorityQueue stripe : stripes) {
+            final FlowFileAvailability stripeAvailability = stripe.getFlowFileAvailability();
+            if (stripeAvailability == FlowFileAvailability.FLOWFILE_AVAILABLE) {
+                return stripeAvailability;
+            }
+
+            if (stripeAvailability == FlowFileAvailability.HEAD_OF_QUEUE_PENALIZED) {
+                availability = stripeAvailability;
+            }
+        }
+
+        return availability;
+    }
+
+    @Override
+    public boolean isActiveQueueEmpty() {
+        for (final SwappablePriorityQueue stripe : stripes) {
+            if (!stripe.isActiveQueueEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void purgeSwapFiles() {
+        swapManager.purge();
+    }
+
+    @Override
+    public SwapSummary recoverSwappedFlowFiles() {
+        adoptUnownedSwapFiles();
+
+        final List<SwapSummary> summaries = new ArrayList<>(stripes.length);
+        for (final SwappablePriorityQueue stripe : stripes) {
+            final SwapSummary summary = stripe.recoverSwappedFlowFiles();
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+
+        Long maxId = null;
+        QueueSize totalQueueSize = new QueueSize(0, 0L);
+        final List<ResourceClaim> resourceClaims = new ArrayList<>();
+        Long minLastQueueDate = null;
+        long totalLastQueueDate = 0L;
+
+        for (final SwapSummary summary : summaries) {
+            final Long summaryMaxId = summary.getMaxFlowFileId();
+            if (summaryMaxId != null && (maxId == null || summaryMaxId > maxId)) {
+                maxId = summaryMaxId;
+            }
+
+            totalQueueSize = totalQueueSize.add(summary.getQueueSize());
+            resourceClaims.addAll(summary.getResourceClaims());
+
+            if (minLastQueueDate == null) {
+                minLastQueueDate = summary.getMinLastQueueDate();
+            } else if (summary.getMinLastQueueDate() != null) {
+                minLastQueueDate = Long.min(minLastQueueDate, summary.getMinLastQueueDate());
+            }
+
+            totalLastQueueDate += summary.getTotalLastQueueDate();
+        }
+
+        return new StandardSwapSummary(totalQueueSize, maxId, resourceClaims, minLastQueueDate, totalLastQueueDate);
+    }
+
+    /**
+     * Assigns any Swap File of this queue that does not belong to one of the stripes to the first stripe. Such Swap Files are written
+     * when the connection was previously served by a {@link StandardFlowFileQueue} or by this queue with a different number of stripes.
+     */
+    private void adoptUnownedSwapFiles() {
+        try {
+            final Set<String> ownedSwapLocations = new HashSet<>();
+            for (int i = 0; i < stripes.length; i++) {
+                ownedSwapLocations.addAll(swapManager.recoverSwapLocations(this, getStripePartitionName(i)));
+            }
+
+            for (final String swapLocation : swapManager.recoverSwapLocations(this, null)) {
+                if (ownedSwapLocations.contains(swapLocation)) {
+                    continue;
+                }
+
+                final String updatedSwapLocation = swapManager.changePartitionName(swapLocation, getStripePartitionName(0));
+                logger.info("Assigned Swap File {} of {} to its first stripe as {}", swapLocation, this, updatedSwapLocation);
+            }
+        } catch (final IOException ioe) {
+            logger.error("Failed to assign Swap Files that do not belong to any stripe of FlowFile Queue {}", getIdentifier(), ioe);
+            if (eventReporter != null) {
+                eventReporter.reportEvent(Severity.ERROR, "FlowFile Swapping", "Failed to assign Swap Files that do not belong to any stripe of FlowFile Queue " +
+                    getIdentifier() + "; see logs for more details");
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlowFileQueue[id=" + getIdentifier() + "]";
+    }
+
+    @Override
+    public FlowFileRecord getFlowFile(final String flowFileUuid) throws IOException {
+        for (final SwappablePriorityQueue stripe : stripes) {
+            final FlowFileRecord flowFile = stripe.getFlowFile(flowFileUuid);
+            if (flowFile != null) {
+                return flowFile;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void dropFlowFiles(final DropFlowFileRequest dropRequest, final String requestor) {
+        dropRequest.setOriginalSize(size());
+        dropRequest.setState(DropFlowFileState.DROPPING_FLOWFILES);
+
+        int droppedCount = 0;
+        long droppedBytes = 0L;
+
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                if (dropRequest.getState() == DropFlowFileState.CANCELED) {
+                    logger.info("Cancel requested for DropFlowFileRequest {}", dropRequest.getRequestIdentifier());
+                    break;
+                }
+
+                final DropFlowFileRequest stripeRequest = new DropFlowFileRequest(dropRequest.getRequestIdentifier() + "-" + getStripePartitionName(i));
+                stripes[i].dropFlowFiles(stripeRequest, requestor);
+
+                droppedCount += stripeRequest.getDroppedSize().getObjectCount();
+                droppedBytes += stripeRequest.getDroppedSize().getByteCount();
+                dropRequest.setDroppedSize(new QueueSize(droppedCount, droppedBytes));
+                dropRequest.setCurrentSize(size());
+
+                if (stripeRequest.getState() == DropFlowFileState.CANCELED) {
+                    dropRequest.cancel();
+                    break;
+                } else if (stripeRequest.getState() == DropFlowFileState.FAILURE) {
+                    dropRequest.setState(DropFlowFileState.FAILURE, stripeRequest.getFailureReason());
+                    break;
+                }
+            }
+
+            if (dropRequest.getState() == DropFlowFileState.DROPPING_FLOWFILES) {
+                dropRequest.setState(DropFlowFileState.COMPLETE);
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to drop FlowFiles for {}", this, e);
+            dropRequest.setState(DropFlowFileState.FAILURE, "Failed to drop FlowFiles due to " + e.getMessage() + ". See log for more details.");
+        }
+    }
+
+    /**
+     * Lock the queue so that other threads are unable to interact with the queue
+     */
+    @Override
+    public void lock() {
+        writeLock.lock();
+    }
+
+    /**
+     * Unlock the queue
+     */
+    @Override
+    public void unlock() {
+        writeLock.unlock("external unlock");
+    }
+
+    /**
+     * Wraps the FlowFileFilter that is given to a poll so that the filter is not consulted again, by the next stripe, once it has asked
+     * to stop polling.
+     */
+    private static class TerminationTrackingFilter implements FlowFileFilter {
+        private final FlowFileFilter filter;
+        private boolean terminated = false;
+
+        private TerminationTrackingFilter(final FlowFileFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public FlowFileFilterResult filter(final FlowFile flowFile) {
+            final FlowFileFilterResult result = filter.filter(flowFile);
+            if (!result.isContinue()) {
+                terminated = true;
+            }
+
+            return result;
+        }
+
+        private boolean isTerminated() {
+            return terminated;
+        }
+    }
+}
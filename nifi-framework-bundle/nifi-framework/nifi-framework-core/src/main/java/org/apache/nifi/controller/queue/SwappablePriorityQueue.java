@@ -20,6 +20,7 @@ package org.apache.nifi.controller.queue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
 import org.apache.nifi.controller.repository.IncompleteSwapFileException;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
 import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapSummary;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
@@ -49,7 +50,13 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -57,6 +64,8 @@ public class SwappablePriorityQueue {
     private static final Logger logger = LoggerFactory.getLogger(SwappablePriorityQueue.class);
     private static final int SWAP_RECORD_POLL_SIZE = 10_000;
     private static final int MAX_EXPIRED_RECORDS_PER_ITERATION = 10_000;
+    // The next swap file is read in the background once the active queue holds fewer than this percentage of the swap threshold
+    private static final int SWAP_PREFETCH_LOW_WATER_MARK_PERCENT = 50;
 
     private final int swapThreshold;
     private final FlowFileSwapManager swapManager;
@@ -65,6 +74,8 @@ public class SwappablePriorityQueue {
     private final DropFlowFileAction dropAction;
     private volatile List<FlowFilePrioritizer> priorities = new ArrayList<>();
     private final String swapPartitionName;
+    private final Executor swapPrefetchExecutor;
+    private final int swapPrefetchLowWaterMark;
 
     private final List<String> swapLocations = new ArrayList<>();
     private final AtomicReference<FlowFileQueueSize> size = new AtomicReference<>(new FlowFileQueueSize(0, 0L, 0, 0L, 0, 0, 0L));
@@ -91,8 +102,22 @@ public class SwappablePriorityQueue {
     private final Map<String, Long> minQueueDateInSwapLocation = new HashMap<>();
     private final Map<String, Long> totalQueueDateInSwapLocation = new HashMap<>();
 
+    // The swap file that is being read in the background so that it is ready by the time that the active queue is empty. Guarded by lock.
+    private SwapPrefetch swapPrefetch;
+    private final AtomicLong swapPrefetchHitCount = new AtomicLong(0L);
+    private final AtomicLong swapPrefetchMissCount = new AtomicLong(0L);
+
     public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
         final DropFlowFileAction dropAction, final String swapPartitionName) {
+        this(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, swapPartitionName, null);
+    }
+
+    /**
+     * @param swapPrefetchExecutor the Executor to use for reading the next swap file in the background once the active queue drops below
+     *            {@value #SWAP_PREFETCH_LOW_WATER_MARK_PERCENT} percent of the swap threshold, or <code>null</code> to read swap files only when the active queue is empty
+     */
+    public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
+        final DropFlowFileAction dropAction, final String swapPartitionName, final Executor swapPrefetchExecutor) {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
 
@@ -102,6 +127,8 @@ public class SwappablePriorityQueue {
         this.flowFileQueue = flowFileQueue;
         this.dropAction = dropAction;
         this.swapPartitionName = swapPartitionName;
+        this.swapPrefetchExecutor = swapPrefetchExecutor;
+        this.swapPrefetchLowWaterMark = Math.max(1, (int) ((long) swapThreshold * SWAP_PREFETCH_LOW_WATER_MARK_PERCENT / 100));
 
         final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
         readLock = new TimedLock(lock.readLock(), flowFileQueue.getIdentifier() + " Read Lock", 100);
@@ -135,7 +162,7 @@ public class SwappablePriorityQueue {
             final boolean anyPenalized = !activeQueue.isEmpty() && activeQueue.peek().isPenalized();
             final boolean allPenalized = anyPenalized && activeQueue.stream().anyMatch(FlowFileRecord::isPenalized);
 
-            return new StandardLocalQueuePartitionDiagnostics(getFlowFileQueueSize(), anyPenalized, allPenalized);
+            return new StandardLocalQueuePartitionDiagnostics(getFlowFileQueueSize(), anyPenalized, allPenalized, swapPrefetchHitCount.get(), swapPrefetchMissCount.get());
         } finally {
             readLock.unlock("getQueueDiagnostics");
         }
@@ -289,6 +316,7 @@ public class SwappablePriorityQueue {
         // Swap Queue to the Active Queue. However, we don't do this if there are FlowFiles already swapped out
         // to disk, because we want them to be swapped back in in the same order that they were swapped out.
         if (!activeQueue.isEmpty()) {
+            prefetchSwapFileIfNecessary();
             return;
         }
 
@@ -350,13 +378,99 @@ public class SwappablePriorityQueue {
         }
     }
 
+    /**
+     * Begins reading the next swap file in the background if the active queue has dropped below the low-water mark, so that the
+     * FlowFiles are already in memory when the active queue becomes empty.
+     *
+     * This method MUST be called with the writeLock held.
+     */
+    private void prefetchSwapFileIfNecessary() {
+        if (swapPrefetchExecutor == null || swapLocations.isEmpty() || activeQueue.size() >= swapPrefetchLowWaterMark) {
+            return;
+        }
+
+        final String swapLocation = swapLocations.get(0);
+        if (swapPrefetch != null && swapPrefetch.swapLocation().equals(swapLocation)) {
+            return;
+        }
+
+        try {
+            final AtomicBoolean readClaimed = new AtomicBoolean(false);
+            final CompletableFuture<SwapContents> contents = CompletableFuture.supplyAsync(() -> {
+                // If the swap file is swapped in before this task begins, the polling thread claims the read and this task does nothing.
+                if (!readClaimed.compareAndSet(false, true)) {
+                    return null;
+                }
+
+                try {
+                    return swapManager.peek(swapLocation, flowFileQueue);
+                } catch (final IOException ioe) {
+                    throw new CompletionException(ioe);
+                }
+            }, swapPrefetchExecutor);
+
+            swapPrefetch = new SwapPrefetch(swapLocation, readClaimed, contents);
+            logger.debug("Began reading Swap File {} in the background for {}", swapLocation, this);
+        } catch (final RejectedExecutionException ree) {
+            logger.debug("Unable to read Swap File {} in the background for {}; it will be read when it is swapped in", swapLocation, this, ree);
+        }
+    }
+
+    /**
+     * Returns the contents of the given swap file if they are being read or have been read in the background, waiting for a read that is
+     * in progress rather than reading the swap file a second time. Returns <code>null</code> if the swap file must be read now, which is
+     * the case if no background read of it has begun.
+     *
+     * This method MUST be called with the writeLock held.
+     */
+    private SwapContents takePrefetchedContents(final String swapLocation) {
+        if (swapPrefetchExecutor == null) {
+            return null;
+        }
+
+        final SwapPrefetch prefetch = swapPrefetch;
+        swapPrefetch = null;
+
+        if (prefetch == null || !prefetch.swapLocation().equals(swapLocation) || prefetch.readClaimed().compareAndSet(false, true)) {
+            if (prefetch != null) {
+                prefetch.contents().cancel(false);
+            }
+
+            swapPrefetchMissCount.incrementAndGet();
+            return null;
+        }
+
+        // The background read has begun, so waiting for it takes no longer than reading the swap file again on this thread would
+        final SwapContents contents = prefetch.contents().exceptionally(failure -> null).join();
+        if (contents == null) {
+            // Reading in the background failed. The swap file is read again so that any failure is handled in the usual way.
+            logger.debug("Failed to read Swap File {} in the background for {}; it will be read again", swapLocation, this);
+            swapPrefetchMissCount.incrementAndGet();
+            return null;
+        }
+
+        swapPrefetchHitCount.incrementAndGet();
+        return contents;
+    }
+
+    /**
+     * This method MUST be called with the writeLock held.
+     */
+    private void cancelSwapPrefetch() {
+        if (swapPrefetch != null) {
+            swapPrefetch.contents().cancel(false);
+            swapPrefetch = null;
+        }
+    }
+
     private void swapIn() {
         final String swapLocation = swapLocations.get(0);
         boolean partialContents = false;
         SwapContents swapContents;
         try {
             logger.debug("Attempting to swap in {}; all swap locations = {}", swapLocation, swapLocations);
-            swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+            final SwapContents prefetchedContents = takePrefetchedContents(swapLocation);
+            swapContents = prefetchedContents == null ? swapManager.swapIn(swapLocation, flowFileQueue) : swapManager.swapIn(swapLocation, flowFileQueue, prefetchedContents);
             swapLocations.remove(0);
             minQueueDateInSwapLocation.remove(swapLocation);
             totalQueueDateInSwapLocation.remove(swapLocation);
@@ -419,7 +533,12 @@ public class SwappablePriorityQueue {
             logger.debug("Successfully swapped in Swap File {} containing {} FlowFiles ({} bytes)", swapLocation, flowFileCount, contentSize);
         }
 
-        activeQueue.addAll(swapContents.getFlowFiles());
+        // Swapped-in FlowFiles belong to a queue that is large enough to have been swapped out, so they are likely to wait in the active queue
+        // for some time. Their attributes are compacted to reduce their footprint while they wait. FlowFiles that are enqueued by sessions are
+        // not compacted, since doing so on every enqueue costs more CPU than the footprint saves.
+        for (final FlowFileRecord flowFile : swapContents.getFlowFiles()) {
+            activeQueue.add(StandardFlowFileRecord.compactAttributes(flowFile));
+        }
     }
 
     public QueueSize size() {
@@ -881,6 +1000,7 @@ public class SwappablePriorityQueue {
                     logger.debug("For DropFlowFileRequest {}, dropped {} for Swap File {}", requestIdentifier, droppedSize, swapLocation);
                 }
 
+                cancelSwapPrefetch();
                 logger.debug("Dropped FlowFiles from {} Swap Files", swapFileCount);
                 logger.info("Successfully dropped {} FlowFiles ({} bytes) from Connection with ID {} on behalf of {}",
                     dropRequest.getDroppedSize().getObjectCount(), dropRequest.getDroppedSize().getByteCount(), getQueueIdentifier(), requestor);
@@ -1162,6 +1282,7 @@ public class SwappablePriorityQueue {
 
             this.swapLocations.clear();
             this.activeQueue.clear();
+            cancelSwapPrefetch();
 
             final int swapQueueCount = swapQueue.size();
             final long swapQueueBytes = swapQueue.stream().mapToLong(FlowFileRecord::getSize).sum();
@@ -1191,4 +1312,7 @@ public class SwappablePriorityQueue {
     public String toString() {
         return "SwappablePriorityQueue[queueId=" + flowFileQueue.getIdentifier() + ", partition=" + swapPartitionName + "]";
     }
+
+    private record SwapPrefetch(String swapLocation, AtomicBoolean readClaimed, CompletableFuture<SwapContents> contents) {
+    }
 }
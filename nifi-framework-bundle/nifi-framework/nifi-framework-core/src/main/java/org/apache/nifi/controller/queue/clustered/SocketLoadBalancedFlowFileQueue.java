@@ -86,6 +86,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -126,6 +127,13 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
                                            final ProvenanceEventRepository provRepo, final ContentRepository contentRepo,
                                            final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
                                            final int swapThreshold, final EventReporter eventReporter) {
+        this(identifier, scheduler, flowFileRepo, provRepo, contentRepo, clusterCoordinator, clientRegistry, swapManager, swapThreshold, eventReporter, null);
+    }
+
+    public SocketLoadBalancedFlowFileQueue(final String identifier, final ProcessScheduler scheduler, final FlowFileRepository flowFileRepo,
+                                           final ProvenanceEventRepository provRepo, final ContentRepository contentRepo,
+                                           final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
+                                           final int swapThreshold, final EventReporter eventReporter, final Executor swapPrefetchExecutor) {
 
         super(identifier, scheduler, flowFileRepo, provRepo);
         this.eventReporter = eventReporter;
@@ -136,7 +144,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
         this.clusterCoordinator = clusterCoordinator;
         this.clientRegistry = clientRegistry;
 
-        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
+        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop, swapPrefetchExecutor);
         rebalancingPartition = new StandardRebalancingPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
 
         // Create a RemoteQueuePartition for each node
@@ -795,7 +803,10 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
 
     @Override
     public void put(final FlowFileRecord flowFile) {
-        putAndGetPartition(flowFile);
+        final QueuePartition partition = putAndGetPartition(flowFile);
+        if (partition == localPartition) {
+            notifyFlowFilesQueued();
+        }
     }
 
     protected QueuePartition putAndGetPartition(final FlowFileRecord flowFile) {
@@ -850,6 +861,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
                 // size has been updated to account for them and therefore we will not attempt to assign a negative queue size.
                 adjustSize(flowFiles.size(), flowFiles.stream().mapToLong(FlowFileRecord::getSize).sum());
                 localPartition.putAll(flowFiles);
+                notifyFlowFilesQueued();
             }
         } finally {
             partitionReadLock.unlock();
@@ -858,7 +870,10 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
 
     @Override
     public void putAll(final Collection<FlowFileRecord> flowFiles) {
-        putAllAndGetPartitions(flowFiles);
+        final Map<QueuePartition, List<FlowFileRecord>> partitionMap = putAllAndGetPartitions(flowFiles);
+        if (partitionMap.containsKey(localPartition)) {
+            notifyFlowFilesQueued();
+        }
     }
 
     protected Map<QueuePartition, List<FlowFileRecord>> putAllAndGetPartitions(final Collection<FlowFileRecord> flowFiles) {
@@ -52,6 +52,18 @@ public class BatchingSessionFactory implements ProcessSessionFactory {
         highThroughputSession = new HighThroughputSession(standardProcessSession);
     }
 
+    /**
+     * Creates a factory whose sessions are committed through the given coalescer, so that the repository updates of the
+     * batch are written together with those of other batches that are committed at the same time.
+     *
+     * @param standardProcessSession the session that accumulates the batch
+     * @param repositoryUpdateCoalescer the coalescer to commit the batch through, or <code>null</code> to update the repositories directly
+     */
+    public BatchingSessionFactory(final StandardProcessSession standardProcessSession, final RepositoryUpdateCoalescer repositoryUpdateCoalescer) {
+        this(standardProcessSession);
+        standardProcessSession.setRepositoryUpdateCoalescer(repositoryUpdateCoalescer);
+    }
+
     @Override
     public ProcessSession createSession() {
         return highThroughputSession;
@@ -47,8 +47,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardOpenOption;
@@ -61,6 +64,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -131,6 +135,9 @@ public class FileSystemRepository implements ContentRepository {
 
     private final NiFiProperties nifiProperties;
 
+    // null unless memory-mapped reads are enabled
+    private final MemoryMappedClaimCache memoryMappedClaimCache;
+
     public FileSystemRepository(final NiFiProperties nifiProperties) throws IOException {
         this.nifiProperties = nifiProperties;
         // determine the file repository paths and ensure they exist
@@ -228,6 +235,16 @@ public class FileSystemRepository implements ContentRepository {
 
         this.alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.content.repository.always.sync"));
         LOG.info("Initializing FileSystemRepository with 'Always Sync' set to {}", alwaysSync);
+
+        if (Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.CONTENT_MEMORY_MAPPED_READS_ENABLED))) {
+            final String maxMappedSize = nifiProperties.getProperty(NiFiProperties.CONTENT_MEMORY_MAPPED_READS_MAX_SIZE, NiFiProperties.DEFAULT_CONTENT_MEMORY_MAPPED_READS_MAX_SIZE);
+            final long maxMappedBytes = DataUnit.parseDataSize(maxMappedSize, DataUnit.B).longValue();
+            memoryMappedClaimCache = new MemoryMappedClaimCache(maxMappedBytes, this::getExistingPath);
+            LOG.info("Memory-mapped reads enabled for FileSystemRepository with a maximum of {} mapped", maxMappedSize);
+        } else {
+            memoryMappedClaimCache = null;
+        }
+
         initializeRepository();
 
         containerCleanupExecutor = new FlowEngine(containers.size(), "Cleanup FileSystemRepository Container", true);
@@ -273,6 +290,10 @@ public class FileSystemRepository implements ContentRepository {
             } catch (final IOException ignored) {
             }
         }
+
+        if (memoryMappedClaimCache != null) {
+            memoryMappedClaimCache.clear();
+        }
     }
 
     private static double getRatio(final String value) {
@@ -597,6 +618,30 @@ public class FileSystemRepository implements ContentRepository {
         return resolvedPath;
     }
 
+    /**
+     * @return the file that currently holds the content of the given Resource Claim, which may be in the archive directory,
+     * or <code>null</code> if the content cannot be found
+     */
+    private Path getExistingPath(final ResourceClaim resourceClaim) {
+        final Path path = getPath(resourceClaim);
+        if (path == null) {
+            return null;
+        }
+        if (Files.exists(path)) {
+            return path;
+        }
+
+        final Path archivePath = getArchivePath(resourceClaim);
+        return Files.exists(archivePath) ? archivePath : null;
+    }
+
+    /**
+     * @return the Memory-Mapped Claim Cache that serves reads, or an empty Optional if memory-mapped reads are not enabled
+     */
+    public Optional<MemoryMappedClaimCache> getMemoryMappedClaimCache() {
+        return Optional.ofNullable(memoryMappedClaimCache);
+    }
+
     private InputStream getInputStream(final ResourceClaim resourceClaim) {
         final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
         return getInputStream(contentClaim);
@@ -764,8 +809,9 @@ public class FileSystemRepository implements ContentRepository {
 
     @Override
     public long importFrom(final Path content, final ContentClaim claim) throws IOException {
-        try (final InputStream in = Files.newInputStream(content, StandardOpenOption.READ)) {
-            return importFrom(in, claim);
+        try (final FileChannel source = FileChannel.open(content, StandardOpenOption.READ);
+             final ContentRepositoryOutputStream out = write(claim, false)) {
+            return out.transferFrom(source);
         }
     }
 
@@ -786,6 +832,13 @@ public class FileSystemRepository implements ContentRepository {
             return 0L;
         }
 
+        if (claim.getLength() >= 0L) {
+            final long transferred = transferToFile(claim, 0L, claim.getLength(), destination, append);
+            if (transferred >= 0L) {
+                return transferred;
+            }
+        }
+
         try (final InputStream in = read(claim);
              final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
             final long copied = StreamUtils.copy(in, fos);
@@ -815,6 +868,11 @@ public class FileSystemRepository implements ContentRepository {
 
         }
 
+        final long transferred = transferToFile(claim, offset, length, destination, append);
+        if (transferred >= 0L) {
+            return transferred;
+        }
+
         try (final InputStream in = read(claim);
              final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
             if (offset > 0) {
@@ -828,6 +886,77 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    /**
+     * Copies a range of the given Content Claim to the destination file by means of {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+     * which allows the operating system to copy the bytes between the files without moving them through the Java heap.
+     *
+     * @param claim the Content Claim to copy
+     * @param offset the offset into the Content Claim of the first byte to copy
+     * @param length the number of bytes to copy
+     * @param destination the file to copy the bytes to
+     * @param append whether to append to the destination file or to overwrite it
+     * @return the number of bytes copied, or -1 if the length of the Content Claim is not known or the Resource Claim's file does not hold
+     * the requested range, in which case the destination file has not been touched and the caller is expected to copy the content by
+     * reading the Content Claim
+     * @throws EOFException if the requested range extends beyond the end of the Content Claim
+     * @throws IOException if unable to copy the content
+     */
+    private long transferToFile(final ContentClaim claim, final long offset, final long length, final Path destination, final boolean append) throws IOException {
+        // The Resource Claim's file is shared with other Content Claims, so the range must be bounded by this Content Claim rather than by the file.
+        // Without a known length, reading the Content Claim is what bounds the copy.
+        final long claimLength = claim.getLength();
+        if (claimLength < 0L) {
+            return -1L;
+        }
+        if (offset + length > claimLength) {
+            throw new EOFException("Attempted to copy " + length + " bytes starting at offset " + offset + " but Content Claim " + claim + " is only " + claimLength + " bytes");
+        }
+
+        final Path sourcePath = getExistingPath(claim.getResourceClaim());
+        if (sourcePath == null) {
+            return -1L;
+        }
+
+        final long position = claim.getOffset() + offset;
+        final FileChannel source;
+        try {
+            source = FileChannel.open(sourcePath, StandardOpenOption.READ);
+        } catch (final NoSuchFileException nsfe) {
+            // The file was archived or removed after its path was resolved.
+            return -1L;
+        }
+
+        try (source) {
+            if (source.size() < position + length) {
+                return -1L;
+            }
+
+            final StandardOpenOption writeMode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+            try (final FileChannel target = FileChannel.open(destination, StandardOpenOption.WRITE, StandardOpenOption.CREATE, writeMode)) {
+                transfer(source, position, length, target);
+                if (alwaysSync) {
+                    target.force(true);
+                }
+            }
+        }
+
+        return length;
+    }
+
+    private static void transfer(final FileChannel source, final long position, final long count, final WritableByteChannel target) throws IOException {
+        // transferTo may copy fewer bytes than requested, for instance when the target is a non-blocking channel or the
+        // operating system limits the size of a single transfer.
+        long transferred = 0L;
+        while (transferred < count) {
+            final long bytesTransferred = source.transferTo(position + transferred, count - transferred, target);
+            if (bytesTransferred <= 0L) {
+                throw new EOFException("Expected to transfer " + count + " bytes but source reached end of file after " + transferred + " bytes");
+            }
+
+            transferred += bytesTransferred;
+        }
+    }
+
     @Override
     public long exportTo(final ContentClaim claim, final OutputStream destination) throws IOException {
         if (claim == null) {
@@ -894,6 +1023,13 @@ public class FileSystemRepository implements ContentRepository {
             return new ByteArrayInputStream(new byte[0]);
         }
 
+        if (memoryMappedClaimCache != null) {
+            final InputStream mappedStream = memoryMappedClaimCache.read(claim, 0L, -1L);
+            if (mappedStream != null) {
+                return mappedStream;
+            }
+        }
+
         return getInputStream(claim);
     }
 
@@ -903,6 +1039,15 @@ public class FileSystemRepository implements ContentRepository {
             return new ByteArrayInputStream(new byte[0]);
         }
 
+        // Memory-mapped reads are used only once the length of the claim is known. If the mapping cannot serve the claim,
+        // we fall back to reading the file, which is also responsible for reporting missing or truncated content.
+        if (memoryMappedClaimCache != null && claim.getLength() >= 0L) {
+            final InputStream mappedStream = memoryMappedClaimCache.read(claim.getResourceClaim(), claim.getOffset(), claim.getLength());
+            if (mappedStream != null) {
+                return mappedStream;
+            }
+        }
+
         final InputStream fis = getInputStream(claim);
         if (claim.getOffset() > 0L) {
             try {
@@ -958,7 +1103,7 @@ public class FileSystemRepository implements ContentRepository {
         return write(claim, false);
     }
 
-    private OutputStream write(final ContentClaim claim, final boolean append) {
+    private ContentRepositoryOutputStream write(final ContentClaim claim, final boolean append) {
         StandardContentClaim scc = validateContentClaimForWriting(claim);
 
         ByteCountingOutputStream claimStream = writableClaimStreams.get(scc.getResourceClaim());
@@ -966,7 +1111,7 @@ public class FileSystemRepository implements ContentRepository {
 
         final ByteCountingOutputStream bcos = claimStream;
 
-        final OutputStream out = new ContentRepositoryOutputStream(scc, bcos, initialLength);
+        final ContentRepositoryOutputStream out = new ContentRepositoryOutputStream(scc, bcos, initialLength);
 
         LOG.debug("Writing to {}", out);
         if (LOG.isTraceEnabled()) {
@@ -996,6 +1141,10 @@ public class FileSystemRepository implements ContentRepository {
 
     @Override
     public void purge() {
+        if (memoryMappedClaimCache != null) {
+            memoryMappedClaimCache.clear();
+        }
+
         // delete all content from repositories
         for (final Path path : containers.values()) {
             FileUtils.deleteFilesInDir(path.toFile(), null, LOG, true);
@@ -1132,6 +1281,11 @@ public class FileSystemRepository implements ContentRepository {
             return false;
         }
 
+        // Drop any mapping before the file is removed or moved to the archive
+        if (memoryMappedClaimCache != null) {
+            memoryMappedClaimCache.invalidate(claim);
+        }
+
         // If the claim count is decremented to 0 (<= 0 as a 'defensive programming' strategy), ensure that
         // we close the stream if there is one. There may be a stream open if create() is called and then
         // claimant count is removed without writing to the claim (or more specifically, without closing the
@@ -1827,6 +1981,37 @@ public class FileSystemRepository implements ContentRepository {
             bcos.flush();
         }
 
+        /**
+         * Appends everything from the current position to the end of the given channel to the Content Claim. The bytes are
+         * transferred by means of {@link FileChannel#transferTo(long, long, WritableByteChannel)} so that the operating
+         * system can copy them directly from one file to the other.
+         *
+         * @param source the channel to copy from
+         * @return the number of bytes appended
+         * @throws IOException if unable to copy the bytes
+         */
+        public synchronized long transferFrom(final FileChannel source) throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            final long position = source.position();
+            final long count = source.size() - position;
+            try {
+                bcos.flush();
+                final FileChannel target = ((FileOutputStream) bcos.getWrappedStream()).getChannel();
+                transfer(source, position, count, target);
+            } catch (final IOException ioe) {
+                recycle = false;
+                throw new IOException("Failed to write to " + this, ioe);
+            }
+
+            source.position(position + count);
+            bytesWritten += count;
+            scc.setLength(bytesWritten + initialLength);
+            return count;
+        }
+
         @Override
         public synchronized void close() throws IOException {
             if (closed) {
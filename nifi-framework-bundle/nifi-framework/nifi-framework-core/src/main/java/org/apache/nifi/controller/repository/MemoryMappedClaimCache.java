@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Caches read-only memory mappings of Resource Claim files so that Content Claims can be read without opening, seeking and
+ * closing the underlying file for every read. Each Resource Claim is mapped once and all Content Claims that reference it are
+ * served as slices of that mapping.
+ * </p>
+ *
+ * <p>
+ * Only Resource Claims that are no longer writable but are still in use are mapped, because the content of such a claim can no
+ * longer change and the claim is not about to be destroyed. A mapping that is evicted or invalidated while a stream is reading
+ * from it remains valid for that stream.
+ * </p>
+ *
+ * <p>
+ * Java provides no supported way to unmap a file, so the operating system mapping is released only once the last reference to it
+ * is garbage collected. Until then, the file's disk space remains allocated even if the file has been removed or archived. Mappings
+ * that have been evicted or invalidated are therefore tracked until they have been collected, and the bytes that they map count
+ * toward the bound on mapped bytes along with the cached mappings. When a new mapping would exceed the bound, the least recently
+ * used cached mappings that are not currently being read are evicted and the Resource Claim is read from its file instead.
+ * </p>
+ *
+ * <p>
+ * Is thread safe
+ * </p>
+ */
+public class MemoryMappedClaimCache {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryMappedClaimCache.class);
+
+    private final long maxMappedBytes;
+    private final long maxFileSize;
+    private final Function<ResourceClaim, Path> pathResolver;
+
+    // access-ordered so that iteration starts with the least recently used mapping
+    private final Map<ResourceClaim, MappedResourceClaim> mappings = new LinkedHashMap<>(64, 0.75F, true); // guarded by synchronizing on this
+    private long mappedBytes = 0L; // guarded by synchronizing on this
+
+    // mappings that are no longer cached but may not yet have been garbage collected
+    private final ReferenceQueue<MappedByteBuffer> releasedQueue = new ReferenceQueue<>();
+    private final Set<ReleasedMapping> releasedMappings = new HashSet<>(); // guarded by synchronizing on this
+    private long releasedBytes = 0L; // guarded by synchronizing on this
+
+    private final AtomicLong hitCount = new AtomicLong(0L);
+    private final AtomicLong missCount = new AtomicLong(0L);
+    private final AtomicLong evictionCount = new AtomicLong(0L);
+
+    /**
+     * @param maxMappedBytes the maximum number of bytes that may be mapped at any one time, including mappings that are no longer cached
+     *                       but have not yet been garbage collected
+     * @param pathResolver resolves the file that currently holds the content of a Resource Claim, or <code>null</code> if there is no such file
+     */
+    public MemoryMappedClaimCache(final long maxMappedBytes, final Function<ResourceClaim, Path> pathResolver) {
+        if (maxMappedBytes <= 0) {
+            throw new IllegalArgumentException("Maximum number of mapped bytes must be positive but was " + maxMappedBytes);
+        }
+
+        this.maxMappedBytes = maxMappedBytes;
+        this.maxFileSize = Math.min(maxMappedBytes, Integer.MAX_VALUE);
+        this.pathResolver = pathResolver;
+    }
+
+    /**
+     * Returns an InputStream that reads the given range of the Resource Claim from a memory mapping, or <code>null</code> if the
+     * range cannot be served from a mapping. This is the case if the Resource Claim is still writable or no longer in use, if its file
+     * cannot be found or mapped, if mapping the file would exceed the maximum number of mapped bytes, or if the requested range extends
+     * past the end of the file. Callers are
+     * expected to fall back to reading the file directly, which also allows them to report any error in the usual way.
+     *
+     * @param resourceClaim the Resource Claim to read
+     * @param offset the offset into the Resource Claim at which to start reading
+     * @param length the number of bytes to read, or a negative value to read to the end of the Resource Claim
+     * @return an InputStream for the requested range, or <code>null</code> if the range cannot be read from a mapping
+     */
+    public InputStream read(final ResourceClaim resourceClaim, final long offset, final long length) {
+        if (resourceClaim == null || resourceClaim.isWritable() || !resourceClaim.isInUse()) {
+            return null;
+        }
+
+        MappedResourceClaim mapped = acquire(resourceClaim);
+        if (mapped == null) {
+            missCount.incrementAndGet();
+            mapped = map(resourceClaim);
+            if (mapped == null) {
+                return null;
+            }
+        } else {
+            hitCount.incrementAndGet();
+        }
+
+        final long end = length < 0 ? mapped.size : offset + length;
+        if (offset < 0 || offset > mapped.size || end > mapped.size) {
+            release(mapped);
+            return null;
+        }
+
+        final MappedResourceClaim reference = mapped;
+        return new ByteBufferInputStream(mapped.buffer.slice((int) offset, (int) (end - offset)), () -> release(reference));
+    }
+
+    /**
+     * Removes any mapping for the given Resource Claim. Must be called before the Resource Claim's file is removed or archived.
+     *
+     * @param resourceClaim the Resource Claim whose mapping should be removed
+     */
+    public synchronized void invalidate(final ResourceClaim resourceClaim) {
+        final MappedResourceClaim removed = mappings.remove(resourceClaim);
+        if (removed != null) {
+            retire(removed);
+        }
+    }
+
+    /**
+     * Removes all mappings
+     */
+    public synchronized void clear() {
+        mappings.values().forEach(this::retire);
+        mappings.clear();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getMaxMappedBytes() {
+        return maxMappedBytes;
+    }
+
+    public synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    /**
+     * @return the number of bytes mapped by mappings that are no longer cached but have not yet been garbage collected
+     */
+    public synchronized long getReleasedBytes() {
+        drainReleased();
+        return releasedBytes;
+    }
+
+    public synchronized int getMappedResourceClaimCount() {
+        return mappings.size();
+    }
+
+    private synchronized MappedResourceClaim acquire(final ResourceClaim resourceClaim) {
+        final MappedResourceClaim mapped = mappings.get(resourceClaim);
+        if (mapped != null) {
+            mapped.references++;
+        }
+
+        return mapped;
+    }
+
+    private synchronized void release(final MappedResourceClaim mapped) {
+        mapped.references--;
+    }
+
+    private MappedResourceClaim map(final ResourceClaim resourceClaim) {
+        final Path path = pathResolver.apply(resourceClaim);
+        if (path == null) {
+            return null;
+        }
+
+        final MappedByteBuffer buffer;
+        final long size;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size == 0L || size > maxFileSize || !reserve(size)) {
+                return null;
+            }
+
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            } catch (final IOException | RuntimeException e) {
+                unreserve(size);
+                throw e;
+            }
+        } catch (final NoSuchFileException nsfe) {
+            // The file was removed or archived after the path was resolved.
+            return null;
+        } catch (final IOException ioe) {
+            logger.warn("Failed to map {} from {}; content will be read from the file instead", resourceClaim, path, ioe);
+            return null;
+        }
+
+        final MappedResourceClaim mapped = new MappedResourceClaim(buffer, size);
+        mapped.references = 1;
+
+        synchronized (this) {
+            // The Resource Claim may have been destroyed, and its mapping invalidated, while the file was being mapped. A Resource Claim
+            // that is not writable cannot come back into use, so the mapping is not cached and is released once the caller is done with it.
+            if (!resourceClaim.isInUse()) {
+                retire(mapped);
+                return mapped;
+            }
+
+            // Another thread may have mapped the same Resource Claim concurrently. If so, replace its entry; any stream that is
+            // reading from the replaced mapping holds its own reference to it.
+            final MappedResourceClaim replaced = mappings.put(resourceClaim, mapped);
+            if (replaced != null) {
+                retire(replaced);
+            }
+        }
+
+        logger.debug("Mapped {} bytes of {} from {}", size, resourceClaim, path);
+        return mapped;
+    }
+
+    // Reserves room for a mapping of the given size, evicting cached mappings if necessary. Returns false if there is not enough room,
+    // in which case the evicted mappings free up room once they have been garbage collected.
+    private synchronized boolean reserve(final long size) {
+        drainReleased();
+
+        if (mappedBytes + releasedBytes + size > maxMappedBytes) {
+            evict(size);
+            return false;
+        }
+
+        mappedBytes += size;
+        return true;
+    }
+
+    private synchronized void unreserve(final long size) {
+        mappedBytes -= size;
+    }
+
+    // must be called while synchronized on this
+    private void evict(final long requiredBytes) {
+        final Iterator<MappedResourceClaim> itr = mappings.values().iterator();
+        while (mappedBytes + requiredBytes > maxMappedBytes && itr.hasNext()) {
+            final MappedResourceClaim mapped = itr.next();
+            if (mapped.references > 0) {
+                continue;
+            }
+
+            itr.remove();
+            retire(mapped);
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    // Moves the bytes of a mapping that is no longer cached from the mapped bytes to the released bytes, where they remain until the
+    // mapping has been garbage collected. Must be called while synchronized on this.
+    private void retire(final MappedResourceClaim mapped) {
+        mappedBytes -= mapped.size;
+        releasedBytes += mapped.size;
+        releasedMappings.add(new ReleasedMapping(mapped.buffer, releasedQueue, mapped.size));
+    }
+
+    // must be called while synchronized on this
+    private void drainReleased() {
+        Reference<? extends MappedByteBuffer> reference;
+        while ((reference = releasedQueue.poll()) != null) {
+            final ReleasedMapping released = (ReleasedMapping) reference;
+            if (releasedMappings.remove(released)) {
+                releasedBytes -= released.size;
+            }
+        }
+    }
+
+    private static class MappedResourceClaim {
+        private final MappedByteBuffer buffer;
+        private final long size;
+        private int references = 0; // guarded by synchronizing on the owning MemoryMappedClaimCache
+
+        private MappedResourceClaim(final MappedByteBuffer buffer, final long size) {
+            this.buffer = buffer;
+            this.size = size;
+        }
+    }
+
+    private static class ReleasedMapping extends WeakReference<MappedByteBuffer> {
+        private final long size;
+
+        private ReleasedMapping(final MappedByteBuffer buffer, final ReferenceQueue<MappedByteBuffer> queue, final long size) {
+            super(buffer, queue);
+            this.size = size;
+        }
+    }
+}
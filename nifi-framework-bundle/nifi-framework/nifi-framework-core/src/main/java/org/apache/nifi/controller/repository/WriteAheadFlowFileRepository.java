@@ -25,6 +25,8 @@ import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.repository.schema.FieldCache;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.wali.GroupCommitStatistics;
+import org.apache.nifi.wali.OffHeapSnapshot;
 import org.apache.nifi.wali.SequentialAccessWriteAheadLog;
 import org.apache.nifi.wali.SnapshotCapture;
 import org.slf4j.Logger;
@@ -44,6 +46,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -78,6 +81,18 @@ import java.util.stream.Collectors;
  * choose instead to not sync to disk for every write but instead sync only when
  * we checkpoint.
  * </p>
+ *
+ * <p>
+ * When <code>nifi.flowfile.repository.always.sync</code> is <code>true</code>, the property
+ * <code>nifi.flowfile.repository.group.commit.enabled</code> may also be set to <code>true</code>
+ * so that concurrent session commits share a single sync to disk instead of each paying for its own.
+ * </p>
+ *
+ * <p>
+ * Setting <code>nifi.flowfile.repository.snapshot.storage</code> to <code>off-heap</code> keeps the serialized
+ * FlowFile records in direct memory rather than on the Java heap, and checkpoints only those records that
+ * have changed since the previous checkpoint.
+ * </p>
  */
 public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncListener {
     static final String FLOWFILE_REPOSITORY_DIRECTORY_PREFIX = "nifi.flowfile.repository.directory";
@@ -89,6 +104,11 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
     private final AtomicLong flowFileSequenceGenerator = new AtomicLong(0L);
     private final boolean alwaysSync;
+    private final boolean groupCommitEnabled;
+    private final long groupCommitWindowNanos;
+    private final int groupCommitMaxRecords;
+    private final boolean offHeapSnapshot;
+    private final int recoveryThreads;
     private final boolean retainOrphanedFlowFiles;
 
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadFlowFileRepository.class);
@@ -109,6 +129,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     private RepositoryRecordSerdeFactory serdeFactory;
     private ResourceClaimManager claimManager;
     private FieldCache fieldCache;
+    private OffHeapSnapshot<SerializedRepositoryRecord> snapshot;
 
     // WALI Provides the ability to register callbacks for when a Partition or the entire Repository is sync'ed with the underlying disk.
     // We keep track of this because we need to ensure that the ContentClaims are destroyed only after the FlowFile Repository has been
@@ -138,6 +159,11 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
      */
     public WriteAheadFlowFileRepository() {
         alwaysSync = false;
+        groupCommitEnabled = false;
+        groupCommitWindowNanos = 0L;
+        groupCommitMaxRecords = NiFiProperties.DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_MAX_RECORDS;
+        offHeapSnapshot = false;
+        recoveryThreads = NiFiProperties.DEFAULT_FLOWFILE_REPOSITORY_RECOVERY_THREADS;
         checkpointDelayMillis = 0L;
         checkpointExecutor = null;
         nifiProperties = null;
@@ -147,6 +173,11 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
     public WriteAheadFlowFileRepository(final NiFiProperties nifiProperties) {
         alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_ALWAYS_SYNC, "false"));
+        groupCommitEnabled = alwaysSync && nifiProperties.isFlowFileRepositoryGroupCommitEnabled();
+        groupCommitWindowNanos = Math.max(0L, FormatUtils.getTimeDuration(nifiProperties.getFlowFileRepositoryGroupCommitWindow(), TimeUnit.NANOSECONDS));
+        groupCommitMaxRecords = nifiProperties.getFlowFileRepositoryGroupCommitMaxRecords();
+        offHeapSnapshot = NiFiProperties.FLOWFILE_REPOSITORY_SNAPSHOT_STORAGE_OFF_HEAP.equalsIgnoreCase(nifiProperties.getFlowFileRepositorySnapshotStorage());
+        recoveryThreads = nifiProperties.getFlowFileRepositoryRecoveryThreads();
         this.nifiProperties = nifiProperties;
 
         final String orphanedFlowFileProperty = nifiProperties.getProperty(RETAIN_ORPHANED_FLOWFILES);
@@ -190,8 +221,30 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // delete backup. On restore, if no files exist in partition's directory, would have to check backup directory
         this.serdeFactory = serdeFactory;
 
-        wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this);
-        logger.info("Initialized FlowFile Repository");
+        final File repositoryPath = flowFileRepositoryPaths.get(0);
+        final SequentialAccessWriteAheadLog<SerializedRepositoryRecord> sequentialAccessWal;
+        if (offHeapSnapshot) {
+            snapshot = new OffHeapSnapshot<>(repositoryPath, serdeFactory);
+            if (groupCommitEnabled) {
+                sequentialAccessWal = new SequentialAccessWriteAheadLog<>(repositoryPath, serdeFactory, this, snapshot, groupCommitWindowNanos, TimeUnit.NANOSECONDS, groupCommitMaxRecords);
+            } else {
+                sequentialAccessWal = new SequentialAccessWriteAheadLog<>(repositoryPath, serdeFactory, this, snapshot);
+            }
+        } else if (groupCommitEnabled) {
+            sequentialAccessWal = new SequentialAccessWriteAheadLog<>(repositoryPath, serdeFactory, this, groupCommitWindowNanos, TimeUnit.NANOSECONDS, groupCommitMaxRecords);
+        } else {
+            sequentialAccessWal = new SequentialAccessWriteAheadLog<>(repositoryPath, serdeFactory, this);
+        }
+
+        sequentialAccessWal.setRecoveryThreadCount(recoveryThreads);
+        wal = sequentialAccessWal;
+
+        if (groupCommitEnabled) {
+            logger.info("Initialized FlowFile Repository with {} snapshot, {} recovery threads, group commit window of {} and at most {} records per group commit",
+                offHeapSnapshot ? "off-heap" : "heap", recoveryThreads, FormatUtils.formatNanos(groupCommitWindowNanos, false), groupCommitMaxRecords);
+        } else {
+            logger.info("Initialized FlowFile Repository with {} snapshot and {} recovery threads", offHeapSnapshot ? "off-heap" : "heap", recoveryThreads);
+        }
     }
 
     @Override
@@ -382,6 +435,24 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         }
     }
 
+    /**
+     * @return statistics about the group commits performed by the Write-Ahead Log, or an empty Optional if group commit is not enabled
+     */
+    public Optional<GroupCommitStatistics> getGroupCommitStatistics() {
+        if (wal instanceof SequentialAccessWriteAheadLog<SerializedRepositoryRecord> sequentialAccessWriteAheadLog) {
+            return sequentialAccessWriteAheadLog.getGroupCommitStatistics();
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return the off-heap snapshot that holds the 'active' FlowFile records, or an empty Optional if the records are held on the heap
+     */
+    public Optional<OffHeapSnapshot<SerializedRepositoryRecord>> getOffHeapSnapshot() {
+        return Optional.ofNullable(snapshot);
+    }
+
     @Override
     public void updateRepository(final Collection<RepositoryRecord> records) throws IOException {
         updateRepository(records, alwaysSync);
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the scheduling delay of the Timer Driven components of a Process Group, not including those of its child groups.
+ * The scheduling delay of a task is the time between when the task was due to run and when it began to run, which grows when
+ * the thread pool has no thread available for the task or the group is limited by its {@link ProcessGroupQuota}.
+ */
+public class GroupSchedulingStatistics {
+    private final String groupId;
+    private final String groupName;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder schedulingDelayNanos = new LongAdder();
+    private final AtomicLong maxSchedulingDelayNanos = new AtomicLong();
+
+    GroupSchedulingStatistics(final String groupId, final String groupName) {
+        this.groupId = groupId;
+        this.groupName = groupName;
+    }
+
+    void recordInvocation(final long delayNanos) {
+        invocations.increment();
+        schedulingDelayNanos.add(delayNanos);
+        maxSchedulingDelayNanos.accumulateAndGet(delayNanos, Math::max);
+    }
+
+    /**
+     * @return the identifier of the Process Group
+     */
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return the name of the Process Group at the time that its first component was scheduled
+     */
+    public String getGroupName() {
+        return groupName;
+    }
+
+    /**
+     * @return the number of tasks of the group's components that have begun to run
+     */
+    public long getInvocationCount() {
+        return invocations.sum();
+    }
+
+    /**
+     * @return the total number of nanoseconds that the tasks of the group's components waited to run after they were due
+     */
+    public long getTotalSchedulingDelayNanos() {
+        return schedulingDelayNanos.sum();
+    }
+
+    /**
+     * @return the greatest number of nanoseconds that a task of one of the group's components waited to run after it was due
+     */
+    public long getMaxSchedulingDelayNanos() {
+        return maxSchedulingDelayNanos.get();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.engine.FlowEngine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of Timer Driven tasks that the components of a Process Group, including those of its child groups, may run at the
+ * same time. A group may be given a maximum number of threads, which always applies, and a weight. While all threads of the thread pool
+ * are busy, a group that has a weight may use no more than its weighted share of the pool, so that groups with many busy components cannot
+ * starve the others. While threads are idle, a group may use more than its share.
+ */
+public class ProcessGroupQuota {
+    private final String groupId;
+    private final int maxThreads;
+    private final int weight;
+    private final double shareOfPool;
+    private final AtomicInteger activeTasks = new AtomicInteger(0);
+    private final LongAdder throttledInvocations = new LongAdder();
+
+    /**
+     * @param groupId the identifier of the Process Group
+     * @param maxThreads the maximum number of tasks that may run at the same time, or 0 if not limited
+     * @param weight the weight of the group's share of the thread pool, or 0 if the group is not limited to a share of the pool
+     * @param totalWeight the sum of the weights of all groups that have a weight
+     */
+    ProcessGroupQuota(final String groupId, final int maxThreads, final int weight, final int totalWeight) {
+        this.groupId = groupId;
+        this.maxThreads = maxThreads;
+        this.weight = weight;
+        this.shareOfPool = weight > 0 ? (double) weight / totalWeight : 1D;
+    }
+
+    /**
+     * Attempts to obtain permission for a task of the group to run on the given engine. If permission is granted, {@link #release()} must
+     * be called once the task has finished.
+     *
+     * @param engine the engine on which the task is running
+     * @return <code>true</code> if the task may run, <code>false</code> if the group is using all of the threads that it is allowed
+     */
+    boolean tryAcquire(final FlowEngine engine) {
+        int limit = maxThreads > 0 ? maxThreads : Integer.MAX_VALUE;
+        if (weight > 0 && engine.isSaturated()) {
+            limit = Math.min(limit, Math.max(1, (int) (engine.getCorePoolSize() * shareOfPool)));
+        }
+
+        while (true) {
+            final int active = activeTasks.get();
+            if (active >= limit) {
+                throttledInvocations.increment();
+                return false;
+            }
+
+            if (activeTasks.compareAndSet(active, active + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        activeTasks.decrementAndGet();
+    }
+
+    /**
+     * @return the identifier of the Process Group
+     */
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return the maximum number of tasks that may run at the same time, or 0 if not limited
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * @return the weight of the group's share of the thread pool, or 0 if the group is not limited to a share of the pool
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the number of tasks of the group that are currently running
+     */
+    public int getActiveTaskCount() {
+        return activeTasks.get();
+    }
+
+    /**
+     * @return the number of times that a task of the group was due to run but was delayed because the group was using all of the threads that it is allowed
+     */
+    public long getThrottledInvocationCount() {
+        return throttledInvocations.sum();
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.nifi.controller.repository.CounterRepository;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.RepositoryContext;
+import org.apache.nifi.controller.repository.RepositoryUpdateCoalescer;
 import org.apache.nifi.controller.repository.StandardRepositoryContext;
 import org.apache.nifi.provenance.ProvenanceRepository;
 
@@ -41,6 +42,7 @@ public class RepositoryContextFactory {
     private final ProvenanceRepository provenanceRepo;
     private final StateManagerProvider stateManagerProvider;
     private final long maxAppendableClaimBytes;
+    private final RepositoryUpdateCoalescer repositoryUpdateCoalescer;
 
     public RepositoryContextFactory(
             final ContentRepository contentRepository,
@@ -51,6 +53,21 @@ public class RepositoryContextFactory {
             final ProvenanceRepository provenanceRepository,
             final StateManagerProvider stateManagerProvider,
             final long maxAppendableClaimBytes
+    ) {
+        this(contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, componentMetricReporter, provenanceRepository,
+            stateManagerProvider, maxAppendableClaimBytes, null);
+    }
+
+    public RepositoryContextFactory(
+            final ContentRepository contentRepository,
+            final FlowFileRepository flowFileRepository,
+            final FlowFileEventRepository flowFileEventRepository,
+            final CounterRepository counterRepository,
+            final ComponentMetricReporter componentMetricReporter,
+            final ProvenanceRepository provenanceRepository,
+            final StateManagerProvider stateManagerProvider,
+            final long maxAppendableClaimBytes,
+            final RepositoryUpdateCoalescer repositoryUpdateCoalescer
     ) {
         this.contentRepo = contentRepository;
         this.flowFileRepo = flowFileRepository;
@@ -60,6 +77,7 @@ public class RepositoryContextFactory {
         this.provenanceRepo = provenanceRepository;
         this.stateManagerProvider = stateManagerProvider;
         this.maxAppendableClaimBytes = maxAppendableClaimBytes;
+        this.repositoryUpdateCoalescer = repositoryUpdateCoalescer;
     }
 
     public RepositoryContext newProcessContext(final Connectable connectable, final AtomicLong connectionIndex) {
@@ -92,4 +110,11 @@ public class RepositoryContextFactory {
     public ProvenanceRepository getProvenanceRepository() {
         return provenanceRepo;
     }
+
+    /**
+     * @return the coalescer through which batched sessions commit their repository updates, or <code>null</code> if commits are not coalesced
+     */
+    public RepositoryUpdateCoalescer getRepositoryUpdateCoalescer() {
+        return repositoryUpdateCoalescer;
+    }
 }
@@ -93,6 +93,7 @@ public final class StandardProcessScheduler implements ProcessScheduler {
     private final String administrativeYieldDuration;
     private final StateManagerProvider stateManagerProvider;
     private final long processorStartTimeoutMillis;
+    private final boolean workSignalSchedulingEnabled;
     private final LifecycleStateManager lifecycleStateManager;
     private final AtomicLong frameworkTaskThreadIndex = new AtomicLong(1L);
 
@@ -116,6 +117,7 @@ public final class StandardProcessScheduler implements ProcessScheduler {
 
         final String timeoutString = nifiProperties.getProperty(NiFiProperties.PROCESSOR_SCHEDULING_TIMEOUT);
         processorStartTimeoutMillis = timeoutString == null ? 60000 : FormatUtils.getTimeDuration(timeoutString.trim(), TimeUnit.MILLISECONDS);
+        workSignalSchedulingEnabled = nifiProperties.isWorkSignalSchedulingEnabled();
     }
 
     public ControllerServiceProvider getControllerServiceProvider() {
@@ -618,6 +620,19 @@ public final class StandardProcessScheduler implements ProcessScheduler {
         taskNode.notifyPrimaryNodeChanged(primaryNodeState, lifecycleState);
     }
 
+    @Override
+    public void notifyWorkAvailable(final Connectable connectable) {
+        final SchedulingAgent agent = getSchedulingAgent(connectable);
+        if (agent != null) {
+            agent.onEvent(connectable);
+        }
+    }
+
+    @Override
+    public boolean isWorkSignalSchedulingEnabled() {
+        return workSignalSchedulingEnabled;
+    }
+
     @Override
     public void notifyPrimaryNodeStateChange(final ControllerServiceNode service, final PrimaryNodeState primaryNodeState) {
         service.notifyPrimaryNodeChanged(primaryNodeState);
@@ -17,27 +17,69 @@
 package org.apache.nifi.controller.scheduling;
 
 import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
 import org.apache.nifi.controller.ReportingTaskNode;
+import org.apache.nifi.controller.status.FlowFileAvailability;
 import org.apache.nifi.controller.tasks.ConnectableTask;
 import org.apache.nifi.controller.tasks.InvocationResult;
 import org.apache.nifi.controller.tasks.ReportingTaskWrapper;
 import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.util.Connectables;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent {
+    private static final long MIN_QUOTA_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private final FlowEngine virtualThreadEngine;
+    private final Set<String> virtualThreadProcessorTypes;
     private final long noWorkYieldNanos;
+    private final long quotaRetryNanos;
+    private final boolean workSignalEnabled;
+    private final ConcurrentMap<String, WorkSignal> workSignals = new ConcurrentHashMap<>();
+    private final Map<String, ProcessGroupQuota> groupQuotas;
+    private final ConcurrentMap<String, GroupSchedulingStatistics> groupStatistics = new ConcurrentHashMap<>();
 
     public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final RepositoryContextFactory contextFactory,
                                       final NiFiProperties nifiProperties) {
+        this(flowController, flowEngine, null, contextFactory, nifiProperties);
+    }
+
+    /**
+     * Creates a new scheduling agent
+     *
+     * @param flowController the flow controller
+     * @param flowEngine the engine on which components are triggered
+     * @param virtualThreadEngine the engine on which the Processors configured to run on virtual threads are triggered, or <code>null</code>
+     * if all components are to be triggered on the given flow engine
+     * @param contextFactory the repository context factory
+     * @param nifiProperties the NiFi properties
+     */
+    public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final FlowEngine virtualThreadEngine,
+                                      final RepositoryContextFactory contextFactory, final NiFiProperties nifiProperties) {
         super(flowEngine, flowController, contextFactory);
+        this.virtualThreadEngine = virtualThreadEngine;
+        this.virtualThreadProcessorTypes = virtualThreadEngine == null ? Set.of() : nifiProperties.getVirtualThreadProcessorTypes();
 
         final String boredYieldDuration = nifiProperties.getBoredYieldDuration();
         try {
@@ -45,11 +87,56 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         } catch (final IllegalArgumentException e) {
             throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.BORED_YIELD_DURATION + " property is set to an invalid time duration: " + boredYieldDuration);
         }
+        quotaRetryNanos = Math.max(MIN_QUOTA_RETRY_NANOS, noWorkYieldNanos);
+        groupQuotas = createGroupQuotas(nifiProperties);
+
+        workSignalEnabled = nifiProperties.isWorkSignalSchedulingEnabled();
+        if (workSignalEnabled) {
+            final String idleCheckPeriod = nifiProperties.getWorkSignalIdleCheckPeriod();
+            final long idleCheckNanos;
+            try {
+                idleCheckNanos = FormatUtils.getTimeDuration(idleCheckPeriod, TimeUnit.NANOSECONDS);
+            } catch (final IllegalArgumentException e) {
+                throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.WORK_SIGNAL_IDLE_CHECK_PERIOD + " property is set to an invalid time duration: "
+                    + idleCheckPeriod);
+            }
+            if (idleCheckNanos <= 0L) {
+                throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.WORK_SIGNAL_IDLE_CHECK_PERIOD + " property must be a positive time duration but was "
+                    + idleCheckPeriod);
+            }
+
+            // Tasks that are waiting for FlowFiles are normally woken up when FlowFiles are queued. As a safeguard against FlowFiles becoming
+            // available without being queued, such as when a load-balanced connection rebalances, periodically check for stalled components.
+            flowEngine.scheduleWithFixedDelay(this::wakeStalledTasks, idleCheckNanos, idleCheckNanos, TimeUnit.NANOSECONDS);
+            logger.info("Components without work will wait for FlowFiles to be queued, checking for stalled components every {}", idleCheckPeriod);
+        }
+    }
+
+    private Map<String, ProcessGroupQuota> createGroupQuotas(final NiFiProperties nifiProperties) {
+        final Map<String, Integer> maxThreads = nifiProperties.getSchedulingGroupMaxThreads();
+        final Map<String, Integer> weights = nifiProperties.getSchedulingGroupWeights();
+        final int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+        final Set<String> groupIds = new HashSet<>(maxThreads.keySet());
+        groupIds.addAll(weights.keySet());
+
+        final Map<String, ProcessGroupQuota> quotas = new HashMap<>();
+        for (final String groupId : groupIds) {
+            final ProcessGroupQuota quota = new ProcessGroupQuota(groupId, maxThreads.getOrDefault(groupId, 0), weights.getOrDefault(groupId, 0), totalWeight);
+            quotas.put(groupId, quota);
+            logger.info("Components of Process Group {} will be limited to {} threads with a weight of {}", groupId, quota.getMaxThreads() > 0 ? quota.getMaxThreads() : "unlimited",
+                quota.getWeight());
+        }
+
+        return quotas;
     }
 
     @Override
     public void shutdown() {
         flowEngine.shutdown();
+        if (virtualThreadEngine != null) {
+            virtualThreadEngine.shutdown();
+        }
     }
 
     @Override
@@ -70,95 +157,66 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         final List<ScheduledFuture<?>> futures = new ArrayList<>();
         final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
 
+        final WorkSignal workSignal = new WorkSignal(connectable);
+        workSignals.put(connectable.getIdentifier(), workSignal);
+        final FlowEngine engine = getEngine(connectable);
+        final ProcessGroup group = connectable.getProcessGroup();
+        final ProcessGroupQuota quota = getQuota(group);
+        final GroupSchedulingStatistics statistics = group == null ? null
+            : groupStatistics.computeIfAbsent(group.getIdentifier(), groupId -> new GroupSchedulingStatistics(groupId, group.getName()));
+
         for (int i = 0; i < connectable.getMaxConcurrentTasks(); i++) {
             // Determine the task to run and create it.
-            final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
-
-            final Runnable trigger = createTrigger(connectableTask, scheduleState, futureRef);
+            final ConnectableTrigger trigger = new ConnectableTrigger(connectableTask, scheduleState, workSignal, engine, quota, statistics);
 
             // Schedule the task to run
-            final ScheduledFuture<?> future = flowEngine.scheduleWithFixedDelay(trigger, 0L,
+            final ScheduledFuture<?> future = engine.scheduleWithFixedDelay(trigger, 0L,
                 connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
 
             // now that we have the future, set the atomic reference so that if the component is yielded we
             // are able to then cancel this future.
-            futureRef.set(future);
+            trigger.futureRef.set(future);
 
             // Keep track of the futures so that we can update the ScheduleState.
             futures.add(future);
         }
 
         scheduleState.setFutures(futures);
-        logger.info("Scheduled {} to run with {} threads", connectable, connectable.getMaxConcurrentTasks());
-    }
-
-    private Runnable createTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState, final AtomicReference<ScheduledFuture<?>> futureRef) {
-        final Connectable connectable = connectableTask.getConnectable();
-        final Runnable yieldDetectionRunnable = new Runnable() {
-            @Override
-            public void run() {
-                // Call the task. It will return a boolean indicating whether or not we should yield
-                // based on a lack of work for to do for the component.
-                final InvocationResult invocationResult = connectableTask.invoke();
-                if (invocationResult.isYield()) {
-                    logger.debug("Yielding {} due to {}", connectable, invocationResult.getYieldExplanation());
-                }
-
-                // If the component is yielded, cancel its future and re-submit it to run again
-                // after the yield has expired.
-                final long newYieldExpiration = connectable.getYieldExpiration();
-                final long now = System.currentTimeMillis();
-                if (newYieldExpiration > now) {
-                    final long yieldMillis = newYieldExpiration - now;
-                    final long scheduleMillis = connectable.getSchedulingPeriod(TimeUnit.MILLISECONDS);
-                    final ScheduledFuture<?> scheduledFuture = futureRef.get();
-                    if (scheduledFuture == null) {
-                        return;
-                    }
+        if (engine == virtualThreadEngine) {
+            logger.info("Scheduled {} to run with {} virtual threads", connectable, connectable.getMaxConcurrentTasks());
+        } else {
+            logger.info("Scheduled {} to run with {} threads", connectable, connectable.getMaxConcurrentTasks());
+        }
+    }
 
-                    // If we are able to cancel the future, create a new one and update the ScheduleState so that it has
-                    // an accurate accounting of which futures are outstanding; we must then also update the futureRef
-                    // so that we can do this again the next time that the component is yielded.
-                    if (scheduledFuture.cancel(false)) {
-                        final long yieldNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(scheduleMillis), TimeUnit.MILLISECONDS.toNanos(yieldMillis));
-
-                        synchronized (scheduleState) {
-                            if (scheduleState.isScheduled()) {
-                                final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
-                                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, yieldNanos, schedulingNanos, TimeUnit.NANOSECONDS);
-
-                                scheduleState.replaceFuture(scheduledFuture, newFuture);
-                                futureRef.set(newFuture);
-                            }
-                        }
-                    }
-                } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
-                    // Component itself didn't yield but there was no work to do, so the framework will choose
-                    // to yield the component automatically for a short period of time.
-                    final ScheduledFuture<?> scheduledFuture = futureRef.get();
-                    if (scheduledFuture == null) {
-                        return;
-                    }
+    /**
+     * @return the quota of the given group or of the nearest of its ancestors that has one, or <code>null</code> if none has a quota
+     */
+    private ProcessGroupQuota getQuota(final ProcessGroup group) {
+        if (groupQuotas.isEmpty()) {
+            return null;
+        }
 
-                    // If we are able to cancel the future, create a new one and update the ScheduleState so that it has
-                    // an accurate accounting of which futures are outstanding; we must then also update the futureRef
-                    // so that we can do this again the next time that the component is yielded.
-                    if (scheduledFuture.cancel(false)) {
-                        synchronized (scheduleState) {
-                            if (scheduleState.isScheduled()) {
-                                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, noWorkYieldNanos,
-                                    connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
-
-                                scheduleState.replaceFuture(scheduledFuture, newFuture);
-                                futureRef.set(newFuture);
-                            }
-                        }
-                    }
-                }
+        for (ProcessGroup current = group; current != null; current = current.getParent()) {
+            final ProcessGroupQuota quota = groupQuotas.get(current.getIdentifier());
+            if (quota != null) {
+                return quota;
             }
-        };
+        }
 
-        return yieldDetectionRunnable;
+        return null;
+    }
+
+    /**
+     * @return the engine on which the given component's tasks are to be triggered
+     */
+    private FlowEngine getEngine(final Connectable connectable) {
+        if (virtualThreadEngine != null && connectable instanceof ProcessorNode processorNode
+            && (virtualThreadProcessorTypes.contains(processorNode.getComponentType()) || virtualThreadProcessorTypes.contains(processorNode.getCanonicalClassName()))) {
+            return virtualThreadEngine;
+        }
+
+        return flowEngine;
     }
 
     @Override
@@ -168,6 +226,7 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
             future.cancel(false);
         }
 
+        workSignals.remove(connectable.getIdentifier());
         logger.info("Stopped scheduling {} to run", connectable);
     }
 
@@ -181,11 +240,300 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         logger.info("Stopped scheduling {} to run", taskNode.getReportingTask());
     }
 
+    /**
+     * Called when FlowFiles have been queued for the given component. If work-signal scheduling is enabled and one of the component's
+     * tasks is waiting for work, that task is triggered immediately.
+     *
+     * @param connectable the component that FlowFiles have been queued for
+     */
     @Override
     public void onEvent(final Connectable connectable) {
+        if (!workSignalEnabled) {
+            return;
+        }
+
+        final WorkSignal workSignal = workSignals.get(connectable.getIdentifier());
+        if (workSignal != null) {
+            workSignal.signal();
+        }
     }
 
     @Override
     public void setMaxThreadCount(final int maxThreads) {
     }
+
+    /**
+     * @return <code>true</code> if components without work wait for FlowFiles to be queued rather than checking for work after the bored yield duration
+     */
+    public boolean isWorkSignalEnabled() {
+        return workSignalEnabled;
+    }
+
+    /**
+     * @return the work-signal statistics of each component that is currently scheduled, which are gathered from the time that the component was scheduled
+     */
+    public Map<Connectable, WorkSignalStatistics> getWorkSignalStatistics() {
+        final Map<Connectable, WorkSignalStatistics> statistics = new LinkedHashMap<>();
+        for (final WorkSignal workSignal : workSignals.values()) {
+            statistics.put(workSignal.connectable, workSignal.statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * @return the thread pools on which this agent triggers components, keyed by the name of the pool
+     */
+    public Map<String, FlowEngine> getThreadPools() {
+        final Map<String, FlowEngine> threadPools = new LinkedHashMap<>();
+        threadPools.put("Timer Driven", flowEngine);
+        if (virtualThreadEngine != null) {
+            threadPools.put("Virtual Thread", virtualThreadEngine);
+        }
+        return threadPools;
+    }
+
+    /**
+     * @return the quotas that limit the threads used by Process Groups
+     */
+    public Collection<ProcessGroupQuota> getProcessGroupQuotas() {
+        return groupQuotas.values();
+    }
+
+    /**
+     * @return the scheduling delay statistics of each Process Group whose components have been scheduled
+     */
+    public Collection<GroupSchedulingStatistics> getGroupSchedulingStatistics() {
+        return new ArrayList<>(groupStatistics.values());
+    }
+
+    private void wakeStalledTasks() {
+        for (final WorkSignal workSignal : workSignals.values()) {
+            try {
+                workSignal.wakeIfFlowFilesAvailable();
+            } catch (final Exception e) {
+                logger.warn("Failed to check whether {} has FlowFiles available", workSignal.connectable, e);
+            }
+        }
+    }
+
+    /**
+     * Keeps track of the tasks of a component that are waiting for FlowFiles to be queued.
+     */
+    private static final class WorkSignal {
+        private final Connectable connectable;
+        private final WorkSignalStatistics statistics = new WorkSignalStatistics();
+        private final Queue<ConnectableTrigger> parkedTriggers = new ConcurrentLinkedQueue<>();
+
+        private WorkSignal(final Connectable connectable) {
+            this.connectable = connectable;
+        }
+
+        void park(final ConnectableTrigger trigger) {
+            parkedTriggers.offer(trigger);
+            statistics.recordTaskParked();
+        }
+
+        void signal() {
+            statistics.recordSignal();
+            if (!parkedTriggers.isEmpty()) {
+                wakeOne(System.nanoTime());
+            }
+        }
+
+        /**
+         * Wakes a waiting task if any of the component's incoming connections has a FlowFile available. A task that finds work wakes
+         * another in the same way, so that all of the component's tasks are put to work when many FlowFiles are queued at once.
+         */
+        void wakeIfFlowFilesAvailable() {
+            if (!parkedTriggers.isEmpty() && Connectables.flowFilesQueued(connectable)) {
+                wakeOne(0L);
+            }
+        }
+
+        private void wakeOne(final long signalNanos) {
+            ConnectableTrigger trigger;
+            while ((trigger = parkedTriggers.poll()) != null) {
+                if (trigger.wake(signalNanos)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Triggers one of a component's concurrent tasks and determines when the task is to run next. The task is rescheduled with a delay
+     * if the component yields or has no work to do or, when work-signal scheduling is enabled, stops running until FlowFiles are queued.
+     */
+    private final class ConnectableTrigger implements Runnable {
+        private final ConnectableTask connectableTask;
+        private final Connectable connectable;
+        private final LifecycleState scheduleState;
+        private final WorkSignal workSignal;
+        private final FlowEngine engine;
+        private final ProcessGroupQuota quota;
+        private final GroupSchedulingStatistics groupStatistics;
+        private final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
+        private final AtomicBoolean parked = new AtomicBoolean(false);
+        private volatile long wakeSignalNanos = 0L;
+        private volatile long dueNanos = System.nanoTime();
+
+        private ConnectableTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState, final WorkSignal workSignal, final FlowEngine engine,
+                                   final ProcessGroupQuota quota, final GroupSchedulingStatistics groupStatistics) {
+            this.connectableTask = connectableTask;
+            this.connectable = connectableTask.getConnectable();
+            this.scheduleState = scheduleState;
+            this.workSignal = workSignal;
+            this.engine = engine;
+            this.quota = quota;
+            this.groupStatistics = groupStatistics;
+        }
+
+        @Override
+        public void run() {
+            // If the group is already using all of the threads that it is allowed, poll again after the quota retry interval rather
+            // than holding the thread. Nothing wakes the task when a slot is released, so it may start up to one interval late. The
+            // task remains due from its original time so that the wait is counted as scheduling delay once it runs.
+            if (quota != null && !quota.tryAcquire(engine)) {
+                reschedule(quotaRetryNanos, dueNanos);
+                return;
+            }
+
+            try {
+                trigger();
+            } finally {
+                if (quota != null) {
+                    quota.release();
+                }
+            }
+        }
+
+        private void trigger() {
+            if (groupStatistics != null) {
+                groupStatistics.recordInvocation(Math.max(0L, System.nanoTime() - dueNanos));
+            }
+
+            final long signalNanos = wakeSignalNanos;
+            if (signalNanos != 0L) {
+                wakeSignalNanos = 0L;
+                workSignal.statistics.recordWakeup(System.nanoTime() - signalNanos);
+            }
+
+            // Call the task. It will return a boolean indicating whether or not we should yield
+            // based on a lack of work for to do for the component.
+            final InvocationResult invocationResult = connectableTask.invoke();
+            dueNanos = System.nanoTime() + connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+            if (invocationResult.isYield()) {
+                logger.debug("Yielding {} due to {}", connectable, invocationResult.getYieldExplanation());
+            }
+
+            // If the component is yielded, cancel its future and re-submit it to run again
+            // after the yield has expired.
+            final long newYieldExpiration = connectable.getYieldExpiration();
+            final long now = System.currentTimeMillis();
+            if (newYieldExpiration > now) {
+                final long yieldMillis = newYieldExpiration - now;
+                final long scheduleMillis = connectable.getSchedulingPeriod(TimeUnit.MILLISECONDS);
+                reschedule(Math.max(TimeUnit.MILLISECONDS.toNanos(scheduleMillis), TimeUnit.MILLISECONDS.toNanos(yieldMillis)));
+            } else if (invocationResult == InvocationResult.NO_WORK_TO_DO) {
+                workSignal.statistics.recordIdleInvocation();
+
+                if (workSignalEnabled && isIncomingQueueEmpty()) {
+                    park();
+                } else if (noWorkYieldNanos > 0L) {
+                    // Component itself didn't yield but there was no work to do, so the framework will choose
+                    // to yield the component automatically for a short period of time.
+                    reschedule(noWorkYieldNanos);
+                }
+            } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
+                reschedule(noWorkYieldNanos);
+            } else if (workSignalEnabled) {
+                workSignal.wakeIfFlowFilesAvailable();
+            }
+        }
+
+        /**
+         * @return <code>true</code> if no incoming connection holds any FlowFiles, not even penalized ones. If a connection holds only penalized
+         * FlowFiles, no FlowFiles will be queued when the penalty expires, so the component must keep checking for work.
+         */
+        private boolean isIncomingQueueEmpty() {
+            for (final Connection connection : connectable.getIncomingConnections()) {
+                if (connection.getFlowFileQueue().getFlowFileAvailability() != FlowFileAvailability.ACTIVE_QUEUE_EMPTY) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private void reschedule(final long delayNanos) {
+            reschedule(delayNanos, System.nanoTime() + delayNanos);
+        }
+
+        private void reschedule(final long delayNanos, final long nextDueNanos) {
+            final ScheduledFuture<?> scheduledFuture = futureRef.get();
+            if (scheduledFuture == null) {
+                return;
+            }
+
+            // If we are able to cancel the future, create a new one and update the ScheduleState so that it has
+            // an accurate accounting of which futures are outstanding; we must then also update the futureRef
+            // so that we can do this again the next time that the component is yielded.
+            if (scheduledFuture.cancel(false)) {
+                synchronized (scheduleState) {
+                    if (scheduleState.isScheduled()) {
+                        dueNanos = nextDueNanos;
+                        final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+                        final ScheduledFuture<?> newFuture = engine.scheduleWithFixedDelay(this, delayNanos, schedulingNanos, TimeUnit.NANOSECONDS);
+
+                        scheduleState.replaceFuture(scheduledFuture, newFuture);
+                        futureRef.set(newFuture);
+                    }
+                }
+            }
+        }
+
+        private void park() {
+            final ScheduledFuture<?> scheduledFuture = futureRef.get();
+            if (scheduledFuture == null || !scheduledFuture.cancel(false)) {
+                return;
+            }
+
+            // The cancelled future remains in the ScheduleState until the task is woken up and its replacement is scheduled.
+            parked.set(true);
+            workSignal.park(this);
+
+            // FlowFiles may have been queued after the task checked for work but before it was parked, in which case
+            // the signal did not find this task waiting.
+            workSignal.wakeIfFlowFilesAvailable();
+        }
+
+        /**
+         * Schedules this task to run immediately if it is waiting for FlowFiles
+         *
+         * @param signalNanos the time at which FlowFiles were queued, or 0 if the task is being woken for another reason
+         * @return <code>true</code> if the task was waiting and has been scheduled, <code>false</code> otherwise
+         */
+        private boolean wake(final long signalNanos) {
+            if (!parked.compareAndSet(true, false)) {
+                return false;
+            }
+
+            synchronized (scheduleState) {
+                if (!scheduleState.isScheduled()) {
+                    return false;
+                }
+
+                wakeSignalNanos = signalNanos;
+                dueNanos = System.nanoTime();
+                final ScheduledFuture<?> parkedFuture = futureRef.get();
+                final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+                final ScheduledFuture<?> newFuture = engine.scheduleWithFixedDelay(this, 0L, schedulingNanos, TimeUnit.NANOSECONDS);
+
+                scheduleState.replaceFuture(parkedFuture, newFuture);
+                futureRef.set(newFuture);
+            }
+
+            return true;
+        }
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about how a component that is scheduled by the {@link TimerDrivenSchedulingAgent} waits for work. An idle invocation is
+ * one in which the component was not triggered because there were no FlowFiles for it to process. When work-signal scheduling is
+ * enabled, the component's tasks wait for FlowFiles to be queued rather than repeatedly checking for work, and the wakeup latency is
+ * the time between FlowFiles being queued and a waiting task beginning to run.
+ */
+public class WorkSignalStatistics {
+    private final LongAdder idleInvocations = new LongAdder();
+    private final LongAdder parkedTasks = new LongAdder();
+    private final LongAdder signals = new LongAdder();
+    private final LongAdder wakeups = new LongAdder();
+    private final LongAdder wakeupLatencyNanos = new LongAdder();
+    private final AtomicLong maxWakeupLatencyNanos = new AtomicLong();
+
+    void recordIdleInvocation() {
+        idleInvocations.increment();
+    }
+
+    void recordTaskParked() {
+        parkedTasks.increment();
+    }
+
+    void recordSignal() {
+        signals.increment();
+    }
+
+    void recordWakeup(final long latencyNanos) {
+        wakeups.increment();
+        wakeupLatencyNanos.add(latencyNanos);
+        maxWakeupLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * @return the number of times that a task for the component ran but found no work to do
+     */
+    public long getIdleInvocationCount() {
+        return idleInvocations.sum();
+    }
+
+    /**
+     * @return the number of times that a task for the component stopped running in order to wait for FlowFiles to be queued
+     */
+    public long getParkedTaskCount() {
+        return parkedTasks.sum();
+    }
+
+    /**
+     * @return the number of times that FlowFiles were queued for the component
+     */
+    public long getSignalCount() {
+        return signals.sum();
+    }
+
+    /**
+     * @return the number of times that a waiting task was woken up because FlowFiles were queued for the component
+     */
+    public long getWakeupCount() {
+        return wakeups.sum();
+    }
+
+    /**
+     * @return the total number of nanoseconds between FlowFiles being queued and the tasks that were woken up beginning to run
+     */
+    public long getTotalWakeupLatencyNanos() {
+        return wakeupLatencyNanos.sum();
+    }
+
+    /**
+     * @return the greatest number of nanoseconds between FlowFiles being queued and a task that was woken up beginning to run
+     */
+    public long getMaxWakeupLatencyNanos() {
+        return maxWakeupLatencyNanos.get();
+    }
+}
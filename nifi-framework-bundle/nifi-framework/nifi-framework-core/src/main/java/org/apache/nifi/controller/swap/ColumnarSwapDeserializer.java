@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.swap.ColumnarSwapFormat.ColumnReader;
+import org.apache.nifi.controller.swap.ColumnarSwapFormat.DictionaryReader;
+import org.apache.nifi.repository.schema.FieldCache;
+import org.apache.nifi.repository.schema.NoOpFieldCache;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordReader;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.nifi.controller.swap.ColumnarSwapFormat.readSignedVarLong;
+import static org.apache.nifi.controller.swap.ColumnarSwapFormat.readString;
+import static org.apache.nifi.controller.swap.ColumnarSwapFormat.readUnsignedVarInt;
+
+public class ColumnarSwapDeserializer implements SwapDeserializer {
+    private final FieldCache fieldCache;
+
+    public ColumnarSwapDeserializer() {
+        this(new NoOpFieldCache());
+    }
+
+    public ColumnarSwapDeserializer(final FieldCache fieldCache) {
+        this.fieldCache = fieldCache;
+    }
+
+    @Override
+    public SwapContents deserializeFlowFiles(final DataInputStream in, final String swapLocation, final FlowFileQueue queue, final ResourceClaimManager claimManager) throws IOException {
+        final SwapSummary swapSummary = getSwapSummary(in, swapLocation, claimManager);
+
+        final int encodingVersion = in.readInt();
+        if (encodingVersion != ColumnarSwapFormat.ENCODING_VERSION) {
+            throw new IOException("Cannot read swap file " + swapLocation + " because it was written with encoding version " + encodingVersion
+                + " but only version " + ColumnarSwapFormat.ENCODING_VERSION + " is supported");
+        }
+
+        final int codec = in.readUnsignedByte();
+        if (codec != ColumnarSwapFormat.DEFLATE_CODEC) {
+            throw new IOException("Cannot read swap file " + swapLocation + " because its columns were compressed with codec " + codec
+                + " but only codec " + ColumnarSwapFormat.DEFLATE_CODEC + " (DEFLATE) is supported");
+        }
+
+        final int flowFileCount = in.readInt();
+        if (flowFileCount != swapSummary.getQueueSize().getObjectCount()) {
+            throw new IOException("Swap file " + swapLocation + " indicates that it contains " + flowFileCount + " FlowFiles but its Swap Summary indicates "
+                + swapSummary.getQueueSize().getObjectCount() + " FlowFiles; swap file appears to be corrupt");
+        }
+
+        final ColumnReader[] columns = new ColumnReader[ColumnarSwapFormat.COLUMN_COUNT];
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new ColumnReader(in);
+            }
+
+            final List<FlowFileRecord> flowFiles = readColumns(flowFileCount, columns, claimManager);
+            return new StandardSwapContents(swapSummary, flowFiles);
+        } finally {
+            for (final ColumnReader column : columns) {
+                if (column != null) {
+                    column.close();
+                }
+            }
+        }
+    }
+
+    private List<FlowFileRecord> readColumns(final int flowFileCount, final ColumnReader[] columns, final ResourceClaimManager claimManager) throws IOException {
+        final DataInputStream recordIds = columns[ColumnarSwapFormat.RECORD_ID_COLUMN].getInputStream();
+        final DataInputStream entryDates = columns[ColumnarSwapFormat.ENTRY_DATE_COLUMN].getInputStream();
+        final DataInputStream lineageStarts = columns[ColumnarSwapFormat.LINEAGE_START_COLUMN].getInputStream();
+        final DataInputStream queueDates = columns[ColumnarSwapFormat.QUEUE_DATE_COLUMN].getInputStream();
+        final DataInputStream sizes = columns[ColumnarSwapFormat.SIZE_COLUMN].getInputStream();
+        final DataInputStream contentClaims = columns[ColumnarSwapFormat.CONTENT_CLAIM_COLUMN].getInputStream();
+        final DataInputStream attributes = columns[ColumnarSwapFormat.ATTRIBUTES_COLUMN].getInputStream();
+
+        final DictionaryReader<ResourceClaim> resourceClaimDictionary = new DictionaryReader<>();
+        final DictionaryReader<String> keyDictionary = new DictionaryReader<>();
+        final DictionaryReader<String> valueDictionary = new DictionaryReader<>();
+
+        long recordId = 0L;
+        long entryDate = 0L;
+        long lineageStartDate = 0L;
+        long queueDate = 0L;
+
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder();
+
+            recordId += readSignedVarLong(recordIds);
+            builder.id(recordId);
+
+            entryDate += readSignedVarLong(entryDates);
+            builder.entryDate(entryDate);
+
+            lineageStartDate += readSignedVarLong(lineageStarts);
+            builder.lineageStart(lineageStartDate, readSignedVarLong(lineageStarts));
+
+            queueDate += readSignedVarLong(queueDates);
+            builder.lastQueued(queueDate, readSignedVarLong(queueDates));
+
+            builder.size(readSignedVarLong(sizes));
+
+            readContentClaim(contentClaims, builder, resourceClaimDictionary, claimManager);
+
+            final int attributeCount = readUnsignedVarInt(attributes);
+            for (int j = 0; j < attributeCount; j++) {
+                final String key = readDictionaryString(attributes, keyDictionary);
+                final String value = readDictionaryString(attributes, valueDictionary);
+                builder.addAttribute(key, value);
+            }
+
+            flowFiles.add(builder.build());
+        }
+
+        return flowFiles;
+    }
+
+    private void readContentClaim(final DataInputStream in, final StandardFlowFileRecord.Builder builder, final DictionaryReader<ResourceClaim> resourceClaimDictionary,
+                                  final ResourceClaimManager claimManager) throws IOException {
+        final int reference = resourceClaimDictionary.readReference(in);
+        if (reference == ColumnarSwapFormat.NULL_REFERENCE) {
+            return;
+        }
+
+        final ResourceClaim resourceClaim;
+        if (reference == ColumnarSwapFormat.LITERAL_REFERENCE) {
+            final String container = readString(in);
+            final String section = readString(in);
+            final String identifier = readString(in);
+            final boolean lossTolerant = in.readBoolean();
+
+            // Preserve the existing ResourceClaim, if the Resource Claim Manager already holds one, so that its determination of
+            // whether or not the claim is writable is honored. Otherwise, the claim cannot be writable.
+            ResourceClaim existingClaim = claimManager.getResourceClaim(container, section, identifier);
+            if (existingClaim == null) {
+                existingClaim = claimManager.newResourceClaim(container, section, identifier, lossTolerant, false);
+            }
+
+            resourceClaim = resourceClaimDictionary.add(existingClaim);
+        } else {
+            resourceClaim = resourceClaimDictionary.get(reference);
+        }
+
+        final StandardContentClaim contentClaim = new StandardContentClaim(resourceClaim, readSignedVarLong(in));
+        contentClaim.setLength(readSignedVarLong(in));
+
+        builder.contentClaim(contentClaim);
+        builder.contentClaimOffset(readSignedVarLong(in));
+    }
+
+    private String readDictionaryString(final DataInputStream in, final DictionaryReader<String> dictionary) throws IOException {
+        final int reference = dictionary.readReference(in);
+        return switch (reference) {
+            case ColumnarSwapFormat.NULL_REFERENCE -> null;
+            case ColumnarSwapFormat.LITERAL_REFERENCE -> dictionary.add(readString(in));
+            default -> dictionary.get(reference);
+        };
+    }
+
+    @Override
+    public SwapSummary getSwapSummary(final DataInputStream in, final String swapLocation, final ResourceClaimManager claimManager) throws IOException {
+        final RecordSchema summarySchema = RecordSchema.readFrom(in);
+        final Record summaryRecord = SchemaRecordReader.fromSchema(summarySchema, fieldCache).readRecord(in);
+        if (summaryRecord == null) {
+            throw new IOException("Cannot read Swap Summary from " + swapLocation + " because the swap file ended unexpectedly");
+        }
+
+        return SwapSummaryFieldMap.getSwapSummary(summaryRecord, claimManager);
+    }
+
+    public static String getSerializationName() {
+        return ColumnarSwapSerializer.SERIALIZATION_NAME;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>
+ * Encoding shared by {@link ColumnarSwapSerializer} and {@link ColumnarSwapDeserializer}. After the Swap Summary, a columnar swap
+ * file contains the encoding version, a single byte identifying the codec with which the columns are compressed, the number of
+ * FlowFiles, and then one compressed block per column. Each block is written as its compressed length followed by the compressed
+ * column data, so that a column can be decoded independently of the others. The only codec is currently {@link #DEFLATE_CODEC}.
+ * </p>
+ *
+ * <p>
+ * Within a column, numbers are written as variable-length integers and timestamps and identifiers as the difference from the previous
+ * FlowFile's value. Attribute keys, attribute values and Resource Claims are dictionary encoded: the first occurrence is written in
+ * full and every later occurrence is written as a reference to it. Writer and reader build the same dictionaries in the same order,
+ * so the dictionaries themselves are never written.
+ * </p>
+ */
+final class ColumnarSwapFormat {
+    static final int ENCODING_VERSION = 1;
+
+    static final int DEFLATE_CODEC = 1;
+
+    static final int RECORD_ID_COLUMN = 0;
+    static final int ENTRY_DATE_COLUMN = 1;
+    static final int LINEAGE_START_COLUMN = 2;
+    static final int QUEUE_DATE_COLUMN = 3;
+    static final int SIZE_COLUMN = 4;
+    static final int CONTENT_CLAIM_COLUMN = 5;
+    static final int ATTRIBUTES_COLUMN = 6;
+    static final int COLUMN_COUNT = 7;
+
+    // Dictionary references: 0 indicates a null value, 1 indicates that the value follows in full, and any other value N refers to dictionary entry N - 2
+    static final int NULL_REFERENCE = 0;
+    static final int LITERAL_REFERENCE = 1;
+    static final int FIRST_DICTIONARY_REFERENCE = 2;
+
+    // Bounds the memory used for dictionaries when a swap file holds many distinct values. Once a dictionary is full, new values are written in full.
+    static final int MAX_DICTIONARY_SIZE = 65_536;
+
+    private ColumnarSwapFormat() {
+    }
+
+    static void writeUnsignedVarInt(final DataOutputStream out, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+
+    static int readUnsignedVarInt(final DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Variable-length integer is longer than 5 bytes; swap file appears to be corrupt");
+    }
+
+    static void writeSignedVarLong(final DataOutputStream out, final long value) throws IOException {
+        long remaining = (value << 1) ^ (value >> 63);
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    static long readSignedVarLong(final DataInputStream in) throws IOException {
+        long encoded = 0L;
+        for (int shift = 0; shift < 70; shift += 7) {
+            final int b = in.readUnsignedByte();
+            encoded |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (encoded >>> 1) ^ -(encoded & 1);
+            }
+        }
+
+        throw new IOException("Variable-length long is longer than 10 bytes; swap file appears to be corrupt");
+    }
+
+    static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInputStream in) throws IOException {
+        final int length = readUnsignedVarInt(in);
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Assigns dictionary references to values as they are written
+     */
+    static class DictionaryWriter<T> {
+        private final Map<T, Integer> references = new HashMap<>();
+
+        /**
+         * Writes a reference to the given value. If the value has not been written before, the caller must write the value in full
+         * immediately afterward.
+         *
+         * @return <code>true</code> if the caller must write the value in full, <code>false</code> if a reference was written
+         */
+        boolean writeReference(final DataOutputStream out, final T value) throws IOException {
+            if (value == null) {
+                writeUnsignedVarInt(out, NULL_REFERENCE);
+                return false;
+            }
+
+            final Integer reference = references.get(value);
+            if (reference != null) {
+                writeUnsignedVarInt(out, reference);
+                return false;
+            }
+
+            if (references.size() < MAX_DICTIONARY_SIZE) {
+                references.put(value, references.size() + FIRST_DICTIONARY_REFERENCE);
+            }
+
+            writeUnsignedVarInt(out, LITERAL_REFERENCE);
+            return true;
+        }
+    }
+
+    /**
+     * Resolves dictionary references as they are read, mirroring {@link DictionaryWriter}
+     */
+    static class DictionaryReader<T> {
+        private final List<T> values = new ArrayList<>();
+
+        /**
+         * @return the reference that was read; if {@link #LITERAL_REFERENCE}, the caller must read the value in full and pass it to {@link #add(Object)}
+         */
+        int readReference(final DataInputStream in) throws IOException {
+            return readUnsignedVarInt(in);
+        }
+
+        T get(final int reference) throws IOException {
+            final int index = reference - FIRST_DICTIONARY_REFERENCE;
+            if (index < 0 || index >= values.size()) {
+                throw new IOException("Swap file refers to dictionary entry " + index + " but only " + values.size() + " entries are known; swap file appears to be corrupt");
+            }
+
+            return values.get(index);
+        }
+
+        T add(final T value) {
+            if (values.size() < MAX_DICTIONARY_SIZE) {
+                values.add(value);
+            }
+
+            return value;
+        }
+    }
+
+    /**
+     * A column that is compressed as it is written
+     */
+    static class ColumnWriter implements Closeable {
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(compressed, deflater, 8192));
+
+        DataOutputStream getOutputStream() {
+            return out;
+        }
+
+        void writeTo(final DataOutputStream destination) throws IOException {
+            out.close();
+            destination.writeInt(compressed.size());
+            compressed.writeTo(destination);
+        }
+
+        @Override
+        public void close() {
+            deflater.end();
+        }
+    }
+
+    /**
+     * A column that is decompressed as it is read
+     */
+    static class ColumnReader implements Closeable {
+        private final Inflater inflater = new Inflater();
+        private final DataInputStream in;
+
+        ColumnReader(final DataInputStream source) throws IOException {
+            final int compressedLength = source.readInt();
+            if (compressedLength < 0) {
+                throw new IOException("Swap file indicates a column with a length of " + compressedLength + " bytes; swap file appears to be corrupt");
+            }
+
+            final byte[] compressed = new byte[compressedLength];
+            try {
+                source.readFully(compressed);
+            } catch (final EOFException eof) {
+                inflater.end();
+                throw new EOFException("Swap file ended in the middle of a column; swap file appears to be truncated");
+            }
+
+            in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed), inflater, 8192), 8192));
+        }
+
+        DataInputStream getInputStream() {
+            return in;
+        }
+
+        @Override
+        public void close() {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.swap.ColumnarSwapFormat.ColumnWriter;
+import org.apache.nifi.controller.swap.ColumnarSwapFormat.DictionaryWriter;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordWriter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.nifi.controller.swap.ColumnarSwapFormat.writeSignedVarLong;
+import static org.apache.nifi.controller.swap.ColumnarSwapFormat.writeString;
+import static org.apache.nifi.controller.swap.ColumnarSwapFormat.writeUnsignedVarInt;
+
+/**
+ * Writes swap files in which the FlowFiles are stored column by column, with attribute keys, attribute values and Resource Claims
+ * dictionary encoded and each column compressed. FlowFiles that share the same attributes therefore take up very little space.
+ * The Swap Summary is written first, in the same form as by {@link SchemaSwapSerializer}, so that it can be read without decoding
+ * any of the FlowFiles. See {@link ColumnarSwapFormat} for details of the encoding.
+ */
+public class ColumnarSwapSerializer implements SwapSerializer {
+    static final String SERIALIZATION_NAME = "Columnar Swap Serialization";
+
+    private final RecordSchema summarySchema = SwapSchema.SWAP_SUMMARY_SCHEMA_V3;
+
+    @Override
+    public void serializeFlowFiles(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final String swapLocation, final OutputStream out) throws IOException {
+        summarySchema.writeTo(out);
+
+        final SwapSummary swapSummary = SchemaSwapSerializer.createSwapSummary(toSwap);
+        new SchemaRecordWriter().writeRecord(new SwapSummaryFieldMap(swapSummary, queue.getIdentifier(), summarySchema), out);
+
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(ColumnarSwapFormat.ENCODING_VERSION);
+        dos.writeByte(ColumnarSwapFormat.DEFLATE_CODEC);
+        dos.writeInt(toSwap.size());
+
+        final ColumnWriter[] columns = new ColumnWriter[ColumnarSwapFormat.COLUMN_COUNT];
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new ColumnWriter();
+            }
+
+            writeColumns(toSwap, columns);
+
+            for (final ColumnWriter column : columns) {
+                column.writeTo(dos);
+            }
+        } finally {
+            for (final ColumnWriter column : columns) {
+                if (column != null) {
+                    column.close();
+                }
+            }
+        }
+
+        dos.flush();
+    }
+
+    private void writeColumns(final List<FlowFileRecord> toSwap, final ColumnWriter[] columns) throws IOException {
+        final DataOutputStream recordIds = columns[ColumnarSwapFormat.RECORD_ID_COLUMN].getOutputStream();
+        final DataOutputStream entryDates = columns[ColumnarSwapFormat.ENTRY_DATE_COLUMN].getOutputStream();
+        final DataOutputStream lineageStarts = columns[ColumnarSwapFormat.LINEAGE_START_COLUMN].getOutputStream();
+        final DataOutputStream queueDates = columns[ColumnarSwapFormat.QUEUE_DATE_COLUMN].getOutputStream();
+        final DataOutputStream sizes = columns[ColumnarSwapFormat.SIZE_COLUMN].getOutputStream();
+        final DataOutputStream contentClaims = columns[ColumnarSwapFormat.CONTENT_CLAIM_COLUMN].getOutputStream();
+        final DataOutputStream attributes = columns[ColumnarSwapFormat.ATTRIBUTES_COLUMN].getOutputStream();
+
+        final DictionaryWriter<ResourceClaim> resourceClaimDictionary = new DictionaryWriter<>();
+        final DictionaryWriter<String> keyDictionary = new DictionaryWriter<>();
+        final DictionaryWriter<String> valueDictionary = new DictionaryWriter<>();
+
+        long previousRecordId = 0L;
+        long previousEntryDate = 0L;
+        long previousLineageStartDate = 0L;
+        long previousQueueDate = 0L;
+
+        for (final FlowFileRecord flowFile : toSwap) {
+            writeSignedVarLong(recordIds, flowFile.getId() - previousRecordId);
+            previousRecordId = flowFile.getId();
+
+            writeSignedVarLong(entryDates, flowFile.getEntryDate() - previousEntryDate);
+            previousEntryDate = flowFile.getEntryDate();
+
+            writeSignedVarLong(lineageStarts, flowFile.getLineageStartDate() - previousLineageStartDate);
+            writeSignedVarLong(lineageStarts, flowFile.getLineageStartIndex());
+            previousLineageStartDate = flowFile.getLineageStartDate();
+
+            writeSignedVarLong(queueDates, flowFile.getLastQueueDate() - previousQueueDate);
+            writeSignedVarLong(queueDates, flowFile.getQueueDateIndex());
+            previousQueueDate = flowFile.getLastQueueDate();
+
+            writeSignedVarLong(sizes, flowFile.getSize());
+
+            writeContentClaim(flowFile, contentClaims, resourceClaimDictionary);
+
+            final Map<String, String> flowFileAttributes = flowFile.getAttributes();
+            writeUnsignedVarInt(attributes, flowFileAttributes.size());
+            for (final Map.Entry<String, String> entry : flowFileAttributes.entrySet()) {
+                if (keyDictionary.writeReference(attributes, entry.getKey())) {
+                    writeString(attributes, entry.getKey());
+                }
+                if (valueDictionary.writeReference(attributes, entry.getValue())) {
+                    writeString(attributes, entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void writeContentClaim(final FlowFileRecord flowFile, final DataOutputStream out, final DictionaryWriter<ResourceClaim> resourceClaimDictionary) throws IOException {
+        final ContentClaim contentClaim = flowFile.getContentClaim();
+        final ResourceClaim resourceClaim = contentClaim == null ? null : contentClaim.getResourceClaim();
+        if (resourceClaimDictionary.writeReference(out, resourceClaim)) {
+            writeString(out, resourceClaim.getContainer());
+            writeString(out, resourceClaim.getSection());
+            writeString(out, resourceClaim.getId());
+            out.writeBoolean(resourceClaim.isLossTolerant());
+        }
+
+        if (resourceClaim != null) {
+            writeSignedVarLong(out, contentClaim.getOffset());
+            writeSignedVarLong(out, contentClaim.getLength());
+            writeSignedVarLong(out, flowFile.getContentClaimOffset());
+        }
+    }
+
+    @Override
+    public String getSerializationName() {
+        return SERIALIZATION_NAME;
+    }
+}
@@ -53,6 +53,31 @@ public class SchemaSwapSerializer implements SwapSerializer {
     public void serializeFlowFiles(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final String swapLocation, final OutputStream out) throws IOException {
         schema.writeTo(out);
 
+        final SwapSummary swapSummary = createSwapSummary(toSwap);
+        final Record summaryRecord = new SwapSummaryFieldMap(swapSummary, queue.getIdentifier(), SwapSchema.SWAP_SUMMARY_SCHEMA_V3);
+
+        final List<Record> flowFileRecords = toSwap.stream()
+            .map(flowFile -> new FlowFileRecordFieldMap(flowFile, flowFileSchema))
+            .collect(Collectors.toList());
+
+        // Create a simple record to hold the summary and the flowfile contents
+        final RecordField summaryField = new SimpleRecordField(SwapSchema.SWAP_SUMMARY, FieldType.COMPLEX, Repetition.EXACTLY_ONE);
+        final RecordField contentsField = new ComplexRecordField(SwapSchema.FLOWFILE_CONTENTS, Repetition.ZERO_OR_MORE, FlowFileSchema.FLOWFILE_SCHEMA_V2.getFields());
+        final List<RecordField> fields = new ArrayList<>(2);
+        fields.add(summaryField);
+        fields.add(contentsField);
+
+        final Map<RecordField, Object> swapFileMap = new LinkedHashMap<>();
+        swapFileMap.put(summaryField, summaryRecord);
+        swapFileMap.put(contentsField, flowFileRecords);
+        final Record swapFileRecord = new FieldMapRecord(swapFileMap, new RecordSchema(fields));
+
+        final SchemaRecordWriter writer = new SchemaRecordWriter();
+        writer.writeRecord(swapFileRecord, out);
+        out.flush();
+    }
+
+    static SwapSummary createSwapSummary(final List<FlowFileRecord> toSwap) {
         long contentSize = 0L;
         long maxFlowFileId = -1L;
         Long minLastQueueDate = null;
@@ -75,28 +100,7 @@ public class SchemaSwapSerializer implements SwapSerializer {
         }
 
         final QueueSize queueSize = new QueueSize(toSwap.size(), contentSize);
-        final SwapSummary swapSummary = new StandardSwapSummary(queueSize, maxFlowFileId, resourceClaims, minLastQueueDate, totalLastQueuedate);
-        final Record summaryRecord = new SwapSummaryFieldMap(swapSummary, queue.getIdentifier(), SwapSchema.SWAP_SUMMARY_SCHEMA_V3);
-
-        final List<Record> flowFileRecords = toSwap.stream()
-            .map(flowFile -> new FlowFileRecordFieldMap(flowFile, flowFileSchema))
-            .collect(Collectors.toList());
-
-        // Create a simple record to hold the summary and the flowfile contents
-        final RecordField summaryField = new SimpleRecordField(SwapSchema.SWAP_SUMMARY, FieldType.COMPLEX, Repetition.EXACTLY_ONE);
-        final RecordField contentsField = new ComplexRecordField(SwapSchema.FLOWFILE_CONTENTS, Repetition.ZERO_OR_MORE, FlowFileSchema.FLOWFILE_SCHEMA_V2.getFields());
-        final List<RecordField> fields = new ArrayList<>(2);
-        fields.add(summaryField);
-        fields.add(contentsField);
-
-        final Map<RecordField, Object> swapFileMap = new LinkedHashMap<>();
-        swapFileMap.put(summaryField, summaryRecord);
-        swapFileMap.put(contentsField, flowFileRecords);
-        final Record swapFileRecord = new FieldMapRecord(swapFileMap, new RecordSchema(fields));
-
-        final SchemaRecordWriter writer = new SchemaRecordWriter();
-        writer.writeRecord(swapFileRecord, out);
-        out.flush();
+        return new StandardSwapSummary(queueSize, maxFlowFileId, resourceClaims, minLastQueueDate, totalLastQueuedate);
     }
 
     @Override
@@ -28,6 +28,7 @@ import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.repository.ActiveProcessSessionFactory;
 import org.apache.nifi.controller.repository.BatchingSessionFactory;
 import org.apache.nifi.controller.repository.RepositoryContext;
+import org.apache.nifi.controller.repository.RepositoryUpdateCoalescer;
 import org.apache.nifi.controller.repository.StandardProcessSession;
 import org.apache.nifi.controller.repository.StandardProcessSessionFactory;
 import org.apache.nifi.controller.repository.WeakHashMapProcessSessionFactory;
@@ -68,6 +69,7 @@ public class ConnectableTask {
     private final SchedulingAgent schedulingAgent;
     private final Connectable connectable;
     private final RepositoryContext repositoryContext;
+    private final RepositoryUpdateCoalescer repositoryUpdateCoalescer;
     private final LifecycleState lifecycleState;
     private final ProcessContext processContext;
     private final FlowController flowController;
@@ -100,6 +102,7 @@ public class ConnectableTask {
         }
 
         repositoryContext = contextFactory.newProcessContext(connectable, new AtomicLong(0L));
+        repositoryUpdateCoalescer = contextFactory.getRepositoryUpdateCoalescer();
 
         statsTracker = new StandardStatsTracker(flowController.getGarbageCollectionLog()::getTotalGarbageCollectionMillis,
             flowController.getPerformanceTrackingPercentage());
@@ -184,7 +187,7 @@ public class ConnectableTask {
         // Make sure processor has work to do.
         if (!isWorkToDo()) {
             logger.debug("Yielding {} because it has no work to do", connectable);
-            return InvocationResult.yield("No work to do");
+            return InvocationResult.NO_WORK_TO_DO;
         }
 
         if (numRelationships > 0) {
@@ -204,7 +207,7 @@ public class ConnectableTask {
         final boolean batch;
         if (connectable.isSessionBatchingSupported() && batchNanos > 0L) {
             rawSession = new StandardProcessSession(repositoryContext, lifecycleState::isTerminated, stats.getPerformanceTracker());
-            sessionFactory = new BatchingSessionFactory(rawSession);
+            sessionFactory = new BatchingSessionFactory(rawSession, repositoryUpdateCoalescer);
             batch = true;
         } else {
             rawSession = null;
@@ -34,6 +34,12 @@ public interface InvocationResult {
         }
     };
 
+    /**
+     * Indicates that the component was not triggered because it is not a source component and none of its incoming connections
+     * had a FlowFile available
+     */
+    InvocationResult NO_WORK_TO_DO = InvocationResult.yield("No work to do");
+
     static InvocationResult yield(final String explanation) {
         return new InvocationResult() {
             @Override
@@ -36,9 +36,12 @@ import org.apache.nifi.diagnostics.bootstrap.tasks.MemoryPoolPeakUsageTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.NarsDiagnosticTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.NiFiPropertiesDiagnosticTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.OperatingSystemDiagnosticTask;
+import org.apache.nifi.diagnostics.bootstrap.tasks.ProcessGroupSchedulingTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.ProcessorTimingDiagnosticTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.PythonBridgeDiagnosticTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.RepositoryDiagnosticTask;
+import org.apache.nifi.diagnostics.bootstrap.tasks.ThreadPoolSaturationTask;
+import org.apache.nifi.diagnostics.bootstrap.tasks.WorkSignalSchedulingTask;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +82,9 @@ public class BootstrapDiagnosticsFactory implements DiagnosticsFactory {
         tasks.add(new FlowConfigurationDiagnosticTask(flowController));
         tasks.add(new ProcessorTimingDiagnosticTask(flowController.getFlowFileEventRepository(), flowController.getFlowManager()));
         tasks.add(new LongRunningProcessorTask(flowController));
+        tasks.add(new WorkSignalSchedulingTask(flowController));
+        tasks.add(new ThreadPoolSaturationTask(flowController));
+        tasks.add(new ProcessGroupSchedulingTask(flowController));
         tasks.add(new ClusterDiagnosticTask(flowController));
         tasks.add(new GarbageCollectionDiagnosticTask(flowController));
         tasks.add(new MemoryPoolPeakUsageTask());
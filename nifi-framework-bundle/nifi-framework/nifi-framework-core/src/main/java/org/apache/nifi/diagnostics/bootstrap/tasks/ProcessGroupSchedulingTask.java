@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.diagnostics.bootstrap.tasks;
+
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.scheduling.GroupSchedulingStatistics;
+import org.apache.nifi.controller.scheduling.ProcessGroupQuota;
+import org.apache.nifi.controller.scheduling.SchedulingAgent;
+import org.apache.nifi.controller.scheduling.TimerDrivenSchedulingAgent;
+import org.apache.nifi.diagnostics.DiagnosticTask;
+import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
+import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
+import org.apache.nifi.scheduling.SchedulingStrategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ProcessGroupSchedulingTask implements DiagnosticTask {
+    private static final int MAX_GROUPS = 25;
+
+    private final FlowController flowController;
+
+    public ProcessGroupSchedulingTask(final FlowController flowController) {
+        this.flowController = flowController;
+    }
+
+    @Override
+    public DiagnosticsDumpElement captureDump(final boolean verbose) {
+        final List<String> details = new ArrayList<>();
+
+        final SchedulingAgent schedulingAgent = flowController.getProcessScheduler().getSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN);
+        if (!(schedulingAgent instanceof TimerDrivenSchedulingAgent timerDrivenAgent)) {
+            details.add("Timer Driven Scheduling Agent is not available");
+            return new StandardDiagnosticsDumpElement("Process Group Scheduling", details);
+        }
+
+        for (final ProcessGroupQuota quota : timerDrivenAgent.getProcessGroupQuotas()) {
+            details.add("Quota for Process Group %s - Max Threads: %s, Weight: %,d, Active Tasks: %,d, Throttled Invocations: %,d".formatted(
+                quota.getGroupId(), quota.getMaxThreads() > 0 ? String.valueOf(quota.getMaxThreads()) : "unlimited", quota.getWeight(), quota.getActiveTaskCount(),
+                quota.getThrottledInvocationCount()));
+        }
+
+        final List<GroupSchedulingStatistics> statistics = new ArrayList<>(timerDrivenAgent.getGroupSchedulingStatistics());
+        statistics.sort(Comparator.comparingLong(GroupSchedulingStatistics::getTotalSchedulingDelayNanos).reversed());
+
+        final int groupCount = verbose ? statistics.size() : Math.min(MAX_GROUPS, statistics.size());
+        if (groupCount < statistics.size()) {
+            details.add("Showing the " + groupCount + " of " + statistics.size() + " Process Groups with the most scheduling delay");
+        }
+
+        for (final GroupSchedulingStatistics groupStatistics : statistics.subList(0, groupCount)) {
+            final long invocations = groupStatistics.getInvocationCount();
+            final long averageDelayMicros = invocations == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(groupStatistics.getTotalSchedulingDelayNanos() / invocations);
+
+            details.add("%s (%s) - Invocations: %,d, Average Scheduling Delay: %,d micros, Max Scheduling Delay: %,d micros".formatted(
+                groupStatistics.getGroupName(), groupStatistics.getGroupId(), invocations, averageDelayMicros,
+                TimeUnit.NANOSECONDS.toMicros(groupStatistics.getMaxSchedulingDelayNanos())));
+        }
+
+        return new StandardDiagnosticsDumpElement("Process Group Scheduling", details);
+    }
+}
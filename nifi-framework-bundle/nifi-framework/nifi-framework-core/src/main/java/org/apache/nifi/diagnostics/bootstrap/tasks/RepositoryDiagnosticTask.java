@@ -18,12 +18,16 @@ package org.apache.nifi.diagnostics.bootstrap.tasks;
 
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FileSystemRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.diagnostics.DiagnosticTask;
 import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
 import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
+import org.apache.nifi.provenance.ProvenanceEventPolicyStatus;
+import org.apache.nifi.provenance.ProvenanceIndexingStatus;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.apache.nifi.util.FormatUtils;
 
@@ -74,6 +78,21 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
         details.add("FlowFile Repository File Store: " + repository.getFileStoreName());
         details.add("FlowFile Repository Storage Capacity: " + FormatUtils.formatDataSize(repository.getStorageCapacity()));
         details.add("FlowFile Repository Usable Space: " + FormatUtils.formatDataSize(repository.getUsableStorageSpace()));
+
+        if (repository instanceof WriteAheadFlowFileRepository writeAheadRepository) {
+            writeAheadRepository.getGroupCommitStatistics().ifPresent(statistics -> {
+                details.add("FlowFile Repository Group Commits: " + statistics.getCommitCount() + " commits of " + statistics.getUpdateCount() + " updates and "
+                    + statistics.getRecordCount() + " records");
+                details.add("FlowFile Repository Updates per Group Commit: " + statistics.getUpdatesPerCommit());
+                details.add("FlowFile Repository Group Commit Write and Sync Time (micros): " + statistics.getCommitMicros());
+                details.add("FlowFile Repository Update Latency (micros): " + statistics.getUpdateLatencyMicros());
+            });
+            writeAheadRepository.getOffHeapSnapshot().ifPresent(snapshot -> {
+                details.add("FlowFile Repository Off-Heap Snapshot Records: " + snapshot.getRecordCount());
+                details.add("FlowFile Repository Off-Heap Snapshot Memory Used: " + FormatUtils.formatDataSize(snapshot.getUsedBytes())
+                    + " of " + FormatUtils.formatDataSize(snapshot.getAllocatedBytes()) + " allocated");
+            });
+        }
     }
 
     private void captureDiagnostics(final ContentRepository repository, final ProcessGroupStatus status, final List<String> details) throws IOException {
@@ -84,6 +103,15 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
             details.add("Content Repository <" + containerName + "> Usable Space: " + FormatUtils.formatDataSize(repository.getContainerUsableSpace(containerName)));
         }
 
+        if (repository instanceof FileSystemRepository fileSystemRepository) {
+            fileSystemRepository.getMemoryMappedClaimCache().ifPresent(cache -> {
+                details.add("Content Repository Memory-Mapped Reads: " + cache.getHitCount() + " hits, " + cache.getMissCount() + " misses, " + cache.getEvictionCount() + " evictions");
+                details.add("Content Repository Memory-Mapped Size: " + FormatUtils.formatDataSize(cache.getMappedBytes()) + " of " + FormatUtils.formatDataSize(cache.getMaxMappedBytes())
+                    + " in " + cache.getMappedResourceClaimCount() + " Resource Claims, " + FormatUtils.formatDataSize(cache.getReleasedBytes())
+                    + " released but not yet garbage collected");
+            });
+        }
+
         details.add("Bytes Read (Last 5 mins): " + FormatUtils.formatDataSize(status.getBytesRead()));
         details.add("Bytes Written (Last 5 mins): " + FormatUtils.formatDataSize(status.getBytesWritten()));
     }
@@ -95,6 +123,21 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
             details.add("Provenance Repository <" + containerName + "> Storage Capacity: " + FormatUtils.formatDataSize(repository.getContainerCapacity(containerName)));
             details.add("Provenance Repository <" + containerName + "> Usable Space: " + FormatUtils.formatDataSize(repository.getContainerUsableSpace(containerName)));
         }
+
+        final ProvenanceIndexingStatus indexingStatus = repository.getIndexingStatus();
+        if (indexingStatus != null) {
+            details.add("Provenance Repository Indexing Queue: " + indexingStatus.getQueuedDocumentCount() + " of " + indexingStatus.getQueueCapacity() + " documents");
+            details.add("Provenance Repository Indexing Lag: " + indexingStatus.getIndexingLagMillis() + " millis");
+            details.add("Provenance Repository Documents Indexed per Second (Last 1 min): " + String.format("%.1f", indexingStatus.getDocumentsIndexedPerSecond()));
+        }
+
+        final ProvenanceEventPolicyStatus eventPolicyStatus = repository.getEventPolicyStatus();
+        if (eventPolicyStatus != null) {
+            details.add("Provenance Repository Events Kept: " + eventPolicyStatus.getKeptEventCount());
+            details.add("Provenance Repository Events Dropped by Sampling: " + eventPolicyStatus.getDroppedEventCount());
+            details.add("Provenance Repository Events Aggregated: " + eventPolicyStatus.getAggregatedEventCount() + " into "
+                + eventPolicyStatus.getSummaryEventCount() + " summary events");
+        }
     }
 
 }
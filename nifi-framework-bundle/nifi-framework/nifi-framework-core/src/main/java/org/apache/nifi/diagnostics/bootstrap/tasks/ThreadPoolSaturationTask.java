@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.diagnostics.bootstrap.tasks;
+
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.scheduling.SchedulingAgent;
+import org.apache.nifi.controller.scheduling.TimerDrivenSchedulingAgent;
+import org.apache.nifi.diagnostics.DiagnosticTask;
+import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
+import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.scheduling.SchedulingStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ThreadPoolSaturationTask implements DiagnosticTask {
+    private final FlowController flowController;
+
+    public ThreadPoolSaturationTask(final FlowController flowController) {
+        this.flowController = flowController;
+    }
+
+    @Override
+    public DiagnosticsDumpElement captureDump(final boolean verbose) {
+        final List<String> details = new ArrayList<>();
+
+        final SchedulingAgent schedulingAgent = flowController.getProcessScheduler().getSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN);
+        if (!(schedulingAgent instanceof TimerDrivenSchedulingAgent timerDrivenAgent)) {
+            details.add("Timer Driven Scheduling Agent is not available");
+            return new StandardDiagnosticsDumpElement("Thread Pool Saturation", details);
+        }
+
+        for (final Map.Entry<String, FlowEngine> entry : timerDrivenAgent.getThreadPools().entrySet()) {
+            final FlowEngine engine = entry.getValue();
+            details.add("%s - Max Threads: %,d, Active Threads: %,d, Largest Pool Size: %,d, Overdue Tasks: %,d, Completed Tasks: %,d, Times Saturated: %,d, Time Saturated: %,d millis".formatted(
+                entry.getKey(), engine.getCorePoolSize(), engine.getActiveCount(), engine.getLargestPoolSize(), engine.getOverdueTaskCount(), engine.getCompletedTaskCount(),
+                engine.getSaturationCount(), engine.getSaturatedTime(TimeUnit.MILLISECONDS)));
+        }
+
+        return new StandardDiagnosticsDumpElement("Thread Pool Saturation", details);
+    }
+}
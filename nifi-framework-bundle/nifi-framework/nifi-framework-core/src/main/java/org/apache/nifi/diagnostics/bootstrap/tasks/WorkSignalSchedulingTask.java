@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.diagnostics.bootstrap.tasks;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.scheduling.SchedulingAgent;
+import org.apache.nifi.controller.scheduling.TimerDrivenSchedulingAgent;
+import org.apache.nifi.controller.scheduling.WorkSignalStatistics;
+import org.apache.nifi.diagnostics.DiagnosticTask;
+import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
+import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
+import org.apache.nifi.scheduling.SchedulingStrategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class WorkSignalSchedulingTask implements DiagnosticTask {
+    private static final int MAX_COMPONENTS = 25;
+
+    private final FlowController flowController;
+
+    public WorkSignalSchedulingTask(final FlowController flowController) {
+        this.flowController = flowController;
+    }
+
+    @Override
+    public DiagnosticsDumpElement captureDump(final boolean verbose) {
+        final List<String> details = new ArrayList<>();
+
+        final SchedulingAgent schedulingAgent = flowController.getProcessScheduler().getSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN);
+        if (!(schedulingAgent instanceof TimerDrivenSchedulingAgent timerDrivenAgent)) {
+            details.add("Timer Driven Scheduling Agent is not available");
+            return new StandardDiagnosticsDumpElement("Work-Signal Scheduling", details);
+        }
+
+        details.add("Work-Signal Scheduling Enabled: " + timerDrivenAgent.isWorkSignalEnabled());
+
+        final List<Map.Entry<Connectable, WorkSignalStatistics>> entries = new ArrayList<>(timerDrivenAgent.getWorkSignalStatistics().entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<Connectable, WorkSignalStatistics> entry) -> entry.getValue().getIdleInvocationCount()).reversed());
+
+        final int componentCount = verbose ? entries.size() : Math.min(MAX_COMPONENTS, entries.size());
+        if (componentCount < entries.size()) {
+            details.add("Showing the " + componentCount + " of " + entries.size() + " scheduled components with the most idle invocations");
+        }
+
+        for (final Map.Entry<Connectable, WorkSignalStatistics> entry : entries.subList(0, componentCount)) {
+            final WorkSignalStatistics statistics = entry.getValue();
+            final long wakeups = statistics.getWakeupCount();
+            final long averageLatencyMicros = wakeups == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(statistics.getTotalWakeupLatencyNanos() / wakeups);
+
+            details.add("%s - Idle Invocations: %,d, Parked Tasks: %,d, Signals: %,d, Wakeups: %,d, Average Wakeup Latency: %,d micros, Max Wakeup Latency: %,d micros".formatted(
+                entry.getKey(), statistics.getIdleInvocationCount(), statistics.getParkedTaskCount(), statistics.getSignalCount(), wakeups,
+                averageLatencyMicros, TimeUnit.NANOSECONDS.toMicros(statistics.getMaxWakeupLatencyNanos())));
+        }
+
+        return new StandardDiagnosticsDumpElement("Work-Signal Scheduling", details);
+    }
+}
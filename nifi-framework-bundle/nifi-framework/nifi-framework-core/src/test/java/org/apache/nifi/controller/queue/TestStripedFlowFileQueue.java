@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.MockFlowFileRecord;
+import org.apache.nifi.controller.MockSwapManager;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.apache.nifi.processor.FlowFileFilter.FlowFileFilterResult;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStripedFlowFileQueue {
+    private static final int STRIPE_COUNT = 4;
+
+    private MockSwapManager swapManager;
+    private StripedFlowFileQueue queue;
+
+    @BeforeEach
+    public void setup() {
+        swapManager = new MockSwapManager();
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        final ProvenanceEventRepository provRepo = Mockito.mock(ProvenanceEventRepository.class);
+        final ProcessScheduler scheduler = Mockito.mock(ProcessScheduler.class);
+
+        queue = new StripedFlowFileQueue("id", flowFileRepo, provRepo, scheduler, swapManager, null, 10000, STRIPE_COUNT, "0 sec", 0L, "0 B");
+        MockFlowFileRecord.resetIdGenerator();
+    }
+
+    @Test
+    public void testBackPressureUntilAcknowledged() {
+        queue.setBackPressureObjectThreshold(10);
+
+        for (int i = 0; i < 9; i++) {
+            queue.put(new MockFlowFileRecord());
+            assertFalse(queue.isFull());
+        }
+
+        queue.put(new MockFlowFileRecord());
+        assertTrue(queue.isFull());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final List<FlowFileRecord> polled = queue.poll(100, expiredRecords);
+        assertEquals(10, polled.size());
+        assertTrue(expiredRecords.isEmpty());
+        assertTrue(queue.isActiveQueueEmpty());
+
+        // the queue is still full because the FlowFiles have not yet been acknowledged
+        assertTrue(queue.isFull());
+        assertFalse(queue.isEmpty());
+        assertTrue(queue.isUnacknowledgedFlowFile());
+
+        final QueueSize unacknowledged = queue.getQueueDiagnostics().getLocalQueuePartitionDiagnostics().getUnacknowledgedQueueSize();
+        assertEquals(10, unacknowledged.getObjectCount());
+
+        queue.acknowledge(polled);
+        assertFalse(queue.isFull());
+        assertTrue(queue.isEmpty());
+        assertFalse(queue.isUnacknowledgedFlowFile());
+    }
+
+    @Test
+    public void testPollSingleFromEveryStripe() {
+        for (int i = 0; i < 100; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            final FlowFileRecord flowFile = queue.poll(expiredRecords);
+            assertNotNull(flowFile);
+            queue.acknowledge(flowFile);
+        }
+
+        assertNull(queue.poll(expiredRecords));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size().getByteCount());
+    }
+
+    @Test
+    public void testExpiredFlowFilesAccountedForAcrossStripes() throws InterruptedException {
+        queue.setFlowFileExpiration("1 ms");
+
+        for (int i = 0; i < 100; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        Thread.sleep(100L);
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        assertNull(queue.poll(expiredRecords));
+        assertEquals(100, expiredRecords.size());
+
+        final LocalQueuePartitionDiagnostics diagnostics = queue.getQueueDiagnostics().getLocalQueuePartitionDiagnostics();
+        assertEquals(0, diagnostics.getActiveQueueSize().getObjectCount());
+        assertEquals(0, diagnostics.getUnacknowledgedQueueSize().getObjectCount());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testPollWithFilterStopsWhenTerminated() {
+        for (int i = 0; i < 100; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        final AtomicInteger filterCalls = new AtomicInteger();
+        final List<FlowFileRecord> polled = queue.poll(flowFile -> {
+            filterCalls.incrementAndGet();
+            return FlowFileFilterResult.ACCEPT_AND_TERMINATE;
+        }, new HashSet<>());
+
+        assertEquals(1, polled.size());
+        assertEquals(1, filterCalls.get());
+        assertEquals(100, queue.size().getObjectCount());
+
+        final List<FlowFileRecord> remaining = queue.poll(flowFile -> FlowFileFilterResult.ACCEPT_AND_CONTINUE, new HashSet<>());
+        assertEquals(99, remaining.size());
+    }
+
+    @Test
+    public void testPrioritizerMovesFlowFilesToSingleStripe() {
+        for (int i = 0; i < 100; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        final FlowFilePrioritizer newestFirst = (flowFile1, flowFile2) -> Long.compare(flowFile2.getId(), flowFile1.getId());
+        queue.setPriorities(List.of(newestFirst));
+        assertEquals(100, queue.size().getObjectCount());
+
+        for (int i = 0; i < 10; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        long previousId = Long.MAX_VALUE;
+        for (int i = 0; i < 110; i++) {
+            final FlowFileRecord flowFile = queue.poll(expiredRecords);
+            assertNotNull(flowFile);
+            assertTrue(flowFile.getId() < previousId);
+            previousId = flowFile.getId();
+        }
+
+        assertTrue(queue.isActiveQueueEmpty());
+    }
+
+    @Test
+    public void testRecoverSwapFilesWrittenWithoutStripes() {
+        final List<FlowFileRecord> unstriped = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            unstriped.add(new MockFlowFileRecord());
+        }
+        final List<FlowFileRecord> secondStripe = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            secondStripe.add(new MockFlowFileRecord());
+        }
+
+        // Swap File written by a queue without stripes, and one written by the second stripe
+        swapManager.swappedOut.put("unstriped.null", unstriped);
+        swapManager.swappedOut.put("striped.stripe-1", secondStripe);
+
+        final SwapSummary summary = queue.recoverSwappedFlowFiles();
+        assertEquals(8, summary.getQueueSize().getObjectCount());
+        assertEquals(8, queue.size().getObjectCount());
+        assertEquals(2, queue.getQueueDiagnostics().getLocalQueuePartitionDiagnostics().getSwapFileCount());
+        assertTrue(swapManager.swappedOut.containsKey("unstriped.stripe-0"));
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        for (int i = 0; i < 8; i++) {
+            final FlowFileRecord flowFile = queue.poll(expiredRecords);
+            assertNotNull(flowFile);
+            queue.acknowledge(flowFile);
+        }
+
+        assertTrue(queue.isEmpty());
+        assertTrue(swapManager.swappedOut.isEmpty());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testConcurrentPutPollAndAcknowledge() throws Exception {
+        final int threads = 8;
+        final int flowFilesPerThread = 10_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final AtomicInteger polledCount = new AtomicInteger();
+
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+                    for (int i = 0; i < flowFilesPerThread; i++) {
+                        queue.put(new MockFlowFileRecord());
+
+                        final FlowFileRecord flowFile = queue.poll(expiredRecords);
+                        if (flowFile != null) {
+                            queue.acknowledge(flowFile);
+                            polledCount.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        final List<FlowFileRecord> remaining = queue.poll(threads * flowFilesPerThread, new HashSet<>());
+        queue.acknowledge(remaining);
+
+        assertEquals(threads * flowFilesPerThread, polledCount.get() + remaining.size());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size().getByteCount());
+    }
+}
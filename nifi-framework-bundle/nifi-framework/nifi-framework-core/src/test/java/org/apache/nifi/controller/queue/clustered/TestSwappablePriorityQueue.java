@@ -25,7 +25,10 @@ import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.PollStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
+import org.apache.nifi.controller.repository.CompactAttributeMap;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
@@ -45,6 +48,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -544,6 +552,27 @@ public class TestSwappablePriorityQueue {
         queue.poll(exp, 500000);
     }
 
+    @Test
+    public void testSwappedInFlowFilesHaveCompactAttributes() {
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new StandardFlowFileRecord.Builder().id(i).addAttribute("i", String.valueOf(i)).build());
+        }
+        assertEquals(1, swapManager.swappedOut.size());
+
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            final FlowFileRecord flowFile = queue.poll(exp, 500000);
+            assertFalse(flowFile.getAttributes() instanceof CompactAttributeMap);
+            queue.acknowledge(Collections.singleton(flowFile));
+        }
+
+        // this triggers a swap-in, and the FlowFiles that are swapped in are compacted as they are added to the active queue
+        final FlowFileRecord swappedIn = queue.poll(exp, 500000);
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertTrue(swappedIn.getAttributes() instanceof CompactAttributeMap);
+        assertEquals(String.valueOf(swappedIn.getId()), swappedIn.getAttribute("i"));
+    }
+
     @Test
     public void testSwapInWhenThresholdIsLessThanSwapSize() {
         // create a queue where the swap threshold is less than 10k
@@ -788,4 +817,125 @@ public class TestSwappablePriorityQueue {
         assertEquals(totalNow - totalQueueDate, queue.getTotalQueuedDuration(now));
         assertEquals(minQueueDate, queue.getMinLastQueueDate());
     }
+
+    @Test
+    public void testSwapInUsesPrefetchedSwapFile() {
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", Runnable::run);
+
+        for (int i = 0; i < 20000; i++) {
+            queue.put(new MockFlowFileRecord(i));
+        }
+        assertEquals(1, swapManager.swappedOut.size());
+
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            final FlowFileRecord flowFile = queue.poll(expired, 0L);
+            assertNotNull(flowFile);
+            queue.acknowledge(flowFile);
+        }
+
+        assertNull(queue.poll(expired, 0L));
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertTrue(swapManager.swappedOut.isEmpty());
+        assertEquals(1L, queue.getQueueDiagnostics().getSwapPrefetchHitCount());
+        assertEquals(0L, queue.getQueueDiagnostics().getSwapPrefetchMissCount());
+    }
+
+    @Test
+    public void testSwapInReadsSwapFileWhenPrefetchIncomplete() {
+        final List<Runnable> pendingTasks = new ArrayList<>();
+        queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", pendingTasks::add);
+
+        for (int i = 0; i < 20000; i++) {
+            queue.put(new MockFlowFileRecord(i));
+        }
+
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            final FlowFileRecord flowFile = queue.poll(expired, 0L);
+            assertNotNull(flowFile);
+            queue.acknowledge(flowFile);
+        }
+
+        assertEquals(1, pendingTasks.size());
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(0L, queue.getQueueDiagnostics().getSwapPrefetchHitCount());
+        assertEquals(1L, queue.getQueueDiagnostics().getSwapPrefetchMissCount());
+
+        // The abandoned background read must not have any effect once it runs
+        pendingTasks.forEach(Runnable::run);
+        assertNull(queue.poll(expired, 0L));
+        assertEquals(0, queue.size().getObjectCount());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testSwapInWaitsForPrefetchInProgress() throws Exception {
+        final CountDownLatch peekStarted = new CountDownLatch(1);
+        final CountDownLatch peekReleased = new CountDownLatch(1);
+        final AtomicInteger peekCount = new AtomicInteger();
+        swapManager = new MockSwapManager() {
+            @Override
+            public SwapContents peek(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+                peekCount.incrementAndGet();
+                peekStarted.countDown();
+                try {
+                    peekReleased.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.peek(swapLocation, flowFileQueue);
+            }
+        };
+
+        final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor();
+        final ExecutorService pollExecutor = Executors.newSingleThreadExecutor();
+        try {
+            queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local", prefetchExecutor);
+            for (int i = 0; i < 20000; i++) {
+                queue.put(new MockFlowFileRecord(i));
+            }
+
+            final Set<FlowFileRecord> expired = new HashSet<>();
+            for (int i = 0; i < 10000; i++) {
+                queue.acknowledge(queue.poll(expired, 0L));
+            }
+            peekStarted.await();
+
+            // The swap file is being read in the background, so swapping it in must wait for that read rather than read it again
+            final Future<FlowFileRecord> swappedIn = pollExecutor.submit(() -> queue.poll(expired, 0L));
+            Thread.sleep(200L);
+            assertFalse(swappedIn.isDone());
+
+            peekReleased.countDown();
+            assertNotNull(swappedIn.get());
+        } finally {
+            peekReleased.countDown();
+            prefetchExecutor.shutdownNow();
+            pollExecutor.shutdownNow();
+        }
+
+        assertEquals(1, peekCount.get());
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(1L, queue.getQueueDiagnostics().getSwapPrefetchHitCount());
+        assertEquals(0L, queue.getQueueDiagnostics().getSwapPrefetchMissCount());
+    }
+
+    @Test
+    public void testNoPrefetchCountsWithoutExecutor() {
+        for (int i = 0; i < 20000; i++) {
+            queue.put(new MockFlowFileRecord(i));
+        }
+
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        int polled = 0;
+        while (queue.poll(expired, 0L) != null) {
+            polled++;
+        }
+
+        assertEquals(20000, polled);
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(0L, queue.getQueueDiagnostics().getSwapPrefetchHitCount());
+        assertEquals(0L, queue.getQueueDiagnostics().getSwapPrefetchMissCount());
+    }
 }
@@ -2003,6 +2003,52 @@ public class StandardProcessSessionIT {
         assertEquals(ProvenanceEventType.ATTRIBUTES_MODIFIED, event.getEventType());
     }
 
+    @Test
+    public void testSingleFlowFileSpuriousRouteEmitsAttributesModified() throws IOException {
+        final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(1L)
+                .addAttribute("uuid", "11111111-1111-1111-1111-111111111111")
+                .build();
+        flowFileQueue.put(flowFile);
+
+        final Relationship relationship = new Relationship.Builder().name("A").build();
+        FlowFile existingFlowFile = session.get();
+        existingFlowFile = session.putAttribute(existingFlowFile, "attr", "a");
+        session.getProvenanceReporter().route(existingFlowFile, relationship);
+        session.transfer(existingFlowFile, relationship);
+        session.commit();
+
+        // The FlowFile is routed back to the queue it came from, so the ROUTE event is discarded in favor of ATTRIBUTES_MODIFIED
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 10000);
+        assertEquals(1, events.size());
+        assertEquals(ProvenanceEventType.ATTRIBUTES_MODIFIED, events.getFirst().getEventType());
+        assertEquals("a", events.getFirst().getUpdatedAttributes().get("attr"));
+
+        final FlowFileRecord onQueue = flowFileQueue.poll(Collections.emptySet());
+        assertEquals("a", onQueue.getAttribute("attr"));
+    }
+
+    @Test
+    public void testSingleFlowFileReportedEventSuppressesAttributesModified() throws IOException {
+        final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(1L)
+                .addAttribute("uuid", "11111111-1111-1111-1111-111111111111")
+                .build();
+        flowFileQueue.put(flowFile);
+
+        FlowFile existingFlowFile = session.get();
+        existingFlowFile = session.putAttribute(existingFlowFile, "attr", "a");
+        session.getProvenanceReporter().associate(existingFlowFile, "nifi", "alternate-id");
+        session.transfer(existingFlowFile, new Relationship.Builder().name("A").build());
+        session.commit();
+
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 10000);
+        assertEquals(1, events.size());
+        assertEquals(ProvenanceEventType.ADDINFO, events.getFirst().getEventType());
+        assertEquals("a", events.getFirst().getUpdatedAttributes().get("attr"));
+        assertEquals(1, flowFileQueue.size().getObjectCount());
+    }
+
     @Test
     public void testReadFromInputStream() throws IOException {
         FlowFile flowFile = session.create();
@@ -38,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -589,6 +590,82 @@ public class TestFileSystemRepository {
         assertArrayEquals(doubleExpected, Files.readAllBytes(outPath));
     }
 
+    @Test
+    public void testImportFromFileIntoSharedResourceClaim() throws IOException {
+        final ContentClaim first = repository.create(false);
+        try (final OutputStream out = repository.write(first)) {
+            out.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Path source = tempDir.resolve("import.txt");
+        Files.writeString(source, "good-bye", StandardCharsets.UTF_8);
+
+        final ContentClaim second = repository.create(false);
+        assertEquals(first.getResourceClaim(), second.getResourceClaim());
+        assertEquals(8, repository.importFrom(source, second));
+        assertEquals(5, second.getOffset());
+        assertEquals(8, second.getLength());
+
+        try (final InputStream in = repository.read(second)) {
+            assertEquals("good-bye", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals("hellogood-bye", Files.readString(getPath(first), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportRangeToFile() throws IOException {
+        final ContentClaim first = repository.create(false);
+        try (final OutputStream out = repository.write(first)) {
+            out.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+        final ContentClaim second = repository.create(false);
+        try (final OutputStream out = repository.write(second)) {
+            out.write("good-bye".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Path destination = tempDir.resolve("export.txt");
+        Files.writeString(destination, "previous content", StandardCharsets.UTF_8);
+
+        assertEquals(8, repository.exportTo(second, destination, false));
+        assertEquals("good-bye", Files.readString(destination, StandardCharsets.UTF_8));
+
+        assertEquals(3, repository.exportTo(second, destination, true, 5, 3));
+        assertEquals("good-byebye", Files.readString(destination, StandardCharsets.UTF_8));
+
+        assertEquals(4, repository.exportTo(first, destination, false, 1, 4));
+        assertEquals("ello", Files.readString(destination, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportRangeToFileBeyondEndOfResourceClaim() throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Path destination = tempDir.resolve("export.txt");
+        assertThrows(EOFException.class, () -> repository.exportTo(claim, destination, false, 2, 10));
+    }
+
+    @Test
+    public void testExportRangeToFileBeyondEndOfContentClaim() throws IOException {
+        final ContentClaim first = repository.create(false);
+        try (final OutputStream out = repository.write(first)) {
+            out.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+        final ContentClaim second = repository.create(false);
+        try (final OutputStream out = repository.write(second)) {
+            out.write("good-bye".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(first.getResourceClaim(), second.getResourceClaim());
+
+        // The Resource Claim holds enough bytes for the range, but the range extends into the second Content Claim
+        final Path destination = tempDir.resolve("export.txt");
+        assertThrows(EOFException.class, () -> repository.exportTo(first, destination, false, 2, 6));
+        assertThrows(EOFException.class, () -> repository.exportTo(first, destination, false, 0, 13));
+        assertFalse(Files.exists(destination));
+    }
+
     @Test
     public void testSize() throws IOException {
         final ContentClaim claim = repository.create(true);
@@ -638,6 +715,44 @@ public class TestFileSystemRepository {
         }
     }
 
+    @Test
+    public void testReadWithMemoryMappedReads() throws IOException {
+        final Map<String, String> propertyOverrides = new HashMap<>();
+        propertyOverrides.put(NiFiProperties.CONTENT_MEMORY_MAPPED_READS_ENABLED, "true");
+        recreateRepositoryWithPropertyOverrides(propertyOverrides);
+
+        final MemoryMappedClaimCache cache = repository.getMemoryMappedClaimCache().orElseThrow();
+
+        final ContentClaim first = repository.create(false);
+        try (final OutputStream out = repository.write(first)) {
+            out.write("hello".getBytes(StandardCharsets.UTF_8));
+        }
+        final ContentClaim second = repository.create(false);
+        try (final OutputStream out = repository.write(second)) {
+            out.write("good-bye".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(first.getResourceClaim(), second.getResourceClaim());
+
+        // a writable Resource Claim must be read from the file because its content may still change
+        try (final InputStream in = repository.read(first)) {
+            assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(0, cache.getMissCount());
+
+        claimManager.freeze(first.getResourceClaim());
+
+        try (final InputStream in = repository.read(first)) {
+            assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        try (final InputStream in = repository.read(second)) {
+            assertEquals("good-bye", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(13L, cache.getMappedBytes());
+    }
+
     @DisabledOnOs(value = OS.WINDOWS,
             disabledReason = "java.nio.file.Files.deleteIfExists fails on Windows if the file is open and in use by the same Java Virtual Machine process or another external process")
     @Test
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestMemoryMappedClaimCache {
+
+    @TempDir
+    private Path tempDir;
+
+    private final Map<ResourceClaim, Path> paths = new HashMap<>();
+
+    @Test
+    public void testReadRangeFromMapping() throws IOException {
+        final ResourceClaim claim = createClaim("claim-1", "0123456789", false);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(1024, paths::get);
+
+        try (final InputStream in = cache.read(claim, 2, 3)) {
+            assertNotNull(in);
+            assertEquals("234", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        try (final InputStream in = cache.read(claim, 0, -1)) {
+            assertNotNull(in);
+            assertEquals("0123456789", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(10, cache.getMappedBytes());
+        assertEquals(1, cache.getMappedResourceClaimCount());
+    }
+
+    @Test
+    public void testWritableClaimNotMapped() throws IOException {
+        final ResourceClaim claim = createClaim("claim-1", "0123456789", true);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(1024, paths::get);
+
+        assertNull(cache.read(claim, 0, 5));
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.getMappedResourceClaimCount());
+    }
+
+    @Test
+    public void testRangeBeyondEndOfFileNotServed() throws IOException {
+        final ResourceClaim claim = createClaim("claim-1", "0123456789", false);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(1024, paths::get);
+
+        assertNull(cache.read(claim, 8, 5));
+        assertNull(cache.read(claim, 11, 0));
+    }
+
+    @Test
+    public void testClaimNotInUseNotMapped() throws IOException {
+        final ResourceClaim claim = createClaim("claim-1", "0123456789", false);
+        when(claim.isInUse()).thenReturn(false);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(1024, paths::get);
+
+        assertNull(cache.read(claim, 0, 5));
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.getMappedResourceClaimCount());
+    }
+
+    @Test
+    public void testMissingFileNotServed() {
+        final ResourceClaim claim = mock(ResourceClaim.class);
+        when(claim.isInUse()).thenReturn(true);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(1024, paths::get);
+
+        assertNull(cache.read(claim, 0, 5));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws IOException {
+        final ResourceClaim first = createClaim("claim-1", "0123456789", false);
+        final ResourceClaim second = createClaim("claim-2", "abcdefghij", false);
+        final ResourceClaim third = createClaim("claim-3", "ABCDEFGHIJ", false);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(20, paths::get);
+
+        cache.read(first, 0, 1).close();
+        cache.read(second, 0, 1).close();
+        cache.read(first, 0, 1).close();
+
+        // the second claim was least recently used, so it is evicted. Its mapping counts toward the maximum until it has been
+        // garbage collected, so the third claim must be read from its file.
+        assertNull(cache.read(third, 0, 1));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(10, cache.getMappedBytes());
+        assertEquals(1, cache.getMappedResourceClaimCount());
+
+        cache.read(first, 0, 1).close();
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testMappingInUseNotEvicted() throws IOException {
+        final ResourceClaim first = createClaim("claim-1", "0123456789", false);
+        final ResourceClaim second = createClaim("claim-2", "abcdefghij", false);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(10, paths::get);
+
+        try (final InputStream in = cache.read(first, 0, -1)) {
+            // the first mapping is in use, so it cannot be evicted to make room for the second
+            assertNull(cache.read(second, 0, 1));
+            assertEquals(0, cache.getEvictionCount());
+            assertEquals(1, cache.getMappedResourceClaimCount());
+            assertEquals("0123456789", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        cache.read(first, 0, 1).close();
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testInvalidatedMappingRemainsReadable() throws IOException {
+        final ResourceClaim claim = createClaim("claim-1", "0123456789", false);
+        final MemoryMappedClaimCache cache = new MemoryMappedClaimCache(1024, paths::get);
+
+        final InputStream in = cache.read(claim, 5, 5);
+        cache.invalidate(claim);
+        assertEquals(0, cache.getMappedBytes());
+        assertEquals(0, cache.getMappedResourceClaimCount());
+
+        // the stream still references the mapping, so it has not been released by the operating system
+        assertEquals(10, cache.getReleasedBytes());
+
+        assertEquals("56789", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        in.close();
+        assertThrows(IOException.class, in::read);
+    }
+
+    private ResourceClaim createClaim(final String id, final String content, final boolean writable) throws IOException {
+        final Path path = tempDir.resolve(id);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+
+        final ResourceClaim claim = mock(ResourceClaim.class);
+        when(claim.getId()).thenReturn(id);
+        when(claim.isWritable()).thenReturn(writable);
+        when(claim.isInUse()).thenReturn(true);
+        paths.put(claim, path);
+        return claim;
+    }
+}
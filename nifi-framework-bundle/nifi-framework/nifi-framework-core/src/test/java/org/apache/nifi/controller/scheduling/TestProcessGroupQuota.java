@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.engine.FlowEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestProcessGroupQuota {
+    private FlowEngine flowEngine;
+
+    @BeforeEach
+    public void setup() {
+        flowEngine = new FlowEngine(4, "Quota Test", true);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        flowEngine.shutdownNow();
+    }
+
+    @Test
+    public void testMaxThreads() {
+        final ProcessGroupQuota quota = new ProcessGroupQuota("group-1", 2, 0, 0);
+
+        assertTrue(quota.tryAcquire(flowEngine));
+        assertTrue(quota.tryAcquire(flowEngine));
+        assertFalse(quota.tryAcquire(flowEngine));
+        assertEquals(2, quota.getActiveTaskCount());
+        assertEquals(1L, quota.getThrottledInvocationCount());
+
+        quota.release();
+        assertTrue(quota.tryAcquire(flowEngine));
+    }
+
+    @Test
+    public void testWeightOnlyAppliesWhenSaturated() throws InterruptedException {
+        // Weight of 1 out of a total of 4 gives a share of 1 of the 4 threads
+        final ProcessGroupQuota quota = new ProcessGroupQuota("group-1", 0, 1, 4);
+
+        assertTrue(quota.tryAcquire(flowEngine));
+        assertTrue(quota.tryAcquire(flowEngine));
+        quota.release();
+        quota.release();
+
+        final CountDownLatch started = new CountDownLatch(4);
+        final CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            flowEngine.submit(() -> {
+                started.countDown();
+                release.await();
+                return null;
+            });
+        }
+
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(flowEngine.isSaturated());
+
+            assertTrue(quota.tryAcquire(flowEngine));
+            assertFalse(quota.tryAcquire(flowEngine));
+        } finally {
+            release.countDown();
+        }
+    }
+}
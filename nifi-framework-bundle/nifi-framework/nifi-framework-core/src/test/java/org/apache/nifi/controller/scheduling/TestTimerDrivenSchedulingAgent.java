@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.components.state.StateManager;
+import org.apache.nifi.components.state.StateManagerProvider;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.GarbageCollectionLog;
+import org.apache.nifi.controller.ScheduledState;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.RepositoryContext;
+import org.apache.nifi.controller.status.FlowFileAvailability;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.nar.ExtensionManager;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestTimerDrivenSchedulingAgent {
+    private static final String COMPONENT_ID = "component-1";
+
+    private FlowEngine flowEngine;
+    private FlowController flowController;
+    private RepositoryContextFactory contextFactory;
+    private Connectable connectable;
+    private final AtomicReference<FlowFileAvailability> availability = new AtomicReference<>(FlowFileAvailability.ACTIVE_QUEUE_EMPTY);
+    private final AtomicInteger triggerCount = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        flowEngine = new FlowEngine(2, "Timer-Driven Test", true);
+
+        final StateManagerProvider stateManagerProvider = mock(StateManagerProvider.class);
+        when(stateManagerProvider.getStateManager(anyString())).thenReturn(mock(StateManager.class));
+
+        flowController = mock(FlowController.class);
+        when(flowController.getStateManagerProvider()).thenReturn(stateManagerProvider);
+        when(flowController.getGarbageCollectionLog()).thenReturn(mock(GarbageCollectionLog.class));
+        when(flowController.getExtensionManager()).thenReturn(mock(ExtensionManager.class));
+
+        final RepositoryContext repositoryContext = mock(RepositoryContext.class);
+        when(repositoryContext.getFlowFileEventRepository()).thenReturn(mock(FlowFileEventRepository.class));
+        contextFactory = mock(RepositoryContextFactory.class);
+        when(contextFactory.newProcessContext(any(Connectable.class), any())).thenReturn(repositoryContext);
+
+        final FlowFileQueue queue = mock(FlowFileQueue.class);
+        when(queue.getFlowFileAvailability()).thenAnswer(invocation -> availability.get());
+
+        final Connection connection = mock(Connection.class);
+        when(connection.getSource()).thenReturn(mock(Connectable.class));
+        when(connection.getFlowFileQueue()).thenReturn(queue);
+
+        connectable = mock(Connectable.class);
+        when(connectable.getIdentifier()).thenReturn(COMPONENT_ID);
+        when(connectable.getMaxConcurrentTasks()).thenReturn(1);
+        when(connectable.getSchedulingPeriod(any(TimeUnit.class))).thenReturn(1L);
+        when(connectable.getRelationships()).thenReturn(Collections.emptySet());
+        when(connectable.hasIncomingConnection()).thenReturn(true);
+        when(connectable.getIncomingConnections()).thenReturn(List.of(connection));
+        when(connectable.getScheduledState()).thenReturn(ScheduledState.RUNNING);
+        when(connectable.getRunnableComponent()).thenReturn(this);
+
+        // Consume the FlowFile that was made available
+        doAnswer(invocation -> {
+            availability.set(FlowFileAvailability.ACTIVE_QUEUE_EMPTY);
+            triggerCount.incrementAndGet();
+            return null;
+        }).when(connectable).onTrigger(any(), any());
+    }
+
+    @AfterEach
+    public void shutdown() {
+        flowEngine.shutdownNow();
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testIdleTaskIsWokenWhenFlowFilesQueued() throws InterruptedException {
+        final TimerDrivenSchedulingAgent agent = createAgent(true);
+        final LifecycleState lifecycleState = new LifecycleState(COMPONENT_ID);
+        agent.schedule(connectable, lifecycleState);
+
+        final WorkSignalStatistics statistics = agent.getWorkSignalStatistics().get(connectable);
+        waitFor(() -> statistics.getParkedTaskCount() == 1);
+
+        // The task is waiting for FlowFiles, so it must not keep checking for work
+        Thread.sleep(100L);
+        assertEquals(1, statistics.getIdleInvocationCount());
+        assertEquals(0, triggerCount.get());
+
+        availability.set(FlowFileAvailability.FLOWFILE_AVAILABLE);
+        agent.onEvent(connectable);
+
+        waitFor(() -> triggerCount.get() == 1 && statistics.getParkedTaskCount() == 2);
+        assertEquals(1, statistics.getSignalCount());
+        assertEquals(1, statistics.getWakeupCount());
+        assertTrue(statistics.getMaxWakeupLatencyNanos() > 0);
+
+        agent.unschedule(connectable, lifecycleState);
+        assertTrue(agent.getWorkSignalStatistics().isEmpty());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testPenalizedFlowFilesKeepTaskPolling() {
+        availability.set(FlowFileAvailability.HEAD_OF_QUEUE_PENALIZED);
+
+        final TimerDrivenSchedulingAgent agent = createAgent(true);
+        final LifecycleState lifecycleState = new LifecycleState(COMPONENT_ID);
+        agent.schedule(connectable, lifecycleState);
+
+        final WorkSignalStatistics statistics = agent.getWorkSignalStatistics().get(connectable);
+        waitFor(() -> statistics.getIdleInvocationCount() > 2);
+        assertEquals(0, statistics.getParkedTaskCount());
+
+        // Once the penalty expires, the task finds the FlowFile on its own
+        availability.set(FlowFileAvailability.FLOWFILE_AVAILABLE);
+        waitFor(() -> triggerCount.get() == 1);
+
+        agent.unschedule(connectable, lifecycleState);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testStalledTaskIsWokenWithoutSignal() {
+        final TimerDrivenSchedulingAgent agent = createAgent(true, "50 millis");
+        final LifecycleState lifecycleState = new LifecycleState(COMPONENT_ID);
+        agent.schedule(connectable, lifecycleState);
+
+        final WorkSignalStatistics statistics = agent.getWorkSignalStatistics().get(connectable);
+        waitFor(() -> statistics.getParkedTaskCount() == 1);
+
+        availability.set(FlowFileAvailability.FLOWFILE_AVAILABLE);
+        waitFor(() -> triggerCount.get() == 1);
+        assertEquals(0, statistics.getSignalCount());
+
+        agent.unschedule(connectable, lifecycleState);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    public void testIdleTaskPollsWhenWorkSignalDisabled() {
+        final TimerDrivenSchedulingAgent agent = createAgent(false);
+        assertFalse(agent.isWorkSignalEnabled());
+
+        final LifecycleState lifecycleState = new LifecycleState(COMPONENT_ID);
+        agent.schedule(connectable, lifecycleState);
+
+        final WorkSignalStatistics statistics = agent.getWorkSignalStatistics().get(connectable);
+        waitFor(() -> statistics.getIdleInvocationCount() > 2);
+        assertEquals(0, statistics.getParkedTaskCount());
+
+        availability.set(FlowFileAvailability.FLOWFILE_AVAILABLE);
+        agent.onEvent(connectable);
+        waitFor(() -> triggerCount.get() == 1);
+        assertEquals(0, statistics.getSignalCount());
+
+        agent.unschedule(connectable, lifecycleState);
+    }
+
+    private TimerDrivenSchedulingAgent createAgent(final boolean workSignalEnabled) {
+        return createAgent(workSignalEnabled, "1 hour");
+    }
+
+    private TimerDrivenSchedulingAgent createAgent(final boolean workSignalEnabled, final String idleCheckPeriod) {
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties("", Map.of(
+            NiFiProperties.BORED_YIELD_DURATION, "10 millis",
+            NiFiProperties.WORK_SIGNAL_SCHEDULING_ENABLED, String.valueOf(workSignalEnabled),
+            NiFiProperties.WORK_SIGNAL_IDLE_CHECK_PERIOD, idleCheckPeriod));
+
+        return new TimerDrivenSchedulingAgent(flowController, flowEngine, contextFactory, nifiProperties);
+    }
+
+    private void waitFor(final BooleanSupplier condition) {
+        while (!condition.getAsBoolean()) {
+            try {
+                Thread.sleep(5L);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
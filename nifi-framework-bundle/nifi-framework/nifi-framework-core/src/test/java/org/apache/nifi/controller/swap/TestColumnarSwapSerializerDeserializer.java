@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.flowfile.FlowFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestColumnarSwapSerializerDeserializer {
+    private static final String QUEUE_IDENTIFIER = "87bb99fe-412c-49f6-a441-d1b0af4e20b4";
+
+    private ResourceClaimManager resourceClaimManager;
+    private FlowFileQueue flowFileQueue;
+
+    @BeforeEach
+    public void setup() {
+        MockFlowFile.resetIdGenerator();
+        resourceClaimManager = new StandardResourceClaimManager();
+        flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn(QUEUE_IDENTIFIER);
+    }
+
+    @Test
+    public void testRoundTripSerializeDeserializeSummary() throws IOException {
+        final ContentClaim firstClaim = MockFlowFile.createContentClaim("id", resourceClaimManager);
+
+        final List<FlowFileRecord> toSwap = new ArrayList<>(10000);
+        final Map<String, String> attrs = new HashMap<>();
+        long size = 0L;
+        for (int i = 0; i < 10000; i++) {
+            attrs.put("i", String.valueOf(i));
+            final FlowFileRecord ff = i < 2 ? new MockFlowFile(attrs, i, firstClaim) : new MockFlowFile(attrs, i, resourceClaimManager);
+            toSwap.add(ff);
+            size += i;
+        }
+
+        final byte[] serialized = serialize(new ColumnarSwapSerializer(), toSwap);
+
+        final SwapSummary swapSummary;
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            swapSummary = new ColumnarSwapDeserializer().getSwapSummary(dis, "columnar.swap", resourceClaimManager);
+        }
+
+        assertEquals(10000, swapSummary.getQueueSize().getObjectCount());
+        assertEquals(size, swapSummary.getQueueSize().getByteCount());
+        assertEquals(9999, swapSummary.getMaxFlowFileId().intValue());
+
+        final List<ResourceClaim> resourceClaims = swapSummary.getResourceClaims();
+        assertEquals(10000, resourceClaims.size());
+        assertEquals(2, resourceClaims.stream().filter(claim -> claim.getId().equals("id")).count());
+        assertEquals(9999, new HashSet<>(resourceClaims).size());
+
+        assertEquals((Long) toSwap.stream().mapToLong(FlowFile::getLastQueueDate).sum(), swapSummary.getTotalLastQueueDate());
+        assertEquals((Long) toSwap.stream().mapToLong(FlowFile::getLastQueueDate).min().getAsLong(), swapSummary.getMinLastQueueDate());
+    }
+
+    @Test
+    public void testRoundTripSerializeDeserializeFullSwapFile() throws IOException {
+        final ContentClaim sharedClaim = MockFlowFile.createContentClaim("shared", resourceClaimManager);
+
+        final List<FlowFileRecord> toSwap = new ArrayList<>(10000);
+        final Map<String, String> attrs = new HashMap<>();
+        attrs.put("path", "./");
+        attrs.put("mime.type", "application/json");
+        for (int i = 0; i < 10000; i++) {
+            attrs.put("i", String.valueOf(i));
+            attrs.put("parity", i % 2 == 0 ? "even" : "odd");
+
+            final ContentClaim contentClaim;
+            if (i % 3 == 0) {
+                contentClaim = null;
+            } else if (i % 3 == 1) {
+                contentClaim = sharedClaim;
+            } else {
+                contentClaim = MockFlowFile.createContentClaim("claim-" + i, resourceClaimManager);
+            }
+
+            toSwap.add(new MockFlowFile(attrs, i, contentClaim));
+        }
+
+        final byte[] serialized = serialize(new ColumnarSwapSerializer(), toSwap);
+
+        final SwapContents contents;
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            contents = new ColumnarSwapDeserializer().deserializeFlowFiles(dis, "columnar.swap", flowFileQueue, resourceClaimManager);
+        }
+
+        assertEquals(10000, contents.getSummary().getQueueSize().getObjectCount());
+        assertEquals(9999, contents.getSummary().getMaxFlowFileId().intValue());
+
+        final List<FlowFileRecord> flowFiles = contents.getFlowFiles();
+        assertEquals(10000, flowFiles.size());
+
+        final Set<ResourceClaim> sharedResourceClaims = new HashSet<>();
+        for (int i = 0; i < flowFiles.size(); i++) {
+            final FlowFileRecord original = toSwap.get(i);
+            final FlowFileRecord flowFile = flowFiles.get(i);
+
+            assertEquals(original.getId(), flowFile.getId());
+            assertEquals(original.getSize(), flowFile.getSize());
+            assertEquals(original.getEntryDate(), flowFile.getEntryDate());
+            assertEquals(original.getLineageStartDate(), flowFile.getLineageStartDate());
+            assertEquals(original.getLastQueueDate(), flowFile.getLastQueueDate());
+            assertEquals(original.getAttributes(), flowFile.getAttributes());
+
+            if (original.getContentClaim() == null) {
+                assertNull(flowFile.getContentClaim());
+                continue;
+            }
+
+            final ContentClaim claim = flowFile.getContentClaim();
+            assertNotNull(claim);
+            assertEquals(original.getContentClaim().getResourceClaim(), claim.getResourceClaim());
+            assertEquals(original.getContentClaim().getOffset(), claim.getOffset());
+            assertEquals(original.getContentClaim().getLength(), claim.getLength());
+            assertEquals(original.getContentClaimOffset(), flowFile.getContentClaimOffset());
+
+            if (i % 3 == 1) {
+                sharedResourceClaims.add(claim.getResourceClaim());
+            }
+        }
+
+        assertEquals(1, sharedResourceClaims.size());
+        assertSame(flowFiles.get(1).getAttribute("parity"), flowFiles.get(3).getAttribute("parity"));
+    }
+
+    @Test
+    public void testSmallerThanSchemaSerializationForRepeatedAttributes() throws IOException {
+        final List<FlowFileRecord> toSwap = new ArrayList<>(10000);
+        final Map<String, String> attrs = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            attrs.put("attribute.name." + i, "attribute value " + (i % 5));
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            attrs.put("i", String.valueOf(i));
+            toSwap.add(new MockFlowFile(attrs, i, resourceClaimManager));
+        }
+
+        final byte[] schemaSerialized = serialize(new SchemaSwapSerializer(), toSwap);
+        final byte[] columnarSerialized = serialize(new ColumnarSwapSerializer(), toSwap);
+        assertTrue(columnarSerialized.length * 4 < schemaSerialized.length,
+            "Columnar swap file was " + columnarSerialized.length + " bytes but schema swap file was " + schemaSerialized.length + " bytes");
+    }
+
+    @Test
+    public void testTruncatedSwapFile() throws IOException {
+        final List<FlowFileRecord> toSwap = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            toSwap.add(new MockFlowFile(Map.of("i", String.valueOf(i)), i, resourceClaimManager));
+        }
+
+        final byte[] serialized = serialize(new ColumnarSwapSerializer(), toSwap);
+        final byte[] truncated = new byte[serialized.length - 10];
+        System.arraycopy(serialized, 0, truncated, 0, truncated.length);
+
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(truncated))) {
+            assertThrows(IOException.class, () -> new ColumnarSwapDeserializer().deserializeFlowFiles(dis, "columnar.swap", flowFileQueue, resourceClaimManager));
+        }
+    }
+
+    @Test
+    public void testUnknownCodec() throws IOException {
+        final List<FlowFileRecord> toSwap = List.of(new MockFlowFile(Map.of("i", "0"), 0, resourceClaimManager));
+        final byte[] serialized = serialize(new ColumnarSwapSerializer(), toSwap);
+
+        // The codec follows the Swap Summary and the 4-byte encoding version
+        final ByteArrayInputStream summaryIn = new ByteArrayInputStream(serialized);
+        new ColumnarSwapDeserializer().getSwapSummary(new DataInputStream(summaryIn), "columnar.swap", resourceClaimManager);
+        final int codecIndex = serialized.length - summaryIn.available() + 4;
+        assertEquals(ColumnarSwapFormat.DEFLATE_CODEC, serialized[codecIndex]);
+        serialized[codecIndex] = 99;
+
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            final IOException e = assertThrows(IOException.class, () -> new ColumnarSwapDeserializer().deserializeFlowFiles(dis, "columnar.swap", flowFileQueue, resourceClaimManager));
+            assertTrue(e.getMessage().contains("codec 99"));
+        }
+    }
+
+    private byte[] serialize(final SwapSerializer serializer, final List<FlowFileRecord> toSwap) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        serializer.serializeFlowFiles(toSwap, flowFileQueue, "columnar.swap", baos);
+        return baos.toByteArray();
+    }
+}
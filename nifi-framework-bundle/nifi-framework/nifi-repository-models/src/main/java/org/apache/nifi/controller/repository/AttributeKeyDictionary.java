@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * A process-wide dictionary of FlowFile attribute keys. The same small set of attribute names is typically shared by a very large
+ * number of FlowFiles, so each distinct key is stored once and every {@link CompactAttributeMap} refers to the canonical instance
+ * rather than holding its own copy of the String.
+ * </p>
+ *
+ * <p>
+ * The dictionary is bounded so that flows that generate attribute names dynamically cannot cause it to grow without limit. Once the
+ * limit has been reached, keys that are not already present are returned as-is.
+ * </p>
+ */
+public final class AttributeKeyDictionary {
+    static final int MAX_KEYS = 16_384;
+
+    private static final Map<String, String> keys = new ConcurrentHashMap<>();
+
+    private AttributeKeyDictionary() {
+    }
+
+    /**
+     * Returns the canonical instance of the given attribute key
+     *
+     * @param key the attribute key
+     * @return the canonical instance of the key, or the given key if the dictionary is full and does not yet contain it
+     */
+    public static String intern(final String key) {
+        final String existing = keys.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (keys.size() >= MAX_KEYS) {
+            return key;
+        }
+
+        final String previous = keys.putIfAbsent(key, key);
+        return previous == null ? key : previous;
+    }
+
+    /**
+     * @return the number of distinct attribute keys held by the dictionary
+     */
+    public static int size() {
+        return keys.size();
+    }
+}
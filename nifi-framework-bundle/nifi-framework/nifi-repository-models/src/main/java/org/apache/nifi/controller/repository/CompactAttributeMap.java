@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>
+ * An immutable Map of FlowFile attributes that stores its keys and values in a single array of alternating keys and values. Keys are
+ * interned by the {@link AttributeKeyDictionary} so that FlowFiles sharing the same attribute names do not each hold their own copy.
+ * </p>
+ *
+ * <p>
+ * Compared to a HashMap, this avoids a table and an entry object per attribute, which dominates the heap used by queued FlowFiles.
+ * Lookups are performed by a linear scan, which for the small number of attributes that a FlowFile typically has is comparable in cost
+ * to hashing. Maps with more than {@link #MAX_COMPACT_SIZE} entries are not compacted. Compacting copies every attribute and interns every
+ * key, so FlowFiles are compacted only where they are held long enough for their footprint to matter, as when they are swapped back in to a queue.
+ * </p>
+ *
+ * <b>Immutable - Thread Safe</b>
+ */
+public final class CompactAttributeMap extends AbstractMap<String, String> {
+    static final int MAX_COMPACT_SIZE = 64;
+
+    private final String[] keysAndValues;
+
+    private CompactAttributeMap(final String[] keysAndValues) {
+        this.keysAndValues = keysAndValues;
+    }
+
+    /**
+     * Returns an immutable view of the given attributes that is as compact as possible. The given Map is not retained unless it is
+     * already compact or is too large to be compacted, so the caller must not modify it afterward.
+     *
+     * @param attributes the attributes to compact, may be null
+     * @return a compact representation of the attributes
+     */
+    public static Map<String, String> compact(final Map<String, String> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (attributes instanceof CompactAttributeMap) {
+            return attributes;
+        }
+        if (attributes.size() > MAX_COMPACT_SIZE) {
+            return attributes;
+        }
+
+        final String[] keysAndValues = new String[attributes.size() * 2];
+        int index = 0;
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            final String key = entry.getKey();
+            final String value = entry.getValue();
+            if (key == null || value == null) {
+                continue;
+            }
+
+            keysAndValues[index++] = AttributeKeyDictionary.intern(key);
+            keysAndValues[index++] = value;
+        }
+
+        if (index == 0) {
+            return Collections.emptyMap();
+        }
+
+        return new CompactAttributeMap(index == keysAndValues.length ? keysAndValues : Arrays.copyOf(keysAndValues, index));
+    }
+
+    private int indexOf(final Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        // Keys are interned, so an identity match is the common case when callers use constants or keys from another FlowFile.
+        // Otherwise, the cached hash codes of the Strings rule out most keys without comparing their characters.
+        final int hash = key.hashCode();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            final String candidate = keysAndValues[i];
+            if (candidate == key || (candidate.hashCode() == hash && candidate.equals(key))) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return a modifiable copy of the attributes, created without iterating over Map entries
+     */
+    HashMap<String, String> toHashMap() {
+        final HashMap<String, String> copy = HashMap.newHashMap(size());
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            copy.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        return keysAndValues.length / 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keysAndValues.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : keysAndValues[index + 1];
+    }
+
+    @Override
+    public String put(final String key, final String value) {
+        throw new UnsupportedOperationException("FlowFile attributes cannot be modified");
+    }
+
+    @Override
+    public String remove(final Object key) {
+        throw new UnsupportedOperationException("FlowFile attributes cannot be modified");
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ? extends String> map) {
+        throw new UnsupportedOperationException("FlowFile attributes cannot be modified");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("FlowFile attributes cannot be modified");
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            action.accept(keysAndValues[i], keysAndValues[i + 1]);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        // Not cached, so that each FlowFile does not pay for an additional field. Iterating through forEach does not allocate entries.
+        return new EntrySet();
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+        @Override
+        public int size() {
+            return CompactAttributeMap.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < keysAndValues.length;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (index >= keysAndValues.length) {
+                        throw new NoSuchElementException();
+                    }
+
+                    final Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<>(keysAndValues[index], keysAndValues[index + 1]);
+                    index += 2;
+                    return entry;
+                }
+            };
+        }
+    }
+}
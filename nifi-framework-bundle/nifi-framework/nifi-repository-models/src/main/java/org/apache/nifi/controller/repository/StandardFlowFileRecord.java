@@ -68,6 +68,37 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         this.queueDateIndex = builder.bQueueDateIndex;
     }
 
+    private StandardFlowFileRecord(final StandardFlowFileRecord source, final Map<String, String> attributes) {
+        this.id = source.id;
+        this.attributes = attributes;
+        this.entryDate = source.entryDate;
+        this.lineageStartDate = source.lineageStartDate;
+        this.lineageStartIndex = source.lineageStartIndex;
+        this.penaltyExpirationMs = source.penaltyExpirationMs;
+        this.size = source.size;
+        this.claim = source.claim;
+        this.claimOffset = source.claimOffset;
+        this.lastQueueDate = source.lastQueueDate;
+        this.queueDateIndex = source.queueDateIndex;
+    }
+
+    /**
+     * Returns a FlowFile that is equal to the given FlowFile but holds its attributes in a {@link CompactAttributeMap}. Compacting copies
+     * the attributes, so it is worthwhile only where a FlowFile is held for a long time, such as when it is swapped in to a queue, and not
+     * each time that a FlowFile is built.
+     *
+     * @param flowFile the FlowFile
+     * @return a FlowFile with compact attributes, or the given FlowFile if its attributes are already compact or it is not a StandardFlowFileRecord
+     */
+    public static FlowFileRecord compactAttributes(final FlowFileRecord flowFile) {
+        if (!(flowFile instanceof StandardFlowFileRecord standardFlowFile)) {
+            return flowFile;
+        }
+
+        final Map<String, String> compacted = CompactAttributeMap.compact(standardFlowFile.attributes);
+        return compacted == standardFlowFile.attributes ? flowFile : new StandardFlowFileRecord(standardFlowFile, compacted);
+    }
+
     @Override
     public long getId() {
         return id;
@@ -105,7 +136,8 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     @Override
     public Map<String, String> getAttributes() {
-        return Collections.unmodifiableMap(this.attributes);
+        // A CompactAttributeMap is already immutable, so it does not need to be wrapped
+        return attributes instanceof CompactAttributeMap ? attributes : Collections.unmodifiableMap(attributes);
     }
 
     @Override
@@ -218,7 +250,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
                 bAttributes = new HashMap<>();
                 bAttributesCopied = true;
             } else if (!bAttributesCopied) {
-                bAttributes = new HashMap<>(bAttributes);
+                bAttributes = bAttributes instanceof CompactAttributeMap compactAttributes ? compactAttributes.toHashMap() : new HashMap<>(bAttributes);
                 bAttributesCopied = true;
             }
 
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.flowfile.FlowFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCompactAttributeMap {
+
+    @Test
+    public void testCompactMapEqualsOriginal() {
+        final Map<String, String> original = new LinkedHashMap<>();
+        original.put("uuid", "1234");
+        original.put("filename", "file.txt");
+        original.put("path", "./");
+
+        final Map<String, String> compact = CompactAttributeMap.compact(original);
+        assertTrue(compact instanceof CompactAttributeMap);
+        assertEquals(original, compact);
+        assertEquals(compact, original);
+        assertEquals(original.hashCode(), compact.hashCode());
+        assertEquals(3, compact.size());
+        assertEquals("file.txt", compact.get("filename"));
+        assertEquals("file.txt", compact.get(new String("filename")));
+        assertTrue(compact.containsKey("path"));
+        assertFalse(compact.containsKey("other"));
+        assertNull(compact.get("other"));
+        assertNull(compact.get(5));
+
+        final Iterator<Map.Entry<String, String>> iterator = compact.entrySet().iterator();
+        assertEquals("uuid", iterator.next().getKey());
+        assertEquals("filename", iterator.next().getKey());
+        assertEquals("path", iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testCompactMapIsImmutable() {
+        final Map<String, String> compact = CompactAttributeMap.compact(Map.of("abc", "xyz"));
+
+        assertThrows(UnsupportedOperationException.class, () -> compact.put("abc", "123"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.remove("abc"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.putAll(Map.of("a", "b")));
+        assertThrows(UnsupportedOperationException.class, compact::clear);
+        assertThrows(UnsupportedOperationException.class, () -> compact.entrySet().iterator().next().setValue("123"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.keySet().remove("abc"));
+        assertEquals("xyz", compact.get("abc"));
+    }
+
+    @Test
+    public void testKeysAreShared() {
+        final Map<String, String> first = CompactAttributeMap.compact(Map.of(new String("shared.key"), "1"));
+        final Map<String, String> second = CompactAttributeMap.compact(Map.of(new String("shared.key"), "2"));
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @Test
+    public void testEmptyAndLargeMaps() {
+        assertSame(Collections.emptyMap(), CompactAttributeMap.compact(null));
+        assertSame(Collections.emptyMap(), CompactAttributeMap.compact(new HashMap<>()));
+
+        final Map<String, String> large = new HashMap<>();
+        for (int i = 0; i <= CompactAttributeMap.MAX_COMPACT_SIZE; i++) {
+            large.put("key-" + i, "value-" + i);
+        }
+        assertSame(large, CompactAttributeMap.compact(large));
+
+        final Map<String, String> compact = CompactAttributeMap.compact(Map.of("a", "b"));
+        assertSame(compact, CompactAttributeMap.compact(compact));
+    }
+
+    @Test
+    public void testFlowFileRecordAttributes() {
+        final FlowFileRecord built = new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .addAttribute("uuid", "1234")
+            .addAttribute("abc", "xyz")
+            .addAttribute("hello", "world")
+            .build();
+        assertFalse(built.getAttributes() instanceof CompactAttributeMap);
+
+        final FlowFileRecord original = StandardFlowFileRecord.compactAttributes(built);
+        assertEquals(built, original);
+        assertSame(original, StandardFlowFileRecord.compactAttributes(original));
+
+        final Map<String, String> attributes = original.getAttributes();
+        assertTrue(attributes instanceof CompactAttributeMap);
+        assertEquals(Map.of("uuid", "1234", "abc", "xyz", "hello", "world"), attributes);
+        assertThrows(UnsupportedOperationException.class, () -> attributes.put("abc", "123"));
+
+        final FlowFile unchanged = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .size(10L)
+            .build();
+        assertSame(attributes, unchanged.getAttributes());
+
+        final FlowFile updated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .addAttribute("abc", "123")
+            .removeAttributes(Pattern.compile("hel.*"))
+            .build();
+        assertEquals(Map.of("uuid", "1234", "abc", "123"), updated.getAttributes());
+        assertEquals("xyz", original.getAttribute("abc"));
+        assertEquals("world", original.getAttribute("hello"));
+    }
+}
@@ -276,6 +276,46 @@ public class NiFiMetricsRegistry extends AbstractMetricsRegistry {
                 .labelNames("instance", "component_type", "component_name", "component_id", "parent_id", "repo_identifier")
                 .register(registry));
 
+        nameToGaugeMap.put("PROVENANCE_INDEX_QUEUED_DOCUMENTS", Gauge.build().name("nifi_provenance_index_queued_documents")
+                .help("Number of Provenance Event documents waiting to be indexed")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_INDEX_QUEUE_CAPACITY", Gauge.build().name("nifi_provenance_index_queue_capacity")
+                .help("Maximum number of Provenance Event documents that may wait to be indexed")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_INDEX_LAG_MILLIS", Gauge.build().name("nifi_provenance_index_lag_millis")
+                .help("Time in milliseconds that the most recently indexed Provenance Events waited to be indexed")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_INDEX_DOCUMENTS_PER_SECOND", Gauge.build().name("nifi_provenance_index_documents_per_second")
+                .help("Average number of Provenance Event documents indexed per second over the last minute")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_EVENTS_KEPT", Gauge.build().name("nifi_provenance_events_kept")
+                .help("Number of Provenance Events stored as they were registered, since the repository was started")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_EVENTS_DROPPED", Gauge.build().name("nifi_provenance_events_dropped")
+                .help("Number of Provenance Events discarded by sampling, since the repository was started")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_EVENTS_AGGREGATED", Gauge.build().name("nifi_provenance_events_aggregated")
+                .help("Number of Provenance Events rolled up into summary events, since the repository was started")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
+        nameToGaugeMap.put("PROVENANCE_SUMMARY_EVENTS", Gauge.build().name("nifi_provenance_summary_events")
+                .help("Number of Provenance summary events stored in place of aggregated events, since the repository was started")
+                .labelNames("instance", "component_type", "component_name", "component_id", "parent_id")
+                .register(registry));
+
         nameToGaugeMap.put("PROCESSING_PERFORMANCE_CPU_DURATION", Gauge.build()
                 .name("nifi_processing_performance_cpu_duration")
                 .help("Estimated CPU time (in milliseconds) used by this component")
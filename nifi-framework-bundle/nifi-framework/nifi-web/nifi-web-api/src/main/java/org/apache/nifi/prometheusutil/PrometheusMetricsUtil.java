@@ -29,6 +29,8 @@ import org.apache.nifi.controller.status.analytics.StatusAnalytics;
 import org.apache.nifi.diagnostics.StorageUsage;
 import org.apache.nifi.metrics.jvm.JvmMetrics;
 import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.ProvenanceEventPolicyStatus;
+import org.apache.nifi.provenance.ProvenanceIndexingStatus;
 import org.apache.nifi.util.StringUtils;
 import org.apache.nifi.web.api.request.FlowMetricsReportingStrategy;
 
@@ -530,6 +532,40 @@ public class PrometheusMetricsUtil {
         return nifiMetricsRegistry.getRegistry();
     }
 
+    public static CollectorRegistry createProvenanceIndexingMetrics(final NiFiMetricsRegistry nifiMetricsRegistry, final ProvenanceIndexingStatus indexingStatus,
+                                                                    final String instanceId, final String componentType, final String componentName, final String componentId,
+                                                                    final String parentId) {
+        if (indexingStatus != null) {
+            nifiMetricsRegistry.setDataPoint(indexingStatus.getQueuedDocumentCount(), "PROVENANCE_INDEX_QUEUED_DOCUMENTS",
+                    instanceId, componentType, componentName, componentId, parentId);
+            nifiMetricsRegistry.setDataPoint(indexingStatus.getQueueCapacity(), "PROVENANCE_INDEX_QUEUE_CAPACITY",
+                    instanceId, componentType, componentName, componentId, parentId);
+            nifiMetricsRegistry.setDataPoint(indexingStatus.getIndexingLagMillis(), "PROVENANCE_INDEX_LAG_MILLIS",
+                    instanceId, componentType, componentName, componentId, parentId);
+            nifiMetricsRegistry.setDataPoint(indexingStatus.getDocumentsIndexedPerSecond(), "PROVENANCE_INDEX_DOCUMENTS_PER_SECOND",
+                    instanceId, componentType, componentName, componentId, parentId);
+        }
+
+        return nifiMetricsRegistry.getRegistry();
+    }
+
+    public static CollectorRegistry createProvenanceEventPolicyMetrics(final NiFiMetricsRegistry nifiMetricsRegistry, final ProvenanceEventPolicyStatus eventPolicyStatus,
+                                                                       final String instanceId, final String componentType, final String componentName, final String componentId,
+                                                                       final String parentId) {
+        if (eventPolicyStatus != null) {
+            nifiMetricsRegistry.setDataPoint(eventPolicyStatus.getKeptEventCount(), "PROVENANCE_EVENTS_KEPT",
+                    instanceId, componentType, componentName, componentId, parentId);
+            nifiMetricsRegistry.setDataPoint(eventPolicyStatus.getDroppedEventCount(), "PROVENANCE_EVENTS_DROPPED",
+                    instanceId, componentType, componentName, componentId, parentId);
+            nifiMetricsRegistry.setDataPoint(eventPolicyStatus.getAggregatedEventCount(), "PROVENANCE_EVENTS_AGGREGATED",
+                    instanceId, componentType, componentName, componentId, parentId);
+            nifiMetricsRegistry.setDataPoint(eventPolicyStatus.getSummaryEventCount(), "PROVENANCE_SUMMARY_EVENTS",
+                    instanceId, componentType, componentName, componentId, parentId);
+        }
+
+        return nifiMetricsRegistry.getRegistry();
+    }
+
     private static void addStorageUsageMetric(final NiFiMetricsRegistry nifiMetricsRegistry, final StorageUsage storageUsage, final String instanceId,
                                                                        final String componentType, final String componentName, final String componentId, final String parentId,
                                                                        final String totalSpaceLabel, final String freeSpaceLabel, final String usedSpaceLabel) {
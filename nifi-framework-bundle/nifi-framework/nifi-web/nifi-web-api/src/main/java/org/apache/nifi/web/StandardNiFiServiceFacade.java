@@ -6674,6 +6674,10 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
 
         PrometheusMetricsUtil.createStorageUsageMetrics(nifiMetricsRegistry, flowFileRepositoryUsage, contentRepositoryUsage, provenanceRepositoryUsage,
                 instanceId, ROOT_PROCESS_GROUP, rootPGName, rootPGId, "");
+        PrometheusMetricsUtil.createProvenanceIndexingMetrics(nifiMetricsRegistry, controllerFacade.getProvenanceIndexingStatus(),
+                instanceId, ROOT_PROCESS_GROUP, rootPGName, rootPGId, "");
+        PrometheusMetricsUtil.createProvenanceEventPolicyMetrics(nifiMetricsRegistry, controllerFacade.getProvenanceEventPolicyStatus(),
+                instanceId, ROOT_PROCESS_GROUP, rootPGName, rootPGId, "");
 
         //Add total task duration for root to the NiFi metrics registry
         // The latest aggregated status history is the last element in the list so we need the last element only
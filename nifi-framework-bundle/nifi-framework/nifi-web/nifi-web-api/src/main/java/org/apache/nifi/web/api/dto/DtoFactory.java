@@ -4046,6 +4046,8 @@ public final class DtoFactory {
 
         dto.setAllActiveQueueFlowFilesPenalized(queueDiagnostics.isAllActiveFlowFilesPenalized());
         dto.setAnyActiveQueueFlowFilesPenalized(queueDiagnostics.isAnyActiveFlowFilePenalized());
+        dto.setSwapPrefetchHitCount(queueDiagnostics.getSwapPrefetchHitCount());
+        dto.setSwapPrefetchMissCount(queueDiagnostics.getSwapPrefetchMissCount());
 
         return dto;
     }
@@ -91,7 +91,9 @@ import org.apache.nifi.nar.ExtensionManager;
 import org.apache.nifi.parameter.ParameterProvider;
 import org.apache.nifi.processor.Processor;
 import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.ProvenanceEventPolicyStatus;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceIndexingStatus;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
@@ -1939,6 +1941,24 @@ public class ControllerFacade implements Authorizable {
         return flowController.getEventAccess().getProvenanceRepositoryStorageUsage();
     }
 
+    /**
+     * Returns the status of the indexing of provenance events
+     *
+     * @return the indexing status, or null if the provenance repository does not index events asynchronously
+     */
+    public ProvenanceIndexingStatus getProvenanceIndexingStatus() {
+        return flowController.getProvenanceRepository().getIndexingStatus();
+    }
+
+    /**
+     * Returns how the provenance repository's event policy has treated the provenance events registered with it
+     *
+     * @return the event policy status, or null if the provenance repository does not apply an event policy
+     */
+    public ProvenanceEventPolicyStatus getProvenanceEventPolicyStatus() {
+        return flowController.getProvenanceRepository().getEventPolicyStatus();
+    }
+
     /**
      * Returns the storage usage of all content repositories
      *
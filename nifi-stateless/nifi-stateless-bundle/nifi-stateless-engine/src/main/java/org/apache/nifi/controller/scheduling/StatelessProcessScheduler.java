@@ -370,4 +370,13 @@ public class StatelessProcessScheduler implements ProcessScheduler {
     @Override
     public void notifyPrimaryNodeStateChange(final ReportingTaskNode taskNode, final PrimaryNodeState primaryNodeState) {
     }
+
+    @Override
+    public void notifyWorkAvailable(final Connectable connectable) {
+    }
+
+    @Override
+    public boolean isWorkSignalSchedulingEnabled() {
+        return false;
+    }
 }